@@ -0,0 +1,123 @@
+/*******************************************************************************
+ * Copyright (C) 2013  Stefan Schroeder
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either 
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public 
+ * License along with this library.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jsprit.benchmark;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import jsprit.core.algorithm.VehicleRoutingAlgorithm;
+import jsprit.core.algorithm.box.SchrimpfFactory;
+import jsprit.core.problem.VehicleRoutingProblem;
+import jsprit.core.problem.job.Job;
+import jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import jsprit.core.problem.solution.route.VehicleRoute;
+import jsprit.core.util.RandomNumberGeneration;
+import jsprit.core.util.Solutions;
+import jsprit.instance.reader.ChristofidesReader;
+import jsprit.instance.reader.LiLimReader;
+import jsprit.instance.reader.SolomonReader;
+
+/**
+ * Reads benchmark instances from jsprit-instances and creates the problems and solutions the benchmarks run on.
+ * 
+ * <p>Instances are looked up in the folder given by the system property <code>jsprit.instances</code>. By default, this is 
+ * <code>../jsprit-instances/instances</code>, i.e. benchmarks are expected to be started from the jsprit-benchmarks folder.
+ * 
+ * <p>Instance names are prefixed with their family, i.e. <code>solomon/C101</code>, <code>lilim/lc101</code> or <code>christofides/vrpnc1</code>.
+ * 
+ * @author schroeder
+ *
+ */
+public class BenchmarkFixtures {
+	
+	public static final String INSTANCES_FOLDER_PROPERTY = "jsprit.instances";
+	
+	private static final String DEFAULT_INSTANCES_FOLDER = "../jsprit-instances/instances";
+	
+	/**
+	 * Reads and returns the vehicle routing problem of the specified instance.
+	 * 
+	 * @param instance name of instance such as solomon/C101
+	 * @return vehicle routing problem
+	 * @throws IllegalStateException if instance family is unknown or instance file does not exist
+	 */
+	public static VehicleRoutingProblem readProblem(String instance){
+		File file = getInstanceFile(instance);
+		VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.newInstance();
+		if(instance.startsWith("solomon/")){
+			new SolomonReader(vrpBuilder).read(file.getPath());
+		}
+		else if(instance.startsWith("lilim/")){
+			new LiLimReader(vrpBuilder).read(file.getPath());
+		}
+		else if(instance.startsWith("christofides/")){
+			new ChristofidesReader(vrpBuilder).read(file.getPath());
+		}
+		else throw new IllegalStateException("instance family of " + instance + " is not supported. use solomon/, lilim/ or christofides/");
+		return vrpBuilder.build();
+	}
+	
+	private static File getInstanceFile(String instance) {
+		String folder = System.getProperty(INSTANCES_FOLDER_PROPERTY, DEFAULT_INSTANCES_FOLDER);
+		File file = new File(folder, instance + ".txt");
+		if(!file.exists()) file = new File(folder, instance);
+		if(!file.exists()) throw new IllegalStateException("cannot find instance " + instance + " in " + new File(folder).getAbsolutePath() 
+				+ ". set system property " + INSTANCES_FOLDER_PROPERTY + " to the instances folder of jsprit-instances.");
+		return file;
+	}
+
+	/**
+	 * Solves vrp with the default algorithm ({@link SchrimpfFactory}) and the specified number of iterations, and returns the best solution.
+	 * 
+	 * <p>The random number generator is reset before, thus the same solution is returned in every fork of a benchmark.
+	 * 
+	 * @param vrp
+	 * @param nuOfIterations
+	 * @return best solution found
+	 */
+	public static VehicleRoutingProblemSolution createSolution(VehicleRoutingProblem vrp, int nuOfIterations){
+		RandomNumberGeneration.reset();
+		VehicleRoutingAlgorithm vra = new SchrimpfFactory().createAlgorithm(vrp);
+		vra.setNuOfIterations(nuOfIterations);
+		return Solutions.bestOf(vra.searchSolutions());
+	}
+	
+	/**
+	 * Removes every nth job from the routes of solution and returns the removed jobs, i.e. the jobs that can be inserted again.
+	 * 
+	 * @param solution
+	 * @param n
+	 * @return removed jobs
+	 */
+	public static List<Job> removeEveryNthJob(VehicleRoutingProblemSolution solution, int n){
+		List<Job> removed = new ArrayList<Job>();
+		int count = 0;
+		for(VehicleRoute route : solution.getRoutes()){
+			Collection<Job> jobs = new ArrayList<Job>(route.getTourActivities().getJobs());
+			for(Job job : jobs){
+				if(count++ % n == 0){
+					route.getTourActivities().removeJob(job);
+					removed.add(job);
+				}
+			}
+		}
+		return removed;
+	}
+
+}
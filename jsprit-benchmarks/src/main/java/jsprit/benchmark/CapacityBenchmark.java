@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * Copyright (C) 2013  Stefan Schroeder
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either 
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public 
+ * License along with this library.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jsprit.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import jsprit.core.problem.Capacity;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares summing up loads with immutable {@link Capacity} objects and with {@link Capacity.Accumulator}, and 
+ * checks of sums against a capacity limit, as they are done in load states and load constraints.
+ * 
+ * @author schroeder
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class CapacityBenchmark {
+	
+	private static final int NU_OF_LOADS = 64;
+	
+	@Param({"1", "3"})
+	public int nuOfDimensions;
+	
+	private Capacity[] loads;
+	
+	private Capacity limit;
+	
+	private Capacity.Accumulator accumulator;
+	
+	@Setup
+	public void setup(){
+		Random random = new Random(4711);
+		loads = new Capacity[NU_OF_LOADS];
+		for(int i=0;i<NU_OF_LOADS;i++){
+			Capacity.Builder builder = Capacity.Builder.newInstance();
+			for(int dim=0;dim<nuOfDimensions;dim++){
+				builder.addDimension(dim, random.nextInt(20));
+			}
+			loads[i] = builder.build();
+		}
+		Capacity.Builder limitBuilder = Capacity.Builder.newInstance();
+		for(int dim=0;dim<nuOfDimensions;dim++){
+			limitBuilder.addDimension(dim, 30);
+		}
+		limit = limitBuilder.build();
+		accumulator = Capacity.Accumulator.newInstance();
+	}
+	
+	@Benchmark
+	public Capacity addup(){
+		Capacity sum = Capacity.Builder.newInstance().build();
+		for(Capacity load : loads){
+			sum = Capacity.addup(sum, load);
+		}
+		return sum;
+	}
+	
+	@Benchmark
+	public int addupWithAccumulator(){
+		accumulator.reset();
+		for(Capacity load : loads){
+			accumulator.add(load);
+		}
+		return accumulator.get(0);
+	}
+	
+	@Benchmark
+	public int checkSumsWithAddup(){
+		int feasible = 0;
+		for(int i=1;i<NU_OF_LOADS;i++){
+			if(Capacity.addup(loads[i-1], loads[i]).isLessOrEqual(limit)) feasible++;
+		}
+		return feasible;
+	}
+	
+	@Benchmark
+	public int checkSumsWithoutAllocation(){
+		int feasible = 0;
+		for(int i=1;i<NU_OF_LOADS;i++){
+			if(Capacity.isSumLessOrEqual(loads[i-1], loads[i], limit)) feasible++;
+		}
+		return feasible;
+	}
+
+}
@@ -0,0 +1,69 @@
+/*******************************************************************************
+ * Copyright (C) 2013  Stefan Schroeder
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either 
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public 
+ * License along with this library.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jsprit.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares deep copies of solutions with lazy copies that share their routes until they are modified.
+ * 
+ * @author schroeder
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class SolutionCopyBenchmark {
+	
+	@Param({"solomon/R101", "lilim/lc101", "christofides/vrpnc5"})
+	public String instance;
+	
+	private VehicleRoutingProblemSolution solution;
+	
+	@Setup
+	public void setup(){
+		solution = BenchmarkFixtures.createSolution(BenchmarkFixtures.readProblem(instance), 20);
+	}
+	
+	@Benchmark
+	public VehicleRoutingProblemSolution copyOf(){
+		return VehicleRoutingProblemSolution.copyOf(solution);
+	}
+	
+	@Benchmark
+	public VehicleRoutingProblemSolution lazyCopyOf(){
+		return VehicleRoutingProblemSolution.lazyCopyOf(solution);
+	}
+
+}
@@ -0,0 +1,173 @@
+/*******************************************************************************
+ * Copyright (C) 2013  Stefan Schroeder
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either 
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public 
+ * License along with this library.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jsprit.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import jsprit.core.problem.LocationIndex;
+import jsprit.core.problem.VehicleRoutingProblem;
+import jsprit.core.problem.cost.IndexedTransportCosts;
+import jsprit.core.problem.job.Job;
+import jsprit.core.problem.job.Service;
+import jsprit.core.problem.vehicle.Vehicle;
+import jsprit.core.util.Coordinate;
+import jsprit.core.util.EuclideanDistanceCalculator;
+import jsprit.core.util.FastVehicleRoutingTransportCostsMatrix;
+import jsprit.core.util.VehicleRoutingTransportCostsMatrix;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares lookups in {@link VehicleRoutingTransportCostsMatrix} with lookups in {@link FastVehicleRoutingTransportCostsMatrix}, 
+ * both by location id and by the indices of {@link LocationIndex}.
+ * 
+ * <p>Matrices are built from euclidean distances between the locations of an instance. Since {@link VehicleRoutingTransportCostsMatrix} 
+ * requires numeric location ids, its locations are identified by their position in the list of locations. Each invocation looks up 
+ * the same 1024 randomly chosen relations.
+ * 
+ * @author schroeder
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class TransportCostsMatrixBenchmark {
+	
+	private static final int NU_OF_LOOKUPS = 1024;
+	
+	@Param({"christofides/vrpnc1", "christofides/vrpnc5", "solomon/R101"})
+	public String instance;
+	
+	private VehicleRoutingTransportCostsMatrix matrix;
+	
+	private FastVehicleRoutingTransportCostsMatrix fastMatrix;
+	
+	private IndexedTransportCosts indexedCosts;
+	
+	private String[] fromIds;
+	
+	private String[] toIds;
+	
+	private String[] fromNumericIds;
+	
+	private String[] toNumericIds;
+	
+	private int[] fromIndices;
+	
+	private int[] toIndices;
+	
+	@Setup
+	public void setup(){
+		VehicleRoutingProblem vrp = BenchmarkFixtures.readProblem(instance);
+		List<String> ids = new ArrayList<String>();
+		List<Coordinate> coords = new ArrayList<Coordinate>();
+		for(Job job : vrp.getJobs().values()){
+			Service service = (Service) job;
+			if(!ids.contains(service.getLocationId())){
+				ids.add(service.getLocationId());
+				coords.add(service.getCoord());
+			}
+		}
+		for(Vehicle vehicle : vrp.getVehicles()){
+			if(!ids.contains(vehicle.getStartLocationId())){
+				ids.add(vehicle.getStartLocationId());
+				coords.add(vehicle.getStartLocationCoordinate());
+			}
+			if(!ids.contains(vehicle.getEndLocationId())){
+				ids.add(vehicle.getEndLocationId());
+				coords.add(vehicle.getEndLocationCoordinate());
+			}
+		}
+		VehicleRoutingTransportCostsMatrix.Builder matrixBuilder = VehicleRoutingTransportCostsMatrix.Builder.newInstance(false);
+		FastVehicleRoutingTransportCostsMatrix.Builder fastMatrixBuilder = FastVehicleRoutingTransportCostsMatrix.Builder.newInstance(false);
+		for(int i=0;i<ids.size();i++){
+			for(int j=0;j<ids.size();j++){
+				if(i == j) continue;
+				double distance = EuclideanDistanceCalculator.calculateDistance(coords.get(i), coords.get(j));
+				matrixBuilder.addTransportDistance(String.valueOf(i), String.valueOf(j), distance);
+				fastMatrixBuilder.addTransportDistance(ids.get(i), ids.get(j), distance);
+			}
+		}
+		matrix = matrixBuilder.build();
+		fastMatrix = fastMatrixBuilder.build();
+		
+		LocationIndex locationIndex = LocationIndex.newInstance(vrp.getJobs().values(), vrp.getVehicles());
+		indexedCosts = fastMatrix.createIndexedTransportCosts(locationIndex);
+		
+		Random random = new Random(4711);
+		fromIds = new String[NU_OF_LOOKUPS];
+		toIds = new String[NU_OF_LOOKUPS];
+		fromNumericIds = new String[NU_OF_LOOKUPS];
+		toNumericIds = new String[NU_OF_LOOKUPS];
+		fromIndices = new int[NU_OF_LOOKUPS];
+		toIndices = new int[NU_OF_LOOKUPS];
+		for(int i=0;i<NU_OF_LOOKUPS;i++){
+			int from = random.nextInt(ids.size());
+			int to = random.nextInt(ids.size());
+			fromIds[i] = ids.get(from);
+			toIds[i] = ids.get(to);
+			fromNumericIds[i] = String.valueOf(from);
+			toNumericIds[i] = String.valueOf(to);
+			fromIndices[i] = locationIndex.getIndex(fromIds[i]);
+			toIndices[i] = locationIndex.getIndex(toIds[i]);
+		}
+	}
+	
+	@Benchmark
+	public double matrixById(){
+		double sum = 0.0;
+		for(int i=0;i<NU_OF_LOOKUPS;i++){
+			sum += matrix.getTransportCost(fromNumericIds[i], toNumericIds[i], 0.0, null, null);
+		}
+		return sum;
+	}
+	
+	@Benchmark
+	public double fastMatrixById(){
+		double sum = 0.0;
+		for(int i=0;i<NU_OF_LOOKUPS;i++){
+			sum += fastMatrix.getTransportCost(fromIds[i], toIds[i], 0.0, null, null);
+		}
+		return sum;
+	}
+	
+	@Benchmark
+	public double fastMatrixByLocationIndex(){
+		double sum = 0.0;
+		for(int i=0;i<NU_OF_LOOKUPS;i++){
+			sum += indexedCosts.getTransportCost(fromIndices[i], toIndices[i], 0.0, null, null);
+		}
+		return sum;
+	}
+
+}
@@ -0,0 +1,74 @@
+/*******************************************************************************
+ * Copyright (C) 2013  Stefan Schroeder
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either 
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public 
+ * License along with this library.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jsprit.core.algorithm.recreate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import jsprit.benchmark.BenchmarkFixtures;
+import jsprit.core.algorithm.state.StateManager;
+import jsprit.core.problem.VehicleRoutingProblem;
+import jsprit.core.problem.constraint.ConstraintManager;
+import jsprit.core.problem.job.Job;
+import jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import jsprit.core.problem.solution.route.VehicleRoute;
+
+/**
+ * Partially destroyed solution with up-to-date states and the constraints and cost calculators the insertion calculators 
+ * need, i.e. the situation of the insertion phase of a ruin-and-recreate iteration.
+ * 
+ * @author schroeder
+ *
+ */
+class InsertionFixture {
+	
+	final VehicleRoutingProblem vrp;
+	
+	final List<VehicleRoute> routes;
+	
+	final List<Job> unassignedJobs;
+	
+	final StateManager stateManager;
+	
+	final ConstraintManager constraintManager;
+	
+	final LocalActivityInsertionCostsCalculator activityInsertionCostsCalculator;
+	
+	/**
+	 * Solves the instance with a few iterations and removes every 10th job from the solution.
+	 * 
+	 * @param instance
+	 */
+	InsertionFixture(String instance) {
+		vrp = BenchmarkFixtures.readProblem(instance);
+		VehicleRoutingProblemSolution solution = BenchmarkFixtures.createSolution(vrp, 20);
+		unassignedJobs = BenchmarkFixtures.removeEveryNthJob(solution, 10);
+		routes = new ArrayList<VehicleRoute>(solution.getRoutes());
+		
+		stateManager = new StateManager(vrp.getTransportCosts());
+		stateManager.updateLoadStates();
+		stateManager.updateTimeWindowStates();
+		constraintManager = new ConstraintManager(vrp, stateManager);
+		constraintManager.addLoadConstraint();
+		constraintManager.addTimeWindowConstraint();
+		stateManager.informInsertionStarts(routes, unassignedJobs);
+		
+		activityInsertionCostsCalculator = new LocalActivityInsertionCostsCalculator(vrp.getTransportCosts(), vrp.getActivityCosts());
+		activityInsertionCostsCalculator.setActivityTransportCosts(vrp.getActivityTransportCosts());
+	}
+
+}
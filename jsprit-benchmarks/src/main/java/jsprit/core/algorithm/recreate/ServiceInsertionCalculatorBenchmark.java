@@ -0,0 +1,75 @@
+/*******************************************************************************
+ * Copyright (C) 2013  Stefan Schroeder
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either 
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public 
+ * License along with this library.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jsprit.core.algorithm.recreate;
+
+import java.util.concurrent.TimeUnit;
+
+import jsprit.core.problem.job.Job;
+import jsprit.core.problem.solution.route.VehicleRoute;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures {@link ServiceInsertionCalculator#getInsertionData(VehicleRoute, Job, jsprit.core.problem.vehicle.Vehicle, double, jsprit.core.problem.driver.Driver, double)}, 
+ * i.e. the time it takes to evaluate every unassigned job in every route once (as best insertion does in each step).
+ * 
+ * @author schroeder
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ServiceInsertionCalculatorBenchmark {
+	
+	@Param({"solomon/C101", "solomon/R101", "solomon/RC101", "christofides/vrpnc1", "christofides/vrpnc5"})
+	public String instance;
+	
+	private InsertionFixture fixture;
+	
+	private ServiceInsertionCalculator calculator;
+	
+	@Setup
+	public void setup(){
+		fixture = new InsertionFixture(instance);
+		calculator = new ServiceInsertionCalculator(fixture.vrp.getTransportCosts(), fixture.activityInsertionCostsCalculator, fixture.constraintManager);
+		calculator.setActivityTransportCosts(fixture.vrp.getActivityTransportCosts());
+	}
+	
+	@Benchmark
+	public void insertionDataOfUnassignedJobs(Blackhole blackhole){
+		for(Job job : fixture.unassignedJobs){
+			for(VehicleRoute route : fixture.routes){
+				blackhole.consume(calculator.getInsertionData(route, job, route.getVehicle(), route.getDepartureTime(), route.getDriver(), Double.MAX_VALUE));
+			}
+		}
+	}
+
+}
@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Copyright (C) 2013  Stefan Schroeder
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either 
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public 
+ * License along with this library.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jsprit.core.algorithm.ruin;
+
+import java.util.Collection;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import jsprit.benchmark.BenchmarkFixtures;
+import jsprit.core.algorithm.ruin.distance.AvgServiceAndShipmentDistance;
+import jsprit.core.problem.VehicleRoutingProblem;
+import jsprit.core.problem.job.Job;
+import jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link RuinRadial#ruin(Collection)} with 30 percent of the jobs to be removed.
+ * 
+ * <p>Since ruining modifies the routes, each invocation ruins a lazy copy of the solution (as the search strategies do), 
+ * i.e. the time measured includes copying the routes that are touched. 
+ * 
+ * @author schroeder
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class RuinRadialBenchmark {
+	
+	@Param({"solomon/R101", "lilim/lc101", "christofides/vrpnc5"})
+	public String instance;
+	
+	private VehicleRoutingProblemSolution solution;
+	
+	private RuinRadial ruin;
+	
+	@Setup
+	public void setup(){
+		VehicleRoutingProblem vrp = BenchmarkFixtures.readProblem(instance);
+		solution = BenchmarkFixtures.createSolution(vrp, 20);
+		ruin = new RuinRadial(vrp, 0.3, new AvgServiceAndShipmentDistance(vrp.getTransportCosts()));
+		ruin.setRandom(new Random(4711));
+	}
+	
+	@Benchmark
+	public Collection<Job> ruinLazyCopyOfSolution(){
+		VehicleRoutingProblemSolution copy = VehicleRoutingProblemSolution.lazyCopyOf(solution);
+		return ruin.ruin(copy.getRoutes());
+	}
+
+}
@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Copyright (C) 2013  Stefan Schroeder
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either 
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public 
+ * License along with this library.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jsprit.core.algorithm.state;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import jsprit.benchmark.BenchmarkFixtures;
+import jsprit.core.problem.VehicleRoutingProblem;
+import jsprit.core.problem.job.Job;
+import jsprit.core.problem.solution.route.VehicleRoute;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how long it takes to update load and time-window states of all routes of a solution from scratch, 
+ * as it is done at the beginning of each insertion.
+ * 
+ * @author schroeder
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class StateManagerBenchmark {
+	
+	@Param({"solomon/C101", "solomon/R101", "lilim/lc101", "christofides/vrpnc5"})
+	public String instance;
+	
+	private Collection<VehicleRoute> routes;
+	
+	private StateManager stateManager;
+	
+	@Setup
+	public void setup(){
+		VehicleRoutingProblem vrp = BenchmarkFixtures.readProblem(instance);
+		routes = new ArrayList<VehicleRoute>(BenchmarkFixtures.createSolution(vrp, 20).getRoutes());
+		stateManager = new StateManager(vrp.getTransportCosts());
+		stateManager.updateLoadStates();
+		stateManager.updateTimeWindowStates();
+	}
+	
+	@Benchmark
+	public StateManager updateStatesOfAllRoutes(){
+		stateManager.clear();
+		stateManager.informInsertionStarts(routes, Collections.<Job>emptyList());
+		return stateManager;
+	}
+
+}
@@ -19,7 +19,9 @@
 package jsprit.core.algorithm;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import jsprit.core.algorithm.recreate.InsertionStrategy;
 import jsprit.core.problem.VehicleRoutingProblem;
@@ -28,6 +30,7 @@ import jsprit.core.problem.solution.InitialSolutionFactory;
 import jsprit.core.problem.solution.SolutionCostCalculator;
 import jsprit.core.problem.solution.VehicleRoutingProblemSolution;
 import jsprit.core.problem.solution.route.VehicleRoute;
+import jsprit.core.problem.vehicle.VehicleFleetManager;
 
 import org.apache.log4j.Logger;
 
@@ -42,6 +45,8 @@ public final class InsertionInitialSolutionFactory implements InitialSolutionFac
 
 	private SolutionCostCalculator solutionCostsCalculator;
 
+	private VehicleFleetManager vehicleFleetManager;
+
 	public InsertionInitialSolutionFactory(InsertionStrategy insertionStrategy, SolutionCostCalculator solutionCostCalculator) {
 		super();
 		this.insertion = insertionStrategy;
@@ -60,6 +65,56 @@ public final class InsertionInitialSolutionFactory implements InitialSolutionFac
 		return solution;
 	}
 
+	/**
+	 * Sets the fleet-manager the insertion strategy uses. Then the vehicles of routes of a solution to be completed are locked before 
+	 * jobs are inserted (see {@link #completeSolution(VehicleRoutingProblem, VehicleRoutingProblemSolution)}).
+	 * 
+	 * @param vehicleFleetManager
+	 */
+	public void setVehicleFleetManager(VehicleFleetManager vehicleFleetManager) {
+		this.vehicleFleetManager = vehicleFleetManager;
+	}
+
+	/**
+	 * Returns a solution to vrp that is based on a previous solution, e.g. a solution to a problem whose jobs have changed in the meantime 
+	 * (see {@link jsprit.core.problem.JobDelta}).
+	 * 
+	 * <p>Routes are copied, and jobs that are not part of vrp anymore (i.e. vrp does not contain the same job object) are removed from them. 
+	 * Routes that end up empty are dropped. Then only the jobs that are not served yet are inserted, the routes are otherwise kept as they are.
+	 * 
+	 * @param vrp
+	 * @param previousSolution
+	 * @return completed solution
+	 */
+	public VehicleRoutingProblemSolution completeSolution(final VehicleRoutingProblem vrp, VehicleRoutingProblemSolution previousSolution) {
+		logger.info("complete solution.");
+		List<VehicleRoute> vehicleRoutes = new ArrayList<VehicleRoute>();
+		Set<Job> servedJobs = new HashSet<Job>();
+		for(VehicleRoute previousRoute : previousSolution.getRoutes()){
+			VehicleRoute route = VehicleRoute.copyOf(previousRoute);
+			for(Job job : new ArrayList<Job>(route.getTourActivities().getJobs())){
+				if(vrp.getJobs().get(job.getId()) == job) servedJobs.add(job);
+				else route.getTourActivities().removeJob(job);
+			}
+			if(!route.isEmpty()) vehicleRoutes.add(route);
+		}
+		if(vehicleFleetManager != null){
+			vehicleFleetManager.unlockAll();
+			for(VehicleRoute route : vehicleRoutes){
+				vehicleFleetManager.lock(route.getVehicle());
+			}
+		}
+		List<Job> unassignedJobs = new ArrayList<Job>();
+		for(Job job : vrp.getJobs().values()){
+			if(!servedJobs.contains(job)) unassignedJobs.add(job);
+		}
+		insertion.insertJobs(vehicleRoutes, unassignedJobs);
+		VehicleRoutingProblemSolution solution = new VehicleRoutingProblemSolution(vehicleRoutes, Double.MAX_VALUE);
+		solution.setCost(solutionCostsCalculator.getCosts(solution));
+		logger.info("completion done. " + unassignedJobs.size() + " jobs inserted");
+		return solution;
+	}
+
 	private List<Job> getUnassignedJobs(VehicleRoutingProblem vrp) {
 		List<Job> jobs = new ArrayList<Job>(vrp.getJobs().values());
 		return jobs;
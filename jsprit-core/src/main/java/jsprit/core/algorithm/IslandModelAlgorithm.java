@@ -0,0 +1,365 @@
+/*******************************************************************************
+ * Copyright (C) 2013  Stefan Schroeder
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jsprit.core.algorithm;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import jsprit.core.algorithm.listener.IterationEndsListener;
+import jsprit.core.problem.VehicleRoutingProblem;
+import jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import jsprit.core.util.RandomNumberGeneration;
+import jsprit.core.util.RandomStream;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Parallel search that runs a number of independent {@link VehicleRoutingAlgorithm}s (islands) and
+ * periodically exchanges their best solutions.
+ *
+ * <p>Each island is created with the {@link VehicleRoutingAlgorithmFactory} thus it has its own solution memory,
+ * state-manager and fleet-manager. Additionally, each island gets its own {@link Random} to select search-strategies. Islands
+ * do not share any mutable state. They only communicate via a lock-free mailbox: every migrationInterval iterations an island
+ * posts a copy of its best solution and imports the best solution of its neighbor (ring topology). An imported solution replaces
+ * the worst solution in the island's memory if it is better.
+ *
+ * <p>Each island has its own random stream that is seeded by the random object of the builder. The island is created and run with this 
+ * stream as stream of the calling thread, i.e. search-strategy-modules (such as ruin and insertion) that take their random objects from 
+ * {@link RandomNumberGeneration#newRandom()} draw from the island's stream only (unless the factory assigns them other random objects). 
+ * Thus islands do not contend for a common generator, and they are reproducible for a given seed.
+ *
+ * @author schroeder
+ *
+ */
+public class IslandModelAlgorithm {
+
+	/**
+	 * Builder that builds the {@link IslandModelAlgorithm}.
+	 *
+	 * @author schroeder
+	 *
+	 */
+	public static class Builder {
+
+		/**
+		 * Returns a new instance of the builder.
+		 *
+		 * @param vrp
+		 * @param algorithmFactory that creates one algorithm per island
+		 * @return builder
+		 */
+		public static Builder newInstance(VehicleRoutingProblem vrp, VehicleRoutingAlgorithmFactory algorithmFactory){
+			return new Builder(vrp, algorithmFactory);
+		}
+
+		private VehicleRoutingProblem vrp;
+
+		private VehicleRoutingAlgorithmFactory algorithmFactory;
+
+		private int nuOfIslands = Runtime.getRuntime().availableProcessors();
+
+		private int migrationInterval = 100;
+
+		private ExecutorService executorService;
+
+		private Random random = RandomNumberGeneration.newRandom();
+
+		private Builder(VehicleRoutingProblem vrp, VehicleRoutingAlgorithmFactory algorithmFactory){
+			this.vrp = vrp;
+			this.algorithmFactory = algorithmFactory;
+		}
+
+		/**
+		 * Sets the number of islands, i.e. the number of algorithms running in parallel. Default is the number of available processors.
+		 *
+		 * @param nuOfIslands
+		 * @return builder
+		 */
+		public Builder setNuOfIslands(int nuOfIslands){
+			if(nuOfIslands < 1) throw new IllegalStateException("nuOfIslands must be at least 1, but is " + nuOfIslands);
+			this.nuOfIslands = nuOfIslands;
+			return this;
+		}
+
+		/**
+		 * Sets the number of iterations between two migrations. Default is 100.
+		 *
+		 * @param migrationInterval
+		 * @return builder
+		 */
+		public Builder setMigrationInterval(int migrationInterval){
+			if(migrationInterval < 1) throw new IllegalStateException("migrationInterval must be at least 1, but is " + migrationInterval);
+			this.migrationInterval = migrationInterval;
+			return this;
+		}
+
+		/**
+		 * Sets the executor-service the islands run on. It needs to provide at least nuOfIslands threads, otherwise islands
+		 * run one after another (and do not benefit from each other).
+		 *
+		 * <p>If no executor-service is set, a fixed thread pool is created (and shut down) for each run.
+		 *
+		 * @param executorService
+		 * @return builder
+		 */
+		public Builder setExecutorService(ExecutorService executorService){
+			this.executorService = executorService;
+			return this;
+		}
+
+		/**
+		 * Sets the random object to seed the islands' random objects. Default is {@link RandomNumberGeneration#newRandom()}.
+		 *
+		 * @param random
+		 * @return builder
+		 */
+		public Builder setRandom(Random random){
+			this.random = random;
+			return this;
+		}
+
+		public IslandModelAlgorithm build(){
+			return new IslandModelAlgorithm(this);
+		}
+
+	}
+
+	/**
+	 * Listener that posts the island's best solution to the mailbox and imports the best solution of the neighboring island.
+	 *
+	 * @author schroeder
+	 *
+	 */
+	static class Migration implements IterationEndsListener {
+
+		private final int island;
+
+		private final int migrationInterval;
+
+		private final AtomicReferenceArray<VehicleRoutingProblemSolution> mailbox;
+
+		private final AtomicReference<VehicleRoutingProblemSolution> globalBest;
+
+		private VehicleRoutingProblemSolution lastImported;
+
+		private int nuOfImports = 0;
+
+		Migration(int island, int migrationInterval, AtomicReferenceArray<VehicleRoutingProblemSolution> mailbox, AtomicReference<VehicleRoutingProblemSolution> globalBest) {
+			super();
+			this.island = island;
+			this.migrationInterval = migrationInterval;
+			this.mailbox = mailbox;
+			this.globalBest = globalBest;
+		}
+
+		@Override
+		public void informIterationEnds(int i, VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
+			if(i % migrationInterval != 0) return;
+			VehicleRoutingProblemSolution best = getBest(solutions);
+			if(best != null && best != lastImported) post(best);
+			immigrate(solutions);
+		}
+
+		/*
+		 * posted solutions are copies that are never modified again. thus they can safely be read by other islands.
+		 */
+		private void post(VehicleRoutingProblemSolution best) {
+			VehicleRoutingProblemSolution posted = mailbox.get(island);
+			if(posted != null && posted.getCost() <= best.getCost()) return;
+			VehicleRoutingProblemSolution emigrant = VehicleRoutingProblemSolution.copyOf(best);
+			mailbox.set(island, emigrant);
+			while(true){
+				VehicleRoutingProblemSolution currentBest = globalBest.get();
+				if(currentBest != null && currentBest.getCost() <= emigrant.getCost()) break;
+				if(globalBest.compareAndSet(currentBest, emigrant)) break;
+			}
+		}
+
+		private void immigrate(Collection<VehicleRoutingProblemSolution> solutions) {
+			int neighbor = (island + mailbox.length() - 1) % mailbox.length();
+			if(neighbor == island) return;
+			VehicleRoutingProblemSolution emigrant = mailbox.get(neighbor);
+			if(emigrant == null) return;
+			VehicleRoutingProblemSolution worst = getWorst(solutions);
+			if(worst == null || emigrant.getCost() >= worst.getCost()) return;
+			VehicleRoutingProblemSolution immigrant = VehicleRoutingProblemSolution.copyOf(emigrant);
+			solutions.remove(worst);
+			solutions.add(immigrant);
+			lastImported = immigrant;
+			nuOfImports++;
+		}
+
+		int getNuOfImports(){
+			return nuOfImports;
+		}
+
+		private VehicleRoutingProblemSolution getWorst(Collection<VehicleRoutingProblemSolution> solutions) {
+			VehicleRoutingProblemSolution worst = null;
+			for(VehicleRoutingProblemSolution s : solutions){
+				if(worst == null || s.getCost() > worst.getCost()) worst = s;
+			}
+			return worst;
+		}
+
+	}
+
+	private static Logger logger = Logger.getLogger(IslandModelAlgorithm.class);
+
+	private static VehicleRoutingProblemSolution getBest(Collection<VehicleRoutingProblemSolution> solutions) {
+		VehicleRoutingProblemSolution best = null;
+		for(VehicleRoutingProblemSolution s : solutions){
+			if(best == null || s.getCost() < best.getCost()) best = s;
+		}
+		return best;
+	}
+
+	private final VehicleRoutingProblem vrp;
+
+	private final List<VehicleRoutingAlgorithm> islands = new ArrayList<VehicleRoutingAlgorithm>();
+
+	private final List<RandomStream> islandStreams = new ArrayList<RandomStream>();
+
+	private final AtomicReferenceArray<VehicleRoutingProblemSolution> mailbox;
+
+	private final AtomicReference<VehicleRoutingProblemSolution> globalBest = new AtomicReference<VehicleRoutingProblemSolution>();
+
+	private final int migrationInterval;
+
+	private final ExecutorService executorService;
+
+	private IslandModelAlgorithm(Builder builder){
+		this.vrp = builder.vrp;
+		this.migrationInterval = builder.migrationInterval;
+		this.executorService = builder.executorService;
+		this.mailbox = new AtomicReferenceArray<VehicleRoutingProblemSolution>(builder.nuOfIslands);
+		RandomStream threadStream = RandomNumberGeneration.getRandomStream();
+		try{
+			for(int i=0;i<builder.nuOfIslands;i++){
+				/*
+				 * components that the factory creates split their random objects from the calling thread's stream, i.e. from the island's stream
+				 */
+				RandomStream islandStream = new RandomStream(builder.random.nextLong());
+				RandomNumberGeneration.setRandomStream(islandStream);
+				VehicleRoutingAlgorithm island = builder.algorithmFactory.createAlgorithm(vrp);
+				island.getSearchStrategyManager().setRandom(islandStream.split());
+				island.addListener(new Migration(i, migrationInterval, mailbox, globalBest));
+				islands.add(island);
+				islandStreams.add(islandStream.split());
+			}
+		}
+		finally{
+			RandomNumberGeneration.setRandomStream(threadStream);
+		}
+		logger.info("initialise " + this);
+	}
+
+	@Override
+	public String toString() {
+		return "[name=islandModelAlgorithm][#islands=" + islands.size() + "][migrationInterval=" + migrationInterval + "]";
+	}
+
+	/**
+	 * Returns the islands, i.e. the algorithms running in parallel.
+	 *
+	 * <p>Use this to add listeners or to set termination criteria of each island.
+	 *
+	 * @return unmodifiable list of algorithms
+	 */
+	public List<VehicleRoutingAlgorithm> getIslands(){
+		return Collections.unmodifiableList(islands);
+	}
+
+	/**
+	 * Sets the number of iterations of each island.
+	 *
+	 * @param nuOfIterations
+	 */
+	public void setNuOfIterations(int nuOfIterations){
+		for(VehicleRoutingAlgorithm island : islands){
+			island.setNuOfIterations(nuOfIterations);
+		}
+	}
+
+	/**
+	 * Returns the best solution that has been posted to the mailbox so far, or null if there is none yet.
+	 *
+	 * @return best posted solution
+	 */
+	public VehicleRoutingProblemSolution getBestPostedSolution(){
+		return globalBest.get();
+	}
+
+	/**
+	 * Runs all islands in parallel and returns the union of their final solutions.
+	 *
+	 * @return solutions of all islands
+	 */
+	public Collection<VehicleRoutingProblemSolution> searchSolutions(){
+		logger.info("islands start");
+		ExecutorService executor = executorService;
+		if(executor == null) executor = Executors.newFixedThreadPool(islands.size());
+		try{
+			List<Future<Collection<VehicleRoutingProblemSolution>>> futures = new ArrayList<Future<Collection<VehicleRoutingProblemSolution>>>();
+			for(int i=0;i<islands.size();i++){
+				final VehicleRoutingAlgorithm island = islands.get(i);
+				final RandomStream islandStream = islandStreams.get(i);
+				futures.add(executor.submit(new Callable<Collection<VehicleRoutingProblemSolution>>() {
+
+					@Override
+					public Collection<VehicleRoutingProblemSolution> call() throws Exception {
+						RandomStream workerStream = RandomNumberGeneration.getRandomStream();
+						RandomNumberGeneration.setRandomStream(islandStream.split());
+						try{
+							return island.searchSolutions();
+						}
+						finally{
+							RandomNumberGeneration.setRandomStream(workerStream);
+						}
+					}
+
+				}));
+			}
+			Collection<VehicleRoutingProblemSolution> solutions = new ArrayList<VehicleRoutingProblemSolution>();
+			for(Future<Collection<VehicleRoutingProblemSolution>> future : futures){
+				try {
+					solutions.addAll(future.get());
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IllegalStateException("interrupted while waiting for islands", e);
+				} catch (ExecutionException e) {
+					throw new IllegalStateException("island failed", e.getCause());
+				}
+			}
+			logger.info("islands end");
+			return solutions;
+		}
+		finally{
+			if(executorService == null) executor.shutdown();
+		}
+	}
+
+}
@@ -0,0 +1,380 @@
+/*******************************************************************************
+ * Copyright (C) 2013  Stefan Schroeder
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either 
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public 
+ * License along with this library.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jsprit.core.algorithm;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import jsprit.core.algorithm.SearchStrategy.DiscoveredSolution;
+import jsprit.core.algorithm.ruin.JobNeighborhoodIndex;
+import jsprit.core.algorithm.termination.PrematureAlgorithmTermination;
+import jsprit.core.problem.VehicleRoutingProblem;
+import jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import jsprit.core.util.RandomNumberGeneration;
+import jsprit.core.util.RandomStream;
+import jsprit.core.util.Solutions;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Multi-start search that runs a number of independent {@link VehicleRoutingAlgorithm}s concurrently and returns the best 
+ * solution of each run.
+ *
+ * <p>Runs are created one after another with the {@link VehicleRoutingAlgorithmFactory}s of the builder (if there are several 
+ * factories, e.g. different configurations, they are used in turn). Immutable problem data is thus built once and shared by all runs, 
+ * i.e. the location index and the indexed transport costs of the {@link VehicleRoutingProblem} as well as the neighborhoods of radial 
+ * ruin (see {@link JobNeighborhoodIndex#getSharedInstance(VehicleRoutingProblem, int)}). Mutable data such as solution memory, 
+ * state-manager and fleet-manager belongs to each run.
+ *
+ * <p>Each run is created with its own random stream split from the master stream of the builder (see {@link RandomNumberGeneration#setRandomStream(RandomStream)}). 
+ * Thus runs are reproducible for a given seed, no matter in which order the executor schedules them.
+ *
+ * <p>If a target cost is set, a run terminates as soon as it has found a solution that costs no more than the target, and 
+ * all other runs terminate with their next iteration.
+ *
+ * @author schroeder
+ *
+ */
+public class MultiStartAlgorithm {
+
+	/**
+	 * Builder that builds the {@link MultiStartAlgorithm}.
+	 *
+	 * @author schroeder
+	 *
+	 */
+	public static class Builder {
+
+		/**
+		 * Returns a new instance of the builder.
+		 *
+		 * @param vrp
+		 * @param algorithmFactory that creates the algorithm of each run
+		 * @return builder
+		 */
+		public static Builder newInstance(VehicleRoutingProblem vrp, VehicleRoutingAlgorithmFactory algorithmFactory){
+			return new Builder(vrp, algorithmFactory);
+		}
+
+		private VehicleRoutingProblem vrp;
+
+		private List<VehicleRoutingAlgorithmFactory> algorithmFactories = new ArrayList<VehicleRoutingAlgorithmFactory>();
+
+		private int nuOfRuns = Runtime.getRuntime().availableProcessors();
+
+		private ExecutorService executorService;
+
+		private RandomStream random;
+
+		private double targetCost = -Double.MAX_VALUE;
+
+		private Builder(VehicleRoutingProblem vrp, VehicleRoutingAlgorithmFactory algorithmFactory){
+			this.vrp = vrp;
+			addAlgorithmFactory(algorithmFactory);
+		}
+
+		/**
+		 * Adds another factory, e.g. to run different algorithm configurations. Factories are used in turn, i.e. run i is created 
+		 * with factory i % nuOfFactories.
+		 *
+		 * @param algorithmFactory
+		 * @return builder
+		 */
+		public Builder addAlgorithmFactory(VehicleRoutingAlgorithmFactory algorithmFactory){
+			if(algorithmFactory == null) throw new IllegalStateException("algorithmFactory is null");
+			algorithmFactories.add(algorithmFactory);
+			return this;
+		}
+
+		/**
+		 * Sets the number of runs. Default is the number of available processors.
+		 *
+		 * @param nuOfRuns
+		 * @return builder
+		 */
+		public Builder setNuOfRuns(int nuOfRuns){
+			if(nuOfRuns < 1) throw new IllegalStateException("nuOfRuns must be at least 1, but is " + nuOfRuns);
+			this.nuOfRuns = nuOfRuns;
+			return this;
+		}
+
+		/**
+		 * Sets the executor-service the runs are submitted to. If it provides less threads than runs, the remaining runs 
+		 * wait for a free thread.
+		 *
+		 * <p>If no executor-service is set, a fixed thread pool is created (and shut down) for each search.
+		 *
+		 * @param executorService
+		 * @return builder
+		 */
+		public Builder setExecutorService(ExecutorService executorService){
+			this.executorService = executorService;
+			return this;
+		}
+
+		/**
+		 * Sets the seed of the master stream the random streams of the runs are split from. By default, the master stream is 
+		 * split from the stream of the thread that builds the algorithm (see {@link RandomNumberGeneration#getRandomStream()}).
+		 *
+		 * @param seed
+		 * @return builder
+		 */
+		public Builder setSeed(long seed){
+			this.random = new RandomStream(seed);
+			return this;
+		}
+
+		/**
+		 * Sets the target cost. Once a run has found a solution that costs no more than targetCost, all runs terminate. 
+		 * By default, there is no target.
+		 *
+		 * @param targetCost
+		 * @return builder
+		 */
+		public Builder setTargetCost(double targetCost){
+			this.targetCost = targetCost;
+			return this;
+		}
+
+		public MultiStartAlgorithm build(){
+			return new MultiStartAlgorithm(this);
+		}
+
+	}
+
+	/**
+	 * Terminates a run if it has accepted a solution that reaches the target cost, or if any other run has done so.
+	 *
+	 * @author schroeder
+	 *
+	 */
+	static class TargetCostTermination implements PrematureAlgorithmTermination {
+
+		private final double targetCost;
+
+		private final AtomicBoolean targetReached;
+
+		TargetCostTermination(double targetCost, AtomicBoolean targetReached) {
+			super();
+			this.targetCost = targetCost;
+			this.targetReached = targetReached;
+		}
+
+		@Override
+		public boolean isPrematureBreak(DiscoveredSolution discoveredSolution) {
+			if(targetReached.get()) return true;
+			if(discoveredSolution.isAccepted() && discoveredSolution.getSolution().getCost() <= targetCost){
+				targetReached.set(true);
+				return true;
+			}
+			return false;
+		}
+
+	}
+
+	/**
+	 * Terminates a run once another run has failed.
+	 *
+	 * @author schroeder
+	 *
+	 */
+	static class AbortTermination implements PrematureAlgorithmTermination {
+
+		private final AtomicBoolean aborted;
+
+		AbortTermination(AtomicBoolean aborted) {
+			super();
+			this.aborted = aborted;
+		}
+
+		@Override
+		public boolean isPrematureBreak(DiscoveredSolution discoveredSolution) {
+			return aborted.get();
+		}
+
+	}
+
+	private static Logger logger = Logger.getLogger(MultiStartAlgorithm.class);
+
+	private final VehicleRoutingProblem vrp;
+
+	private final List<VehicleRoutingAlgorithm> runs = new ArrayList<VehicleRoutingAlgorithm>();
+
+	private final AtomicBoolean targetReached = new AtomicBoolean(false);
+
+	private final AtomicBoolean aborted = new AtomicBoolean(false);
+
+	private final double targetCost;
+
+	private final ExecutorService executorService;
+
+	private MultiStartAlgorithm(Builder builder){
+		this.vrp = builder.vrp;
+		this.targetCost = builder.targetCost;
+		this.executorService = builder.executorService;
+		RandomStream threadStream = RandomNumberGeneration.getRandomStream();
+		RandomStream random = builder.random;
+		if(random == null) random = threadStream.split();
+		try{
+			for(int i=0;i<builder.nuOfRuns;i++){
+				RandomNumberGeneration.setRandomStream(random.split());
+				VehicleRoutingAlgorithmFactory algorithmFactory = builder.algorithmFactories.get(i % builder.algorithmFactories.size());
+				VehicleRoutingAlgorithm run = algorithmFactory.createAlgorithm(vrp);
+				if(targetCost > -Double.MAX_VALUE) run.addTerminationCriterion(new TargetCostTermination(targetCost, targetReached));
+				run.addTerminationCriterion(new AbortTermination(aborted));
+				runs.add(run);
+			}
+		}
+		finally{
+			RandomNumberGeneration.setRandomStream(threadStream);
+		}
+		logger.info("initialise " + this);
+	}
+
+	@Override
+	public String toString() {
+		return "[name=multiStartAlgorithm][#runs=" + runs.size() + "][targetCost=" + targetCost + "]";
+	}
+
+	/**
+	 * Returns the algorithms of the runs.
+	 *
+	 * <p>Use this to add listeners or further termination criteria to each run.
+	 *
+	 * @return unmodifiable list of algorithms
+	 */
+	public List<VehicleRoutingAlgorithm> getRuns(){
+		return Collections.unmodifiableList(runs);
+	}
+
+	/**
+	 * Sets the number of iterations of each run.
+	 *
+	 * @param nuOfIterations
+	 */
+	public void setNuOfIterations(int nuOfIterations){
+		for(VehicleRoutingAlgorithm run : runs){
+			run.setNuOfIterations(nuOfIterations);
+		}
+	}
+
+	/**
+	 * Returns true if a run has reached the target cost.
+	 *
+	 * @return true if target cost has been reached
+	 */
+	public boolean isTargetReached(){
+		return targetReached.get();
+	}
+
+	/**
+	 * Runs all algorithms concurrently and returns the best solution of each run, sorted by ascending cost (i.e. the first 
+	 * solution is the best one).
+	 *
+	 * <p>If a run fails, the other runs are terminated at their next iteration, and the failure is thrown once all runs have 
+	 * ended. Thus no run is left running in the background.
+	 *
+	 * @return best solutions of all runs
+	 * @throws IllegalStateException if a run fails or the calling thread is interrupted
+	 */
+	public List<VehicleRoutingProblemSolution> searchSolutions(){
+		logger.info("multi-start runs start");
+		targetReached.set(false);
+		aborted.set(false);
+		ExecutorService executor = executorService;
+		if(executor == null) executor = Executors.newFixedThreadPool(runs.size());
+		try{
+			List<Future<VehicleRoutingProblemSolution>> futures = new ArrayList<Future<VehicleRoutingProblemSolution>>();
+			for(final VehicleRoutingAlgorithm run : runs){
+				futures.add(executor.submit(new Callable<VehicleRoutingProblemSolution>() {
+
+					@Override
+					public VehicleRoutingProblemSolution call() throws Exception {
+						try{
+							return Solutions.bestOf(run.searchSolutions());
+						}
+						catch(RuntimeException e){
+							aborted.set(true);
+							throw e;
+						}
+						catch(Error e){
+							aborted.set(true);
+							throw e;
+						}
+					}
+
+				}));
+			}
+			List<VehicleRoutingProblemSolution> solutions = awaitRuns(futures);
+			Collections.sort(solutions, new Comparator<VehicleRoutingProblemSolution>() {
+
+				@Override
+				public int compare(VehicleRoutingProblemSolution s1, VehicleRoutingProblemSolution s2) {
+					return Double.compare(s1.getCost(), s2.getCost());
+				}
+
+			});
+			logger.info("multi-start runs end");
+			return solutions;
+		}
+		finally{
+			if(executorService == null) executor.shutdown();
+		}
+	}
+
+	/*
+	 * waits for all runs, even if one of them has failed or the calling thread is interrupted. the remaining runs terminate at their 
+	 * next iteration since aborted is set.
+	 */
+	private List<VehicleRoutingProblemSolution> awaitRuns(List<Future<VehicleRoutingProblemSolution>> futures) {
+		List<VehicleRoutingProblemSolution> solutions = new ArrayList<VehicleRoutingProblemSolution>();
+		Throwable failure = null;
+		InterruptedException interruption = null;
+		for(Future<VehicleRoutingProblemSolution> future : futures){
+			boolean done = false;
+			while(!done){
+				try {
+					VehicleRoutingProblemSolution best = future.get();
+					if(best != null) solutions.add(best);
+					done = true;
+				} catch (InterruptedException e) {
+					if(interruption == null) interruption = e;
+					aborted.set(true);
+				} catch (ExecutionException e) {
+					if(failure == null) failure = e.getCause();
+					aborted.set(true);
+					done = true;
+				}
+			}
+		}
+		if(interruption != null){
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("interrupted while waiting for runs", interruption);
+		}
+		if(failure != null) throw new IllegalStateException("run failed", failure);
+		return solutions;
+	}
+
+}
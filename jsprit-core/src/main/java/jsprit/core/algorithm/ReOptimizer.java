@@ -0,0 +1,203 @@
+/*******************************************************************************
+ * Copyright (C) 2013  Stefan Schroeder
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either 
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public 
+ * License along with this library.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jsprit.core.algorithm;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import jsprit.core.algorithm.ruin.JobNeighborhoodIndex;
+import jsprit.core.algorithm.termination.IterationWithoutImprovementTermination;
+import jsprit.core.problem.JobDelta;
+import jsprit.core.problem.VehicleRoutingProblem;
+import jsprit.core.problem.job.Job;
+import jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import jsprit.core.problem.solution.route.VehicleRoute;
+import jsprit.core.util.Solutions;
+import jsprit.core.util.StopWatch;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Re-optimizes a solution whenever jobs are added, removed or changed (see {@link JobDelta}) instead of solving the changed problem from scratch.
+ * 
+ * <p>With each {@link #reOptimize(JobDelta)} the neighborhoods shared by radial ruin are patched (see {@link JobNeighborhoodIndex#patchSharedInstance(VehicleRoutingProblem, VehicleRoutingProblem)}) 
+ * and the current solution is passed as initial solution to an algorithm for the changed problem. Algorithms read from xml complete 
+ * initial solutions with their construction insertion, i.e. they remove jobs that are not part of the problem anymore and only insert 
+ * the new (and changed) jobs into the existing routes, where the vehicles of existing routes are locked in the fleet-manager. Algorithms that 
+ * are built otherwise need to do the same (see {@link InsertionInitialSolutionFactory#completeSolution(VehicleRoutingProblem, VehicleRoutingProblemSolution)}). 
+ * Afterwards a short search improves the completed solution.
+ * 
+ * @author schroeder
+ *
+ */
+public class ReOptimizer {
+	
+	/**
+	 * Builder that builds the {@link ReOptimizer}.
+	 * 
+	 * @author schroeder
+	 *
+	 */
+	public static class Builder {
+		
+		/**
+		 * Returns a new instance of the builder.
+		 * 
+		 * @param vrp the current problem
+		 * @param solution the current solution to vrp
+		 * @param algorithmFactory that creates the algorithm that re-optimizes changed problems
+		 * @return builder
+		 */
+		public static Builder newInstance(VehicleRoutingProblem vrp, VehicleRoutingProblemSolution solution, VehicleRoutingAlgorithmFactory algorithmFactory){
+			return new Builder(vrp, solution, algorithmFactory);
+		}
+		
+		private VehicleRoutingProblem vrp;
+		
+		private VehicleRoutingProblemSolution solution;
+		
+		private VehicleRoutingAlgorithmFactory algorithmFactory;
+		
+		private int nuOfIterations = 100;
+		
+		private int nuOfIterationsWithoutImprovement = 0;
+		
+		private Builder(VehicleRoutingProblem vrp, VehicleRoutingProblemSolution solution, VehicleRoutingAlgorithmFactory algorithmFactory){
+			if(vrp == null) throw new IllegalStateException("vrp is null");
+			if(solution == null) throw new IllegalStateException("solution is null");
+			if(algorithmFactory == null) throw new IllegalStateException("algorithmFactory is null");
+			this.vrp = vrp;
+			this.solution = solution;
+			this.algorithmFactory = algorithmFactory;
+		}
+		
+		/**
+		 * Sets the number of iterations of each re-optimization. Default is 100.
+		 * 
+		 * @param nuOfIterations
+		 * @return builder
+		 */
+		public Builder setNuOfIterations(int nuOfIterations){
+			if(nuOfIterations < 0) throw new IllegalStateException("nuOfIterations must not be negative, but is " + nuOfIterations);
+			this.nuOfIterations = nuOfIterations;
+			return this;
+		}
+		
+		/**
+		 * Terminates a re-optimization after the specified number of iterations without improvement. By default, all 
+		 * iterations are run.
+		 * 
+		 * @param nuOfIterationsWithoutImprovement
+		 * @return builder
+		 */
+		public Builder setNuOfIterationsWithoutImprovement(int nuOfIterationsWithoutImprovement){
+			if(nuOfIterationsWithoutImprovement < 1) throw new IllegalStateException("nuOfIterationsWithoutImprovement must be at least 1, but is " + nuOfIterationsWithoutImprovement);
+			this.nuOfIterationsWithoutImprovement = nuOfIterationsWithoutImprovement;
+			return this;
+		}
+		
+		public ReOptimizer build(){
+			return new ReOptimizer(this);
+		}
+		
+	}
+	
+	private static Logger logger = Logger.getLogger(ReOptimizer.class);
+	
+	private final VehicleRoutingAlgorithmFactory algorithmFactory;
+	
+	private final int nuOfIterations;
+	
+	private final int nuOfIterationsWithoutImprovement;
+	
+	private VehicleRoutingProblem vrp;
+	
+	private VehicleRoutingProblemSolution solution;
+	
+	private ReOptimizer(Builder builder){
+		this.vrp = builder.vrp;
+		this.solution = builder.solution;
+		this.algorithmFactory = builder.algorithmFactory;
+		this.nuOfIterations = builder.nuOfIterations;
+		this.nuOfIterationsWithoutImprovement = builder.nuOfIterationsWithoutImprovement;
+		logger.info("initialise " + this);
+	}
+	
+	/**
+	 * Returns the current problem, i.e. the problem with all deltas applied so far.
+	 * 
+	 * @return current problem
+	 */
+	public VehicleRoutingProblem getProblem(){
+		return vrp;
+	}
+	
+	/**
+	 * Returns the current solution, i.e. the solution to {@link #getProblem()}.
+	 * 
+	 * @return current solution
+	 */
+	public VehicleRoutingProblemSolution getSolution(){
+		return solution;
+	}
+	
+	/**
+	 * Applies delta to the current problem, re-optimizes the current solution and returns the solution to the changed problem. Both 
+	 * become the current problem and solution.
+	 * 
+	 * @param delta
+	 * @return solution to the changed problem
+	 */
+	public VehicleRoutingProblemSolution reOptimize(JobDelta delta){
+		logger.info("re-optimize " + delta);
+		StopWatch stopWatch = new StopWatch();
+		stopWatch.start();
+		VehicleRoutingProblem changedVrp = delta.applyTo(vrp);
+		JobNeighborhoodIndex.patchSharedInstance(vrp, changedVrp);
+		VehicleRoutingAlgorithm algorithm = algorithmFactory.createAlgorithm(changedVrp);
+		algorithm.setNuOfIterations(nuOfIterations);
+		if(nuOfIterationsWithoutImprovement > 0){
+			algorithm.addTerminationCriterion(new IterationWithoutImprovementTermination(nuOfIterationsWithoutImprovement));
+		}
+		algorithm.addInitialSolution(solution);
+		VehicleRoutingProblemSolution best = Solutions.bestOf(algorithm.searchSolutions());
+		if(best == null) throw new IllegalStateException("re-optimization did not yield a solution");
+		int nuOfUnservedJobs = getNuOfUnservedJobs(changedVrp, best);
+		if(nuOfUnservedJobs > 0){
+			logger.warn(nuOfUnservedJobs + " jobs are not served. make sure that the algorithm completes its initial solutions.");
+		}
+		vrp = changedVrp;
+		solution = best;
+		stopWatch.stop();
+		logger.info("re-optimization comp-time: " + stopWatch + "; costs: " + best.getCost());
+		return best;
+	}
+
+	private int getNuOfUnservedJobs(VehicleRoutingProblem vrp, VehicleRoutingProblemSolution solution) {
+		Set<Job> servedJobs = new HashSet<Job>();
+		for(VehicleRoute route : solution.getRoutes()){
+			servedJobs.addAll(route.getTourActivities().getJobs());
+		}
+		return vrp.getJobs().size() - servedJobs.size();
+	}
+	
+	@Override
+	public String toString() {
+		return "[name=reOptimizer][nuOfIterations=" + nuOfIterations + "][nuOfIterationsWithoutImprovement=" + nuOfIterationsWithoutImprovement + "]";
+	}
+
+}
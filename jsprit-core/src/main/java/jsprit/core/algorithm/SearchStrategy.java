@@ -19,8 +19,11 @@ package jsprit.core.algorithm;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 
 import jsprit.core.algorithm.acceptor.SolutionAcceptor;
+import jsprit.core.algorithm.listener.SearchPhase;
+import jsprit.core.algorithm.listener.SearchPhaseListener;
 import jsprit.core.algorithm.listener.SearchStrategyModuleListener;
 import jsprit.core.algorithm.selector.SolutionSelector;
 import jsprit.core.problem.VehicleRoutingProblem;
@@ -74,6 +77,8 @@ public class SearchStrategy {
 	
 	private String name;
 	
+	private List<SearchPhaseListener> phaseListeners = new ArrayList<SearchPhaseListener>();
+	
 	public SearchStrategy(SolutionSelector solutionSelector, SolutionAcceptor solutionAcceptor, SolutionCostCalculator solutionCostCalculator) {
 		super();
 		this.solutionSelector = solutionSelector;
@@ -112,8 +117,10 @@ public class SearchStrategy {
 	 * 
 	 * <p>This involves three basic steps: 1) Selecting a solution from solutions (input parameter) according to {@link SolutionSelector}, 2) running the modules 
 	 * ({@link SearchStrategyModule}) on the selectedSolution and 3) accepting the new solution according to {@link SolutionAcceptor}. 
-	 * <p> Note that after 1) the selected solution is copied, thus the original solution is not modified.
+	 * <p> Note that after 1) the selected solution is copied, thus the original solution is not modified. The copy shares unchanged routes with 
+	 * the original (see {@link VehicleRoutingProblemSolution#lazyCopyOf(VehicleRoutingProblemSolution)}).
 	 * <p> Note also that 3) modifies the input parameter solutions by adding, removing, replacing the existing solutions or whatever is defined in the solutionAcceptor.
+	 * <p> If {@link SearchPhaseListener}s are registered, they are informed about the time selection, copying and acceptance took.
 	 *  
 	 * @param vrp
 	 * @param solutions which will be modified 
@@ -121,19 +128,41 @@ public class SearchStrategy {
 	 * @see SolutionSelector, SearchStrategyModule, SolutionAcceptor 
 	 */
 	public DiscoveredSolution run(VehicleRoutingProblem vrp, Collection<VehicleRoutingProblemSolution> solutions){
+		long phaseStart = phaseStarts();
 		VehicleRoutingProblemSolution solution = solutionSelector.selectSolution(solutions);
 		if(solution == null) throw new IllegalStateException("solution is null. check solutionSelector to return an appropiate solution.");
-		VehicleRoutingProblemSolution lastSolution = VehicleRoutingProblemSolution.copyOf(solution);
+		phaseStart = phaseEnds(SearchPhase.SELECTION, phaseStart);
+		VehicleRoutingProblemSolution lastSolution = VehicleRoutingProblemSolution.lazyCopyOf(solution);
+		phaseEnds(SearchPhase.COPY, phaseStart);
 		for(SearchStrategyModule module : searchStrategyModules){
 			VehicleRoutingProblemSolution newSolution = module.runAndGetSolution(lastSolution);
 			lastSolution = newSolution;
 		}
+		phaseStart = phaseStarts();
 		double costs = solutionCostCalculator.getCosts(lastSolution);
 		lastSolution.setCost(costs);
 		boolean solutionAccepted = solutionAcceptor.acceptSolution(solutions, lastSolution);
+		phaseEnds(SearchPhase.ACCEPTANCE, phaseStart);
 		DiscoveredSolution discoveredSolution = new DiscoveredSolution(lastSolution, solutionAccepted, getName());
 		return discoveredSolution;
 	}
+	
+	private long phaseStarts(){
+		if(phaseListeners.isEmpty()) return 0;
+		return System.nanoTime();
+	}
+	
+	/*
+	 * returns the end of this phase, i.e. the start of the next one
+	 */
+	private long phaseEnds(SearchPhase phase, long phaseStart){
+		if(phaseListeners.isEmpty()) return 0;
+		long phaseEnd = System.nanoTime();
+		for(SearchPhaseListener l : phaseListeners){
+			l.informPhaseEnds(phase, name, phaseEnd - phaseStart);
+		}
+		return phaseEnd;
+	}
 
 	
 	public void addModule(SearchStrategyModule module){
@@ -143,6 +172,9 @@ public class SearchStrategy {
 	}
 
 	public void addModuleListener(SearchStrategyModuleListener moduleListener) {
+		if(moduleListener instanceof SearchPhaseListener && !phaseListeners.contains(moduleListener)){
+			phaseListeners.add((SearchPhaseListener) moduleListener);
+		}
 		for(SearchStrategyModule module : searchStrategyModules){
 			module.addModuleListener(moduleListener);
 		}
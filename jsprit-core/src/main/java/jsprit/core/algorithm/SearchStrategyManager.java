@@ -35,7 +35,7 @@ public class SearchStrategyManager {
 	
 	private List<Double> probabilities = new ArrayList<Double>();
 	
-	private Random random = RandomNumberGeneration.getRandom();
+	private Random random = RandomNumberGeneration.newRandom();
 	
 	private double sumOfProbabilities = 0;
 	
@@ -0,0 +1,328 @@
+/*******************************************************************************
+ * Copyright (C) 2013  Stefan Schroeder
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either 
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public 
+ * License along with this library.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jsprit.core.algorithm;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import jsprit.core.algorithm.SearchStrategy.DiscoveredSolution;
+import jsprit.core.algorithm.listener.AlgorithmEndsListener;
+import jsprit.core.algorithm.listener.AlgorithmStartsListener;
+import jsprit.core.algorithm.listener.IterationEndsListener;
+import jsprit.core.algorithm.termination.PrematureAlgorithmTermination;
+import jsprit.core.problem.VehicleRoutingProblem;
+import jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import jsprit.core.util.Solutions;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Handle of a {@link VehicleRoutingAlgorithm} that searches in the background.
+ *
+ * <p>{@link #submit(VehicleRoutingAlgorithm)} returns immediately. Every new best solution is published to the handle 
+ * (see {@link #getBestSolution()}) and to its subscribers. This starts with the initial solution. Subscribers are informed on 
+ * a separate notification thread, in the order solutions have been found, thus they never slow down the search. 
+ * A published solution is a copy that is never modified by the algorithm.
+ *
+ * <p>{@link #cancel()} is cooperative: the algorithm terminates at the end of the current iteration and its solutions can still 
+ * be retrieved with {@link #get()}. Creating the initial solution cannot be cancelled.
+ *
+ * <p>A handle registers a listener and a termination criterion with the algorithm. Thus an algorithm should only be submitted once.
+ *
+ * @author schroeder
+ *
+ */
+public class SolveHandle {
+
+	/**
+	 * Subscriber that is informed about new best solutions.
+	 *
+	 * @author schroeder
+	 *
+	 */
+	public static interface BestSolutionSubscriber {
+
+		public void informNewBestSolution(VehicleRoutingProblemSolution solution);
+
+	}
+
+	/**
+	 * Delivers solutions to a subscriber. Only accessed by the notification thread.
+	 *
+	 * @author schroeder
+	 *
+	 */
+	private static class Subscription {
+
+		private final BestSolutionSubscriber subscriber;
+
+		private VehicleRoutingProblemSolution lastDelivered;
+
+		Subscription(BestSolutionSubscriber subscriber) {
+			super();
+			this.subscriber = subscriber;
+		}
+
+		void deliver(VehicleRoutingProblemSolution solution){
+			if(solution == null || solution == lastDelivered) return;
+			if(lastDelivered != null && solution.getCost() >= lastDelivered.getCost()) return;
+			lastDelivered = solution;
+			try{
+				subscriber.informNewBestSolution(solution);
+			}
+			catch(RuntimeException e){
+				logger.warn("subscriber " + subscriber + " failed", e);
+			}
+		}
+
+	}
+
+	/**
+	 * Publishes the best solution after the initial solution has been created, after each iteration and at the end of the search.
+	 *
+	 * @author schroeder
+	 *
+	 */
+	private class BestSolutionPublisher implements AlgorithmStartsListener, IterationEndsListener, AlgorithmEndsListener {
+
+		@Override
+		public void informAlgorithmStarts(VehicleRoutingProblem problem, VehicleRoutingAlgorithm algorithm, Collection<VehicleRoutingProblemSolution> solutions) {
+			publish(Solutions.bestOf(solutions));
+		}
+
+		@Override
+		public void informIterationEnds(int i, VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
+			publish(Solutions.bestOf(solutions));
+		}
+
+		@Override
+		public void informAlgorithmEnds(VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
+			publish(Solutions.bestOf(solutions));
+		}
+
+	}
+
+	private static class DaemonThreadFactory implements ThreadFactory {
+
+		private final String name;
+
+		DaemonThreadFactory(String name) {
+			super();
+			this.name = name;
+		}
+
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, name);
+			thread.setDaemon(true);
+			return thread;
+		}
+
+	}
+
+	private static Logger logger = Logger.getLogger(SolveHandle.class);
+
+	/**
+	 * Starts searching on a new thread and returns the handle of the search.
+	 *
+	 * @param algorithm
+	 * @return handle
+	 */
+	public static SolveHandle submit(VehicleRoutingAlgorithm algorithm){
+		SolveHandle handle = new SolveHandle(algorithm);
+		Thread solverThread = new Thread(handle.search(), "jsprit-solver");
+		solverThread.start();
+		return handle;
+	}
+
+	/**
+	 * Starts searching on the executor and returns the handle of the search.
+	 *
+	 * @param algorithm
+	 * @param executor
+	 * @return handle
+	 */
+	public static SolveHandle submit(VehicleRoutingAlgorithm algorithm, Executor executor){
+		SolveHandle handle = new SolveHandle(algorithm);
+		executor.execute(handle.search());
+		return handle;
+	}
+
+	private final VehicleRoutingAlgorithm algorithm;
+
+	private final AtomicBoolean cancelled = new AtomicBoolean(false);
+
+	private final CountDownLatch done = new CountDownLatch(1);
+
+	private final List<Subscription> subscriptions = new CopyOnWriteArrayList<Subscription>();
+
+	/*
+	 * at most one thread that dies when idle, i.e. notifications keep their order and no shutdown is required.
+	 */
+	private final Executor notifier = new ThreadPoolExecutor(0, 1, 10, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new DaemonThreadFactory("jsprit-solution-notifier"));
+
+	private volatile VehicleRoutingProblemSolution bestSolution;
+
+	private volatile Collection<VehicleRoutingProblemSolution> solutions;
+
+	private volatile Throwable failure;
+
+	private SolveHandle(VehicleRoutingAlgorithm algorithm){
+		if(algorithm == null) throw new IllegalStateException("algorithm is null");
+		this.algorithm = algorithm;
+		algorithm.addListener(new BestSolutionPublisher());
+		algorithm.addTerminationCriterion(new PrematureAlgorithmTermination() {
+
+			@Override
+			public boolean isPrematureBreak(DiscoveredSolution discoveredSolution) {
+				return cancelled.get();
+			}
+
+		});
+	}
+
+	private Runnable search(){
+		return new Runnable() {
+
+			@Override
+			public void run() {
+				try{
+					solutions = algorithm.searchSolutions();
+				}
+				catch(Throwable e){
+					logger.error("search failed", e);
+					failure = e;
+				}
+				finally{
+					done.countDown();
+				}
+			}
+
+		};
+	}
+
+	/*
+	 * only called by the solver thread.
+	 */
+	private void publish(VehicleRoutingProblemSolution best){
+		if(best == null) return;
+		if(bestSolution != null && best.getCost() >= bestSolution.getCost()) return;
+		final VehicleRoutingProblemSolution published = VehicleRoutingProblemSolution.copyOf(best);
+		bestSolution = published;
+		notifier.execute(new Runnable() {
+
+			@Override
+			public void run() {
+				for(Subscription subscription : subscriptions){
+					subscription.deliver(published);
+				}
+			}
+
+		});
+	}
+
+	/**
+	 * Subscribes to new best solutions. If there is already a best solution, the subscriber is informed about it first.
+	 *
+	 * @param subscriber
+	 */
+	public void subscribe(BestSolutionSubscriber subscriber){
+		if(subscriber == null) throw new IllegalStateException("subscriber is null");
+		final Subscription subscription = new Subscription(subscriber);
+		subscriptions.add(subscription);
+		notifier.execute(new Runnable() {
+
+			@Override
+			public void run() {
+				subscription.deliver(bestSolution);
+			}
+
+		});
+	}
+
+	/**
+	 * Returns the best solution found so far, or null if there is none yet.
+	 *
+	 * @return best solution
+	 */
+	public VehicleRoutingProblemSolution getBestSolution(){
+		return bestSolution;
+	}
+
+	/**
+	 * Requests the algorithm to terminate at the end of the current iteration.
+	 */
+	public void cancel(){
+		cancelled.set(true);
+	}
+
+	public boolean isCancelled(){
+		return cancelled.get();
+	}
+
+	/**
+	 * Returns true if the search has terminated (regularly, cancelled or failed).
+	 *
+	 * @return true if search is done
+	 */
+	public boolean isDone(){
+		return done.getCount() == 0;
+	}
+
+	/**
+	 * Waits at most timeout for the search to terminate.
+	 *
+	 * @param timeout
+	 * @param unit
+	 * @return true if the search has terminated, false if the timeout elapsed before
+	 * @throws InterruptedException
+	 */
+	public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+		return done.await(timeout, unit);
+	}
+
+	/**
+	 * Waits for the search to terminate and returns the solutions of the algorithm.
+	 *
+	 * @return solutions
+	 * @throws IllegalStateException if the search failed or the waiting thread has been interrupted
+	 */
+	public Collection<VehicleRoutingProblemSolution> get(){
+		try {
+			done.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("interrupted while waiting for search", e);
+		}
+		if(failure != null) throw new IllegalStateException("search failed", failure);
+		return solutions;
+	}
+
+	@Override
+	public String toString() {
+		return "[name=solveHandle][done=" + isDone() + "][cancelled=" + isCancelled() + "]";
+	}
+
+}
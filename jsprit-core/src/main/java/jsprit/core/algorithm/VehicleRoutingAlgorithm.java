@@ -18,6 +18,7 @@ package jsprit.core.algorithm;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 import jsprit.core.algorithm.SearchStrategy.DiscoveredSolution;
 import jsprit.core.algorithm.acceptor.SolutionAcceptor;
@@ -29,6 +30,7 @@ import jsprit.core.algorithm.listener.SearchStrategyListener;
 import jsprit.core.algorithm.listener.SearchStrategyModuleListener;
 import jsprit.core.algorithm.listener.VehicleRoutingAlgorithmListener;
 import jsprit.core.algorithm.listener.VehicleRoutingAlgorithmListeners;
+import jsprit.core.algorithm.termination.DeadlineExceededException;
 import jsprit.core.algorithm.termination.IterationWithoutImprovementTermination;
 import jsprit.core.algorithm.termination.PrematureAlgorithmTermination;
 import jsprit.core.problem.VehicleRoutingProblem;
@@ -97,6 +99,8 @@ public class VehicleRoutingAlgorithm {
 		
 	};
 	
+	private List<PrematureAlgorithmTermination> terminationCriteria = new ArrayList<PrematureAlgorithmTermination>();
+	
 	public VehicleRoutingAlgorithm(VehicleRoutingProblem problem, SearchStrategyManager searchStrategyManager) {
 		super();
 		this.problem = problem;
@@ -138,6 +142,18 @@ public class VehicleRoutingAlgorithm {
 	public void setPrematureAlgorithmTermination(PrematureAlgorithmTermination prematureAlgorithmTermination){
 		this.prematureAlgorithmTermination = prematureAlgorithmTermination;
 	}
+	
+	/**
+	 * Adds a termination criterion in addition to the one set with {@link #setPrematureAlgorithmTermination(PrematureAlgorithmTermination)}. 
+	 * 
+	 * <p>The algorithm terminates as soon as one of the criteria is met.
+	 * 
+	 * @param terminationCriterion
+	 */
+	public void addTerminationCriterion(PrematureAlgorithmTermination terminationCriterion){
+		if(terminationCriterion == null) throw new IllegalStateException("terminationCriterion is null");
+		terminationCriteria.add(terminationCriterion);
+	}
 
 	/**
 	 * Gets the {@link SearchStrategyManager}.
@@ -172,9 +188,20 @@ public class VehicleRoutingAlgorithm {
 			iterationStarts(i+1,problem,solutions);
 			counter.incCounter();
 			SearchStrategy strategy = searchStrategyManager.getRandomStrategy();
-			DiscoveredSolution discoveredSolution = strategy.run(problem, solutions);
+			DiscoveredSolution discoveredSolution;
+			try{
+				discoveredSolution = strategy.run(problem, solutions);
+			}
+			catch(DeadlineExceededException e){
+				/*
+				 * the strategy works on a copy of the selected solution, i.e. solutions are not affected by the aborted iteration
+				 */
+				logger.info("deadline exceeded at iteration " + (i+1) + ". iteration is discarded.");
+				nuOfIterationsThisAlgoIsRunning = (i+1);
+				break;
+			}
 			selectedStrategy(strategy.getName(),problem, solutions);
-			if(prematureAlgorithmTermination.isPrematureBreak(discoveredSolution)){
+			if(isPrematureBreak(discoveredSolution)){
 				logger.info("premature break at iteration "+ (i+1));
 				nuOfIterationsThisAlgoIsRunning = (i+1);
 				break;
@@ -190,6 +217,14 @@ public class VehicleRoutingAlgorithm {
 	}
 	
 	
+	private boolean isPrematureBreak(DiscoveredSolution discoveredSolution) {
+		if(prematureAlgorithmTermination.isPrematureBreak(discoveredSolution)) return true;
+		for(PrematureAlgorithmTermination criterion : terminationCriteria){
+			if(criterion.isPrematureBreak(discoveredSolution)) return true;
+		}
+		return false;
+	}
+
 	private void selectedStrategy(String name, VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
 		algoListeners.selectedStrategy(name,problem, solutions);
 	}
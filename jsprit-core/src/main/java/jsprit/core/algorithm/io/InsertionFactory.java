@@ -44,7 +44,7 @@ class InsertionFactory {
 		if(config.containsKey("[@name]")){
 			String insertionName = config.getString("[@name]");
 			if(!insertionName.equals("bestInsertion") && !insertionName.equals("regretInsertion")){
-				new IllegalStateException(insertionName + " is not supported. use either \"bestInsertion\" or \"regretInsertion\"");
+				throw new IllegalStateException(insertionName + " is not supported. use either \"bestInsertion\" or \"regretInsertion\"");
 			}
 			InsertionStrategy insertionStrategy = null;
 			List<InsertionListener> insertionListeners = new ArrayList<InsertionListener>();
@@ -108,7 +108,16 @@ class InsertionFactory {
 			if(insertionName.equals("bestInsertion")){		
 				insertionStrategy = iBuilder.build();
 			}
-			else throw new IllegalStateException("currently only 'bestInsertion' is supported");
+			else if(insertionName.equals("regretInsertion")){
+				int k = 2;
+				String kString = config.getString("k");
+				if(kString != null){
+					try{ k = Integer.parseInt(kString.trim()); }
+					catch(NumberFormatException e){ throw new IllegalStateException("k of regretInsertion must be an integer, but is \"" + kString + "\""); }
+				}
+				insertionStrategy = iBuilder.buildRegretInsertion(k);
+			}
+			else throw new IllegalStateException(insertionName + " is not supported. use either \"bestInsertion\" or \"regretInsertion\"");
 			
 			for(InsertionListener l : insertionListeners) insertionStrategy.addListener(l);
 
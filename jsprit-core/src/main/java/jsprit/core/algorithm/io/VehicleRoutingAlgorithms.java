@@ -60,8 +60,6 @@ import jsprit.core.algorithm.recreate.listener.InsertionListener;
 import jsprit.core.algorithm.ruin.RadialRuinStrategyFactory;
 import jsprit.core.algorithm.ruin.RandomRuinStrategyFactory;
 import jsprit.core.algorithm.ruin.RuinStrategy;
-import jsprit.core.algorithm.ruin.distance.AvgServiceAndShipmentDistance;
-import jsprit.core.algorithm.ruin.distance.JobDistance;
 import jsprit.core.algorithm.selector.SelectBest;
 import jsprit.core.algorithm.selector.SelectRandomly;
 import jsprit.core.algorithm.selector.SolutionSelector;
@@ -70,6 +68,7 @@ import jsprit.core.algorithm.state.StateUpdater;
 import jsprit.core.algorithm.state.UpdateActivityTimes;
 import jsprit.core.algorithm.state.UpdateEndLocationIfRouteIsOpen;
 import jsprit.core.algorithm.state.UpdateVariableCosts;
+import jsprit.core.algorithm.termination.DeadlineTermination;
 import jsprit.core.algorithm.termination.IterationWithoutImprovementTermination;
 import jsprit.core.algorithm.termination.PrematureAlgorithmTermination;
 import jsprit.core.algorithm.termination.TimeTermination;
@@ -671,6 +670,15 @@ public class VehicleRoutingAlgorithms {
 			algorithmListeners.add(new PrioritizedVRAListener(Priority.LOW, timeBreaker));
 			return timeBreaker;
 		}
+		if(basedOn.equals("deadline")){
+			log.info("set prematureBreak based on deadline");
+			String timeString = config.getString("prematureBreak.time");
+			if(timeString == null) throw new IllegalStateException("prematureBreak.time is missing");
+			double time = Double.valueOf(timeString);
+			DeadlineTermination deadlineBreaker = new DeadlineTermination(time);
+			algorithmListeners.add(new PrioritizedVRAListener(Priority.HIGH, deadlineBreaker));
+			return deadlineBreaker;
+		}
 		if(basedOn.equals("variationCoefficient")){
 			log.info("set prematureBreak based on variation coefficient");
 			String thresholdString = config.getString("prematureBreak.threshold");
@@ -730,17 +738,32 @@ public class VehicleRoutingAlgorithms {
 			definedClasses.put(insertionStrategyKey,insertionStrategy);
 		}
 		final InsertionStrategy finalInsertionStrategy = insertionStrategy;
+		final VehicleFleetManager finalFleetManager = vehicleFleetManager;
 
 		return new AlgorithmStartsListener() {
 
+			/*
+			 * if initial solutions are given (e.g. the solution of a problem that has changed since, see VehicleRoutingAlgorithm.addInitialSolution(...)), 
+			 * they are completed. only otherwise a solution is constructed from scratch.
+			 */
 			@Override
 			public void informAlgorithmStarts(VehicleRoutingProblem problem, VehicleRoutingAlgorithm algorithm, Collection<VehicleRoutingProblemSolution> solutions) {
 				InsertionInitialSolutionFactory insertionInitialSolutionFactory = new InsertionInitialSolutionFactory(finalInsertionStrategy, getCostCalculator(routeStates));
+				insertionInitialSolutionFactory.setVehicleFleetManager(finalFleetManager);
 //				CreateInitialSolution createInitialSolution = new CreateInitialSolution(finalInsertionStrategy, getCostCalculator(routeStates));
 //
 //				createInitialSolution.setGenerateAsMuchAsRoutesAsVehiclesExist(false);
-				VehicleRoutingProblemSolution vrpSol = insertionInitialSolutionFactory.createSolution(vrp);
-				solutions.add(vrpSol);
+				if(solutions.isEmpty()){
+					VehicleRoutingProblemSolution vrpSol = insertionInitialSolutionFactory.createSolution(vrp);
+					solutions.add(vrpSol);
+					return;
+				}
+				List<VehicleRoutingProblemSolution> completedSolutions = new ArrayList<VehicleRoutingProblemSolution>();
+				for(VehicleRoutingProblemSolution solution : solutions){
+					completedSolutions.add(insertionInitialSolutionFactory.completeSolution(vrp, solution));
+				}
+				solutions.clear();
+				solutions.addAll(completedSolutions);
 			}
 		};
 
@@ -759,7 +782,7 @@ public class VehicleRoutingAlgorithms {
 			return definedSelector;
 		}
 		if(selectorName.equals("selectRandom")){
-			SelectRandomly selector = SelectRandomly.getInstance();
+			SelectRandomly selector = new SelectRandomly();
 			definedSelectors.put(selectorKey, selector);
 			return selector;
 		}
@@ -849,8 +872,7 @@ public class VehicleRoutingAlgorithms {
 				ruin = getRandomRuin(vrp, routeStates, definedClasses, ruinKey, shareToRuin);
 			}
 			else if(ruin_name.equals("radialRuin")){
-				JobDistance jobDistance = new AvgServiceAndShipmentDistance(vrp.getTransportCosts());
-				ruin = getRadialRuin(vrp, routeStates, definedClasses, ruinKey, shareToRuin, jobDistance);
+				ruin = getRadialRuin(vrp, routeStates, definedClasses, ruinKey, shareToRuin);
 			}
 			else throw new IllegalStateException("ruin[@name] " + ruin_name + " is not known. Use either randomRuin or radialRuin.");
 			
@@ -918,11 +940,11 @@ public class VehicleRoutingAlgorithms {
 				"\n\tgendreauPostOpt");
 	}
 
-	private static RuinStrategy getRadialRuin(final VehicleRoutingProblem vrp, final StateManager routeStates, TypedMap definedClasses, ModKey modKey, double shareToRuin, JobDistance jobDistance) {
+	private static RuinStrategy getRadialRuin(final VehicleRoutingProblem vrp, final StateManager routeStates, TypedMap definedClasses, ModKey modKey, double shareToRuin) {
 		RuinStrategyKey stratKey = new RuinStrategyKey(modKey);
 		RuinStrategy ruin = definedClasses.get(stratKey);
 		if(ruin == null){
-			ruin = new RadialRuinStrategyFactory(shareToRuin, jobDistance).createStrategy(vrp);
+			ruin = new RadialRuinStrategyFactory(shareToRuin).createStrategy(vrp);
 			definedClasses.put(stratKey, ruin);
 		}
 		return ruin;
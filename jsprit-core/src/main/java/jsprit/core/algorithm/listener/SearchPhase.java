@@ -0,0 +1,57 @@
+/*******************************************************************************
+ * Copyright (C) 2013  Stefan Schroeder
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either 
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public 
+ * License along with this library.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jsprit.core.algorithm.listener;
+
+/**
+ * Phases of a search-strategy run, i.e. of an iteration.
+ * 
+ * @author schroeder
+ *
+ */
+public enum SearchPhase {
+	
+	/**
+	 * selecting a solution from the solution memory
+	 */
+	SELECTION, 
+	
+	/**
+	 * copying the selected solution
+	 */
+	COPY, 
+	
+	/**
+	 * removing jobs from the solution with a ruin strategy
+	 */
+	RUIN, 
+	
+	/**
+	 * inserting the removed jobs with an insertion strategy (state updates included)
+	 */
+	INSERTION, 
+	
+	/**
+	 * updating route and activity states after insertions (part of insertion)
+	 */
+	STATE_UPDATE, 
+	
+	/**
+	 * calculating the costs of the new solution and accepting or rejecting it
+	 */
+	ACCEPTANCE
+
+}
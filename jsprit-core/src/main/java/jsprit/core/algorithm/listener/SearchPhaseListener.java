@@ -0,0 +1,40 @@
+/*******************************************************************************
+ * Copyright (C) 2013  Stefan Schroeder
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either 
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public 
+ * License along with this library.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jsprit.core.algorithm.listener;
+
+
+/**
+ * Listener that is informed about the time each phase of a search-strategy took.
+ * 
+ * <p>Phases are measured with <code>System.nanoTime()</code> only if a SearchPhaseListener is registered. 
+ * Register it with <code>algorithm.addListener(phaseListener)</code> after all search-strategies are added to the algorithm.
+ * 
+ * @author schroeder
+ *
+ */
+public interface SearchPhaseListener extends SearchStrategyModuleListener{
+	
+	/**
+	 * Informs that phase ended.
+	 * 
+	 * @param phase
+	 * @param name of search-strategy (selection, copy, acceptance), ruin strategy (ruin) or insertion strategy (insertion) 
+	 * @param durationInNanos
+	 */
+	public void informPhaseEnds(SearchPhase phase, String name, long durationInNanos);
+
+}
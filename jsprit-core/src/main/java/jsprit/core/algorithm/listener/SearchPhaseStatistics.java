@@ -0,0 +1,326 @@
+/*******************************************************************************
+ * Copyright (C) 2013  Stefan Schroeder
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either 
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public 
+ * License along with this library.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jsprit.core.algorithm.listener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import jsprit.core.algorithm.VehicleRoutingAlgorithm;
+import jsprit.core.algorithm.state.StateManager;
+import jsprit.core.problem.VehicleRoutingProblem;
+import jsprit.core.problem.constraint.ConstraintManager;
+import jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+
+/**
+ * Records wall time and counts of each {@link SearchPhase}, both cumulated over all iterations and of the last iteration.
+ * 
+ * <p>Selection, copy and acceptance are recorded per search-strategy, ruin and insertion per ruin and insertion strategy 
+ * (see {@link #getNames(SearchPhase)}). To also record state updates and the number of insertion calculations and constraint 
+ * evaluations, the {@link StateManager} and {@link ConstraintManager} of the algorithm need to be observed (see 
+ * {@link #observe(StateManager)} and {@link #observe(ConstraintManager)}).
+ * 
+ * <p>Register it with <code>algorithm.addListener(statistics)</code>. Statistics are reset when the algorithm starts. Getters 
+ * can be called from other threads, e.g. to export statistics to a monitoring system.
+ * 
+ * @author schroeder
+ *
+ */
+public class SearchPhaseStatistics implements SearchPhaseListener, AlgorithmStartsListener, IterationStartsListener, IterationEndsListener{
+	
+	private static class Record {
+		
+		long count;
+		
+		long timeInNanos;
+		
+	}
+	
+	private static final int NU_OF_PHASES = SearchPhase.values().length;
+	
+	private long[] totalCounts = new long[NU_OF_PHASES];
+	
+	private long[] totalTimes = new long[NU_OF_PHASES];
+	
+	private long[] currentCounts = new long[NU_OF_PHASES];
+	
+	private long[] currentTimes = new long[NU_OF_PHASES];
+	
+	private long[] iterationCounts = new long[NU_OF_PHASES];
+	
+	private long[] iterationTimes = new long[NU_OF_PHASES];
+	
+	private Map<SearchPhase,Map<String,Record>> records = new EnumMap<SearchPhase, Map<String,Record>>(SearchPhase.class);
+	
+	private int nuOfIterations = 0;
+	
+	private StateManager stateManager;
+	
+	private long routeUpdatesAtIterationStart;
+	
+	private long updateTimeAtIterationStart;
+	
+	private ConstraintManager constraintManager;
+	
+	private long routeLevelEvaluationsAtStart;
+	
+	private long activityLevelEvaluationsAtStart;
+	
+	private long routeLevelEvaluationsAtIterationStart;
+	
+	private long activityLevelEvaluationsAtIterationStart;
+	
+	private long iterationInsertionCalculations;
+	
+	private long iterationConstraintEvaluations;
+	
+	public SearchPhaseStatistics() {
+		super();
+		for(SearchPhase phase : SearchPhase.values()){
+			records.put(phase, new LinkedHashMap<String, Record>());
+		}
+	}
+	
+	/**
+	 * Records the state updates of stateManager as {@link SearchPhase#STATE_UPDATE}.
+	 * 
+	 * @param stateManager
+	 */
+	public synchronized void observe(StateManager stateManager){
+		this.stateManager = stateManager;
+		stateManager.setRecordUpdates(true);
+	}
+	
+	/**
+	 * Records the number of insertion calculations and constraint evaluations of constraintManager.
+	 * 
+	 * @param constraintManager
+	 */
+	public synchronized void observe(ConstraintManager constraintManager){
+		this.constraintManager = constraintManager;
+		constraintManager.setCountEvaluations(true);
+		routeLevelEvaluationsAtStart = constraintManager.getNuOfRouteLevelEvaluations();
+		activityLevelEvaluationsAtStart = constraintManager.getNuOfActivityLevelEvaluations();
+	}
+	
+	@Override
+	public synchronized void informAlgorithmStarts(VehicleRoutingProblem problem, VehicleRoutingAlgorithm algorithm, Collection<VehicleRoutingProblemSolution> solutions) {
+		Arrays.fill(totalCounts, 0);
+		Arrays.fill(totalTimes, 0);
+		Arrays.fill(iterationCounts, 0);
+		Arrays.fill(iterationTimes, 0);
+		for(Map<String,Record> phaseRecords : records.values()) phaseRecords.clear();
+		nuOfIterations = 0;
+		iterationInsertionCalculations = 0;
+		iterationConstraintEvaluations = 0;
+		if(constraintManager != null){
+			routeLevelEvaluationsAtStart = constraintManager.getNuOfRouteLevelEvaluations();
+			activityLevelEvaluationsAtStart = constraintManager.getNuOfActivityLevelEvaluations();
+		}
+	}
+	
+	@Override
+	public synchronized void informIterationStarts(int i, VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
+		Arrays.fill(currentCounts, 0);
+		Arrays.fill(currentTimes, 0);
+		if(stateManager != null){
+			routeUpdatesAtIterationStart = stateManager.getNuOfRouteUpdates();
+			updateTimeAtIterationStart = stateManager.getUpdateTimeInNanos();
+		}
+		if(constraintManager != null){
+			routeLevelEvaluationsAtIterationStart = constraintManager.getNuOfRouteLevelEvaluations();
+			activityLevelEvaluationsAtIterationStart = constraintManager.getNuOfActivityLevelEvaluations();
+		}
+	}
+
+	@Override
+	public synchronized void informPhaseEnds(SearchPhase phase, String name, long durationInNanos) {
+		record(phase, name, 1, durationInNanos);
+	}
+
+	private void record(SearchPhase phase, String name, long count, long durationInNanos) {
+		int index = phase.ordinal();
+		totalCounts[index] += count;
+		totalTimes[index] += durationInNanos;
+		currentCounts[index] += count;
+		currentTimes[index] += durationInNanos;
+		Map<String,Record> phaseRecords = records.get(phase);
+		Record record = phaseRecords.get(name);
+		if(record == null){
+			record = new Record();
+			phaseRecords.put(name, record);
+		}
+		record.count += count;
+		record.timeInNanos += durationInNanos;
+	}
+	
+	@Override
+	public synchronized void informIterationEnds(int i, VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
+		if(stateManager != null){
+			record(SearchPhase.STATE_UPDATE, "stateManager", stateManager.getNuOfRouteUpdates() - routeUpdatesAtIterationStart, 
+					stateManager.getUpdateTimeInNanos() - updateTimeAtIterationStart);
+		}
+		if(constraintManager != null){
+			iterationInsertionCalculations = constraintManager.getNuOfRouteLevelEvaluations() - routeLevelEvaluationsAtIterationStart;
+			iterationConstraintEvaluations = constraintManager.getNuOfActivityLevelEvaluations() - activityLevelEvaluationsAtIterationStart;
+		}
+		System.arraycopy(currentCounts, 0, iterationCounts, 0, NU_OF_PHASES);
+		System.arraycopy(currentTimes, 0, iterationTimes, 0, NU_OF_PHASES);
+		nuOfIterations++;
+	}
+	
+	/**
+	 * Returns the number of completed iterations.
+	 * 
+	 * @return number of iterations
+	 */
+	public synchronized int getNuOfIterations(){
+		return nuOfIterations;
+	}
+	
+	/**
+	 * Returns how often phase ran so far. For {@link SearchPhase#STATE_UPDATE} this is the number of route updates.
+	 * 
+	 * @param phase
+	 * @return count
+	 */
+	public synchronized long getTotalCount(SearchPhase phase){
+		return totalCounts[phase.ordinal()];
+	}
+	
+	/**
+	 * Returns the time phase took so far.
+	 * 
+	 * @param phase
+	 * @return time in nanoseconds
+	 */
+	public synchronized long getTotalTimeInNanos(SearchPhase phase){
+		return totalTimes[phase.ordinal()];
+	}
+	
+	/**
+	 * Returns how often phase ran in the last completed iteration.
+	 * 
+	 * @param phase
+	 * @return count
+	 */
+	public synchronized long getIterationCount(SearchPhase phase){
+		return iterationCounts[phase.ordinal()];
+	}
+	
+	/**
+	 * Returns the time phase took in the last completed iteration.
+	 * 
+	 * @param phase
+	 * @return time in nanoseconds
+	 */
+	public synchronized long getIterationTimeInNanos(SearchPhase phase){
+		return iterationTimes[phase.ordinal()];
+	}
+	
+	/**
+	 * Returns the names of the search-strategies, ruin strategies or insertion strategies that ran phase so far.
+	 * 
+	 * @param phase
+	 * @return names
+	 */
+	public synchronized Collection<String> getNames(SearchPhase phase){
+		return Collections.unmodifiableCollection(new ArrayList<String>(records.get(phase).keySet()));
+	}
+	
+	/**
+	 * Returns how often the strategy with the specified name ran phase so far.
+	 * 
+	 * @param phase
+	 * @param name
+	 * @return count
+	 */
+	public synchronized long getTotalCount(SearchPhase phase, String name){
+		Record record = records.get(phase).get(name);
+		if(record == null) return 0;
+		return record.count;
+	}
+	
+	/**
+	 * Returns the time the strategy with the specified name took to run phase so far.
+	 * 
+	 * @param phase
+	 * @param name
+	 * @return time in nanoseconds
+	 */
+	public synchronized long getTotalTimeInNanos(SearchPhase phase, String name){
+		Record record = records.get(phase).get(name);
+		if(record == null) return 0;
+		return record.timeInNanos;
+	}
+	
+	/**
+	 * Returns the number of insertion calculations since the algorithm started (requires an observed {@link ConstraintManager}).
+	 * 
+	 * @return number of insertion calculations
+	 */
+	public synchronized long getTotalNuOfInsertionCalculations(){
+		if(constraintManager == null) return 0;
+		return constraintManager.getNuOfRouteLevelEvaluations() - routeLevelEvaluationsAtStart;
+	}
+	
+	/**
+	 * Returns the number of insertion calculations of the last completed iteration (requires an observed {@link ConstraintManager}).
+	 * 
+	 * @return number of insertion calculations
+	 */
+	public synchronized long getIterationNuOfInsertionCalculations(){
+		return iterationInsertionCalculations;
+	}
+	
+	/**
+	 * Returns the number of activity-level constraint evaluations since the algorithm started (requires an observed {@link ConstraintManager}).
+	 * 
+	 * @return number of constraint evaluations
+	 */
+	public synchronized long getTotalNuOfConstraintEvaluations(){
+		if(constraintManager == null) return 0;
+		return constraintManager.getNuOfActivityLevelEvaluations() - activityLevelEvaluationsAtStart;
+	}
+	
+	/**
+	 * Returns the number of activity-level constraint evaluations of the last completed iteration (requires an observed {@link ConstraintManager}).
+	 * 
+	 * @return number of constraint evaluations
+	 */
+	public synchronized long getIterationNuOfConstraintEvaluations(){
+		return iterationConstraintEvaluations;
+	}
+	
+	@Override
+	public synchronized String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("[name=searchPhaseStatistics][nuOfIterations=").append(nuOfIterations).append("]");
+		for(SearchPhase phase : SearchPhase.values()){
+			sb.append("[").append(phase.name().toLowerCase()).append("=").append(totalCounts[phase.ordinal()]).append("x/")
+				.append(totalTimes[phase.ordinal()] / 1000000).append("ms]");
+		}
+		sb.append("[insertionCalculations=").append(getTotalNuOfInsertionCalculations()).append("]");
+		sb.append("[constraintEvaluations=").append(getTotalNuOfConstraintEvaluations()).append("]");
+		return sb.toString();
+	}
+
+}
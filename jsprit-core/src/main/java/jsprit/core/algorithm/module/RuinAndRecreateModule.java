@@ -16,19 +16,41 @@
  ******************************************************************************/
 package jsprit.core.algorithm.module;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 import jsprit.core.algorithm.SearchStrategyModule;
+import jsprit.core.algorithm.listener.SearchPhase;
+import jsprit.core.algorithm.listener.SearchPhaseListener;
 import jsprit.core.algorithm.listener.SearchStrategyModuleListener;
 import jsprit.core.algorithm.recreate.InsertionStrategy;
 import jsprit.core.algorithm.recreate.listener.InsertionListener;
+import jsprit.core.algorithm.recreate.listener.JobInsertedListener;
+import jsprit.core.algorithm.ruin.IndexedRuinStrategy;
 import jsprit.core.algorithm.ruin.RuinStrategy;
 import jsprit.core.algorithm.ruin.listener.RuinListener;
 import jsprit.core.problem.job.Job;
 import jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import jsprit.core.problem.solution.route.JobRouteIndex;
+import jsprit.core.problem.solution.route.VehicleRoute;
 
 
 public class RuinAndRecreateModule implements SearchStrategyModule{
+	
+	/*
+	 * keeps the job-route index of the solution being recreated up to date.
+	 */
+	private class JobRouteIndexUpdater implements JobInsertedListener {
+
+		private JobRouteIndex jobRouteIndex;
+		
+		@Override
+		public void informJobInserted(Job job2insert, VehicleRoute inRoute, double additionalCosts, double additionalTime) {
+			if(jobRouteIndex != null) jobRouteIndex.addJob(job2insert, inRoute);
+		}
+		
+	}
 
 	private InsertionStrategy insertion;
 	
@@ -36,21 +58,64 @@ public class RuinAndRecreateModule implements SearchStrategyModule{
 	
 	private String moduleName;
 	
+	private List<SearchPhaseListener> phaseListeners = new ArrayList<SearchPhaseListener>();
+	
+	private JobRouteIndexUpdater jobRouteIndexUpdater;
+	
 	public RuinAndRecreateModule(String moduleName, InsertionStrategy insertion, RuinStrategy ruin) {
 		super();
 		this.insertion = insertion;
 		this.ruin = ruin;
 		this.moduleName = moduleName;
+		if(ruin instanceof IndexedRuinStrategy){
+			jobRouteIndexUpdater = new JobRouteIndexUpdater();
+			insertion.addListener(jobRouteIndexUpdater);
+		}
 	}
 
 	@Override
 	public VehicleRoutingProblemSolution runAndGetSolution(VehicleRoutingProblemSolution vrpSolution) {
-		Collection<Job> ruinedJobs = ruin.ruin(vrpSolution.getRoutes());
-		insertion.insertJobs(vrpSolution.getRoutes(), ruinedJobs);
+		if(!phaseListeners.isEmpty()) return runAndInformPhaseListeners(vrpSolution);
+		Collection<Job> ruinedJobs = ruin(vrpSolution);
+		recreate(vrpSolution, ruinedJobs);
 		return vrpSolution;
 
 	}
 
+	private Collection<Job> ruin(VehicleRoutingProblemSolution vrpSolution) {
+		if(jobRouteIndexUpdater != null) return ((IndexedRuinStrategy) ruin).ruin(vrpSolution);
+		return ruin.ruin(vrpSolution.getRoutes());
+	}
+
+	private void recreate(VehicleRoutingProblemSolution vrpSolution, Collection<Job> ruinedJobs) {
+		if(jobRouteIndexUpdater == null){
+			insertion.insertJobs(vrpSolution.getRoutes(), ruinedJobs);
+			return;
+		}
+		jobRouteIndexUpdater.jobRouteIndex = vrpSolution.getJobRouteIndex();
+		try{
+			insertion.insertJobs(vrpSolution.getRoutes(), ruinedJobs);
+		}
+		finally{
+			jobRouteIndexUpdater.jobRouteIndex = null;
+		}
+	}
+
+	private VehicleRoutingProblemSolution runAndInformPhaseListeners(VehicleRoutingProblemSolution vrpSolution) {
+		long ruinStart = System.nanoTime();
+		Collection<Job> ruinedJobs = ruin(vrpSolution);
+		long insertionStart = System.nanoTime();
+		recreate(vrpSolution, ruinedJobs);
+		long insertionEnd = System.nanoTime();
+		String ruinName = ruin.toString();
+		String insertionName = insertion.toString();
+		for(SearchPhaseListener l : phaseListeners){
+			l.informPhaseEnds(SearchPhase.RUIN, ruinName, insertionStart - ruinStart);
+			l.informPhaseEnds(SearchPhase.INSERTION, insertionName, insertionEnd - insertionStart);
+		}
+		return vrpSolution;
+	}
+
 	@Override
 	public String getName() {
 		return moduleName;
@@ -58,6 +123,9 @@ public class RuinAndRecreateModule implements SearchStrategyModule{
 
 	@Override
 	public void addModuleListener(SearchStrategyModuleListener moduleListener) {
+		if(moduleListener instanceof SearchPhaseListener && !phaseListeners.contains(moduleListener)){
+			phaseListeners.add((SearchPhaseListener) moduleListener);
+		}
 		if(moduleListener instanceof InsertionListener){
 			InsertionListener iListener = (InsertionListener) moduleListener; 
 			if(!insertion.getListeners().contains(iListener)){
@@ -25,6 +25,8 @@ import java.util.Random;
 import jsprit.core.algorithm.recreate.InsertionData.NoInsertionFound;
 import jsprit.core.algorithm.recreate.listener.InsertionListener;
 import jsprit.core.algorithm.recreate.listener.InsertionListeners;
+import jsprit.core.algorithm.termination.Deadline;
+import jsprit.core.algorithm.termination.DeadlineExceededException;
 import jsprit.core.problem.driver.Driver;
 import jsprit.core.problem.job.Job;
 import jsprit.core.problem.solution.route.VehicleRoute;
@@ -68,7 +70,7 @@ final class BestInsertion implements InsertionStrategy{
 	
 	private static Logger logger = Logger.getLogger(BestInsertion.class);
 
-	private Random random = RandomNumberGeneration.getRandom();
+	private Random random = RandomNumberGeneration.newRandom();
 	
 	private final static double NO_NEW_DEPARTURE_TIME_YET = -12345.12345;
 	
@@ -84,10 +86,21 @@ final class BestInsertion implements InsertionStrategy{
 
 	private boolean minVehiclesFirst = false;
 
+	private Deadline deadline = null;
+
 	public void setRandom(Random random) {
 		this.random = random;
 	}
 	
+	/**
+	 * Sets the deadline that is checked before each job is inserted. If it is exceeded, a {@link DeadlineExceededException} is thrown.
+	 * 
+	 * @param deadline
+	 */
+	public void setDeadline(Deadline deadline) {
+		this.deadline = deadline;
+	}
+	
 	public BestInsertion(JobInsertionCostsCalculator jobInsertionCalculator) {
 		super();
 		this.insertionsListeners = new InsertionListeners();
@@ -107,6 +120,7 @@ final class BestInsertion implements InsertionStrategy{
 		List<Job> unassignedJobList = new ArrayList<Job>(unassignedJobs);
 		Collections.shuffle(unassignedJobList, random);
 		for(Job unassignedJob : unassignedJobList){			
+			verifyDeadline();
 			Insertion bestInsertion = null;
 			double bestInsertionCost = Double.MAX_VALUE;
 			for(VehicleRoute vehicleRoute : vehicleRoutes){
@@ -145,6 +159,10 @@ final class BestInsertion implements InsertionStrategy{
 		insertionsListeners.informInsertionEndsListeners(vehicleRoutes);
 	}
 
+	private void verifyDeadline() {
+		if(deadline != null && deadline.isExceeded()) throw new DeadlineExceededException("deadline exceeded while inserting jobs");
+	}
+
 	private String getErrorMsg(Job unassignedJob) {
 		return "given the vehicles, could not insert job\n" +
 				"\t" + unassignedJob + 
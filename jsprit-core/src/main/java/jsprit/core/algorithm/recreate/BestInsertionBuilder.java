@@ -7,9 +7,11 @@ import java.util.concurrent.ExecutorService;
 import jsprit.core.algorithm.listener.VehicleRoutingAlgorithmListeners.PrioritizedVRAListener;
 import jsprit.core.algorithm.recreate.listener.InsertionListener;
 import jsprit.core.algorithm.state.StateManager;
+import jsprit.core.algorithm.termination.Deadline;
 import jsprit.core.problem.VehicleRoutingProblem;
 import jsprit.core.problem.constraint.ConstraintManager;
 import jsprit.core.problem.vehicle.VehicleFleetManager;
+import jsprit.core.util.Neighborhood;
 
 
 public class BestInsertionBuilder {
@@ -46,6 +48,12 @@ public class BestInsertionBuilder {
 
 	private boolean allowVehicleSwitch=true;
 	
+	private Neighborhood neighborhood;
+	
+	private Deadline deadline;
+	
+	private boolean cheapestInsertion = false;
+	
 	public BestInsertionBuilder(VehicleRoutingProblem vrp, VehicleFleetManager vehicleFleetManager, StateManager stateManager, ConstraintManager constraintManager) {
 		super();
 		this.vrp = vrp;
@@ -77,15 +85,98 @@ public class BestInsertionBuilder {
 		return this;
 	};
 	
+	/**
+	 * Sets the neighborhood, i.e. calculators only evaluate insertion positions adjacent to a neighbor of the job's activities 
+	 * (see for example {@link jsprit.core.util.GranularNeighborhood}). 
+	 * 
+	 * @param neighborhood
+	 * @return builder
+	 */
+	public BestInsertionBuilder setNeighborhood(Neighborhood neighborhood){
+		this.neighborhood = neighborhood;
+		return this;
+	}
+	
+	/**
+	 * Sets concurrent mode, i.e. jobs are evaluated by nuOfThreads tasks submitted to executor (see {@link BestInsertionConcurrent}). 
+	 * Jobs are still inserted in random order, unless cheapest insertion is set (see {@link #setCheapestInsertion(boolean)}).
+	 * 
+	 * @param executor
+	 * @param nuOfThreads
+	 * @return builder
+	 */
 	public BestInsertionBuilder setConcurrentMode(ExecutorService executor, int nuOfThreads){
 		this.executor = executor;
 		this.nuOfThreads = nuOfThreads;
 		return this;
 	}
 	
+	/**
+	 * Sets whether concurrent best insertion inserts the job with the globally cheapest insertion first instead of inserting jobs in 
+	 * random order (default is false). This yields different solutions than in sequential mode. It is ignored if concurrent mode is not set.
+	 * 
+	 * @param cheapestInsertion
+	 * @return builder
+	 */
+	public BestInsertionBuilder setCheapestInsertion(boolean cheapestInsertion){
+		this.cheapestInsertion = cheapestInsertion;
+		return this;
+	}
+	
+	/**
+	 * Sets the deadline of the search (see for example {@link jsprit.core.algorithm.termination.DeadlineTermination}). Best insertion checks it 
+	 * while inserting jobs and aborts the iteration once it is exceeded. Regret insertion does not consider it.
+	 * 
+	 * @param deadline
+	 * @return builder
+	 */
+	public BestInsertionBuilder setDeadline(Deadline deadline){
+		this.deadline = deadline;
+		return this;
+	}
+	
 	
 	public InsertionStrategy build() {
 		List<InsertionListener> iListeners = new ArrayList<InsertionListener>();
+		JobInsertionCostsCalculator jobInsertions = buildCalculator(iListeners);
+		InsertionStrategy bestInsertion;
+		if(executor == null){
+			BestInsertion sequentialInsertion = new BestInsertion(jobInsertions);
+			sequentialInsertion.setDeadline(deadline);
+			bestInsertion = sequentialInsertion;
+		}
+		else{
+			BestInsertionConcurrent concurrentInsertion = new BestInsertionConcurrent(jobInsertions,executor,nuOfThreads);
+			concurrentInsertion.setDeadline(deadline);
+			concurrentInsertion.setCheapestInsertion(cheapestInsertion);
+			bestInsertion = concurrentInsertion;
+		}
+		for(InsertionListener l : iListeners) bestInsertion.addListener(l);
+		return bestInsertion;
+	}
+	
+	/**
+	 * Builds regret insertion with the same calculator settings as bestInsertion, i.e. jobs are inserted according to
+	 * the regret of their k best insertion alternatives. If concurrent mode is set, jobs are evaluated in parallel.
+	 * 
+	 * @param k
+	 * @return regretInsertion
+	 */
+	public InsertionStrategy buildRegretInsertion(int k) {
+		List<InsertionListener> iListeners = new ArrayList<InsertionListener>();
+		JobInsertionCostsCalculator jobInsertions = buildCalculator(iListeners);
+		InsertionStrategy regretInsertion;
+		if(executor == null){
+			regretInsertion = new RegretInsertion(jobInsertions, k);
+		}
+		else{
+			regretInsertion = new RegretInsertion(jobInsertions, k, executor, nuOfThreads);
+		}
+		for(InsertionListener l : iListeners) regretInsertion.addListener(l);
+		return regretInsertion;
+	}
+
+	private JobInsertionCostsCalculator buildCalculator(List<InsertionListener> iListeners) {
 		List<PrioritizedVRAListener> algorithmListeners = new ArrayList<PrioritizedVRAListener>();
 		CalculatorBuilder calcBuilder = new CalculatorBuilder(iListeners, algorithmListeners);
 		if(local){
@@ -99,6 +190,7 @@ public class BestInsertionBuilder {
 		calcBuilder.setVehicleRoutingProblem(vrp);
 		calcBuilder.setVehicleFleetManager(fleetManager);
 		calcBuilder.setActivityInsertionCostsCalculator(actInsertionCostsCalculator);
+		if(neighborhood != null) calcBuilder.setNeighborhood(neighborhood);
 		if(considerFixedCosts) {
 			calcBuilder.considerFixedCosts(weightOfFixedCosts);
 		}
@@ -106,19 +198,7 @@ public class BestInsertionBuilder {
 			calcBuilder.experimentalTimeScheduler(timeSlice, nNeighbors);
 		}
 		calcBuilder.setAllowVehicleSwitch(allowVehicleSwitch);
-		JobInsertionCostsCalculator jobInsertions = calcBuilder.build();
-		InsertionStrategy bestInsertion;
-		if(executor == null){
-			bestInsertion = new BestInsertion(jobInsertions);
-			
-		}
-		else{
-
-			bestInsertion = new BestInsertionConcurrent(jobInsertions,executor,nuOfThreads);
-
-		}
-		for(InsertionListener l : iListeners) bestInsertion.addListener(l);
-		return bestInsertion;
+		return calcBuilder.build();
 	}
 
 	/**
@@ -23,13 +23,15 @@ import java.util.List;
 import java.util.Random;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import jsprit.core.algorithm.recreate.InsertionData.NoInsertionFound;
 import jsprit.core.algorithm.recreate.listener.InsertionListener;
 import jsprit.core.algorithm.recreate.listener.InsertionListeners;
+import jsprit.core.algorithm.termination.Deadline;
+import jsprit.core.algorithm.termination.DeadlineExceededException;
 import jsprit.core.problem.driver.Driver;
 import jsprit.core.problem.job.Job;
 import jsprit.core.problem.solution.route.VehicleRoute;
@@ -42,6 +44,22 @@ import org.apache.log4j.Logger;
 
 
 /**
+ * Concurrent best insertion.
+ * 
+ * <p>By default, jobs are inserted one after another in random order, each at its best position, i.e. as with {@link BestInsertion}. 
+ * To avoid a barrier per job, the next nuOfBatches jobs are evaluated against all routes in one parallel sweep (one job per task), and 
+ * their insertion data are memorized in an {@link InsertionDataCache}. Then these jobs are inserted in their order, and only routes that 
+ * have changed since the sweep are re-evaluated (by the calling thread). If the vehicle of a route has been switched, the availability of 
+ * vehicles has changed, thus the remaining jobs are evaluated in a new sweep. Hence, there is about one barrier per nuOfBatches jobs, 
+ * and the solution equals the one of {@link BestInsertion} with the same random numbers.
+ * 
+ * <p>If cheapest insertion is set (see {@link #setCheapestInsertion(boolean)}), the job with the globally cheapest insertion is inserted 
+ * in each step instead. All unassigned jobs are evaluated against all routes in one parallel sweep, and subsequently each job only 
+ * re-evaluates the route that has changed. Since every insertion can change the cheapest job, there is one barrier per inserted job 
+ * here, but each barrier waits for tasks that cover all unassigned jobs. The random order of jobs only breaks ties in this mode.
+ * 
+ * <p>In both modes, jobs are assigned to tasks by their position and each job is compared to the same routes, thus the result does not 
+ * depend on the number of threads.
  * 
  * @author stefan schroeder
  * 
@@ -49,11 +67,6 @@ import org.apache.log4j.Logger;
 
 final class BestInsertionConcurrent implements InsertionStrategy{
 	
-	static class Batch {
-		List<VehicleRoute> routes = new ArrayList<VehicleRoute>();
-		
-	}
-	
 	class Insertion {
 		
 		private final VehicleRoute route;
@@ -78,7 +91,7 @@ final class BestInsertionConcurrent implements InsertionStrategy{
 	
 	private static Logger logger = Logger.getLogger(BestInsertionConcurrent.class);
 
-	private Random random = RandomNumberGeneration.getRandom();
+	private Random random = RandomNumberGeneration.newRandom();
 	
 	private final static double NO_NEW_DEPARTURE_TIME_YET = -12345.12345;
 	
@@ -91,27 +104,47 @@ final class BestInsertionConcurrent implements InsertionStrategy{
 	private Inserter inserter;
 	
 	private JobInsertionCostsCalculator bestInsertionCostCalculator;
-
-	private boolean minVehiclesFirst = false;
 	
+	private InsertionDataCache insertionDataCache = new InsertionDataCache();
+
 	private int nuOfBatches;
 	
 	private ExecutorService executor;
+
+	private Deadline deadline = null;
 	
-	private ExecutorCompletionService<Insertion> completionService;
+	private boolean cheapestInsertion = false;
 
 	public void setRandom(Random random) {
 		this.random = random;
 	}
 	
+	/**
+	 * Sets whether the job with the globally cheapest insertion is inserted first (default is false, i.e. jobs are inserted in random order).
+	 * 
+	 * @param cheapestInsertion
+	 */
+	public void setCheapestInsertion(boolean cheapestInsertion) {
+		this.cheapestInsertion = cheapestInsertion;
+	}
+	
+	/**
+	 * Sets the deadline that is checked before each job is inserted and, in the parallel sweeps, before each job is evaluated. If it is exceeded, a {@link DeadlineExceededException} is thrown.
+	 * 
+	 * @param deadline
+	 */
+	public void setDeadline(Deadline deadline) {
+		this.deadline = deadline;
+	}
+	
 	public BestInsertionConcurrent(JobInsertionCostsCalculator jobInsertionCalculator, ExecutorService executorService, int nuOfBatches) {
 		super();
 		this.insertionsListeners = new InsertionListeners();
+		this.insertionsListeners.addListener(insertionDataCache);
 		this.executor = executorService;
-		this.nuOfBatches = nuOfBatches;
+		this.nuOfBatches = Math.max(1, nuOfBatches);
 		inserter = new Inserter(insertionsListeners);
 		bestInsertionCostCalculator = jobInsertionCalculator;
-		completionService = new ExecutorCompletionService<Insertion>(executor);
 		logger.info("initialise " + this);
 	}
 
@@ -119,78 +152,249 @@ final class BestInsertionConcurrent implements InsertionStrategy{
 	public String toString() {
 		return "[name=bestInsertion]";
 	}
+	
+	InsertionDataCache getInsertionDataCache(){
+		return insertionDataCache;
+	}
 
 	@Override
 	public void insertJobs(Collection<VehicleRoute> vehicleRoutes, Collection<Job> unassignedJobs) {
 		insertionsListeners.informInsertionStarts(vehicleRoutes,unassignedJobs);
 		List<Job> unassignedJobList = new ArrayList<Job>(unassignedJobs);
 		Collections.shuffle(unassignedJobList, random);
+		if(cheapestInsertion) insertCheapestFirst(vehicleRoutes, unassignedJobList);
+		else insertInRandomOrder(vehicleRoutes, unassignedJobList);
+		insertionsListeners.informInsertionEndsListeners(vehicleRoutes);
+	}
+	
+	private void insertInRandomOrder(Collection<VehicleRoute> vehicleRoutes, final List<Job> jobs){
+		VehicleRoute emptyRoute = VehicleRoute.emptyRoute();
+		int next = 0;
+		while(next < jobs.size()){
+			verifyDeadline();
+			final int windowStart = next;
+			final int windowEnd = Math.min(jobs.size(), next + nuOfBatches);
+			final List<VehicleRoute> candidateRoutes = getCandidateRoutes(vehicleRoutes, emptyRoute);
+			runTasks(windowEnd - windowStart, new RangeTask() {
+				
+				@Override
+				public void run(int fromIndex, int toIndex, AtomicBoolean aborted) {
+					evaluate(jobs, windowStart + fromIndex, windowStart + toIndex, candidateRoutes, aborted);
+				}
+				
+			});
+			while(next < windowEnd){
+				Job job = jobs.get(next);
+				next++;
+				Insertion bestInsertion = null;
+				for(VehicleRoute route : getCandidateRoutes(vehicleRoutes, emptyRoute)){
+					bestInsertion = getBetterInsertion(bestInsertion, job, route);
+				}
+				if(bestInsertion == null){
+					throw new IllegalStateException(getErrorMsg(job));
+				}
+				VehicleRoute route = bestInsertion.getRoute();
+				Vehicle vehicleBeforeInsertion = route.getVehicle();
+				if(route == emptyRoute){
+					vehicleRoutes.add(emptyRoute);
+					emptyRoute = VehicleRoute.emptyRoute();
+				}
+				inserter.insertJob(job, bestInsertion.getInsertionData(), route);
+				if(route.getVehicle() != vehicleBeforeInsertion) break;
+			}
+		}
+	}
+	
+	private void insertCheapestFirst(Collection<VehicleRoute> vehicleRoutes, final List<Job> jobs){
+		final List<Insertion> bestInsertions = new ArrayList<Insertion>(jobs.size());
+		for(int i=0;i<jobs.size();i++) bestInsertions.add(null);
 		
-		List<Batch> batches = distributeRoutes(vehicleRoutes,nuOfBatches);
-		
-		for(final Job unassignedJob : unassignedJobList){			
+		VehicleRoute emptyRoute = VehicleRoute.emptyRoute();
+		VehicleRoute changedRoute = null;
+		while(!jobs.isEmpty()){
+			verifyDeadline();
+			final List<VehicleRoute> candidateRoutes = getCandidateRoutes(vehicleRoutes, emptyRoute);
+			final VehicleRoute routeToUpdate = changedRoute;
+			runTasks(jobs.size(), new RangeTask() {
+				
+				@Override
+				public void run(int fromIndex, int toIndex, AtomicBoolean aborted) {
+					updateBestInsertions(jobs, bestInsertions, fromIndex, toIndex, candidateRoutes, routeToUpdate, aborted);
+				}
+				
+			});
 			
-			Insertion bestInsertion = null;
+			int bestIndex = -1;
 			double bestInsertionCost = Double.MAX_VALUE;
-			
-			for(final Batch batch : batches){
-				completionService.submit(new Callable<Insertion>() {
-					
-					@Override
-					public Insertion call() throws Exception {
-						return getBestInsertion(batch,unassignedJob);
-					}
-					
-				});
-				
+			for(int i=0;i<bestInsertions.size();i++){
+				Insertion insertion = bestInsertions.get(i);
+				if(insertion == null){
+					throw new IllegalStateException(getErrorMsg(jobs.get(i)));
+				}
+				if(bestIndex == -1 || insertion.getInsertionData().getInsertionCost() < bestInsertionCost){
+					bestIndex = i;
+					bestInsertionCost = insertion.getInsertionData().getInsertionCost();
+				}
 			}
 			
-			try{
-				for(int i=0;i<batches.size();i++){
-					Future<Insertion> futureIData = completionService.take();
-					Insertion insertion = futureIData.get();
-					if(insertion == null) continue;
-					if(insertion.getInsertionData().getInsertionCost() < bestInsertionCost){
-						bestInsertion = insertion;
-						bestInsertionCost = insertion.getInsertionData().getInsertionCost();
+			Job job = jobs.remove(bestIndex);
+			Insertion bestInsertion = bestInsertions.remove(bestIndex);
+			VehicleRoute route = bestInsertion.getRoute();
+			Vehicle vehicleBeforeInsertion = route.getVehicle();
+			if(route == emptyRoute){
+				vehicleRoutes.add(emptyRoute);
+				emptyRoute = VehicleRoute.emptyRoute();
+			}
+//			logger.info("insert " + job + " pickup@" + bestInsertion.getInsertionData().getPickupInsertionIndex() + " delivery@" + bestInsertion.getInsertionData().getDeliveryInsertionIndex());
+			inserter.insertJob(job, bestInsertion.getInsertionData(), route);
+			if(route.getVehicle() != vehicleBeforeInsertion) changedRoute = null;
+			else changedRoute = route;
+		}
+	}
+	
+	private List<VehicleRoute> getCandidateRoutes(Collection<VehicleRoute> vehicleRoutes, VehicleRoute emptyRoute){
+		List<VehicleRoute> candidateRoutes = new ArrayList<VehicleRoute>(vehicleRoutes.size() + 1);
+		candidateRoutes.addAll(vehicleRoutes);
+		candidateRoutes.add(emptyRoute);
+		return candidateRoutes;
+	}
+	
+	/*
+	 * task that processes the range [fromIndex,toIndex) of a list
+	 */
+	private static abstract class RangeTask {
+		
+		abstract void run(int fromIndex, int toIndex, AtomicBoolean aborted);
+		
+	}
+	
+	/*
+	 * splits [0,size) into at most nuOfBatches ranges and runs them in parallel, or runs the entire range in the calling thread if 
+	 * there is only one.
+	 */
+	private void runTasks(int size, final RangeTask task){
+		int nuOfTasks = Math.min(nuOfBatches, size);
+		final AtomicBoolean aborted = new AtomicBoolean(false);
+		if(nuOfTasks < 2){
+			task.run(0, size, aborted);
+			return;
+		}
+		List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>(nuOfTasks);
+		int batchSize = (int)Math.ceil((double)size/(double)nuOfTasks);
+		for(int from=0;from<size;from+=batchSize){
+			final int fromIndex = from;
+			final int toIndex = Math.min(from + batchSize, size);
+			futures.add(executor.submit(new Callable<Boolean>() {
+
+				@Override
+				public Boolean call() throws Exception {
+					try{
+						task.run(fromIndex, toIndex, aborted);
 					}
+					catch(RuntimeException e){
+						aborted.set(true);
+						throw e;
+					}
+					return true;
 				}
-			}
-			catch(InterruptedException e){
-				Thread.currentThread().interrupt();
-			} 
-			catch (ExecutionException e) {
-				e.printStackTrace();
-				logger.error(e.getCause().toString());
-				System.exit(1);
-			}
-			
-			if(!minVehiclesFirst){
-				VehicleRoute newRoute = VehicleRoute.emptyRoute();
-				InsertionData newIData = bestInsertionCostCalculator.getInsertionData(newRoute, unassignedJob, NO_NEW_VEHICLE_YET, NO_NEW_DEPARTURE_TIME_YET, NO_NEW_DRIVER_YET, bestInsertionCost);
-				if(newIData.getInsertionCost() < bestInsertionCost){
-					bestInsertion = new Insertion(newRoute,newIData);
-					bestInsertionCost = newIData.getInsertionCost();
-					vehicleRoutes.add(newRoute);
-					batches.get(random.nextInt(batches.size())).routes.add(newRoute);
+				
+			}));
+		}
+		awaitTasks(futures, aborted);
+	}
+
+	/*
+	 * waits for all tasks, even if one of them has failed or the calling thread is interrupted, thus no task is left running on the 
+	 * executor when an exception is thrown (e.g. when the deadline is exceeded). the remaining tasks stop early since aborted is set.
+	 */
+	private void awaitTasks(List<Future<Boolean>> futures, AtomicBoolean aborted) {
+		Throwable failure = null;
+		boolean interrupted = false;
+		for(Future<Boolean> future : futures){
+			boolean done = false;
+			while(!done){
+				try{
+					future.get();
+					done = true;
 				}
-			}	
-			
-			if(bestInsertion == null){
-				VehicleRoute newRoute = VehicleRoute.emptyRoute();
-				InsertionData bestI = bestInsertionCostCalculator.getInsertionData(newRoute, unassignedJob, NO_NEW_VEHICLE_YET, NO_NEW_DEPARTURE_TIME_YET, NO_NEW_DRIVER_YET, Double.MAX_VALUE);
-				if(bestI instanceof InsertionData.NoInsertionFound){
-					throw new IllegalStateException(getErrorMsg(unassignedJob));
+				catch(InterruptedException e){
+					interrupted = true;
+					aborted.set(true);
 				}
-				else{
-					bestInsertion = new Insertion(newRoute,bestI);
-					vehicleRoutes.add(newRoute);
+				catch (ExecutionException e) {
+					if(failure == null) failure = e.getCause();
+					aborted.set(true);
+					done = true;
 				}
 			}
-//			logger.info("insert " + unassignedJob + " pickup@" + bestInsertion.getInsertionData().getPickupInsertionIndex() + " delivery@" + bestInsertion.getInsertionData().getDeliveryInsertionIndex());
-			inserter.insertJob(unassignedJob, bestInsertion.getInsertionData(), bestInsertion.getRoute());
 		}
-		insertionsListeners.informInsertionEndsListeners(vehicleRoutes);
+		if(interrupted){
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("concurrent best insertion has been interrupted");
+		}
+		if(failure == null) return;
+		if(failure instanceof DeadlineExceededException) throw (DeadlineExceededException) failure;
+		logger.error(failure.toString());
+		if(failure instanceof RuntimeException) throw (RuntimeException) failure;
+		throw new IllegalStateException(failure);
+	}
+
+	/*
+	 * memorizes the insertion data of jobs in [fromIndex,toIndex) for all routes. it stops once another task has aborted.
+	 */
+	private void evaluate(List<Job> jobs, int fromIndex, int toIndex, List<VehicleRoute> candidateRoutes, AtomicBoolean aborted) {
+		for(int i=fromIndex;i<toIndex;i++){
+			for(VehicleRoute route : candidateRoutes){
+				if(aborted.get()) return;
+				verifyDeadline();
+				getInsertionData(jobs.get(i), route);
+			}
+		}
+	}
+
+	/*
+	 * each task writes to its own range of bestInsertions only. it stops once another task has aborted. changedRoute == null means 
+	 * that jobs need to be evaluated against all routes.
+	 */
+	private void updateBestInsertions(List<Job> jobs, List<Insertion> bestInsertions, int fromIndex, int toIndex, List<VehicleRoute> candidateRoutes, VehicleRoute changedRoute, AtomicBoolean aborted) {
+		for(int i=fromIndex;i<toIndex;i++){
+			if(aborted.get()) return;
+			verifyDeadline();
+			Job job = jobs.get(i);
+			Insertion bestInsertion = bestInsertions.get(i);
+			if(changedRoute != null && (bestInsertion == null || bestInsertion.getRoute() != changedRoute)){
+				bestInsertion = getBetterInsertion(bestInsertion, job, changedRoute);
+			}
+			else{
+				bestInsertion = null;
+				for(VehicleRoute route : candidateRoutes){
+					bestInsertion = getBetterInsertion(bestInsertion, job, route);
+				}
+			}
+			bestInsertions.set(i, bestInsertion);
+		}
+	}
+
+	private Insertion getBetterInsertion(Insertion bestInsertion, Job job, VehicleRoute route) {
+		InsertionData iData = getInsertionData(job, route);
+		if(iData instanceof NoInsertionFound) return bestInsertion;
+		if(bestInsertion == null || iData.getInsertionCost() < bestInsertion.getInsertionData().getInsertionCost()){
+			return new Insertion(route, iData);
+		}
+		return bestInsertion;
+	}
+
+	private InsertionData getInsertionData(Job job, VehicleRoute route) {
+		InsertionData iData = insertionDataCache.get(job, route);
+		if(iData == null){
+			iData = bestInsertionCostCalculator.getInsertionData(route, job, NO_NEW_VEHICLE_YET, NO_NEW_DEPARTURE_TIME_YET, NO_NEW_DRIVER_YET, Double.MAX_VALUE);
+			insertionDataCache.put(job, route, iData);
+		}
+		return iData;
+	}
+
+	private void verifyDeadline() {
+		if(deadline != null && deadline.isExceeded()) throw new DeadlineExceededException("deadline exceeded while inserting jobs");
 	}
 
 	private String getErrorMsg(Job unassignedJob) {
@@ -217,50 +421,5 @@ final class BestInsertionConcurrent implements InsertionStrategy{
 		insertionsListeners.addListener(insertionListener);
 		
 	}
-	
-	private Insertion getBestInsertion(Batch batch, Job unassignedJob) {
-		Insertion bestInsertion = null;
-		double bestInsertionCost = Double.MAX_VALUE;
-		for(VehicleRoute vehicleRoute : batch.routes){
-			InsertionData iData = bestInsertionCostCalculator.getInsertionData(vehicleRoute, unassignedJob, NO_NEW_VEHICLE_YET, NO_NEW_DEPARTURE_TIME_YET, NO_NEW_DRIVER_YET, bestInsertionCost); 
-			if(iData instanceof NoInsertionFound) {
-				continue;
-			}
-			if(iData.getInsertionCost() < bestInsertionCost){
-				bestInsertion = new Insertion(vehicleRoute,iData);
-				bestInsertionCost = iData.getInsertionCost();
-			}
-		}
-		return bestInsertion;
-	}
-	
-	private List<Batch> distributeRoutes(Collection<VehicleRoute> vehicleRoutes, int nuOfBatches) {
-		List<Batch> batches = new ArrayList<Batch>();
-		for(int i=0;i<nuOfBatches;i++) batches.add(new Batch()); 
-		/*
-		 * if route.size < nuOfBatches add as much routes as empty batches are available
-		 * else add one empty route anyway
-		 */
-		if(vehicleRoutes.size()<nuOfBatches){
-			int nOfNewRoutes = nuOfBatches-vehicleRoutes.size();
-			for(int i=0;i<nOfNewRoutes;i++){
-				vehicleRoutes.add(VehicleRoute.emptyRoute());
-			}
-		}
-		else{
-			vehicleRoutes.add(VehicleRoute.emptyRoute());
-		}
-		/*
-		 * distribute routes to batches equally
-		 */
-		int count = 0;
-		for(VehicleRoute route : vehicleRoutes){
-			if(count == nuOfBatches) count=0;
-			batches.get(count).routes.add(route);
-			count++;
-		}
-		return batches;
-	}
-
 
 }
@@ -21,7 +21,9 @@ import java.util.List;
 
 import jsprit.core.algorithm.listener.VehicleRoutingAlgorithmListeners.PrioritizedVRAListener;
 import jsprit.core.algorithm.recreate.listener.InsertionListener;
+import jsprit.core.algorithm.state.StateManager;
 import jsprit.core.problem.VehicleRoutingProblem;
+import jsprit.core.problem.cost.ActivityTransportCosts;
 import jsprit.core.problem.constraint.ConstraintManager;
 import jsprit.core.problem.job.Delivery;
 import jsprit.core.problem.job.Job;
@@ -30,6 +32,7 @@ import jsprit.core.problem.job.Service;
 import jsprit.core.problem.job.Shipment;
 import jsprit.core.problem.solution.route.state.RouteAndActivityStateGetter;
 import jsprit.core.problem.vehicle.VehicleFleetManager;
+import jsprit.core.util.Neighborhood;
 
 
 
@@ -92,6 +95,8 @@ class CalculatorBuilder {
 	private ActivityInsertionCostsCalculator activityInsertionCostCalculator = null;
 
 	private boolean allowVehicleSwitch = true;
+	
+	private Neighborhood neighborhood = null;
 
 	/**
 	 * Constructs the builder.
@@ -154,6 +159,15 @@ class CalculatorBuilder {
 		this.activityInsertionCostCalculator = activityInsertionCostsCalculator;
 	}
 
+	/**
+	 * Sets the neighborhood. Calculators then only evaluate insertion positions adjacent to a neighbor of the activity to be inserted.
+	 * 
+	 * @param neighborhood
+	 */
+	public void setNeighborhood(Neighborhood neighborhood){
+		this.neighborhood = neighborhood;
+	}
+
 	/**
 	 * Sets a flag to build a calculator that evaluates job insertion on route-level.
 	 * 
@@ -244,9 +258,12 @@ class CalculatorBuilder {
 		if(constraintManager == null) throw new IllegalStateException("constraint-manager is null");
  		
 
+		ActivityTransportCosts activityTransportCosts = vrp.getActivityTransportCosts();
 		ActivityInsertionCostsCalculator actInsertionCalc;
 		if(activityInsertionCostCalculator == null){
-			actInsertionCalc = new LocalActivityInsertionCostsCalculator(vrp.getTransportCosts(), vrp.getActivityCosts());
+			LocalActivityInsertionCostsCalculator localActInsertionCalc = new LocalActivityInsertionCostsCalculator(vrp.getTransportCosts(), vrp.getActivityCosts());
+			if(activityTransportCosts != null) localActInsertionCalc.setActivityTransportCosts(activityTransportCosts);
+			actInsertionCalc = localActInsertionCalc;
 		}
 		else{
 			actInsertionCalc = activityInsertionCostCalculator;
@@ -254,6 +271,18 @@ class CalculatorBuilder {
 
 		ShipmentInsertionCalculator shipmentInsertion = new ShipmentInsertionCalculator(vrp.getTransportCosts(), actInsertionCalc, constraintManager);
 		ServiceInsertionCalculator serviceInsertion = new ServiceInsertionCalculator(vrp.getTransportCosts(), actInsertionCalc, constraintManager);
+		if(activityTransportCosts != null){
+			shipmentInsertion.setActivityTransportCosts(activityTransportCosts);
+			serviceInsertion.setActivityTransportCosts(activityTransportCosts);
+		}
+		if(neighborhood != null){
+			shipmentInsertion.setNeighborhood(neighborhood);
+			serviceInsertion.setNeighborhood(neighborhood);
+		}
+		if(statesManager instanceof StateManager){
+			shipmentInsertion.setStateManager((StateManager) statesManager);
+			serviceInsertion.setStateManager((StateManager) statesManager);
+		}
 		
 		JobCalculatorSwitcher switcher = new JobCalculatorSwitcher();
 		switcher.put(Shipment.class, shipmentInsertion);
@@ -289,6 +318,7 @@ class CalculatorBuilder {
 		((ServiceInsertionOnRouteLevelCalculator)jobInsertionCalculator).setNuOfActsForwardLooking(after);
 		((ServiceInsertionOnRouteLevelCalculator)jobInsertionCalculator).setMemorySize(solutionMemory);
 		((ServiceInsertionOnRouteLevelCalculator) jobInsertionCalculator).setStates(activityStates2);
+		if(neighborhood != null) ((ServiceInsertionOnRouteLevelCalculator) jobInsertionCalculator).setNeighborhood(neighborhood);
 		
 		PenalyzeInsertionCostsWithPenaltyVehicle penalyzeInsertionCosts = new PenalyzeInsertionCostsWithPenaltyVehicle(jobInsertionCalculator);
 		
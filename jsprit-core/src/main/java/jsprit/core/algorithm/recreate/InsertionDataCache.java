@@ -0,0 +1,167 @@
+/*******************************************************************************
+ * Copyright (C) 2013  Stefan Schroeder
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either 
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public 
+ * License along with this library.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jsprit.core.algorithm.recreate;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jsprit.core.algorithm.recreate.listener.InsertionStartsListener;
+import jsprit.core.algorithm.recreate.listener.JobInsertedListener;
+import jsprit.core.algorithm.recreate.listener.VehicleSwitchedListener;
+import jsprit.core.problem.job.Job;
+import jsprit.core.problem.solution.route.VehicleRoute;
+import jsprit.core.problem.vehicle.Vehicle;
+
+/**
+ * Caches insertion data of jobs per route during an insertion phase, i.e. as long as a route does not change, 
+ * the insertion data of a job in this route does not need to be recalculated.
+ * 
+ * <p>Each route has a version that is incremented whenever a job has been inserted into it. An entry is only valid if it has been
+ * memorized with the current version of its route. Thus invalidating a route is O(1).
+ * 
+ * <p>Since switching a vehicle changes the availability of vehicles for all routes, all entries are invalidated in this case. Entries 
+ * must only be memorized if they have been calculated without bestKnownCosts (i.e. with Double.MAX_VALUE) since otherwise 
+ * the calculation might have been cut off.
+ * 
+ * <p>Register the cache as InsertionListener of the insertion strategy that uses it. It is thread-safe.
+ * 
+ * @author schroeder
+ *
+ */
+class InsertionDataCache implements InsertionStartsListener, JobInsertedListener, VehicleSwitchedListener {
+	
+	private static class Entry {
+		
+		private final int routeVersion;
+		
+		private final InsertionData insertionData;
+
+		private Entry(int routeVersion, InsertionData insertionData) {
+			super();
+			this.routeVersion = routeVersion;
+			this.insertionData = insertionData;
+		}
+		
+	}
+	
+	private final ConcurrentMap<VehicleRoute,AtomicInteger> routeVersions = new ConcurrentHashMap<VehicleRoute, AtomicInteger>();
+	
+	private final ConcurrentMap<Job,Map<VehicleRoute,Entry>> entries = new ConcurrentHashMap<Job, Map<VehicleRoute,Entry>>();
+	
+	private final AtomicInteger nuOfHits = new AtomicInteger();
+	
+	private final AtomicInteger nuOfMisses = new AtomicInteger();
+	
+	/**
+	 * Returns the memorized insertion data of job in route, or null if there is no valid entry.
+	 * 
+	 * @param job
+	 * @param route
+	 * @return insertionData or null
+	 */
+	public InsertionData get(Job job, VehicleRoute route){
+		Map<VehicleRoute,Entry> routeEntries = entries.get(job);
+		if(routeEntries != null){
+			Entry entry = routeEntries.get(route);
+			if(entry != null && entry.routeVersion == getVersion(route)){
+				nuOfHits.incrementAndGet();
+				return entry.insertionData;
+			}
+		}
+		nuOfMisses.incrementAndGet();
+		return null;
+	}
+	
+	/**
+	 * Memorizes the insertion data of job in route (with the current version of route).
+	 * 
+	 * @param job
+	 * @param route
+	 * @param insertionData
+	 */
+	public void put(Job job, VehicleRoute route, InsertionData insertionData){
+		Map<VehicleRoute,Entry> routeEntries = entries.get(job);
+		if(routeEntries == null){
+			Map<VehicleRoute,Entry> newRouteEntries = new ConcurrentHashMap<VehicleRoute, Entry>();
+			routeEntries = entries.putIfAbsent(job, newRouteEntries);
+			if(routeEntries == null) routeEntries = newRouteEntries;
+		}
+		routeEntries.put(route, new Entry(getVersion(route), insertionData));
+	}
+	
+	/**
+	 * Invalidates all entries of route.
+	 * 
+	 * @param route
+	 */
+	public void invalidate(VehicleRoute route){
+		AtomicInteger version = routeVersions.get(route);
+		if(version == null){
+			AtomicInteger newVersion = new AtomicInteger();
+			version = routeVersions.putIfAbsent(route, newVersion);
+			if(version == null) version = newVersion;
+		}
+		version.incrementAndGet();
+	}
+	
+	/**
+	 * Removes all entries.
+	 */
+	public void clear(){
+		entries.clear();
+		routeVersions.clear();
+	}
+	
+	public int getNuOfHits(){
+		return nuOfHits.get();
+	}
+	
+	public int getNuOfMisses(){
+		return nuOfMisses.get();
+	}
+	
+	private int getVersion(VehicleRoute route){
+		AtomicInteger version = routeVersions.get(route);
+		if(version == null) return 0;
+		return version.get();
+	}
+
+	@Override
+	public void informInsertionStarts(Collection<VehicleRoute> vehicleRoutes, Collection<Job> unassignedJobs) {
+		clear();
+	}
+
+	@Override
+	public void informJobInserted(Job job2insert, VehicleRoute inRoute, double additionalCosts, double additionalTime) {
+		entries.remove(job2insert);
+		invalidate(inRoute);
+	}
+
+	@Override
+	public void vehicleSwitched(VehicleRoute vehicleRoute, Vehicle oldVehicle, Vehicle newVehicle) {
+		clear();
+	}
+	
+	@Override
+	public String toString() {
+		return "[name=insertionDataCache][hits=" + nuOfHits.get() + "][misses=" + nuOfMisses.get() + "]";
+	}
+
+}
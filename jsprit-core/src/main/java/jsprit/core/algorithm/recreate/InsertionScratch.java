@@ -0,0 +1,150 @@
+/*******************************************************************************
+ * Copyright (C) 2013  Stefan Schroeder
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either 
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public 
+ * License along with this library.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jsprit.core.algorithm.recreate;
+
+import jsprit.core.problem.driver.Driver;
+import jsprit.core.problem.job.Job;
+import jsprit.core.problem.job.Service;
+import jsprit.core.problem.job.Shipment;
+import jsprit.core.problem.misc.JobInsertionContext;
+import jsprit.core.problem.solution.route.VehicleRoute;
+import jsprit.core.problem.solution.route.activity.End;
+import jsprit.core.problem.solution.route.activity.Start;
+import jsprit.core.problem.solution.route.activity.TourActivity;
+import jsprit.core.problem.solution.route.activity.TourActivityFactory;
+import jsprit.core.problem.solution.route.activity.TourShipmentActivityFactory;
+import jsprit.core.problem.vehicle.Vehicle;
+
+/**
+ * Mutable objects that insertion calculators reuse to evaluate insertions of a job without allocating 
+ * a new context, new activities and a new start and end for each evaluation.
+ * 
+ * <p>Each thread has its own scratch objects. They are only valid during one evaluation and must never escape the calculator, 
+ * i.e. they must never be part of the {@link InsertionData} returned. The activities of the job are only created once per job 
+ * (and thread), the activities that are actually inserted are created by the {@link Inserter}.
+ * 
+ * <p>Acquire them with {@link #acquire()} and release them with {@link #release()} in a finally block. If the scratch objects of the current thread 
+ * are already in use (i.e. a calculator is called while another one evaluates an insertion), fresh objects are returned.
+ * 
+ * @author schroeder
+ *
+ */
+final class InsertionScratch {
+	
+	private static ThreadLocal<InsertionScratch> scratchOfThread = new ThreadLocal<InsertionScratch>(){
+		
+		@Override
+		protected InsertionScratch initialValue() {
+			return new InsertionScratch();
+		}
+		
+	};
+	
+	/**
+	 * Returns the scratch objects of the current thread, or new ones if these are already in use.
+	 * 
+	 * @return scratch objects
+	 */
+	static InsertionScratch acquire(){
+		InsertionScratch scratch = scratchOfThread.get();
+		if(scratch.inUse) return new InsertionScratch();
+		scratch.inUse = true;
+		return scratch;
+	}
+	
+	private boolean inUse = false;
+	
+	private final JobInsertionContext context = new JobInsertionContext(null, null, null, null, 0.0);
+	
+	private final Start start = new Start(null, 0.0, 0.0);
+	
+	private final End end = new End(null, 0.0, 0.0);
+	
+	private Service service;
+	
+	private TourActivity serviceActivity;
+	
+	private Shipment shipment;
+	
+	private TourActivity pickupActivity;
+	
+	private TourActivity deliveryActivity;
+	
+	private InsertionScratch(){}
+	
+	/**
+	 * Releases the scratch objects such that they can be acquired again.
+	 */
+	void release(){
+		inUse = false;
+	}
+	
+	JobInsertionContext getContext(VehicleRoute route, Job job, Vehicle newVehicle, Driver newDriver, double newDepTime){
+		return context.set(route, job, newVehicle, newDriver, newDepTime);
+	}
+	
+	/**
+	 * Returns the start with the specified values, i.e. with values a new start would have.
+	 */
+	Start getStart(String locationId, double theoreticalStart, double theoreticalEnd, double endTime){
+		start.setLocationId(locationId);
+		start.setTheoreticalEarliestOperationStartTime(theoreticalStart);
+		start.setTheoreticalLatestOperationStartTime(theoreticalEnd);
+		start.setArrTime(0.0);
+		start.setEndTime(endTime);
+		return start;
+	}
+	
+	/**
+	 * Returns the end with the specified values, i.e. with values a new end would have.
+	 */
+	End getEnd(String locationId, double theoreticalStart, double theoreticalEnd){
+		end.setLocationId(locationId);
+		end.setTheoreticalEarliestOperationStartTime(theoreticalStart);
+		end.setTheoreticalLatestOperationStartTime(theoreticalEnd);
+		end.setArrTime(0.0);
+		end.setEndTime(theoreticalEnd);
+		return end;
+	}
+	
+	TourActivity getActivity(Service service, TourActivityFactory activityFactory){
+		if(this.service != service){
+			serviceActivity = activityFactory.createActivity(service);
+			this.service = service;
+		}
+		return serviceActivity;
+	}
+	
+	TourActivity getPickup(Shipment shipment, TourShipmentActivityFactory activityFactory){
+		memorizeShipment(shipment, activityFactory);
+		return pickupActivity;
+	}
+	
+	TourActivity getDelivery(Shipment shipment, TourShipmentActivityFactory activityFactory){
+		memorizeShipment(shipment, activityFactory);
+		return deliveryActivity;
+	}
+
+	private void memorizeShipment(Shipment shipment, TourShipmentActivityFactory activityFactory) {
+		if(this.shipment != shipment){
+			pickupActivity = activityFactory.createPickup(shipment);
+			deliveryActivity = activityFactory.createDelivery(shipment);
+			this.shipment = shipment;
+		}
+	}
+
+}
@@ -20,6 +20,7 @@
  ******************************************************************************/
 package jsprit.core.algorithm.recreate;
 
+import jsprit.core.problem.cost.ActivityTransportCosts;
 import jsprit.core.problem.cost.VehicleRoutingActivityCosts;
 import jsprit.core.problem.cost.VehicleRoutingTransportCosts;
 import jsprit.core.problem.misc.JobInsertionContext;
@@ -39,22 +40,31 @@ import jsprit.core.util.CalculationUtils;
  */
 class LocalActivityInsertionCostsCalculator implements ActivityInsertionCostsCalculator{
 
-	private VehicleRoutingTransportCosts routingCosts;
+	private ActivityTransportCosts activityTransportCosts;
 	
 	private VehicleRoutingActivityCosts activityCosts;
 	
 	
 	public LocalActivityInsertionCostsCalculator(VehicleRoutingTransportCosts routingCosts, VehicleRoutingActivityCosts actCosts) {
 		super();
-		this.routingCosts = routingCosts;
+		this.activityTransportCosts = ActivityTransportCosts.newInstance(routingCosts);
 		this.activityCosts = actCosts;
 	}
 
+	/**
+	 * Sets transport costs between activities. Use {@link jsprit.core.problem.VehicleRoutingProblem#getActivityTransportCosts()} to look them up by location index.
+	 * 
+	 * @param activityTransportCosts
+	 */
+	public void setActivityTransportCosts(ActivityTransportCosts activityTransportCosts) {
+		this.activityTransportCosts = activityTransportCosts;
+	}
+
 	@Override
 	public ActivityInsertionCosts getCosts(JobInsertionContext iFacts, TourActivity prevAct, TourActivity nextAct, TourActivity newAct, double depTimeAtPrevAct) {
 		
-		double tp_costs_prevAct_newAct = routingCosts.getTransportCost(prevAct.getLocationId(), newAct.getLocationId(), depTimeAtPrevAct, iFacts.getNewDriver(), iFacts.getNewVehicle());
-		double tp_time_prevAct_newAct = routingCosts.getTransportTime(prevAct.getLocationId(), newAct.getLocationId(), depTimeAtPrevAct, iFacts.getNewDriver(), iFacts.getNewVehicle());
+		double tp_costs_prevAct_newAct = activityTransportCosts.getTransportCost(prevAct, newAct, depTimeAtPrevAct, iFacts.getNewDriver(), iFacts.getNewVehicle());
+		double tp_time_prevAct_newAct = activityTransportCosts.getTransportTime(prevAct, newAct, depTimeAtPrevAct, iFacts.getNewDriver(), iFacts.getNewVehicle());
 		
 		double newAct_arrTime = depTimeAtPrevAct + tp_time_prevAct_newAct;
 		
@@ -69,8 +79,8 @@ class LocalActivityInsertionCostsCalculator implements ActivityInsertionCostsCal
 			}
 		}
 		
-		double tp_costs_newAct_nextAct = routingCosts.getTransportCost(newAct.getLocationId(), nextAct.getLocationId(), newAct_endTime, iFacts.getNewDriver(), iFacts.getNewVehicle());
-		double tp_time_newAct_nextAct = routingCosts.getTransportTime(newAct.getLocationId(), nextAct.getLocationId(), newAct_endTime, iFacts.getNewDriver(), iFacts.getNewVehicle());
+		double tp_costs_newAct_nextAct = activityTransportCosts.getTransportCost(newAct, nextAct, newAct_endTime, iFacts.getNewDriver(), iFacts.getNewVehicle());
+		double tp_time_newAct_nextAct = activityTransportCosts.getTransportTime(newAct, nextAct, newAct_endTime, iFacts.getNewDriver(), iFacts.getNewVehicle());
 		
 		double nextAct_arrTime = newAct_endTime + tp_time_newAct_nextAct;
 				
@@ -81,16 +91,16 @@ class LocalActivityInsertionCostsCalculator implements ActivityInsertionCostsCal
 		double oldCosts;
 		double oldTime;
 		if(iFacts.getRoute().isEmpty()){
-			double tp_costs_prevAct_nextAct = routingCosts.getTransportCost(prevAct.getLocationId(), nextAct.getLocationId(), depTimeAtPrevAct, iFacts.getNewDriver(), iFacts.getNewVehicle());
-			double arrTime_nextAct = routingCosts.getTransportTime(prevAct.getLocationId(), nextAct.getLocationId(), depTimeAtPrevAct, iFacts.getNewDriver(), iFacts.getNewVehicle());
+			double tp_costs_prevAct_nextAct = activityTransportCosts.getTransportCost(prevAct, nextAct, depTimeAtPrevAct, iFacts.getNewDriver(), iFacts.getNewVehicle());
+			double arrTime_nextAct = activityTransportCosts.getTransportTime(prevAct, nextAct, depTimeAtPrevAct, iFacts.getNewDriver(), iFacts.getNewVehicle());
 			
 			double actCost_nextAct = activityCosts.getActivityCost(nextAct, arrTime_nextAct, iFacts.getNewDriver(), iFacts.getNewVehicle());
 			oldCosts = tp_costs_prevAct_nextAct + actCost_nextAct;
 			oldTime = (nextAct.getArrTime() - depTimeAtPrevAct);
 		}
 		else{
-			double tp_costs_prevAct_nextAct = routingCosts.getTransportCost(prevAct.getLocationId(), nextAct.getLocationId(), prevAct.getEndTime(), iFacts.getRoute().getDriver(), iFacts.getRoute().getVehicle());
-			double arrTime_nextAct = routingCosts.getTransportTime(prevAct.getLocationId(), nextAct.getLocationId(), prevAct.getEndTime(), iFacts.getRoute().getDriver(), iFacts.getRoute().getVehicle());
+			double tp_costs_prevAct_nextAct = activityTransportCosts.getTransportCost(prevAct, nextAct, prevAct.getEndTime(), iFacts.getRoute().getDriver(), iFacts.getRoute().getVehicle());
+			double arrTime_nextAct = activityTransportCosts.getTransportTime(prevAct, nextAct, prevAct.getEndTime(), iFacts.getRoute().getDriver(), iFacts.getRoute().getVehicle());
 			
 			double actCost_nextAct = activityCosts.getActivityCost(nextAct, arrTime_nextAct, iFacts.getRoute().getDriver(), iFacts.getRoute().getVehicle());
 			oldCosts = tp_costs_prevAct_nextAct + actCost_nextAct;
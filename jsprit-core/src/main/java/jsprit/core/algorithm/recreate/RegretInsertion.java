@@ -1,4 +1,3 @@
-package jsprit.core.algorithm.recreate;
 /*******************************************************************************
  * Copyright (C) 2013  Stefan Schroeder
  * 
@@ -15,232 +14,446 @@ package jsprit.core.algorithm.recreate;
  * You should have received a copy of the GNU Lesser General Public 
  * License along with this library.  If not, see <http://www.gnu.org/licenses/>.
  ******************************************************************************/
-///*******************************************************************************
-// * Copyright (c) 2011 Stefan Schroeder.
-// * eMail: stefan.schroeder@kit.edu
-// * 
-// * All rights reserved. This program and the accompanying materials
-// * are made available under the terms of the GNU Public License v2.0
-// * which accompanies this distribution, and is available at
-// * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
-// * 
-// * Contributors:
-// *     Stefan Schroeder - initial API and implementation
-// ******************************************************************************/
-//package algorithms;
-//
-//import java.util.ArrayList;
-//import java.util.Collection;
-//import java.util.List;
-//
-//import org.apache.log4j.Logger;
-//
-//import algorithms.InsertionData.NoInsertionFound;
-//import basics.Job;
-//import basics.Service;
-//import basics.algo.InsertionListener;
-//import basics.route.VehicleRoute;
-//
-//
-///**
-// * Insertion based an regret approach. 
-// * 
-// * <p>Basically calculates the insertion cost of the firstBest and the secondBest alternative. The score is then calculated as difference 
-// * between secondBest and firstBest, plus additional scoring variables that can defined in this.ScoringFunction.
-// * The idea is that if the cost of the secondBest alternative is way higher than the first best, it seems to be important to insert this
-// * customer immediatedly. If difference is not that high, it might not impact solution if this customer is inserted later.
-// * 
-// * @author stefan schroeder
-// *
-// */
-//final class RegretInsertion implements InsertionStrategy{
-//		
-//	/**
-//	 * Scorer to include other impacts on score such as time-window length or distance to depot.
-//	 * 
-//	 * @author schroeder
-//	 *
-//	 */
-//	static interface ScoringFunction {
-//		
-//		public double score(Job job);
-//		
-//	}
-//	
-//	/**
-//	 * Scorer that includes the length of the time-window when scoring a job. The wider the time-window, the lower the score.
-//	 * 
-//	 * <p>This is the default scorer, i.e.: score = (secondBest - firstBest) + this.TimeWindowScorer.score(job)
-//	 *  
-//	 * @author schroeder
-//	 *
-//	 */
-//	static class TimeWindowScorer implements ScoringFunction {
-//
-//		private double tw_scoringParam = - 0.1;
-//		
-//		@Override
-//		public double score(Job job) {
-//			double twStart = 0.0;
-//			double twEnd = 0.0;
-////			if(job instanceof Shipment){
-////				twStart = ((Shipment) job).getDeliveryTW().getStart();
-////				twEnd  = ((Shipment) job).getDeliveryTW().getEnd();
-////			}
-////			else 
-//			if(job instanceof Service){
-//				twStart = ((Service) job).getTimeWindow().getStart();
-//				twEnd  = ((Service) job).getTimeWindow().getEnd();
-//			}
-//			return (twEnd-twStart)*tw_scoringParam;
-//		}
-//		
-//		@Override
-//		public String toString() {
-//			return "[name=timeWindowScorer][scoringParam="+tw_scoringParam+"]";
-//		}
-//		
-//	}
-//	
-//	public static RegretInsertion newInstance(RouteAlgorithm routeAlgorithm) {
-//		return new RegretInsertion(routeAlgorithm);
-//	}
-//
-//	private Logger logger = Logger.getLogger(RegretInsertion.class);
-//	
-//	private RouteAlgorithm routeAlgorithm;
-//	
-//	private ScoringFunction scoringFunction = new TimeWindowScorer();
-//
-//	/**
-//	 * Sets the scoring function.
-//	 * 
-//	 * <p>By default, the this.TimeWindowScorer is used.
-//	 * 
-//	 * @param scoringFunction
-//	 */
-//	public void setScoringFunction(ScoringFunction scoringFunction) {
-//		this.scoringFunction = scoringFunction;
-//	}
-//
-//	public RegretInsertion(RouteAlgorithm routeAlgorithm) {
-//		super();
-//		this.routeAlgorithm = routeAlgorithm;
-//		logger.info("initialise " + this);
-//	}
-//	
-//	@Override
-//	public String toString() {
-//		return "[name=regretInsertion][additionalScorer="+scoringFunction+"]";
-//	}
-//	
-//	public RouteAlgorithm getRouteAlgorithm(){
-//		return routeAlgorithm;
-//	}
-//
-//	/**
-//	 * Runs insertion.
-//	 * 
-//	 * <p>Before inserting a job, all unassigned jobs are scored according to its best- and secondBest-insertion plus additional scoring variables.
-//	 * 
-//	 */
-//	@Override
-//	public void insertJobs(Collection<VehicleRoute> routes, Collection<Job> unassignedJobs) {
-//		List<Job> jobs = new ArrayList<Job>(unassignedJobs);
-////		informInsertionStarts(routes,unassignedJobs);
-//		int inserted = 0;
-//		while(!jobs.isEmpty()){
-//			List<Job> unassignedJobList = new ArrayList<Job>(jobs);
-//			ScoredJob bestScoredJob = null;
-//			double bestScore = -1*Double.MAX_VALUE;
-//			VehicleRoute insertIn = null;
-//			
-//			for(Job unassignedJob : unassignedJobList){
-//				InsertionData best = null;
-//				InsertionData secondBest = null;
-//				VehicleRoute bestRoute = null;
-//				
-//				double benchmark = Double.MAX_VALUE;
-//				for(VehicleRoute route : routes){
-//					if(secondBest != null){
-//						benchmark = secondBest.getInsertionCost();
-//					}
-//					InsertionData iData = routeAlgorithm.calculateBestInsertion(route, unassignedJob, benchmark);
-//					if(iData instanceof NoInsertionFound) continue;
-//					if(best == null){
-//						best = iData;
-//						bestRoute = route;
-//					}
-//					else if(iData.getInsertionCost() < best.getInsertionCost()){
-//						secondBest = best;
-//						best = iData;
-//						bestRoute = route;
-//					}
-//					else if(secondBest == null || (iData.getInsertionCost() < secondBest.getInsertionCost())){
-//						secondBest = iData;
-//					}
-//				}
-//				if(best == null){
-//					break;
-//				}
-//				double score = score(unassignedJob,best,secondBest);
-//				if(score > bestScore){
-//					bestScoredJob = new ScoredJob(unassignedJob,score,best,bestRoute);
-//					bestScore = score;
-//				}
-//			}
-//			Job assignedJob;
-//			if(bestScoredJob == null){
-//				Job job = unassignedJobList.get(0);
-//				VehicleRoute newRoute = VehicleRoute.emptyRoute();	
-//				InsertionData bestI = routeAlgorithm.calculateBestInsertion(newRoute, job, Double.MAX_VALUE);
-//				if(bestI instanceof InsertionData.NoInsertionFound) throw new IllegalStateException("given the vehicles, could not create a valid solution");
-//				insertIn=newRoute;
-//				assignedJob=job;
-//				routeAlgorithm.insertJob(job,bestI,newRoute);
-//				routes.add(newRoute);
-//				jobs.remove(job);
-//				
-//			}
-//			else{
-//				routeAlgorithm.insertJob(bestScoredJob.getJob(),bestScoredJob.getInsertionData(), bestScoredJob.getRoute());
-//				insertIn=bestScoredJob.getRoute();
-//				assignedJob=bestScoredJob.getJob();
-//				jobs.remove(bestScoredJob.getJob());
-//			}
-//			inserted++;
-////			informJobInserted(assignedJob, insertIn);
-//			
-//		}
-//	}
-//
-//	private double score(Job unassignedJob, InsertionData best, InsertionData secondBest) {
-//		if(best == null){
-//			throw new IllegalStateException("cannot insert job " +  unassignedJob.getId());
-//		}
-//		if(secondBest == null){
-//			return Double.MAX_VALUE;
-//		}
-//		return (secondBest.getInsertionCost()-best.getInsertionCost()) + scoringFunction.score(unassignedJob);
-//
-//	}
-//
-//	@Override
-//	public void removeListener(InsertionListener insertionListener) {
-//		// TODO Auto-generated method stub
-//		
-//	}
-//
-//	@Override
-//	public Collection<InsertionListener> getListeners() {
-//		// TODO Auto-generated method stub
-//		return null;
-//	}
-//
-//	@Override
-//	public void addListener(InsertionListener insertionListener) {
-//		// TODO Auto-generated method stub
-//		
-//	}
-//		
-//}
+package jsprit.core.algorithm.recreate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import jsprit.core.algorithm.recreate.InsertionData.NoInsertionFound;
+import jsprit.core.algorithm.recreate.listener.InsertionListener;
+import jsprit.core.algorithm.recreate.listener.InsertionListeners;
+import jsprit.core.problem.driver.Driver;
+import jsprit.core.problem.job.Job;
+import jsprit.core.problem.job.Service;
+import jsprit.core.problem.job.Shipment;
+import jsprit.core.problem.solution.route.VehicleRoute;
+import jsprit.core.problem.vehicle.Vehicle;
+
+import org.apache.log4j.Logger;
+
+
+/**
+ * Insertion based on a regret approach. 
+ * 
+ * <p>Before inserting a job, all unassigned jobs are scored according to their k best insertion alternatives, i.e. the score is the sum of differences 
+ * between the i-th best (i=2..k) and the best alternative, plus an additional score that can be defined by a ScoringFunction. The job with the highest score 
+ * is inserted first. The idea is that if the costs of the alternatives are way higher than the best, it seems to be important to insert this
+ * job immediately. If the differences are not that high, it might not impact the solution if this job is inserted later. Jobs that have less than k alternatives
+ * get the highest possible score.
+ * 
+ * <p>The k best insertion alternatives of each job are memorized and updated incrementally, i.e. after inserting a job, only the route that 
+ * has changed is re-evaluated (insertion data of unchanged routes are memorized in an {@link InsertionDataCache}). If the vehicle of a route 
+ * has been switched, all alternatives are re-evaluated since the availability of vehicles has changed.
+ * 
+ * <p>If an ExecutorService is set, unassigned jobs are evaluated in parallel. The result does not depend on the number of threads.
+ * 
+ * @author stefan schroeder
+ *
+ */
+final class RegretInsertion implements InsertionStrategy{
+		
+	/**
+	 * Scorer to include other impacts on score such as time-window length or distance to depot.
+	 * 
+	 * @author schroeder
+	 *
+	 */
+	static interface ScoringFunction {
+		
+		public double score(Job job);
+		
+	}
+	
+	/**
+	 * Scorer that includes the length of the time-window when scoring a job. The wider the time-window, the lower the score.
+	 * 
+	 * <p>Jobs with an unbounded time-window are not scored.
+	 *  
+	 * @author schroeder
+	 *
+	 */
+	static class TimeWindowScorer implements ScoringFunction {
+
+		private double tw_scoringParam = - 0.1;
+		
+		@Override
+		public double score(Job job) {
+			double twStart = 0.0;
+			double twEnd = 0.0;
+			if(job instanceof Shipment){
+				twStart = ((Shipment) job).getDeliveryTimeWindow().getStart();
+				twEnd  = ((Shipment) job).getDeliveryTimeWindow().getEnd();
+			}
+			else if(job instanceof Service){
+				twStart = ((Service) job).getTimeWindow().getStart();
+				twEnd  = ((Service) job).getTimeWindow().getEnd();
+			}
+			if(twEnd == Double.MAX_VALUE) return 0.0;
+			return (twEnd-twStart)*tw_scoringParam;
+		}
+		
+		@Override
+		public String toString() {
+			return "[name=timeWindowScorer][scoringParam="+tw_scoringParam+"]";
+		}
+		
+	}
+	
+	/**
+	 * Memorizes the k best insertion alternatives of a job (sorted by insertion costs).
+	 * 
+	 * @author schroeder
+	 *
+	 */
+	static class Alternatives {
+		
+		private final Job job;
+		
+		private final VehicleRoute[] routes;
+		
+		private final InsertionData[] insertionData;
+		
+		private int size = 0;
+		
+		Alternatives(Job job, int k) {
+			this.job = job;
+			this.routes = new VehicleRoute[k];
+			this.insertionData = new InsertionData[k];
+		}
+		
+		void clear(){
+			for(int i=0;i<size;i++){
+				routes[i] = null;
+				insertionData[i] = null;
+			}
+			size = 0;
+		}
+		
+		boolean contains(VehicleRoute route){
+			for(int i=0;i<size;i++){
+				if(routes[i] == route) return true;
+			}
+			return false;
+		}
+		
+		void offer(VehicleRoute route, InsertionData iData){
+			if(iData instanceof NoInsertionFound) return;
+			double cost = iData.getInsertionCost();
+			if(size == routes.length && cost >= insertionData[size-1].getInsertionCost()) return;
+			int index = Math.min(size, routes.length-1);
+			while(index > 0 && insertionData[index-1].getInsertionCost() > cost){
+				routes[index] = routes[index-1];
+				insertionData[index] = insertionData[index-1];
+				index--;
+			}
+			routes[index] = route;
+			insertionData[index] = iData;
+			if(size < routes.length) size++;
+		}
+		
+		int size(){
+			return size;
+		}
+		
+		VehicleRoute getBestRoute(){
+			return routes[0];
+		}
+		
+		InsertionData getBest(){
+			return insertionData[0];
+		}
+		
+		double getRegret(){
+			if(size < routes.length) return Double.MAX_VALUE;
+			double regret = 0.0;
+			for(int i=1;i<size;i++){
+				regret += insertionData[i].getInsertionCost() - insertionData[0].getInsertionCost();
+			}
+			return regret;
+		}
+		
+	}
+	
+	static class ScoredJob {
+		
+		private final Alternatives alternatives;
+		
+		private final double score;
+
+		ScoredJob(Alternatives alternatives, double score) {
+			super();
+			this.alternatives = alternatives;
+			this.score = score;
+		}
+		
+		/*
+		 * higher score first, then lower insertion costs; ties are resolved by the order of jobs, i.e. the first one remains
+		 */
+		boolean isBetterThan(ScoredJob other){
+			if(other == null) return true;
+			if(score > other.score) return true;
+			if(score < other.score) return false;
+			return alternatives.getBest().getInsertionCost() < other.alternatives.getBest().getInsertionCost();
+		}
+		
+	}
+	
+	private static Logger logger = Logger.getLogger(RegretInsertion.class);
+	
+	private final static double NO_NEW_DEPARTURE_TIME_YET = -12345.12345;
+	
+	private final static Vehicle NO_NEW_VEHICLE_YET = null;
+	
+	private final static Driver NO_NEW_DRIVER_YET = null;
+	
+	private InsertionListeners insertionsListeners;
+	
+	private Inserter inserter;
+	
+	private JobInsertionCostsCalculator insertionCostsCalculator;
+	
+	private InsertionDataCache insertionDataCache = new InsertionDataCache();
+	
+	private ScoringFunction scoringFunction = null;
+	
+	private final int k;
+	
+	private ExecutorService executor = null;
+	
+	private int nuOfBatches = 1;
+
+	/**
+	 * Constructs regret insertion that considers the k best alternatives of each job.
+	 * 
+	 * @param jobInsertionCalculator
+	 * @param k
+	 */
+	public RegretInsertion(JobInsertionCostsCalculator jobInsertionCalculator, int k) {
+		super();
+		if(k < 2) throw new IllegalStateException("k must be at least 2, i.e. regret needs at least the best and the second best alternative");
+		this.k = k;
+		this.insertionCostsCalculator = jobInsertionCalculator;
+		this.insertionsListeners = new InsertionListeners();
+		this.insertionsListeners.addListener(insertionDataCache);
+		this.inserter = new Inserter(insertionsListeners);
+		logger.info("initialise " + this);
+	}
+	
+	/**
+	 * Constructs regret insertion that evaluates unassigned jobs in parallel, i.e. in nuOfBatches tasks submitted to executorService.
+	 * 
+	 * @param jobInsertionCalculator
+	 * @param k
+	 * @param executorService
+	 * @param nuOfBatches
+	 */
+	public RegretInsertion(JobInsertionCostsCalculator jobInsertionCalculator, int k, ExecutorService executorService, int nuOfBatches) {
+		this(jobInsertionCalculator, k);
+		this.executor = executorService;
+		this.nuOfBatches = Math.max(1, nuOfBatches);
+	}
+	
+	/**
+	 * Sets the scoring function.
+	 * 
+	 * <p>By default, there is no additional scoring.
+	 * 
+	 * @param scoringFunction
+	 */
+	public void setScoringFunction(ScoringFunction scoringFunction) {
+		this.scoringFunction = scoringFunction;
+	}
+
+	@Override
+	public String toString() {
+		return "[name=regretInsertion][k="+k+"][additionalScorer="+scoringFunction+"]";
+	}
+	
+	InsertionDataCache getInsertionDataCache(){
+		return insertionDataCache;
+	}
+
+	/**
+	 * Runs insertion.
+	 * 
+	 * <p>Before inserting a job, all unassigned jobs are scored according to their k best insertion alternatives plus additional scoring variables.
+	 * 
+	 */
+	@Override
+	public void insertJobs(Collection<VehicleRoute> vehicleRoutes, Collection<Job> unassignedJobs) {
+		insertionsListeners.informInsertionStarts(vehicleRoutes,unassignedJobs);
+		List<Alternatives> alternativesList = new ArrayList<Alternatives>();
+		for(Job job : unassignedJobs) alternativesList.add(new Alternatives(job, k));
+		VehicleRoute emptyRoute = VehicleRoute.emptyRoute();
+		List<VehicleRoute> changedRoutes = null;
+		while(!alternativesList.isEmpty()){
+			List<VehicleRoute> candidateRoutes = new ArrayList<VehicleRoute>(vehicleRoutes);
+			candidateRoutes.add(emptyRoute);
+			ScoredJob bestScoredJob = evaluate(alternativesList, candidateRoutes, changedRoutes);
+			Alternatives bestAlternatives = bestScoredJob.alternatives;
+			VehicleRoute route = bestAlternatives.getBestRoute();
+			Vehicle vehicleBeforeInsertion = route.getVehicle();
+			if(route == emptyRoute){
+				vehicleRoutes.add(emptyRoute);
+				emptyRoute = VehicleRoute.emptyRoute();
+			}
+			inserter.insertJob(bestAlternatives.job, bestAlternatives.getBest(), route);
+			alternativesList.remove(bestAlternatives);
+			if(route.getVehicle() != vehicleBeforeInsertion){
+				changedRoutes = null;
+			}
+			else{
+				changedRoutes = Collections.singletonList(route);
+			}
+		}
+		insertionsListeners.informInsertionEndsListeners(vehicleRoutes);
+	}
+
+	/*
+	 * changedRoutes == null means that all alternatives need to be re-evaluated
+	 */
+	private ScoredJob evaluate(final List<Alternatives> alternativesList, final List<VehicleRoute> candidateRoutes, final List<VehicleRoute> changedRoutes) {
+		int nuOfTasks = Math.min(nuOfBatches, alternativesList.size());
+		final AtomicBoolean aborted = new AtomicBoolean(false);
+		if(executor == null || nuOfTasks < 2){
+			return evaluate(alternativesList, 0, alternativesList.size(), candidateRoutes, changedRoutes, aborted);
+		}
+		List<Future<ScoredJob>> futures = new ArrayList<Future<ScoredJob>>(nuOfTasks);
+		int batchSize = (int)Math.ceil((double)alternativesList.size()/(double)nuOfTasks);
+		for(int from=0;from<alternativesList.size();from+=batchSize){
+			final int fromIndex = from;
+			final int toIndex = Math.min(from + batchSize, alternativesList.size());
+			futures.add(executor.submit(new Callable<ScoredJob>() {
+
+				@Override
+				public ScoredJob call() throws Exception {
+					try{
+						return evaluate(alternativesList, fromIndex, toIndex, candidateRoutes, changedRoutes, aborted);
+					}
+					catch(RuntimeException e){
+						aborted.set(true);
+						throw e;
+					}
+				}
+				
+			}));
+		}
+		return awaitTasks(futures, aborted);
+	}
+
+	/*
+	 * waits for all tasks, even if one of them has failed or the calling thread is interrupted, thus no task is left evaluating 
+	 * the routes when an exception is thrown. the remaining tasks stop early since aborted is set.
+	 */
+	private ScoredJob awaitTasks(List<Future<ScoredJob>> futures, AtomicBoolean aborted) {
+		ScoredJob bestScoredJob = null;
+		Throwable failure = null;
+		boolean interrupted = false;
+		for(Future<ScoredJob> future : futures){
+			boolean done = false;
+			while(!done){
+				try{
+					ScoredJob scoredJob = future.get();
+					if(scoredJob != null && scoredJob.isBetterThan(bestScoredJob)) bestScoredJob = scoredJob;
+					done = true;
+				}
+				catch (InterruptedException e) {
+					interrupted = true;
+					aborted.set(true);
+				}
+				catch (ExecutionException e) {
+					if(failure == null) failure = e.getCause();
+					aborted.set(true);
+					done = true;
+				}
+			}
+		}
+		if(interrupted){
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("regret insertion has been interrupted");
+		}
+		if(failure instanceof RuntimeException) throw (RuntimeException) failure;
+		if(failure != null) throw new IllegalStateException(failure);
+		return bestScoredJob;
+	}
+	
+	private ScoredJob evaluate(List<Alternatives> alternativesList, int fromIndex, int toIndex, List<VehicleRoute> candidateRoutes, List<VehicleRoute> changedRoutes, AtomicBoolean aborted){
+		ScoredJob bestScoredJob = null;
+		for(int i=fromIndex;i<toIndex;i++){
+			if(aborted.get()) return bestScoredJob;
+			Alternatives alternatives = alternativesList.get(i);
+			update(alternatives, candidateRoutes, changedRoutes);
+			if(alternatives.size() == 0){
+				throw new IllegalStateException(getErrorMsg(alternatives.job));
+			}
+			double score = alternatives.getRegret();
+			if(scoringFunction != null) score += scoringFunction.score(alternatives.job);
+			ScoredJob scoredJob = new ScoredJob(alternatives, score);
+			if(scoredJob.isBetterThan(bestScoredJob)) bestScoredJob = scoredJob;
+		}
+		return bestScoredJob;
+	}
+
+	private void update(Alternatives alternatives, List<VehicleRoute> candidateRoutes, List<VehicleRoute> changedRoutes) {
+		if(changedRoutes != null && alternatives.size() > 0){
+			boolean bestAlternativeChanged = false;
+			for(VehicleRoute changedRoute : changedRoutes){
+				if(alternatives.contains(changedRoute)){
+					bestAlternativeChanged = true;
+					break;
+				}
+			}
+			if(!bestAlternativeChanged){
+				for(VehicleRoute changedRoute : changedRoutes){
+					alternatives.offer(changedRoute, getInsertionData(alternatives.job, changedRoute));
+				}
+				return;
+			}
+		}
+		alternatives.clear();
+		for(VehicleRoute route : candidateRoutes){
+			alternatives.offer(route, getInsertionData(alternatives.job, route));
+		}
+	}
+
+	private InsertionData getInsertionData(Job job, VehicleRoute route) {
+		InsertionData iData = insertionDataCache.get(job, route);
+		if(iData == null){
+			iData = insertionCostsCalculator.getInsertionData(route, job, NO_NEW_VEHICLE_YET, NO_NEW_DEPARTURE_TIME_YET, NO_NEW_DRIVER_YET, Double.MAX_VALUE);
+			insertionDataCache.put(job, route, iData);
+		}
+		return iData;
+	}
+
+	private String getErrorMsg(Job unassignedJob) {
+		return "given the vehicles, could not insert job\n" +
+				"\t" + unassignedJob + 
+				"\n\tthis might have the following reasons:\n" + 
+				"\t- no vehicle has the capacity to transport the job [check whether there is at least one vehicle that is capable to transport the job]\n" +
+				"\t- the time-window cannot be met, even in a commuter tour the time-window is missed [check whether it is possible to reach the time-window on the shortest path or make hard time-windows soft]\n" +
+				"\t- if you deal with finite vehicles, and the available vehicles are already fully employed, no vehicle can be found anymore to transport the job [add penalty-vehicles]";
+	}
+
+	@Override
+	public void removeListener(InsertionListener insertionListener) {
+		insertionsListeners.removeListener(insertionListener);
+	}
+
+	@Override
+	public Collection<InsertionListener> getListeners() {
+		return Collections.unmodifiableCollection(insertionsListeners.getListeners());
+	}
+
+	@Override
+	public void addListener(InsertionListener insertionListener) {
+		insertionsListeners.addListener(insertionListener);
+	}
+		
+}
@@ -57,7 +57,7 @@ class RouteLevelActivityInsertionCostsEstimator implements ActivityInsertionCost
 		path.add(prevAct); path.add(newAct); path.add(nextAct);
 		int actIndex;
 		if(prevAct instanceof Start) actIndex = 0;
-		else actIndex = iFacts.getRoute().getTourActivities().getActivities().indexOf(prevAct);
+		else actIndex = iFacts.getRoute().getTourActivities().indexOf(prevAct);
 		if(nuOfActivities2LookForward > 0){ path.addAll(getForwardLookingPath(iFacts.getRoute(),actIndex)); }
 
 		/**
@@ -16,13 +16,18 @@
  ******************************************************************************/
 package jsprit.core.algorithm.recreate;
 
+import java.util.List;
+
 import jsprit.core.algorithm.recreate.ActivityInsertionCostsCalculator.ActivityInsertionCosts;
+import jsprit.core.algorithm.state.StateManager;
 import jsprit.core.problem.constraint.ConstraintManager;
+import jsprit.core.problem.constraint.HardActivityIndexConstraint;
 import jsprit.core.problem.constraint.HardActivityStateLevelConstraint;
 import jsprit.core.problem.constraint.HardActivityStateLevelConstraint.ConstraintsStatus;
 import jsprit.core.problem.constraint.HardRouteStateLevelConstraint;
 import jsprit.core.problem.constraint.SoftActivityConstraint;
 import jsprit.core.problem.constraint.SoftRouteConstraint;
+import jsprit.core.problem.cost.ActivityTransportCosts;
 import jsprit.core.problem.cost.VehicleRoutingTransportCosts;
 import jsprit.core.problem.driver.Driver;
 import jsprit.core.problem.job.Job;
@@ -37,6 +42,7 @@ import jsprit.core.problem.solution.route.activity.TourActivityFactory;
 import jsprit.core.problem.vehicle.Vehicle;
 import jsprit.core.problem.vehicle.VehicleImpl.NoVehicle;
 import jsprit.core.util.CalculationUtils;
+import jsprit.core.util.Neighborhood;
 
 import org.apache.log4j.Logger;
 
@@ -54,23 +60,37 @@ final class ServiceInsertionCalculator implements JobInsertionCostsCalculator{
 	
 	private HardActivityStateLevelConstraint hardActivityLevelConstraint;
 	
+	private HardActivityIndexConstraint activityIndexConstraint;
+	
 	private SoftRouteConstraint softRouteConstraint;
 	
 	private SoftActivityConstraint softActivityConstraint;
 	
-	private VehicleRoutingTransportCosts transportCosts;
+	private ActivityTransportCosts activityTransportCosts;
+	
+	private StateManager stateManager;
 	
 	private ActivityInsertionCostsCalculator additionalTransportCostsCalculator;
 	
 	private TourActivityFactory activityFactory;
 	
 	private AdditionalAccessEgressCalculator additionalAccessEgressCalculator;
+	
+	private Neighborhood neighborhood = new Neighborhood() {
+		
+		@Override
+		public boolean areNeighbors(String location1, String location2) {
+			return true;
+		}
+		
+	};
 
 	public ServiceInsertionCalculator(VehicleRoutingTransportCosts routingCosts, ActivityInsertionCostsCalculator additionalTransportCostsCalculator, ConstraintManager constraintManager) {
 		super();
-		this.transportCosts = routingCosts;
+		this.activityTransportCosts = ActivityTransportCosts.newInstance(routingCosts);
 		hardRouteLevelConstraint = constraintManager;
 		hardActivityLevelConstraint = constraintManager;
+		activityIndexConstraint = constraintManager;
 		softActivityConstraint = constraintManager;
 		softRouteConstraint = constraintManager;
 		this.additionalTransportCostsCalculator = additionalTransportCostsCalculator;
@@ -78,6 +98,38 @@ final class ServiceInsertionCalculator implements JobInsertionCostsCalculator{
 		additionalAccessEgressCalculator = new AdditionalAccessEgressCalculator(routingCosts);
 		logger.info("initialise " + this);
 	}
+
+	/**
+	 * Sets the costs used to determine arrival times at subsequent activities. By default, they are looked up by location id.
+	 * 
+	 * @param activityTransportCosts
+	 */
+	public void setActivityTransportCosts(ActivityTransportCosts activityTransportCosts) {
+		this.activityTransportCosts = activityTransportCosts;
+	}
+	
+	/**
+	 * Sets the stateManager. If it updates activity times (see {@link StateManager#updatesActivityTimes()}) and a route is evaluated with 
+	 * its own vehicle, positions before the earliest insertion index are skipped entirely, i.e. evaluation starts with the stored end time of 
+	 * the activity before this index.
+	 * 
+	 * @param stateManager
+	 */
+	public void setStateManager(StateManager stateManager) {
+		this.stateManager = stateManager;
+	}
+	
+	/**
+	 * Sets the neighborhood. Only positions adjacent to a neighbor of the activity to be inserted, i.e. where either the previous or the next activity is a neighbor, are evaluated.
+	 * 
+	 * <p>By default, all locations are neighbors.
+	 * 
+	 * @param neighborhood
+	 */
+	public void setNeighborhood(Neighborhood neighborhood) {
+		this.neighborhood = neighborhood;
+		logger.info("initialise neighborhood " + neighborhood);
+	}
 	
 	@Override
 	public String toString() {
@@ -94,7 +146,21 @@ final class ServiceInsertionCalculator implements JobInsertionCostsCalculator{
 		if(jobToInsert == null) throw new IllegalStateException("jobToInsert is missing.");
 		if(newVehicle == null || newVehicle instanceof NoVehicle) throw new IllegalStateException("newVehicle is missing.");
 		
-		JobInsertionContext insertionContext = new JobInsertionContext(currentRoute, jobToInsert, newVehicle, newDriver, newVehicleDepartureTime);
+		InsertionScratch scratch = InsertionScratch.acquire();
+		try{
+			return calculate(scratch, currentRoute, (Service)jobToInsert, newVehicle, newVehicleDepartureTime, newDriver, bestKnownCosts);
+		}
+		finally{
+			scratch.release();
+		}
+	}
+	
+	/**
+	 * Evaluates all insertion positions with the scratch objects of the current thread. Only the insertion data of the best position
+	 * is created as a real object.
+	 */
+	private InsertionData calculate(InsertionScratch scratch, VehicleRoute currentRoute, Service service, Vehicle newVehicle, double newVehicleDepartureTime, Driver newDriver, double bestKnownCosts){
+		JobInsertionContext insertionContext = scratch.getContext(currentRoute, service, newVehicle, newDriver, newVehicleDepartureTime);
 		if(!hardRouteLevelConstraint.fulfilled(insertionContext)){
 			return InsertionData.createEmptyInsertionData();
 		}
@@ -105,48 +171,62 @@ final class ServiceInsertionCalculator implements JobInsertionCostsCalculator{
 		double additionalICostsAtRouteLevel = softRouteConstraint.getCosts(insertionContext);
 		additionalICostsAtRouteLevel += additionalAccessEgressCalculator.getCosts(insertionContext);
 		
-		Service service = (Service)jobToInsert;
 		int insertionIndex = InsertionData.NO_INDEX;
 		
-		TourActivity deliveryAct2Insert = activityFactory.createActivity(service);
+		TourActivity deliveryAct2Insert = scratch.getActivity(service, activityFactory);
 		
-		Start start = Start.newInstance(newVehicle.getStartLocationId(), newVehicle.getEarliestDeparture(), Double.MAX_VALUE);
-		start.setEndTime(newVehicleDepartureTime);
-		End end = End.newInstance(newVehicle.getEndLocationId(), 0.0, newVehicle.getLatestArrival());
+		List<TourActivity> activities = currentRoute.getTourActivities().getActivities();
+		int earliestInsertionIndex = activityIndexConstraint.getEarliestInsertionIndex(insertionContext, deliveryAct2Insert);
+		if(earliestInsertionIndex > activities.size()){
+			return InsertionData.createEmptyInsertionData();
+		}
+		
+		Start start = scratch.getStart(newVehicle.getStartLocationId(), newVehicle.getEarliestDeparture(), Double.MAX_VALUE, newVehicleDepartureTime);
+		End end = scratch.getEnd(newVehicle.getEndLocationId(), 0.0, newVehicle.getLatestArrival());
 		
 		TourActivity prevAct = start;
 		double prevActStartTime = newVehicleDepartureTime;
 		int actIndex = 0;
+		if(earliestInsertionIndex > 0 && departureTimesKnown(currentRoute, newVehicle, newDriver, newVehicleDepartureTime)){
+			actIndex = earliestInsertionIndex;
+			prevAct = activities.get(actIndex-1);
+			prevActStartTime = prevAct.getEndTime();
+		}
 		boolean loopBroken = false;
-		for(TourActivity nextAct : currentRoute.getTourActivities().getActivities()){
-			ConstraintsStatus status = hardActivityLevelConstraint.fulfilled(insertionContext, prevAct, deliveryAct2Insert, nextAct, prevActStartTime);
-			if(status.equals(ConstraintsStatus.FULFILLED)){
-				//from job2insert induced costs at activity level
-				double additionalICostsAtActLevel = softActivityConstraint.getCosts(insertionContext, prevAct, deliveryAct2Insert, nextAct, prevActStartTime);
-				ActivityInsertionCosts additionalTransportationCosts = additionalTransportCostsCalculator.getCosts(insertionContext, prevAct, nextAct, deliveryAct2Insert, prevActStartTime);
-				if(additionalICostsAtRouteLevel + additionalICostsAtActLevel + additionalTransportationCosts.getAdditionalCosts() < bestCost){
-					bestCost = additionalICostsAtRouteLevel + additionalICostsAtActLevel + additionalTransportationCosts.getAdditionalCosts();
-					insertionIndex = actIndex;
+		for(;actIndex<activities.size();actIndex++){
+			TourActivity nextAct = activities.get(actIndex);
+			//positions before earliestInsertionIndex are infeasible anyway and positions not adjacent to a neighbor are not considered, thus only departure times need to be tracked
+			if(actIndex >= earliestInsertionIndex && isNeighborPosition(deliveryAct2Insert, prevAct, nextAct)){
+				ConstraintsStatus status = hardActivityLevelConstraint.fulfilled(insertionContext, prevAct, deliveryAct2Insert, nextAct, prevActStartTime);
+				if(status.equals(ConstraintsStatus.FULFILLED)){
+					//from job2insert induced costs at activity level
+					double additionalICostsAtActLevel = softActivityConstraint.getCosts(insertionContext, prevAct, deliveryAct2Insert, nextAct, prevActStartTime);
+					ActivityInsertionCosts additionalTransportationCosts = additionalTransportCostsCalculator.getCosts(insertionContext, prevAct, nextAct, deliveryAct2Insert, prevActStartTime);
+					double totalCosts = additionalICostsAtRouteLevel + additionalICostsAtActLevel + additionalTransportationCosts.getAdditionalCosts();
+					if(totalCosts < bestCost){
+						bestCost = totalCosts;
+						insertionIndex = actIndex;
+					}
+				}
+				else if(status.equals(ConstraintsStatus.NOT_FULFILLED_BREAK)){
+					loopBroken = true;
+					break;
 				}
 			}
-			else if(status.equals(ConstraintsStatus.NOT_FULFILLED_BREAK)){
-				loopBroken = true;
-				break;
-			}
-			double nextActArrTime = prevActStartTime + transportCosts.getTransportTime(prevAct.getLocationId(), nextAct.getLocationId(), prevActStartTime, newDriver, newVehicle);
+			double nextActArrTime = prevActStartTime + activityTransportCosts.getTransportTime(prevAct, nextAct, prevActStartTime, newDriver, newVehicle);
 			double nextActEndTime = CalculationUtils.getActivityEndTime(nextActArrTime, nextAct);
 			prevActStartTime = nextActEndTime;
 			prevAct = nextAct;
-			actIndex++;
 		}
 		End nextAct = end;
-		if(!loopBroken){
+		if(!loopBroken && isNeighborPosition(deliveryAct2Insert, prevAct, nextAct)){
 			ConstraintsStatus status = hardActivityLevelConstraint.fulfilled(insertionContext, prevAct, deliveryAct2Insert, nextAct, prevActStartTime); 
 			if(status.equals(ConstraintsStatus.FULFILLED)){
 				double additionalICostsAtActLevel = softActivityConstraint.getCosts(insertionContext, prevAct, deliveryAct2Insert, nextAct, prevActStartTime);
 				ActivityInsertionCosts additionalTransportationCosts = additionalTransportCostsCalculator.getCosts(insertionContext, prevAct, nextAct, deliveryAct2Insert, prevActStartTime);
-				if(additionalICostsAtRouteLevel + additionalICostsAtActLevel + additionalTransportationCosts.getAdditionalCosts() < bestCost){
-					bestCost = additionalICostsAtRouteLevel + additionalICostsAtActLevel + additionalTransportationCosts.getAdditionalCosts();
+				double totalCosts = additionalICostsAtRouteLevel + additionalICostsAtActLevel + additionalTransportationCosts.getAdditionalCosts();
+				if(totalCosts < bestCost){
+					bestCost = totalCosts;
 					insertionIndex = actIndex;
 				}
 			}
@@ -159,4 +239,16 @@ final class ServiceInsertionCalculator implements JobInsertionCostsCalculator{
 		return insertionData;
 	}
 
+	/*
+	 * the stored end times of activities are their departure times if the route is evaluated with its own vehicle, driver and departure time
+	 */
+	private boolean departureTimesKnown(VehicleRoute route, Vehicle newVehicle, Driver newDriver, double newVehicleDepartureTime){
+		if(stateManager == null || !stateManager.updatesActivityTimes()) return false;
+		return route.getVehicle() == newVehicle && route.getDriver() == newDriver && route.getDepartureTime() == newVehicleDepartureTime;
+	}
+	
+	private boolean isNeighborPosition(TourActivity newAct, TourActivity prevAct, TourActivity nextAct){
+		return neighborhood.areNeighbors(newAct.getLocationId(), prevAct.getLocationId()) || neighborhood.areNeighbors(newAct.getLocationId(), nextAct.getLocationId());
+	}
+
 }
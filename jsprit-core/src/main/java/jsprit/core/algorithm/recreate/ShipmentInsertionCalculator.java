@@ -19,12 +19,15 @@ package jsprit.core.algorithm.recreate;
 import java.util.List;
 
 import jsprit.core.algorithm.recreate.ActivityInsertionCostsCalculator.ActivityInsertionCosts;
+import jsprit.core.algorithm.state.StateManager;
 import jsprit.core.problem.constraint.ConstraintManager;
+import jsprit.core.problem.constraint.HardActivityIndexConstraint;
 import jsprit.core.problem.constraint.HardActivityStateLevelConstraint;
 import jsprit.core.problem.constraint.SoftActivityConstraint;
 import jsprit.core.problem.constraint.SoftRouteConstraint;
 import jsprit.core.problem.constraint.HardActivityStateLevelConstraint.ConstraintsStatus;
 import jsprit.core.problem.constraint.HardRouteStateLevelConstraint;
+import jsprit.core.problem.cost.ActivityTransportCosts;
 import jsprit.core.problem.cost.VehicleRoutingTransportCosts;
 import jsprit.core.problem.driver.Driver;
 import jsprit.core.problem.job.Job;
@@ -39,6 +42,7 @@ import jsprit.core.problem.solution.route.activity.TourShipmentActivityFactory;
 import jsprit.core.problem.vehicle.Vehicle;
 import jsprit.core.problem.vehicle.VehicleImpl.NoVehicle;
 import jsprit.core.util.CalculationUtils;
+import jsprit.core.util.Neighborhood;
 
 import org.apache.log4j.Logger;
 
@@ -53,30 +57,76 @@ final class ShipmentInsertionCalculator implements JobInsertionCostsCalculator{
 	
 	private HardActivityStateLevelConstraint hardActivityLevelConstraint;
 	
+	private HardActivityIndexConstraint activityIndexConstraint;
+	
 	private SoftRouteConstraint softRouteConstraint;
 	
 	private SoftActivityConstraint softActivityConstraint;
 	
 	private ActivityInsertionCostsCalculator activityInsertionCostsCalculator;
 	
-	private VehicleRoutingTransportCosts transportCosts;
+	private ActivityTransportCosts activityTransportCosts;
+	
+	private StateManager stateManager;
 	
 	private TourShipmentActivityFactory activityFactory;
 	
 	private AdditionalAccessEgressCalculator additionalAccessEgressCalculator;
 	
+	private Neighborhood neighborhood = new Neighborhood() {
+		
+		@Override
+		public boolean areNeighbors(String location1, String location2) {
+			return true;
+		}
+		
+	};
+	
 	public ShipmentInsertionCalculator(VehicleRoutingTransportCosts routingCosts, ActivityInsertionCostsCalculator activityInsertionCostsCalculator, ConstraintManager constraintManager) {
 		super();
 		this.activityInsertionCostsCalculator = activityInsertionCostsCalculator;
 		this.hardRouteLevelConstraint = constraintManager;
 		this.hardActivityLevelConstraint = constraintManager;
+		this.activityIndexConstraint = constraintManager;
 		this.softActivityConstraint = constraintManager;
 		this.softRouteConstraint = constraintManager;
-		this.transportCosts = routingCosts;
+		this.activityTransportCosts = ActivityTransportCosts.newInstance(routingCosts);
 		activityFactory = new DefaultShipmentActivityFactory();
 		additionalAccessEgressCalculator = new AdditionalAccessEgressCalculator(routingCosts);
 		logger.info("initialise " + this);
 	}
+
+	/**
+	 * Sets the costs used to determine arrival times at subsequent activities. By default, they are looked up by location id.
+	 * 
+	 * @param activityTransportCosts
+	 */
+	public void setActivityTransportCosts(ActivityTransportCosts activityTransportCosts) {
+		this.activityTransportCosts = activityTransportCosts;
+	}
+	
+	/**
+	 * Sets the stateManager. If it updates activity times (see {@link StateManager#updatesActivityTimes()}) and a route is evaluated with 
+	 * its own vehicle, positions before the earliest insertion index are skipped entirely, i.e. evaluation starts with the stored end time of 
+	 * the activity before this index.
+	 * 
+	 * @param stateManager
+	 */
+	public void setStateManager(StateManager stateManager) {
+		this.stateManager = stateManager;
+	}
+	
+	/**
+	 * Sets the neighborhood. Only positions adjacent to a neighbor of the activity to be inserted, i.e. where either the previous or the next activity is a neighbor, are evaluated.
+	 * 
+	 * <p>By default, all locations are neighbors.
+	 * 
+	 * @param neighborhood
+	 */
+	public void setNeighborhood(Neighborhood neighborhood) {
+		this.neighborhood = neighborhood;
+		logger.info("initialise neighborhood " + neighborhood);
+	}
 	
 	@Override
 	public String toString() {
@@ -94,7 +144,21 @@ final class ShipmentInsertionCalculator implements JobInsertionCostsCalculator{
 		if(newVehicle == null || newVehicle instanceof NoVehicle) throw new IllegalStateException("newVehicle is missing.");
 		if(!(jobToInsert instanceof Shipment)) throw new IllegalStateException("jobToInsert should be of type Shipment!");
 		
-		JobInsertionContext insertionContext = new JobInsertionContext(currentRoute, jobToInsert, newVehicle, newDriver, newVehicleDepartureTime);
+		InsertionScratch scratch = InsertionScratch.acquire();
+		try{
+			return calculate(scratch, currentRoute, (Shipment)jobToInsert, newVehicle, newVehicleDepartureTime, newDriver, bestKnownCosts);
+		}
+		finally{
+			scratch.release();
+		}
+	}
+	
+	/**
+	 * Evaluates all pairs of insertion positions with the scratch objects of the current thread. Only the insertion data of the best pair
+	 * is created as a real object.
+	 */
+	private InsertionData calculate(InsertionScratch scratch, VehicleRoute currentRoute, Shipment shipment, Vehicle newVehicle, double newVehicleDepartureTime, Driver newDriver, double bestKnownCosts){
+		JobInsertionContext insertionContext = scratch.getContext(currentRoute, shipment, newVehicle, newDriver, newVehicleDepartureTime);
 		if(!hardRouteLevelConstraint.fulfilled(insertionContext)){
 			return InsertionData.createEmptyInsertionData();
 		}
@@ -104,27 +168,39 @@ final class ShipmentInsertionCalculator implements JobInsertionCostsCalculator{
 		double additionalICostsAtRouteLevel = softRouteConstraint.getCosts(insertionContext);
 		additionalICostsAtRouteLevel += additionalAccessEgressCalculator.getCosts(insertionContext);
 		
-		Shipment shipment = (Shipment)jobToInsert;
-		TourActivity pickupShipment = activityFactory.createPickup(shipment);
-		TourActivity deliverShipment = activityFactory.createDelivery(shipment);
+		TourActivity pickupShipment = scratch.getPickup(shipment, activityFactory);
+		TourActivity deliverShipment = scratch.getDelivery(shipment, activityFactory);
 		
 		int pickupInsertionIndex = InsertionData.NO_INDEX;
 		int deliveryInsertionIndex = InsertionData.NO_INDEX;
 		
-		Start start = Start.newInstance(newVehicle.getStartLocationId(), newVehicle.getEarliestDeparture(), newVehicle.getLatestArrival());
-		start.setEndTime(newVehicleDepartureTime);
+		Start start = scratch.getStart(newVehicle.getStartLocationId(), newVehicle.getEarliestDeparture(), newVehicle.getLatestArrival(), newVehicleDepartureTime);
 		
-		End end = End.newInstance(newVehicle.getEndLocationId(), 0.0, newVehicle.getLatestArrival());
+		End end = scratch.getEnd(newVehicle.getEndLocationId(), 0.0, newVehicle.getLatestArrival());
+		
+		List<TourActivity> activities = currentRoute.getTourActivities().getActivities();
+		int earliestPickupIndex = activityIndexConstraint.getEarliestInsertionIndex(insertionContext, pickupShipment);
+		if(earliestPickupIndex > activities.size() || activityIndexConstraint.getEarliestInsertionIndex(insertionContext, deliverShipment) > activities.size()){
+			return InsertionData.createEmptyInsertionData();
+		}
 		
 		TourActivity prevAct = start;
 		double prevActEndTime = newVehicleDepartureTime;
+		int firstPickupIndex = 0;
+		if(earliestPickupIndex > 0 && departureTimesKnown(currentRoute, newVehicle, newDriver, newVehicleDepartureTime)){
+			firstPickupIndex = earliestPickupIndex;
+			prevAct = activities.get(firstPickupIndex-1);
+			prevActEndTime = prevAct.getEndTime();
+		}
 		boolean pickupShipmentLoopBroken = false;
 		//pickupShipmentLoop
-		List<TourActivity> activities = currentRoute.getTourActivities().getActivities();
-		for(int i=0;i<activities.size();i++){
-			ConstraintsStatus pickupShipmentConstraintStatus = hardActivityLevelConstraint.fulfilled(insertionContext, prevAct, pickupShipment, activities.get(i), prevActEndTime);
+		for(int i=firstPickupIndex;i<activities.size();i++){
+			//pickup positions before earliestPickupIndex are infeasible anyway, and pickup positions not adjacent to a neighbor are not considered. 
+			//delivery positions are all checked against hard constraints, since a break at any of them bounds the pickup-delivery sequence 
+			boolean skipPickupPosition = i < earliestPickupIndex || !isNeighborPosition(pickupShipment, prevAct, activities.get(i));
+			ConstraintsStatus pickupShipmentConstraintStatus = skipPickupPosition ? ConstraintsStatus.NOT_FULFILLED : hardActivityLevelConstraint.fulfilled(insertionContext, prevAct, pickupShipment, activities.get(i), prevActEndTime);
 			if(pickupShipmentConstraintStatus.equals(ConstraintsStatus.NOT_FULFILLED)){
-				double nextActArrTime = prevActEndTime + transportCosts.getTransportTime(prevAct.getLocationId(), activities.get(i).getLocationId(), prevActEndTime, newDriver, newVehicle);
+				double nextActArrTime = prevActEndTime + activityTransportCosts.getTransportTime(prevAct, activities.get(i), prevActEndTime, newDriver, newVehicle);
 				prevActEndTime = CalculationUtils.getActivityEndTime(nextActArrTime, activities.get(i));
 				prevAct = activities.get(i);
 				continue;
@@ -134,19 +210,19 @@ final class ShipmentInsertionCalculator implements JobInsertionCostsCalculator{
 				break;
 			}
 			double additionalPickupICosts = softActivityConstraint.getCosts(insertionContext, prevAct, pickupShipment, activities.get(i), prevActEndTime);
-			ActivityInsertionCosts pickupAIC = calculate(insertionContext,prevAct,pickupShipment,activities.get(i),prevActEndTime);
+			double pickupAdditionalCosts = calculate(insertionContext,prevAct,pickupShipment,activities.get(i),prevActEndTime).getAdditionalCosts();
 			TourActivity prevAct_deliveryLoop = pickupShipment;
-			double shipmentPickupArrTime = prevActEndTime + transportCosts.getTransportTime(prevAct.getLocationId(), pickupShipment.getLocationId(), prevActEndTime, newDriver, newVehicle);
+			double shipmentPickupArrTime = prevActEndTime + activityTransportCosts.getTransportTime(prevAct, pickupShipment, prevActEndTime, newDriver, newVehicle);
 			double shipmentPickupEndTime = CalculationUtils.getActivityEndTime(shipmentPickupArrTime, pickupShipment);
 			double prevActEndTime_deliveryLoop = shipmentPickupEndTime;
 			boolean deliverShipmentLoopBroken = false;
 			//deliverShipmentLoop
 			for(int j=i;j<activities.size();j++){
 				ConstraintsStatus deliverShipmentConstraintStatus = hardActivityLevelConstraint.fulfilled(insertionContext, prevAct_deliveryLoop, deliverShipment, activities.get(j), prevActEndTime_deliveryLoop); 
-				if(deliverShipmentConstraintStatus.equals(ConstraintsStatus.FULFILLED)){
+				if(deliverShipmentConstraintStatus.equals(ConstraintsStatus.FULFILLED) && isDeliveryPosition(prevAct_deliveryLoop, pickupShipment, deliverShipment, activities.get(j))){
 					double additionalDeliveryICosts = softActivityConstraint.getCosts(insertionContext, prevAct_deliveryLoop, deliverShipment, activities.get(j), prevActEndTime_deliveryLoop);
 					ActivityInsertionCosts deliveryAIC = calculate(insertionContext,prevAct_deliveryLoop,deliverShipment,activities.get(j),prevActEndTime_deliveryLoop);
-					double totalActivityInsertionCosts = pickupAIC.getAdditionalCosts() + deliveryAIC.getAdditionalCosts() 
+					double totalActivityInsertionCosts = pickupAdditionalCosts + deliveryAIC.getAdditionalCosts() 
 							+ additionalICostsAtRouteLevel + additionalPickupICosts + additionalDeliveryICosts;
 					if(totalActivityInsertionCosts < bestCost){
 						bestCost = totalActivityInsertionCosts;
@@ -159,16 +235,16 @@ final class ShipmentInsertionCalculator implements JobInsertionCostsCalculator{
 					break;
 				}	
 				//update prevAct and endTime
-				double nextActArrTime = prevActEndTime_deliveryLoop + transportCosts.getTransportTime(prevAct_deliveryLoop.getLocationId(), activities.get(j).getLocationId(), prevActEndTime_deliveryLoop, newDriver, newVehicle);
+				double nextActArrTime = prevActEndTime_deliveryLoop + activityTransportCosts.getTransportTime(prevAct_deliveryLoop, activities.get(j), prevActEndTime_deliveryLoop, newDriver, newVehicle);
 				prevActEndTime_deliveryLoop = CalculationUtils.getActivityEndTime(nextActArrTime, activities.get(j));
 				prevAct_deliveryLoop = activities.get(j);
 			}
 			if(!deliverShipmentLoopBroken){ //check insertion between lastAct and endOfTour
 				ConstraintsStatus deliverShipmentConstraintStatus = hardActivityLevelConstraint.fulfilled(insertionContext, prevAct_deliveryLoop, deliverShipment, end, prevActEndTime_deliveryLoop);
-				if(deliverShipmentConstraintStatus.equals(ConstraintsStatus.FULFILLED)){
+				if(deliverShipmentConstraintStatus.equals(ConstraintsStatus.FULFILLED) && isDeliveryPosition(prevAct_deliveryLoop, pickupShipment, deliverShipment, end)){
 					double additionalDeliveryICosts = softActivityConstraint.getCosts(insertionContext, prevAct_deliveryLoop, deliverShipment, end, prevActEndTime_deliveryLoop);
 					ActivityInsertionCosts deliveryAIC = calculate(insertionContext,prevAct_deliveryLoop,deliverShipment,end,prevActEndTime_deliveryLoop);
-					double totalActivityInsertionCosts = pickupAIC.getAdditionalCosts() + deliveryAIC.getAdditionalCosts() 
+					double totalActivityInsertionCosts = pickupAdditionalCosts + deliveryAIC.getAdditionalCosts() 
 							+ additionalICostsAtRouteLevel + additionalPickupICosts + additionalDeliveryICosts;
 					if(totalActivityInsertionCosts < bestCost){
 						bestCost = totalActivityInsertionCosts;
@@ -178,17 +254,17 @@ final class ShipmentInsertionCalculator implements JobInsertionCostsCalculator{
 				}
 			}
 			//update prevAct and endTime
-			double nextActArrTime = prevActEndTime + transportCosts.getTransportTime(prevAct.getLocationId(), activities.get(i).getLocationId(), prevActEndTime, newDriver, newVehicle);
+			double nextActArrTime = prevActEndTime + activityTransportCosts.getTransportTime(prevAct, activities.get(i), prevActEndTime, newDriver, newVehicle);
 			prevActEndTime = CalculationUtils.getActivityEndTime(nextActArrTime, activities.get(i));
 			prevAct = activities.get(i);
 		}
-		if(!pickupShipmentLoopBroken){ //check insertion of pickupShipment and deliverShipment at just before tour ended
+		if(!pickupShipmentLoopBroken && isNeighborPosition(pickupShipment, prevAct, end)){ //check insertion of pickupShipment and deliverShipment at just before tour ended
 			ConstraintsStatus pickupShipmentConstraintStatus = hardActivityLevelConstraint.fulfilled(insertionContext, prevAct, pickupShipment, end, prevActEndTime);
 			if(pickupShipmentConstraintStatus.equals(ConstraintsStatus.FULFILLED)){
 				double additionalPickupICosts = softActivityConstraint.getCosts(insertionContext, prevAct, pickupShipment, end, prevActEndTime);
-				ActivityInsertionCosts pickupAIC = calculate(insertionContext,prevAct,pickupShipment,end,prevActEndTime);
+				double pickupAdditionalCosts = calculate(insertionContext,prevAct,pickupShipment,end,prevActEndTime).getAdditionalCosts();
 				TourActivity prevAct_deliveryLoop = pickupShipment;
-				double shipmentPickupArrTime = prevActEndTime + transportCosts.getTransportTime(prevAct.getLocationId(), pickupShipment.getLocationId(), prevActEndTime, newDriver, newVehicle);
+				double shipmentPickupArrTime = prevActEndTime + activityTransportCosts.getTransportTime(prevAct, pickupShipment, prevActEndTime, newDriver, newVehicle);
 				double shipmentPickupEndTime = CalculationUtils.getActivityEndTime(shipmentPickupArrTime, pickupShipment);
 				double prevActEndTime_deliveryLoop = shipmentPickupEndTime;
 				
@@ -196,7 +272,7 @@ final class ShipmentInsertionCalculator implements JobInsertionCostsCalculator{
 				if(deliverShipmentConstraintStatus.equals(ConstraintsStatus.FULFILLED)){
 					double additionalDeliveryICosts = softActivityConstraint.getCosts(insertionContext, prevAct_deliveryLoop, deliverShipment, end, prevActEndTime_deliveryLoop);
 					ActivityInsertionCosts deliveryAIC = calculate(insertionContext,prevAct_deliveryLoop,deliverShipment,end,prevActEndTime_deliveryLoop);
-					double totalActivityInsertionCosts = pickupAIC.getAdditionalCosts() + deliveryAIC.getAdditionalCosts() 
+					double totalActivityInsertionCosts = pickupAdditionalCosts + deliveryAIC.getAdditionalCosts() 
 							+ additionalICostsAtRouteLevel + additionalPickupICosts + additionalDeliveryICosts;
 					if(totalActivityInsertionCosts < bestCost){
 						bestCost = totalActivityInsertionCosts;
@@ -218,4 +294,24 @@ final class ShipmentInsertionCalculator implements JobInsertionCostsCalculator{
 		return activityInsertionCostsCalculator.getCosts(iFacts, prevAct, nextAct, newAct, departureTimeAtPrevAct);
 		
 	}
+
+	/*
+	 * the stored end times of activities are their departure times if the route is evaluated with its own vehicle, driver and departure time
+	 */
+	private boolean departureTimesKnown(VehicleRoute route, Vehicle newVehicle, Driver newDriver, double newVehicleDepartureTime){
+		if(stateManager == null || !stateManager.updatesActivityTimes()) return false;
+		return route.getVehicle() == newVehicle && route.getDriver() == newDriver && route.getDepartureTime() == newVehicleDepartureTime;
+	}
+	
+	private boolean isNeighborPosition(TourActivity newAct, TourActivity prevAct, TourActivity nextAct){
+		return neighborhood.areNeighbors(newAct.getLocationId(), prevAct.getLocationId()) || neighborhood.areNeighbors(newAct.getLocationId(), nextAct.getLocationId());
+	}
+	
+	/**
+	 * Delivering the shipment right after its pickup is always considered.
+	 */
+	private boolean isDeliveryPosition(TourActivity prevAct, TourActivity pickupShipment, TourActivity deliverShipment, TourActivity nextAct){
+		return prevAct == pickupShipment || isNeighborPosition(deliverShipment, prevAct, nextAct);
+	}
+
 }
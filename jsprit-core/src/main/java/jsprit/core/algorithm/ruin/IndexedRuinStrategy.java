@@ -0,0 +1,42 @@
+/*******************************************************************************
+ * Copyright (C) 2013  Stefan Schroeder
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either 
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public 
+ * License along with this library.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jsprit.core.algorithm.ruin;
+
+import java.util.Collection;
+
+import jsprit.core.problem.job.Job;
+import jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+
+/**
+ * Ruin strategy that removes jobs through the job-route index kept with the solution, thus ruining a solution 
+ * takes time proportional to the number of removed jobs rather than to the number of jobs in the solution.
+ * 
+ * @author schroeder
+ *
+ */
+public interface IndexedRuinStrategy extends RuinStrategy {
+	
+	/**
+	 * Ruins the routes of solution and returns a collection of removed and thus unassigned jobs. Jobs are looked up 
+	 * and removed with {@link VehicleRoutingProblemSolution#getJobRouteIndex()}.
+	 * 
+	 * @param solution
+	 * @return Collection of {@link Job}
+	 */
+	public Collection<Job> ruin(VehicleRoutingProblemSolution solution);
+
+}
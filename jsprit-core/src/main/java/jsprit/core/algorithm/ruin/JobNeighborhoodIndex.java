@@ -0,0 +1,526 @@
+/*******************************************************************************
+ * Copyright (C) 2013  Stefan Schroeder
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either 
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public 
+ * License along with this library.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jsprit.core.algorithm.ruin;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import jsprit.core.algorithm.ruin.RuinRadial.JobNeighborhoods;
+import jsprit.core.algorithm.ruin.distance.AvgServiceAndShipmentDistance;
+import jsprit.core.algorithm.ruin.distance.JobDistance;
+import jsprit.core.problem.VehicleRoutingProblem;
+import jsprit.core.problem.job.Job;
+import jsprit.core.util.SpatialIndex;
+import jsprit.core.util.StopWatch;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Compact index of the nearest neighbors of each job.
+ * 
+ * <p>Jobs are mapped to int indices, and for each job the indices of its nuOfNeighbors nearest jobs are stored in an int[] sorted
+ * by ascending distance (together with the distances as float[]). Thus memory is about 8 bytes per stored neighbor.
+ * 
+ * <p>Rows are computed in parallel. For each job all n distances are calculated, but only the nuOfNeighbors nearest are selected (with a 
+ * bounded heap) and sorted. If distances between jobs are Euclidean (e.g. {@link jsprit.core.algorithm.ruin.distance.EuclideanServiceDistance}), 
+ * nearest jobs are queried from a {@link SpatialIndex} instead, i.e. without calculating all n^2 distances.
+ * 
+ * <p>The index is immutable once built and can thus be shared by several {@link RuinRadial} instances and algorithm runs. Use 
+ * {@link #getSharedInstance(VehicleRoutingProblem, int)} to get the index that is shared per {@link VehicleRoutingProblem}.
+ * 
+ * @author schroeder
+ *
+ */
+public class JobNeighborhoodIndex implements JobNeighborhoods {
+	
+	/**
+	 * Builder that builds the index.
+	 * 
+	 * @author schroeder
+	 *
+	 */
+	public static class Builder {
+		
+		/**
+		 * Returns a new builder.
+		 * 
+		 * @param vrp
+		 * @param jobDistance
+		 * @return builder
+		 */
+		public static Builder newInstance(VehicleRoutingProblem vrp, JobDistance jobDistance){
+			return new Builder(vrp, jobDistance);
+		}
+		
+		private VehicleRoutingProblem vrp;
+		
+		private JobDistance jobDistance;
+		
+		private int nuOfNeighbors;
+		
+		private int nuOfThreads = Runtime.getRuntime().availableProcessors();
+		
+		private ExecutorService executorService;
+		
+		private Builder(VehicleRoutingProblem vrp, JobDistance jobDistance){
+			this.vrp = vrp;
+			this.jobDistance = jobDistance;
+			this.nuOfNeighbors = Math.max(vrp.getJobs().size() - 1, 0);
+		}
+		
+		/**
+		 * Sets the number of neighbors memorized per job. Default is all jobs.
+		 * 
+		 * @param nuOfNeighbors
+		 * @return builder
+		 * @throws IllegalStateException if nuOfNeighbors < 0
+		 */
+		public Builder setNuOfNeighbors(int nuOfNeighbors){
+			if(nuOfNeighbors < 0) throw new IllegalStateException("nuOfNeighbors must not be negative");
+			this.nuOfNeighbors = nuOfNeighbors;
+			return this;
+		}
+		
+		/**
+		 * Sets the number of threads used to build the index. Default is the number of available processors.
+		 * 
+		 * <p>If no executorService is set, a thread pool is created for building and shut down afterwards.
+		 * 
+		 * @param nuOfThreads
+		 * @return builder
+		 */
+		public Builder setNuOfThreads(int nuOfThreads){
+			if(nuOfThreads < 1) throw new IllegalStateException("nuOfThreads must be at least 1");
+			this.nuOfThreads = nuOfThreads;
+			return this;
+		}
+		
+		/**
+		 * Sets the executorService used to build the index. It is not shut down.
+		 * 
+		 * @param executorService
+		 * @param nuOfThreads i.e. the number of tasks the rows are split into
+		 * @return builder
+		 */
+		public Builder setExecutorService(ExecutorService executorService, int nuOfThreads){
+			setNuOfThreads(nuOfThreads);
+			this.executorService = executorService;
+			return this;
+		}
+		
+		/**
+		 * Builds the index.
+		 * 
+		 * @return index
+		 */
+		public JobNeighborhoodIndex build(){
+			return new JobNeighborhoodIndex(this);
+		}
+		
+	}
+	
+	static class NeighborIterator implements Iterator<Job> {
+		
+		private final List<Job> jobs;
+		
+		private final int[] neighbors;
+		
+		private final int nJobs;
+		
+		private int jobCount = 0;
+		
+		NeighborIterator(List<Job> jobs, int[] neighbors, int nJobs) {
+			this.jobs = jobs;
+			this.neighbors = neighbors;
+			this.nJobs = nJobs;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return jobCount < nJobs;
+		}
+
+		@Override
+		public Job next() {
+			if(!hasNext()) throw new NoSuchElementException();
+			return jobs.get(neighbors[jobCount++]);
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+		
+	}
+	
+	private static Logger logger = Logger.getLogger(JobNeighborhoodIndex.class);
+	
+	private static Map<VehicleRoutingProblem,JobNeighborhoodIndex> sharedInstances = new WeakHashMap<VehicleRoutingProblem, JobNeighborhoodIndex>();
+	
+	/**
+	 * Returns the index that is shared by all users of the same vrp. Distances are calculated with {@link AvgServiceAndShipmentDistance}
+	 * based on the transport costs of the vrp.
+	 * 
+	 * <p>If the shared index memorizes less than nuOfNeighbors, it is rebuilt with nuOfNeighbors and replaces the previous one.
+	 * 
+	 * @param vrp
+	 * @param nuOfNeighbors
+	 * @return shared index
+	 */
+	public static synchronized JobNeighborhoodIndex getSharedInstance(VehicleRoutingProblem vrp, int nuOfNeighbors){
+		JobNeighborhoodIndex index = sharedInstances.get(vrp);
+		if(index == null || index.getNuOfNeighbors() < Math.min(nuOfNeighbors, Math.max(vrp.getJobs().size() - 1, 0))){
+			index = Builder.newInstance(vrp, new AvgServiceAndShipmentDistance(vrp.getTransportCosts())).setNuOfNeighbors(nuOfNeighbors).build();
+			sharedInstances.put(vrp, index);
+		}
+		return index;
+	}
+	
+	/**
+	 * Patches the index that is shared by all users of previousVrp (see {@link #patch(VehicleRoutingProblem, JobDistance, int)}) and shares 
+	 * the patched index for vrp. Returns null if there is no index shared for previousVrp.
+	 * 
+	 * <p>The number of memorized neighbors grows (or shrinks) with the number of jobs, i.e. users that request a fixed share of all jobs as 
+	 * neighbors can use the patched index without rebuilding it.
+	 * 
+	 * @param previousVrp
+	 * @param vrp
+	 * @return patched index or null
+	 */
+	public static synchronized JobNeighborhoodIndex patchSharedInstance(VehicleRoutingProblem previousVrp, VehicleRoutingProblem vrp){
+		JobNeighborhoodIndex index = sharedInstances.get(previousVrp);
+		if(index == null) return null;
+		int nuOfNeighbors = index.nuOfNeighbors;
+		if(!index.jobs.isEmpty()) nuOfNeighbors = (int) Math.ceil((double) index.nuOfNeighbors * vrp.getJobs().size() / index.jobs.size());
+		JobNeighborhoodIndex patched = index.patch(vrp, new AvgServiceAndShipmentDistance(vrp.getTransportCosts()), nuOfNeighbors);
+		sharedInstances.put(vrp, patched);
+		return patched;
+	}
+	
+	private final List<Job> jobs;
+	
+	private final Map<String,Integer> jobIndices;
+	
+	private final int nuOfNeighbors;
+	
+	private final int[][] neighbors;
+	
+	private final float[][] distances;
+	
+	private SpatialIndex<Integer> spatialIndex;
+	
+	private JobNeighborhoodIndex(Builder builder) {
+		this(new ArrayList<Job>(builder.vrp.getJobs().values()), builder.nuOfNeighbors);
+		build(builder);
+	}
+	
+	private JobNeighborhoodIndex(List<Job> jobs, int nuOfNeighbors) {
+		this.jobs = jobs;
+		jobIndices = new HashMap<String, Integer>(jobs.size() * 2);
+		for(int i=0;i<jobs.size();i++){
+			jobIndices.put(jobs.get(i).getId(), i);
+		}
+		this.nuOfNeighbors = Math.min(nuOfNeighbors, Math.max(jobs.size() - 1, 0));
+		neighbors = new int[jobs.size()][];
+		distances = new float[jobs.size()][];
+		logger.info("initialise " + this);
+	}
+
+	private void build(Builder builder) {
+		StopWatch stopWatch = new StopWatch();
+		stopWatch.start();
+		final JobDistance jobDistance = builder.jobDistance;
+		spatialIndex = NearestJobsSelector.createSpatialIndex(jobs, jobDistance);
+		if(spatialIndex != null) logger.info("use " + spatialIndex + " to find nearest neighbors");
+		int nuOfTasks = Math.max(1, Math.min(builder.nuOfThreads, jobs.size()));
+		if(nuOfTasks == 1){
+			new RowCalculator(jobDistance, 0, 1).call();
+		}
+		else{
+			ExecutorService executor = builder.executorService;
+			boolean shutdown = false;
+			if(executor == null){
+				executor = Executors.newFixedThreadPool(nuOfTasks);
+				shutdown = true;
+			}
+			try{
+				List<Future<Void>> futures = new ArrayList<Future<Void>>(nuOfTasks);
+				for(int t=0;t<nuOfTasks;t++){
+					futures.add(executor.submit(new RowCalculator(jobDistance, t, nuOfTasks)));
+				}
+				for(Future<Void> f : futures){
+					f.get();
+				}
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("building neighborhoods has been interrupted", e);
+			}
+			catch (ExecutionException e) {
+				throw new IllegalStateException("cannot build neighborhoods", e.getCause());
+			}
+			finally{
+				if(shutdown) executor.shutdown();
+			}
+		}
+		stopWatch.stop();
+		long nuOfDistancesStored = (long) jobs.size() * nuOfNeighbors;
+		logger.info("preprocessing comp-time: " + stopWatch + "; nuOfDistances stored: " + nuOfDistancesStored + "; estimated memory: " + 
+				(jobs.size()*32 + nuOfDistancesStored*8) + " bytes");
+	}
+	
+	/**
+	 * Calculates the rows firstRow, firstRow+step, firstRow+2*step, ... 
+	 *
+	 */
+	private class RowCalculator implements Callable<Void> {
+		
+		private final NearestJobsSelector selector;
+		
+		private final int firstRow;
+		
+		private final int step;
+		
+		RowCalculator(JobDistance jobDistance, int firstRow, int step) {
+			this.selector = new NearestJobsSelector(jobs, jobDistance, nuOfNeighbors, spatialIndex);
+			this.firstRow = firstRow;
+			this.step = step;
+		}
+
+		@Override
+		public Void call() {
+			for(int i=firstRow;i<jobs.size();i+=step){
+				selector.select(i);
+				neighbors[i] = selector.getNeighbors();
+				distances[i] = selector.getDistances();
+			}
+			return null;
+		}
+		
+	}
+	
+	/**
+	 * Returns an index for vrp that is patched from this index, i.e. neighbors are only calculated from scratch for jobs that are new to this index.
+	 * 
+	 * <p>A job of vrp is new if this index does not contain the same job object, i.e. a job that replaces a job with the same id is 
+	 * new as well. The memorized neighbors of the other jobs are patched: jobs that are not part of vrp anymore are removed, and new 
+	 * jobs are merged in. Rows are only calculated from scratch if their neighbors cannot be determined exactly, i.e. if removed neighbors or 
+	 * additional neighbors (if nuOfNeighbors exceeds the number of neighbors memorized by this index) lie beyond the radius of the memorized 
+	 * neighbors. Thus patching takes about #jobs * #newJobs distance calculations, whereas building takes #jobs^2. 
+	 * 
+	 * <p>The patched index equals a rebuilt one (except for the order of equidistant neighbors). Distances between jobs that are part 
+	 * of both problems must not change.
+	 * 
+	 * @param vrp
+	 * @param jobDistance
+	 * @param nuOfNeighbors
+	 * @return patched index
+	 */
+	public JobNeighborhoodIndex patch(VehicleRoutingProblem vrp, JobDistance jobDistance, int nuOfNeighbors){
+		if(nuOfNeighbors < 0) throw new IllegalStateException("nuOfNeighbors must not be negative");
+		StopWatch stopWatch = new StopWatch();
+		stopWatch.start();
+		List<Job> patchedJobs = new ArrayList<Job>(vrp.getJobs().size());
+		int[] patchedIndices = new int[jobs.size()];
+		for(int i=0;i<jobs.size();i++){
+			Job job = jobs.get(i);
+			if(vrp.getJobs().get(job.getId()) == job){
+				patchedIndices[i] = patchedJobs.size();
+				patchedJobs.add(job);
+			}
+			else patchedIndices[i] = -1;
+		}
+		int nuOfKeptJobs = patchedJobs.size();
+		for(Job job : vrp.getJobs().values()){
+			Integer index = jobIndices.get(job.getId());
+			if(index == null || jobs.get(index) != job) patchedJobs.add(job);
+		}
+		JobNeighborhoodIndex patched = new JobNeighborhoodIndex(patchedJobs, nuOfNeighbors);
+		patched.spatialIndex = NearestJobsSelector.createSpatialIndex(patchedJobs, jobDistance);
+		NearestJobsSelector selector = new NearestJobsSelector(patchedJobs, jobDistance, patched.nuOfNeighbors, patched.spatialIndex);
+		RowMerger merger = patched.new RowMerger(jobDistance, nuOfKeptJobs);
+		int nuOfCalculatedRows = 0;
+		for(int i=0;i<jobs.size();i++){
+			int row = patchedIndices[i];
+			if(row < 0) continue;
+			if(!merger.merge(row, neighbors[i], distances[i], patchedIndices, neighbors[i].length == jobs.size() - 1)){
+				selector.select(row);
+				patched.neighbors[row] = selector.getNeighbors();
+				patched.distances[row] = selector.getDistances();
+				nuOfCalculatedRows++;
+			}
+		}
+		for(int row=nuOfKeptJobs;row<patchedJobs.size();row++){
+			selector.select(row);
+			patched.neighbors[row] = selector.getNeighbors();
+			patched.distances[row] = selector.getDistances();
+			nuOfCalculatedRows++;
+		}
+		stopWatch.stop();
+		logger.info("patching comp-time: " + stopWatch + "; nuOfNewJobs: " + (patchedJobs.size() - nuOfKeptJobs) + "; nuOfRowsCalculated: " + nuOfCalculatedRows);
+		return patched;
+	}
+	
+	/**
+	 * Merges the new jobs into the (still valid) memorized neighbors of a job. 
+	 *
+	 */
+	private class RowMerger {
+		
+		private final JobDistance jobDistance;
+		
+		private final int firstNewJob;
+		
+		/*
+		 * distance (as float bits, which preserve the order of non-negative floats) in the upper and job index in the lower 32 bits
+		 */
+		private final long[] newNeighbors;
+		
+		RowMerger(JobDistance jobDistance, int firstNewJob) {
+			this.jobDistance = jobDistance;
+			this.firstNewJob = firstNewJob;
+			this.newNeighbors = new long[jobs.size() - firstNewJob];
+		}
+		
+		/**
+		 * Returns false if the row needs to be calculated from scratch, i.e. if the merged row has less than nuOfNeighbors neighbors, or 
+		 * if the previous row is not complete and a new job beyond the previous radius would be merged in (an unknown previous job might be closer). 
+		 * The latter happens if neighbors have been removed, or if more neighbors are to be memorized than previously.
+		 */
+		boolean merge(int row, int[] previousNeighbors, float[] previousDistances, int[] patchedIndices, boolean previousRowComplete){
+			Job job = jobs.get(row);
+			for(int j=0;j<newNeighbors.length;j++){
+				float distance = Math.max(0f, (float) jobDistance.getDistance(job, jobs.get(firstNewJob + j)));
+				newNeighbors[j] = ((long) Float.floatToIntBits(distance) << 32) | (firstNewJob + j);
+			}
+			Arrays.sort(newNeighbors);
+			int[] rowNeighbors = new int[nuOfNeighbors];
+			float[] rowDistances = new float[nuOfNeighbors];
+			float previousRadius = previousDistances.length == 0 ? 0f : previousDistances[previousDistances.length - 1];
+			int size = 0;
+			int p = 0;
+			int n = 0;
+			while(size < nuOfNeighbors){
+				while(p < previousNeighbors.length && patchedIndices[previousNeighbors[p]] < 0){
+					p++;
+				}
+				boolean hasPrevious = p < previousNeighbors.length;
+				boolean hasNew = n < newNeighbors.length;
+				if(!hasPrevious && !hasNew) return false;
+				float newDistance = hasNew ? Float.intBitsToFloat((int) (newNeighbors[n] >>> 32)) : Float.MAX_VALUE;
+				if(hasPrevious && (!hasNew || previousDistances[p] <= newDistance)){
+					rowNeighbors[size] = patchedIndices[previousNeighbors[p]];
+					rowDistances[size] = previousDistances[p];
+					p++;
+				}
+				else{
+					if(!previousRowComplete && newDistance > previousRadius) return false;
+					rowNeighbors[size] = (int) newNeighbors[n];
+					rowDistances[size] = newDistance;
+					n++;
+				}
+				size++;
+			}
+			neighbors[row] = rowNeighbors;
+			distances[row] = rowDistances;
+			return true;
+		}
+		
+	}
+	
+	/**
+	 * Returns the number of neighbors memorized per job.
+	 * 
+	 * @return nuOfNeighbors
+	 */
+	public int getNuOfNeighbors() {
+		return nuOfNeighbors;
+	}
+	
+	/**
+	 * Returns the index of job in this index.
+	 * 
+	 * @param job
+	 * @return index
+	 * @throws IllegalStateException if job is unknown
+	 */
+	public int getIndex(Job job){
+		Integer index = jobIndices.get(job.getId());
+		if(index == null) throw new IllegalStateException("job " + job.getId() + " is not part of the neighborhood index");
+		return index;
+	}
+	
+	/**
+	 * Returns the job with the specified index.
+	 * 
+	 * @param index
+	 * @return job
+	 */
+	public Job getJob(int index){
+		return jobs.get(index);
+	}
+	
+	/**
+	 * Returns the indices of the memorized neighbors of the job with the specified index, sorted by ascending distance.
+	 * 
+	 * <p>The array is not copied, i.e. do not modify it.
+	 * 
+	 * @param index
+	 * @return neighbor indices
+	 */
+	public int[] getNeighbors(int index){
+		return neighbors[index];
+	}
+	
+	/**
+	 * Returns the distances to the memorized neighbors of the job with the specified index, in the same order as {@link #getNeighbors(int)}.
+	 * 
+	 * <p>The array is not copied, i.e. do not modify it.
+	 * 
+	 * @param index
+	 * @return distances
+	 */
+	public float[] getDistances(int index){
+		return distances[index];
+	}
+
+	@Override
+	public Iterator<Job> getNearestNeighborsIterator(int nNeighbors, Job neighborTo) {
+		int[] row = neighbors[getIndex(neighborTo)];
+		if(nNeighbors > row.length){
+			logger.warn("more jobs are requested then iterator can iterate over. probably the number of neighbors memorized in JobNeighborhoodIndex is too small");
+		}
+		return new NeighborIterator(jobs, row, Math.max(0, Math.min(nNeighbors, row.length)));
+	}
+	
+	@Override
+	public String toString() {
+		return "[name=jobNeighborhoodIndex][nuOfJobs="+jobs.size()+"][nuOfNeighbors="+nuOfNeighbors+"]";
+	}
+
+}
@@ -0,0 +1,180 @@
+/*******************************************************************************
+ * Copyright (C) 2013  Stefan Schroeder
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either 
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public 
+ * License along with this library.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jsprit.core.algorithm.ruin;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import jsprit.core.algorithm.ruin.JobNeighborhoodIndex.NeighborIterator;
+import jsprit.core.algorithm.ruin.RuinRadial.JobNeighborhoods;
+import jsprit.core.algorithm.ruin.distance.JobDistance;
+import jsprit.core.problem.VehicleRoutingProblem;
+import jsprit.core.problem.job.Job;
+import jsprit.core.util.SpatialIndex;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Neighborhoods that are calculated on demand, i.e. the first time a job's neighbors are requested, and memorized in a least-recently-used
+ * cache of bounded size.
+ * 
+ * <p>In contrast to {@link JobNeighborhoodIndex}, there is no preprocessing. This pays off if only a few jobs are picked as ruin-seed, e.g. in 
+ * short runs. Each cache-miss costs n distance calculations (or a {@link SpatialIndex} query if distances between jobs are Euclidean).
+ * 
+ * <p>This is thread-safe.
+ * 
+ * @author schroeder
+ *
+ */
+public class LazyJobNeighborhoods implements JobNeighborhoods {
+	
+	private static Logger logger = Logger.getLogger(LazyJobNeighborhoods.class);
+	
+	private final List<Job> jobs;
+	
+	private final Map<String,Integer> jobIndices;
+	
+	private final JobDistance jobDistance;
+	
+	private final int nuOfNeighbors;
+	
+	private final int cacheSize;
+	
+	private final Map<Integer,int[]> cache;
+	
+	private final SpatialIndex<Integer> spatialIndex;
+	
+	private long nuOfCacheHits = 0;
+	
+	private long nuOfCacheMisses = 0;
+	
+	/**
+	 * Constructs lazy neighborhoods.
+	 * 
+	 * @param vrp
+	 * @param jobDistance
+	 * @param nuOfNeighbors i.e. the number of neighbors calculated per job
+	 * @param cacheSize i.e. the max. number of neighborhoods memorized
+	 * @throws IllegalStateException if nuOfNeighbors < 0 or cacheSize < 1
+	 */
+	public LazyJobNeighborhoods(VehicleRoutingProblem vrp, JobDistance jobDistance, int nuOfNeighbors, final int cacheSize) {
+		super();
+		if(nuOfNeighbors < 0) throw new IllegalStateException("nuOfNeighbors must not be negative");
+		if(cacheSize < 1) throw new IllegalStateException("cacheSize must be at least 1");
+		this.jobs = new ArrayList<Job>(vrp.getJobs().values());
+		this.jobIndices = new HashMap<String, Integer>(jobs.size() * 2);
+		for(int i=0;i<jobs.size();i++){
+			jobIndices.put(jobs.get(i).getId(), i);
+		}
+		this.jobDistance = jobDistance;
+		this.spatialIndex = NearestJobsSelector.createSpatialIndex(jobs, jobDistance);
+		this.nuOfNeighbors = Math.min(nuOfNeighbors, Math.max(jobs.size() - 1, 0));
+		this.cacheSize = cacheSize;
+		this.cache = new LinkedHashMap<Integer, int[]>(16, 0.75f, true){
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, int[]> eldest) {
+				return size() > cacheSize;
+			}
+			
+		};
+		logger.info("initialise " + this);
+	}
+
+	@Override
+	public Iterator<Job> getNearestNeighborsIterator(int nNeighbors, Job neighborTo) {
+		int[] row = getNeighbors(neighborTo);
+		if(nNeighbors > row.length){
+			logger.warn("more jobs are requested then iterator can iterate over. probably the number of neighbors calculated in LazyJobNeighborhoods is too small");
+		}
+		return new NeighborIterator(jobs, row, Math.max(0, Math.min(nNeighbors, row.length)));
+	}
+	
+	private int[] getNeighbors(Job job){
+		Integer index = jobIndices.get(job.getId());
+		if(index == null) throw new IllegalStateException("job " + job.getId() + " is not part of the neighborhoods");
+		synchronized(cache){
+			int[] row = cache.get(index);
+			if(row != null){
+				nuOfCacheHits++;
+				return row;
+			}
+			nuOfCacheMisses++;
+		}
+		NearestJobsSelector selector = new NearestJobsSelector(jobs, jobDistance, nuOfNeighbors, spatialIndex);
+		selector.select(index);
+		int[] row = selector.getNeighbors();
+		synchronized(cache){
+			cache.put(index, row);
+		}
+		return row;
+	}
+	
+	/**
+	 * Returns the number of requests that could be served from cache.
+	 * 
+	 * @return nuOfCacheHits
+	 */
+	public long getNuOfCacheHits() {
+		synchronized(cache){
+			return nuOfCacheHits;
+		}
+	}
+	
+	/**
+	 * Returns the number of requests that required the neighborhood to be calculated.
+	 * 
+	 * @return nuOfCacheMisses
+	 */
+	public long getNuOfCacheMisses() {
+		synchronized(cache){
+			return nuOfCacheMisses;
+		}
+	}
+	
+	/**
+	 * Returns the number of neighborhoods currently memorized.
+	 * 
+	 * @return nuOfCachedNeighborhoods
+	 */
+	public int getNuOfCachedNeighborhoods(){
+		synchronized(cache){
+			return cache.size();
+		}
+	}
+	
+	/**
+	 * Returns the number of neighbors calculated per job.
+	 * 
+	 * @return nuOfNeighbors
+	 */
+	public int getNuOfNeighbors() {
+		return nuOfNeighbors;
+	}
+	
+	@Override
+	public String toString() {
+		return "[name=lazyJobNeighborhoods][nuOfNeighbors="+nuOfNeighbors+"][cacheSize="+cacheSize+"]";
+	}
+
+}
@@ -0,0 +1,208 @@
+/*******************************************************************************
+ * Copyright (C) 2013  Stefan Schroeder
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either 
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public 
+ * License along with this library.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jsprit.core.algorithm.ruin;
+
+import java.util.List;
+
+import jsprit.core.algorithm.ruin.distance.AvgServiceAndShipmentDistance;
+import jsprit.core.algorithm.ruin.distance.EuclideanServiceDistance;
+import jsprit.core.algorithm.ruin.distance.JobDistance;
+import jsprit.core.problem.job.Job;
+import jsprit.core.problem.job.Service;
+import jsprit.core.util.CrowFlyCosts;
+import jsprit.core.util.SpatialIndex;
+
+/**
+ * Selects the nearest jobs of a job with a bounded max-heap, i.e. with O(n log k) instead of sorting all n distances.
+ * 
+ * <p>If distances between jobs are Euclidean distances, a {@link SpatialIndex} (see {@link #createSpatialIndex(List, JobDistance)}) 
+ * can be used instead, such that only about k distances need to be calculated.
+ * 
+ * <p>Ties are broken by the index of jobs. A selector is not thread-safe, use one per thread.
+ * 
+ * @author schroeder
+ *
+ */
+final class NearestJobsSelector {
+	
+	/**
+	 * Returns a spatial index over jobs (items are job indices) if distances between jobs are Euclidean distances between coordinates, 
+	 * i.e. jobDistance is an {@link EuclideanServiceDistance} or an {@link AvgServiceAndShipmentDistance} based on {@link CrowFlyCosts}, and all
+	 * jobs are services with coordinates. Otherwise it returns null.
+	 * 
+	 * @param jobs
+	 * @param jobDistance
+	 * @return spatial index or null
+	 */
+	static SpatialIndex<Integer> createSpatialIndex(List<Job> jobs, JobDistance jobDistance){
+		if(!isEuclidean(jobDistance)) return null;
+		SpatialIndex.Builder<Integer> builder = SpatialIndex.Builder.newInstance();
+		for(int i=0;i<jobs.size();i++){
+			Job job = jobs.get(i);
+			if(!(job instanceof Service) || ((Service) job).getCoord() == null) return null;
+			builder.addPoint(((Service) job).getCoord(), i);
+		}
+		return builder.setMetric(SpatialIndex.Metric.EUCLIDEAN).build();
+	}
+	
+	private static boolean isEuclidean(JobDistance jobDistance){
+		if(jobDistance instanceof EuclideanServiceDistance) return true;
+		return jobDistance instanceof AvgServiceAndShipmentDistance 
+				&& ((AvgServiceAndShipmentDistance) jobDistance).getTransportCosts() instanceof CrowFlyCosts;
+	}
+	
+	private final SpatialIndex<Integer> spatialIndex;
+	
+	private final List<Job> jobs;
+	
+	private final JobDistance jobDistance;
+	
+	private final int nuOfNeighbors;
+	
+	private final int[] heapIndices;
+	
+	private final double[] heapDistances;
+	
+	private int[] neighbors;
+	
+	private float[] distances;
+	
+	NearestJobsSelector(List<Job> jobs, JobDistance jobDistance, int nuOfNeighbors) {
+		this(jobs, jobDistance, nuOfNeighbors, null);
+	}
+	
+	NearestJobsSelector(List<Job> jobs, JobDistance jobDistance, int nuOfNeighbors, SpatialIndex<Integer> spatialIndex) {
+		this.spatialIndex = spatialIndex;
+		this.jobs = jobs;
+		this.jobDistance = jobDistance;
+		this.nuOfNeighbors = nuOfNeighbors;
+		this.heapIndices = new int[nuOfNeighbors];
+		this.heapDistances = new double[nuOfNeighbors];
+	}
+	
+	/**
+	 * Selects the nearest neighbors of the job with index i. Get them with {@link #getNeighbors()} and {@link #getDistances()}.
+	 * 
+	 * @param i
+	 */
+	void select(int i) {
+		if(spatialIndex != null){
+			selectWithSpatialIndex(i);
+			return;
+		}
+		Job job = jobs.get(i);
+		int heapSize = 0;
+		if(nuOfNeighbors > 0){
+			for(int j=0;j<jobs.size();j++){
+				if(i == j) continue;
+				double distance = jobDistance.getDistance(job, jobs.get(j));
+				if(heapSize < nuOfNeighbors){
+					heapIndices[heapSize] = j;
+					heapDistances[heapSize] = distance;
+					siftUp(heapSize);
+					heapSize++;
+				}
+				else if(isCloser(distance, j, heapDistances[0], heapIndices[0])){
+					heapIndices[0] = j;
+					heapDistances[0] = distance;
+					siftDown(0, heapSize);
+				}
+			}
+		}
+		neighbors = new int[heapSize];
+		distances = new float[heapSize];
+		//heap sort: repeatedly move the farthest neighbor to the end
+		for(int k=heapSize-1;k>=0;k--){
+			neighbors[k] = heapIndices[0];
+			distances[k] = (float) heapDistances[0];
+			swap(0, k);
+			siftDown(0, k);
+		}
+	}
+	
+	private void selectWithSpatialIndex(int i) {
+		Job job = jobs.get(i);
+		List<Integer> nearest = spatialIndex.getNearest(((Service) job).getCoord(), nuOfNeighbors + 1);
+		int size = Math.min(nuOfNeighbors, nearest.size() - 1);
+		neighbors = new int[size];
+		distances = new float[size];
+		int k = 0;
+		for(Integer j : nearest){
+			if(k == size) break;
+			if(j == i) continue;
+			neighbors[k] = j;
+			distances[k] = (float) jobDistance.getDistance(job, jobs.get(j));
+			k++;
+		}
+	}
+	
+	/**
+	 * Returns the indices of the neighbors selected last, sorted by ascending distance.
+	 * 
+	 * @return neighbor indices
+	 */
+	int[] getNeighbors() {
+		return neighbors;
+	}
+	
+	/**
+	 * Returns the distances of the neighbors selected last.
+	 * 
+	 * @return distances
+	 */
+	float[] getDistances() {
+		return distances;
+	}
+	
+	private boolean isCloser(double distance, int index, double otherDistance, int otherIndex){
+		if(distance < otherDistance) return true;
+		if(distance > otherDistance) return false;
+		return index < otherIndex;
+	}
+
+	private void siftUp(int k) {
+		while(k > 0){
+			int parent = (k - 1) / 2;
+			if(!isCloser(heapDistances[parent], heapIndices[parent], heapDistances[k], heapIndices[k])) break;
+			swap(parent, k);
+			k = parent;
+		}
+	}
+
+	private void siftDown(int k, int size) {
+		while(true){
+			int farthest = k;
+			int left = 2 * k + 1;
+			int right = left + 1;
+			if(left < size && isCloser(heapDistances[farthest], heapIndices[farthest], heapDistances[left], heapIndices[left])) farthest = left;
+			if(right < size && isCloser(heapDistances[farthest], heapIndices[farthest], heapDistances[right], heapIndices[right])) farthest = right;
+			if(farthest == k) return;
+			swap(k, farthest);
+			k = farthest;
+		}
+	}
+
+	private void swap(int a, int b) {
+		int tmpIndex = heapIndices[a];
+		heapIndices[a] = heapIndices[b];
+		heapIndices[b] = tmpIndex;
+		double tmpDistance = heapDistances[a];
+		heapDistances[a] = heapDistances[b];
+		heapDistances[b] = tmpDistance;
+	}
+
+}
@@ -9,14 +9,46 @@ public class RadialRuinStrategyFactory implements RuinStrategyFactory{
 	
 	private JobDistance jobDistance;
 	
+	private LazyJobNeighborhoods lazyJobNeighborhoods;
+	
 	public RadialRuinStrategyFactory(double fraction, JobDistance jobDistance) {
 		super();
 		this.fraction = fraction;
 		this.jobDistance = jobDistance;
 	}
+	
+	/**
+	 * Creates radial ruin strategies that use the neighborhood index shared per vrp (see {@link JobNeighborhoodIndex#getSharedInstance(VehicleRoutingProblem, int)}).
+	 * 
+	 * @param fraction
+	 */
+	public RadialRuinStrategyFactory(double fraction) {
+		super();
+		this.fraction = fraction;
+	}
+
+	/**
+	 * Creates radial ruin strategies that calculate neighborhoods on demand (see {@link LazyJobNeighborhoods}).
+	 * 
+	 * <p>lazyJobNeighborhoods must be based on the same vrp as the strategies created. Keep a reference to read its cache-statistics.
+	 * 
+	 * @param fraction
+	 * @param lazyJobNeighborhoods
+	 */
+	public RadialRuinStrategyFactory(double fraction, LazyJobNeighborhoods lazyJobNeighborhoods) {
+		super();
+		this.fraction = fraction;
+		this.lazyJobNeighborhoods = lazyJobNeighborhoods;
+	}
 
 	@Override
 	public RuinStrategy createStrategy(VehicleRoutingProblem vrp) {
+		if(lazyJobNeighborhoods != null){
+			return new RuinRadial(vrp,fraction,lazyJobNeighborhoods);
+		}
+		if(jobDistance == null){
+			return new RuinRadial(vrp,fraction,JobNeighborhoodIndex.getSharedInstance(vrp, RuinRadial.getNuOfJobs2BeRemoved(vrp, fraction)));
+		}
 		return new RuinRadial(vrp,fraction,jobDistance);
 	}
 
@@ -32,6 +32,8 @@ import jsprit.core.algorithm.ruin.listener.RuinListener;
 import jsprit.core.algorithm.ruin.listener.RuinListeners;
 import jsprit.core.problem.VehicleRoutingProblem;
 import jsprit.core.problem.job.Job;
+import jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import jsprit.core.problem.solution.route.JobRouteIndex;
 import jsprit.core.problem.solution.route.VehicleRoute;
 import jsprit.core.util.RandomNumberGeneration;
 import jsprit.core.util.StopWatch;
@@ -49,7 +51,7 @@ import org.apache.log4j.Logger;
  * @author stefan
  *
  */
-final class RuinRadial implements RuinStrategy {
+final class RuinRadial implements IndexedRuinStrategy {
 	
 	static interface JobNeighborhoods {
 		
@@ -264,7 +266,7 @@ final class RuinRadial implements RuinStrategy {
 
 	private double fractionOfAllNodes2beRuined;
 
-	private Random random = RandomNumberGeneration.getRandom();
+	private Random random = RandomNumberGeneration.newRandom();
 
 	private RuinListeners ruinListeners;
 	
@@ -282,48 +284,29 @@ final class RuinRadial implements RuinStrategy {
 	 * @param jobDistance i.e. a measure to define the distance between two jobs and whether they are located close or distant to eachother
 	 */
 	public RuinRadial(VehicleRoutingProblem vrp, double fraction2beRemoved, JobDistance jobDistance) {
+		this(vrp, fraction2beRemoved, JobNeighborhoodIndex.Builder.newInstance(vrp, jobDistance).setNuOfNeighbors(getNuOfJobs2BeRemoved(vrp, fraction2beRemoved)).build());
+	}
+	
+	/**
+	 * Constructs RuinRadial based on (possibly shared) neighborhoods, e.g. {@link JobNeighborhoodIndex} or {@link LazyJobNeighborhoods}.
+	 * 
+	 * <p>The neighborhoods should memorize at least ceil(fraction2beRemoved * nuOfJobs) neighbors per job. 
+	 * 
+	 * @param vrp
+	 * @param fraction2beRemoved i.e. the share of jobs to be removed (relative to the total number of jobs in vrp)
+	 * @param jobNeighborhoods i.e. the nearest neighbors of each job
+	 */
+	public RuinRadial(VehicleRoutingProblem vrp, double fraction2beRemoved, JobNeighborhoods jobNeighborhoods) {
 		super();
 		this.vrp = vrp;
 		this.fractionOfAllNodes2beRuined = fraction2beRemoved;
 		ruinListeners = new RuinListeners();
-		int nJobsToMemorize = (int) Math.ceil(vrp.getJobs().values().size()*fraction2beRemoved);
-		JobNeighborhoodsImplWithCapRestriction jobNeighborhoodsImpl = new JobNeighborhoodsImplWithCapRestriction(vrp, jobDistance, nJobsToMemorize);
-		jobNeighborhoodsImpl.initialise();
-		jobNeighborhoods = jobNeighborhoodsImpl;
+		this.jobNeighborhoods = jobNeighborhoods;
 		logger.info("intialise " + this);
-//<<<<<<< HEAD
-//	}
-//
-//	private void calculateDistancesFromJob2Job() {
-//		logger.info("preprocess distances between locations ...");
-//		StopWatch stopWatch = new StopWatch();
-//		stopWatch.start();
-//		int nuOfDistancesStored = 0;
-//		for (Job i : vrp.getJobs().values()) {
-//			TreeSet<ReferencedJob> treeSet = new TreeSet<ReferencedJob>(
-//					new Comparator<ReferencedJob>() {
-//						@Override
-//						public int compare(ReferencedJob o1, ReferencedJob o2) {
-//							if (o1.getDistance() <= o2.getDistance()) {
-//								return 1;
-//							} else {
-//								return -1;
-//							}
-//						}
-//					});
-//			distanceNodeTree.put(i.getId(), treeSet);
-//			for (Job j : vrp.getJobs().values()) {
-//				double distance = jobDistance.getDistance(i, j);
-//				ReferencedJob refNode = new ReferencedJob(j, distance);
-//				treeSet.add(refNode);
-//				nuOfDistancesStored++;
-//			}
-//		}
-//		stopWatch.stop();
-//		logger.info("preprocessing comp-time: " + stopWatch + "; nuOfDistances stored: " + nuOfDistancesStored + "; estimated memory: " + 
-//				(distanceNodeTree.keySet().size()*64+nuOfDistancesStored*92) + " bytes");
-//=======
-//>>>>>>> refs/heads/master
+	}
+	
+	static int getNuOfJobs2BeRemoved(VehicleRoutingProblem vrp, double fraction2beRemoved){
+		return (int) Math.ceil(vrp.getJobs().values().size()*fraction2beRemoved);
 	}
 	
 	@Override
@@ -337,6 +320,15 @@ final class RuinRadial implements RuinStrategy {
 	 */
 	@Override
 	public Collection<Job> ruin(Collection<VehicleRoute> vehicleRoutes) {
+		return ruin(vehicleRoutes, JobRouteIndex.newInstance(vehicleRoutes));
+	}
+	
+	@Override
+	public Collection<Job> ruin(VehicleRoutingProblemSolution solution) {
+		return ruin(solution.getRoutes(), solution.getJobRouteIndex());
+	}
+
+	private Collection<Job> ruin(Collection<VehicleRoute> vehicleRoutes, JobRouteIndex jobRouteIndex) {
 		if(vehicleRoutes.isEmpty()){
 			return Collections.emptyList();
 		}
@@ -345,7 +337,7 @@ final class RuinRadial implements RuinStrategy {
 			return Collections.emptyList();
 		}
 		Job randomJob = pickRandomJob();
-		Collection<Job> unassignedJobs = ruin(vehicleRoutes,randomJob,nOfJobs2BeRemoved);
+		Collection<Job> unassignedJobs = ruin(vehicleRoutes,jobRouteIndex,randomJob,nOfJobs2BeRemoved);
 		return unassignedJobs;
 	}
 	
@@ -353,29 +345,29 @@ final class RuinRadial implements RuinStrategy {
 	 * Removes targetJob and its neighborhood and returns the removed jobs.
 	 */
 	public Collection<Job> ruin(Collection<VehicleRoute> vehicleRoutes, Job targetJob, int nOfJobs2BeRemoved){
+		return ruin(vehicleRoutes, JobRouteIndex.newInstance(vehicleRoutes), targetJob, nOfJobs2BeRemoved);
+	}
+	
+	private Collection<Job> ruin(Collection<VehicleRoute> vehicleRoutes, JobRouteIndex jobRouteIndex, Job targetJob, int nOfJobs2BeRemoved){
 		ruinListeners.ruinStarts(vehicleRoutes);
 		List<Job> unassignedJobs = new ArrayList<Job>();
 		int nNeighbors = nOfJobs2BeRemoved - 1;
-		removeJob(targetJob,vehicleRoutes);
+		removeJob(targetJob,jobRouteIndex);
 		unassignedJobs.add(targetJob);
 		Iterator<Job> neighborhoodIterator =  jobNeighborhoods.getNearestNeighborsIterator(nNeighbors, targetJob);
 		while(neighborhoodIterator.hasNext()){
 			Job job = neighborhoodIterator.next();
-			removeJob(job,vehicleRoutes);
+			removeJob(job,jobRouteIndex);
 			unassignedJobs.add(job);
 		}
 		ruinListeners.ruinEnds(vehicleRoutes, unassignedJobs);
 		return unassignedJobs;
 	}
 	
-	private void removeJob(Job job, Collection<VehicleRoute> vehicleRoutes) {
-		boolean removed = false;
-		for (VehicleRoute route : vehicleRoutes) {
-			removed = route.getTourActivities().removeJob(job);; 
-			if (removed) {
-				ruinListeners.removed(job,route);
-				break;
-			}
+	private void removeJob(Job job, JobRouteIndex jobRouteIndex) {
+		VehicleRoute route = jobRouteIndex.removeJob(job);
+		if (route != null) {
+			ruinListeners.removed(job,route);
 		}
 	}
 
@@ -387,8 +379,7 @@ final class RuinRadial implements RuinStrategy {
 	}
 
 	private int getNuOfJobs2BeRemoved() {
-		return (int) Math.ceil(vrp.getJobs().values().size()
-				* fractionOfAllNodes2beRuined);
+		return getNuOfJobs2BeRemoved(vrp, fractionOfAllNodes2beRuined);
 	}
 
 	@Override
@@ -18,7 +18,6 @@ package jsprit.core.algorithm.ruin;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Random;
 
@@ -26,6 +25,8 @@ import jsprit.core.algorithm.ruin.listener.RuinListener;
 import jsprit.core.algorithm.ruin.listener.RuinListeners;
 import jsprit.core.problem.VehicleRoutingProblem;
 import jsprit.core.problem.job.Job;
+import jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import jsprit.core.problem.solution.route.JobRouteIndex;
 import jsprit.core.problem.solution.route.VehicleRoute;
 import jsprit.core.util.RandomNumberGeneration;
 
@@ -41,7 +42,7 @@ import org.apache.log4j.Logger;
  * 
  */
 
-final class RuinRandom implements RuinStrategy {
+final class RuinRandom implements IndexedRuinStrategy {
 	
 	private Logger logger = Logger.getLogger(RuinRandom.class);
 
@@ -49,7 +50,7 @@ final class RuinRandom implements RuinStrategy {
 
 	private double fractionOfAllNodes2beRuined;
 
-	private Random random = RandomNumberGeneration.getRandom();
+	private Random random = RandomNumberGeneration.newRandom();
 	
 	private RuinListeners ruinListeners;
 
@@ -79,10 +80,22 @@ final class RuinRandom implements RuinStrategy {
 	 */
 	@Override
 	public Collection<Job> ruin(Collection<VehicleRoute> vehicleRoutes) {
+		return ruin(vehicleRoutes, JobRouteIndex.newInstance(vehicleRoutes));
+	}
+
+	/**
+	 * Removes a fraction of jobs from the routes of solution, and looks them up with the job-route index of solution.
+	 */
+	@Override
+	public Collection<Job> ruin(VehicleRoutingProblemSolution solution) {
+		return ruin(solution.getRoutes(), solution.getJobRouteIndex());
+	}
+	
+	private Collection<Job> ruin(Collection<VehicleRoute> vehicleRoutes, JobRouteIndex jobRouteIndex) {
 		ruinListeners.ruinStarts(vehicleRoutes);
 		List<Job> unassignedJobs = new ArrayList<Job>();
 		int nOfJobs2BeRemoved = selectNuOfJobs2BeRemoved();
-		ruin(vehicleRoutes, nOfJobs2BeRemoved, unassignedJobs);
+		ruin(jobRouteIndex, nOfJobs2BeRemoved, unassignedJobs);
 		ruinListeners.ruinEnds(vehicleRoutes, unassignedJobs);
 		return unassignedJobs;
 	}
@@ -94,19 +107,16 @@ final class RuinRandom implements RuinStrategy {
 	public Collection<Job> ruin(Collection<VehicleRoute> vehicleRoutes, Job targetJob, int nOfJobs2BeRemoved) {
 		ruinListeners.ruinStarts(vehicleRoutes);
 		List<Job> unassignedJobs = new ArrayList<Job>();
+		JobRouteIndex jobRouteIndex = JobRouteIndex.newInstance(vehicleRoutes);
 		if(targetJob != null){
-			boolean removed = false;
-			for (VehicleRoute route : vehicleRoutes) {
-				removed = route.getTourActivities().removeJob(targetJob);
-				if (removed) {
-					nOfJobs2BeRemoved--;
-					unassignedJobs.add(targetJob);
-					ruinListeners.removed(targetJob,route);
-					break;
-				}
+			VehicleRoute route = jobRouteIndex.removeJob(targetJob);
+			if (route != null) {
+				nOfJobs2BeRemoved--;
+				unassignedJobs.add(targetJob);
+				ruinListeners.removed(targetJob,route);
 			}
 		}
-		ruin(vehicleRoutes, nOfJobs2BeRemoved, unassignedJobs);
+		ruin(jobRouteIndex, nOfJobs2BeRemoved, unassignedJobs);
 		ruinListeners.ruinEnds(vehicleRoutes, unassignedJobs);
 		return unassignedJobs;
 	}
@@ -116,18 +126,15 @@ final class RuinRandom implements RuinStrategy {
 		logger.info("fraction set " + this);
 	}
 
-	private void ruin(Collection<VehicleRoute> vehicleRoutes, int nOfJobs2BeRemoved, List<Job> unassignedJobs) {
-		LinkedList<Job> availableJobs = new LinkedList<Job>(vrp.getJobs().values());
+	private void ruin(JobRouteIndex jobRouteIndex, int nOfJobs2BeRemoved, List<Job> unassignedJobs) {
+		List<Job> availableJobs = new ArrayList<Job>(vrp.getJobs().values());
 		for (int i = 0; i < nOfJobs2BeRemoved; i++) {
-			Job job = pickRandomJob(availableJobs);
+			int randomIndex = random.nextInt(availableJobs.size());
+			Job job = availableJobs.remove(randomIndex);
 			unassignedJobs.add(job);
-			availableJobs.remove(job);
-			for (VehicleRoute route : vehicleRoutes) {
-				boolean removed = route.getTourActivities().removeJob(job);
-				if (removed) {
-					ruinListeners.removed(job,route);
-					break;
-				}
+			VehicleRoute route = jobRouteIndex.removeJob(job);
+			if (route != null) {
+				ruinListeners.removed(job,route);
 			}
 		}
 	}
@@ -138,11 +145,6 @@ final class RuinRandom implements RuinStrategy {
 		return "[name=randomRuin][fraction="+fractionOfAllNodes2beRuined+"]";
 	}
 	
-	private Job pickRandomJob(LinkedList<Job> availableJobs) {
-		int randomIndex = random.nextInt(availableJobs.size());
-		return availableJobs.get(randomIndex);
-	}
-
 	private int selectNuOfJobs2BeRemoved() {
 		return (int) Math.ceil(vrp.getJobs().values().size() * fractionOfAllNodes2beRuined);
 	}
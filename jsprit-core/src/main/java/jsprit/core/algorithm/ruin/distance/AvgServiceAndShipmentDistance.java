@@ -42,6 +42,15 @@ public class AvgServiceAndShipmentDistance implements JobDistance {
 		this.costs = costs;
 
 	}
+	
+	/**
+	 * Returns the transport costs distances are based on.
+	 * 
+	 * @return transport costs
+	 */
+	public VehicleRoutingTransportCosts getTransportCosts() {
+		return costs;
+	}
 
 	/**
 	 * Calculates and returns the average distance between two jobs based on the input-transport costs.
@@ -39,7 +39,7 @@ public class SelectRandomly implements SolutionSelector{
 		return selector;
 	}
 	
-	private Random random = RandomNumberGeneration.getRandom();
+	private Random random = RandomNumberGeneration.newRandom();
 	
 	@Override
 	public VehicleRoutingProblemSolution selectSolution(Collection<VehicleRoutingProblemSolution> solutions) {
@@ -17,12 +17,19 @@
 package jsprit.core.algorithm.state;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import jsprit.core.algorithm.listener.IterationStartsListener;
+import jsprit.core.algorithm.recreate.InsertionData;
+import jsprit.core.algorithm.recreate.listener.BeforeJobInsertionListener;
 import jsprit.core.algorithm.recreate.listener.InsertionEndsListener;
 import jsprit.core.algorithm.recreate.listener.InsertionListener;
 import jsprit.core.algorithm.recreate.listener.InsertionListeners;
@@ -33,19 +40,26 @@ import jsprit.core.algorithm.ruin.listener.RuinListeners;
 import jsprit.core.problem.Capacity;
 import jsprit.core.problem.VehicleRoutingProblem;
 import jsprit.core.problem.cost.VehicleRoutingTransportCosts;
+import jsprit.core.problem.job.Delivery;
 import jsprit.core.problem.job.Job;
+import jsprit.core.problem.job.Shipment;
 import jsprit.core.problem.solution.VehicleRoutingProblemSolution;
 import jsprit.core.problem.solution.route.ReverseRouteActivityVisitor;
 import jsprit.core.problem.solution.route.RouteActivityVisitor;
 import jsprit.core.problem.solution.route.RouteVisitor;
 import jsprit.core.problem.solution.route.VehicleRoute;
+import jsprit.core.problem.solution.route.activity.AbstractActivity;
 import jsprit.core.problem.solution.route.activity.ActivityVisitor;
+import jsprit.core.problem.solution.route.activity.IncrementalActivityVisitor;
+import jsprit.core.problem.solution.route.activity.IncrementalReverseActivityVisitor;
 import jsprit.core.problem.solution.route.activity.ReverseActivityVisitor;
 import jsprit.core.problem.solution.route.activity.TourActivity;
+import jsprit.core.problem.solution.route.state.DoubleActivityStateGetter;
 import jsprit.core.problem.solution.route.state.RouteAndActivityStateGetter;
 import jsprit.core.problem.solution.route.state.StateFactory;
 import jsprit.core.problem.solution.route.state.StateFactory.State;
 import jsprit.core.problem.solution.route.state.StateFactory.StateId;
+import jsprit.core.problem.vehicle.Vehicle;
 
 /**
  * Manages states.
@@ -53,10 +67,16 @@ import jsprit.core.problem.solution.route.state.StateFactory.StateId;
  * <p>Some condition, rules or constraints are stateful. This StateManager manages these states, i.e. it offers
  * methods to add, store and retrieve states based on vehicle-routes and tour-activities.
  * 
+ * <p>If a job is inserted with known insertion indices (see {@link BeforeJobInsertionListener}), activity states are updated incrementally, i.e.
+ * forward states only from the first changed activity to the end of the route and backward states (of {@link IncrementalReverseActivityVisitor}s) 
+ * only from the last changed activity back to the start of the route. This requires all registered {@link ActivityVisitor}s to be {@link IncrementalActivityVisitor}s, 
+ * otherwise the entire route is visited. The entire route is visited as well if the route shares its activities with another route, since 
+ * inserting a job duplicates these activities (see {@link jsprit.core.problem.solution.route.VehicleRoute#lazyCopyOf(jsprit.core.problem.solution.route.VehicleRoute)}).
+ * 
  * @author schroeder
  *
  */
-public class StateManager implements RouteAndActivityStateGetter, IterationStartsListener, RuinListener, InsertionStartsListener, JobInsertedListener, InsertionEndsListener {
+public class StateManager implements RouteAndActivityStateGetter, DoubleActivityStateGetter, IterationStartsListener, RuinListener, InsertionStartsListener, JobInsertedListener, InsertionEndsListener, BeforeJobInsertionListener {
 	
 	static class States_ {
 		
@@ -76,14 +96,201 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
 		
 	}
 
+	/**
+	 * Array-based store of activity states.
+	 * 
+	 * <p>Each activity is assigned a dense index when its first state is put, and each state-id has its own index 
+	 * (see {@link StateFactory#getIndex(StateId)}). The activity index is stored on the activity itself (see {@link AbstractActivity#getStateIndex()}) 
+	 * together with the generation of this store that assigned it, thus reading a state neither hashes the activity nor boxes the index. 
+	 * Clearing the store starts a new generation which invalidates all indices at once. Only if an activity already carries a valid index 
+	 * of another store, or is not an {@link AbstractActivity}, its index is kept in an identity map owned by this store. 
+	 * States of type Double are stored as primitives. Arrays are kept when clearing the store, i.e. they are reused in subsequent iterations.
+	 * 
+	 * @author schroeder
+	 *
+	 */
+	static class ActivityStateArrays {
+		
+		static final int NO_INDEX = 0;
+		
+		private static final byte NO_STATE = 0;
+		
+		private static final byte DOUBLE_STATE = 1;
+		
+		private static final byte OBJECT_STATE = 2;
+		
+		private static class Generation {
+			volatile boolean expired = false;
+		}
+		
+		private static class Index {
+			final Generation generation;
+			final int index;
+			Index(Generation generation, int index) {
+				super();
+				this.generation = generation;
+				this.index = index;
+			}
+		}
+		
+		private Generation generation = new Generation();
+		
+		private Map<TourActivity,Integer> activityIndices = new IdentityHashMap<TourActivity, Integer>();
+		
+		private int capacity = 128;
+		
+		private int nextIndex = 1;
+		
+		private byte[][] stateTypes = new byte[StateFactory.getNuOfStateIds()][];
+		
+		private double[][] doubleStates = new double[StateFactory.getNuOfStateIds()][];
+		
+		private Object[][] objectStates = new Object[StateFactory.getNuOfStateIds()][];
+		
+		/**
+		 * Returns the index of act, or NO_INDEX if act has not been indexed.
+		 */
+		int getIndex(TourActivity act){
+			if(act instanceof AbstractActivity){
+				Object stateIndex = ((AbstractActivity) act).getStateIndex();
+				if(stateIndex instanceof Index && ((Index) stateIndex).generation == generation) return ((Index) stateIndex).index;
+			}
+			if(activityIndices.isEmpty()) return NO_INDEX;
+			Integer index = activityIndices.get(act);
+			if(index == null) return NO_INDEX;
+			return index;
+		}
+		
+		/**
+		 * Returns the index of act, and assigns a new one if act has not been indexed yet.
+		 */
+		int index(TourActivity act){
+			int index = getIndex(act);
+			if(index != NO_INDEX) return index;
+			if(nextIndex == capacity) capacity *= 2;
+			if(!(act instanceof AbstractActivity) || !claim((AbstractActivity) act, new Index(generation, nextIndex))){
+				activityIndices.put(act, nextIndex);
+			}
+			return nextIndex++;
+		}
+		
+		/**
+		 * Stores index on act unless act carries a valid index of another store.
+		 */
+		private boolean claim(AbstractActivity act, Index index){
+			while(true){
+				Object stateIndex = act.getStateIndex();
+				if(stateIndex instanceof Index && !((Index) stateIndex).generation.expired) return false;
+				if(act.compareAndSetStateIndex(stateIndex, index)) return true;
+			}
+		}
+		
+		boolean hasState(int index, int stateIndex){
+			return getStateType(index, stateIndex) != NO_STATE;
+		}
+		
+		boolean hasDoubleState(int index, int stateIndex){
+			return getStateType(index, stateIndex) == DOUBLE_STATE;
+		}
+		
+		private byte getStateType(int index, int stateIndex){
+			if(stateIndex >= stateTypes.length) return NO_STATE;
+			byte[] types = stateTypes[stateIndex];
+			if(types == null || index >= types.length) return NO_STATE;
+			return types[index];
+		}
+		
+		double getDouble(int index, int stateIndex){
+			return doubleStates[stateIndex][index];
+		}
+		
+		Object getObject(int index, int stateIndex){
+			return objectStates[stateIndex][index];
+		}
+		
+		void putDouble(int index, int stateIndex, double state){
+			ensureCapacity(stateIndex);
+			if(doubleStates[stateIndex] == null || doubleStates[stateIndex].length <= index){
+				doubleStates[stateIndex] = grow(doubleStates[stateIndex]);
+			}
+			doubleStates[stateIndex][index] = state;
+			stateTypes[stateIndex][index] = DOUBLE_STATE;
+		}
+		
+		void putObject(int index, int stateIndex, Object state){
+			ensureCapacity(stateIndex);
+			if(objectStates[stateIndex] == null || objectStates[stateIndex].length <= index){
+				objectStates[stateIndex] = grow(objectStates[stateIndex]);
+			}
+			objectStates[stateIndex][index] = state;
+			stateTypes[stateIndex][index] = OBJECT_STATE;
+		}
+		
+		private void ensureCapacity(int stateIndex) {
+			if(stateIndex >= stateTypes.length){
+				int nuOfStates = Math.max(stateIndex + 1, StateFactory.getNuOfStateIds());
+				stateTypes = Arrays.copyOf(stateTypes, nuOfStates);
+				doubleStates = Arrays.copyOf(doubleStates, nuOfStates);
+				objectStates = Arrays.copyOf(objectStates, nuOfStates);
+			}
+			if(stateTypes[stateIndex] == null) stateTypes[stateIndex] = new byte[capacity];
+			else if(stateTypes[stateIndex].length < capacity) stateTypes[stateIndex] = Arrays.copyOf(stateTypes[stateIndex], capacity);
+		}
+		
+		private double[] grow(double[] states){
+			if(states == null) return new double[capacity];
+			return Arrays.copyOf(states, capacity);
+		}
+		
+		private Object[] grow(Object[] states){
+			if(states == null) return new Object[capacity];
+			return Arrays.copyOf(states, capacity);
+		}
+		
+		/**
+		 * Removes all states and activity indices. Arrays are kept.
+		 */
+		void clear(){
+			for(int i=0;i<stateTypes.length;i++){
+				if(stateTypes[i] != null) Arrays.fill(stateTypes[i], 0, Math.min(nextIndex, stateTypes[i].length), NO_STATE);
+				if(objectStates[i] != null) Arrays.fill(objectStates[i], 0, Math.min(nextIndex, objectStates[i].length), null);
+			}
+			generation.expired = true;
+			generation = new Generation();
+			activityIndices.clear();
+			nextIndex = 1;
+		}
+		
+	}
+
 	private Map<VehicleRoute,States_> vehicleRouteStates_ = new HashMap<VehicleRoute, States_>();
 	
-	private Map<TourActivity,States_> activityStates_ = new HashMap<TourActivity, States_>();
+	private ActivityStateArrays activityStateArrays = new ActivityStateArrays();
 	
 	private RouteActivityVisitor routeActivityVisitor = new RouteActivityVisitor();
 	
 	private ReverseRouteActivityVisitor revRouteActivityVisitor = new ReverseRouteActivityVisitor();
 	
+	private List<ActivityVisitor> activityVisitors = new ArrayList<ActivityVisitor>();
+	
+	private List<ReverseActivityVisitor> reverseActivityVisitors = new ArrayList<ReverseActivityVisitor>();
+	
+	private boolean allActivityVisitorsIncremental = true;
+	
+	private Set<VehicleRoute> routesWithUpdatedStates = new HashSet<VehicleRoute>();
+	
+	private Job jobToInsert;
+	
+	private VehicleRoute routeToInsert;
+	
+	private Vehicle vehicleBeforeInsertion;
+	
+	private double departureTimeBeforeInsertion;
+	
+	private int firstChangedIndex;
+	
+	private int lastChangedIndex;
+	
 	private Collection<RouteVisitor> routeVisitors = new ArrayList<RouteVisitor>();
 	
 	private RuinListeners ruinListeners = new RuinListeners();
@@ -102,6 +309,12 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
 	
 	private boolean updateTWs = false;
 	
+	private boolean recordUpdates = false;
+	
+	private long nuOfRouteUpdates = 0;
+	
+	private long updateTimeInNanos = 0;
+	
 	/**
 	 * @deprecated use <code>StateManager(VehicleRoutingTransportCosts tpcosts)</code> instead.
 	 * @param vrp
@@ -195,7 +408,8 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
 	 */
 	public void clear(){
 		vehicleRouteStates_.clear();
-		activityStates_.clear();
+		activityStateArrays.clear();
+		routesWithUpdatedStates.clear();
 	}
 
 	/**
@@ -204,15 +418,7 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
 	@Deprecated
 	@Override
 	public State getActivityState(TourActivity act, StateId stateId) {
-		if(!activityStates_.containsKey(act)){
-			return getDefaultTypedActivityState(act,stateId,State.class);
-		}
-		States_ actStates = activityStates_.get(act);
-		State state = actStates.getState(stateId, State.class);
-		if(state == null){
-			return getDefaultTypedActivityState(act,stateId,State.class);
-		}
-		return state;
+		return getActivityState(act, stateId, State.class);
 	}
 	
 	/**
@@ -221,13 +427,56 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
 	 */
 	@Override
 	public <T> T getActivityState(TourActivity act, StateId stateId, Class<T> type) {
-		if(!activityStates_.containsKey(act)){
-			return getDefaultTypedActivityState(act, stateId, type);
+		int index = activityStateArrays.getIndex(act);
+		if(index != ActivityStateArrays.NO_INDEX){
+			int stateIndex = StateFactory.getIndex(stateId);
+			if(activityStateArrays.hasDoubleState(index, stateIndex)){
+				return type.cast(activityStateArrays.getDouble(index, stateIndex));
+			}
+			if(activityStateArrays.hasState(index, stateIndex)){
+				Object state = activityStateArrays.getObject(index, stateIndex);
+				if(state != null) return type.cast(state);
+			}
 		}
-		States_ states = activityStates_.get(act);
-		T state = states.getState(stateId, type);
-		if(state == null) return getDefaultTypedActivityState(act, stateId, type);
-		return state;
+		return getDefaultTypedActivityState(act, stateId, type);
+	}
+
+	/**
+	 * Returns activity state of type double. 
+	 * 
+	 * <p>In contrast to <code>getActivityState(act, stateId, Double.class)</code>, this neither boxes nor unboxes the state.
+	 * 
+	 * @throws IllegalStateException if neither the state nor its default is a number
+	 */
+	@Override
+	public double getDoubleActivityState(TourActivity act, StateId stateId) {
+		int index = activityStateArrays.getIndex(act);
+		if(index != ActivityStateArrays.NO_INDEX){
+			int stateIndex = StateFactory.getIndex(stateId);
+			if(activityStateArrays.hasDoubleState(index, stateIndex)){
+				return activityStateArrays.getDouble(index, stateIndex);
+			}
+			if(activityStateArrays.hasState(index, stateIndex)){
+				Object state = activityStateArrays.getObject(index, stateIndex);
+				if(state != null) return toDouble(state, stateId);
+			}
+		}
+		if(defaultActivityStates_.containsKey(stateId)){
+			return toDouble(defaultActivityStates_.get(stateId), stateId);
+		}
+		if(stateId.equals(StateFactory.EARLIEST_OPERATION_START_TIME)){
+			return act.getTheoreticalEarliestOperationStartTime();
+		}
+		if(stateId.equals(StateFactory.LATEST_OPERATION_START_TIME)){
+			return act.getTheoreticalLatestOperationStartTime();
+		}
+		throw new IllegalStateException("activity state " + stateId + " does not exist for " + act);
+	}
+	
+	private double toDouble(Object state, StateId stateId){
+		if(state instanceof Number) return ((Number) state).doubleValue();
+		if(state instanceof State) return ((State) state).toDouble();
+		throw new IllegalStateException("state " + stateId + " is not a number, but " + state);
 	}
 
 	/**
@@ -311,11 +560,22 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
 	}
 	
 	<T> void putInternalTypedActivityState(TourActivity act, StateId stateId, Class<T> type, T state){
-		if(!activityStates_.containsKey(act)){
-			activityStates_.put(act, new States_());
+		int index = activityStateArrays.index(act);
+		if(type == Double.class && state != null){
+			activityStateArrays.putDouble(index, StateFactory.getIndex(stateId), (Double) state);
 		}
-		States_ actStates = activityStates_.get(act);
-		actStates.putState(stateId, type, state);
+		else activityStateArrays.putObject(index, StateFactory.getIndex(stateId), type.cast(state));
+	}
+
+	/**
+	 * Memorizes state of type double without boxing it.
+	 * 
+	 * @param act
+	 * @param stateId
+	 * @param state
+	 */
+	void putInternalDoubleActivityState(TourActivity act, StateId stateId, double state){
+		activityStateArrays.putDouble(activityStateArrays.index(act), StateFactory.getIndex(stateId), state);
 	}
 
 	@Deprecated
@@ -403,6 +663,35 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
 	 */
 	 void addActivityVisitor(ActivityVisitor activityVistor){
 		routeActivityVisitor.addActivityVisitor(activityVistor);
+		if(!activityVisitors.contains(activityVistor)){
+			activityVisitors.add(activityVistor);
+			if(!(activityVistor instanceof IncrementalActivityVisitor)) allActivityVisitorsIncremental = false;
+		}
+	}
+
+	/**
+	 * Returns true if an activityVisitor of type 'visitorType' has been added.
+	 * 
+	 * <p>Incremental visitors use this to check whether states they rely on when starting in the middle of a route are maintained by another visitor.
+	 * 
+	 * @param visitorType
+	 * @return
+	 */
+	/**
+	 * Returns true if arrival and end times of activities are updated (see {@link UpdateActivityTimes}), i.e. if <code>activity.getEndTime()</code> 
+	 * is the departure time at activities of routes whose states are up to date.
+	 * 
+	 * @return true if activity times are updated
+	 */
+	public boolean updatesActivityTimes(){
+		return hasActivityVisitor(UpdateActivityTimes.class);
+	}
+	
+	boolean hasActivityVisitor(Class<? extends ActivityVisitor> visitorType){
+		for(ActivityVisitor v : activityVisitors){
+			if(visitorType.isInstance(v)) return true;
+		}
+		return false;
 	}
 
 	/**
@@ -414,6 +703,7 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
 	 */
 	 void addActivityVisitor(ReverseActivityVisitor activityVistor){
 		revRouteActivityVisitor.addActivityVisitor(activityVistor);
+		if(!reverseActivityVisitors.contains(activityVistor)) reverseActivityVisitors.add(activityVistor);
 	}
 
 	 void addRouteVisitor(RouteVisitor routeVisitor){
@@ -437,23 +727,157 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
 	}
 
 	
+	/**
+	 * Sets whether state updates are recorded (default is false), i.e. whether the number of route updates and the time it took 
+	 * to update states are accumulated.
+	 * 
+	 * <p>A route update is either the update of all routes when insertion starts, or the update of a route a job has been inserted in.
+	 * 
+	 * @param recordUpdates
+	 */
+	public void setRecordUpdates(boolean recordUpdates){
+		this.recordUpdates = recordUpdates;
+	}
+	
+	/**
+	 * Returns the number of route updates recorded so far (see {@link #setRecordUpdates(boolean)}).
+	 * 
+	 * @return number of route updates
+	 */
+	public long getNuOfRouteUpdates(){
+		return nuOfRouteUpdates;
+	}
+	
+	/**
+	 * Returns the time it took to update states, recorded so far (see {@link #setRecordUpdates(boolean)}).
+	 * 
+	 * @return update time in nanoseconds
+	 */
+	public long getUpdateTimeInNanos(){
+		return updateTimeInNanos;
+	}
+	
 	@Override
 	public void informJobInserted(Job job2insert, VehicleRoute inRoute, double additionalCosts, double additionalTime) {
 //		log.debug("insert " + job2insert + " in " + inRoute);
+		long start = recordUpdates ? System.nanoTime() : 0;
 		insertionListeners.informJobInserted(job2insert, inRoute, additionalCosts, additionalTime);
 		for(RouteVisitor v : routeVisitors){ v.visit(inRoute); }
-		routeActivityVisitor.visit(inRoute);
-		revRouteActivityVisitor.visit(inRoute);
+		if(canUpdateIncrementally(job2insert, inRoute)){
+			visitForward(inRoute, firstChangedIndex);
+			visitBackward(inRoute, lastChangedIndex);
+		}
+		else{
+			routeActivityVisitor.visit(inRoute);
+			revRouteActivityVisitor.visit(inRoute);
+			routesWithUpdatedStates.add(inRoute);
+		}
+		jobToInsert = null;
+		routeToInsert = null;
+		if(recordUpdates) recordUpdate(1, start);
+	}
+	
+	private void recordUpdate(int nuOfRoutes, long start){
+		nuOfRouteUpdates += nuOfRoutes;
+		updateTimeInNanos += System.nanoTime() - start;
+	}
+	
+	@Override
+	public void informBeforeJobInsertion(Job job, InsertionData data, VehicleRoute route) {
+		insertionListeners.informBeforeJobInsertion(job, data, route);
+		jobToInsert = null;
+		routeToInsert = null;
+		if(data == null || route == null || route.getStart() == null) return;
+		if(duplicatesActivities(route)) return;
+		int deliveryIndex = data.getDeliveryInsertionIndex();
+		if(deliveryIndex < 0) return;
+		if(job instanceof Shipment){
+			int pickupIndex = data.getPickupInsertionIndex();
+			if(pickupIndex < 0 || pickupIndex > deliveryIndex) return;
+			firstChangedIndex = pickupIndex;
+			lastChangedIndex = deliveryIndex + 1;
+		}
+		else{
+			firstChangedIndex = deliveryIndex;
+			lastChangedIndex = deliveryIndex;
+		}
+		/*
+		 * a delivery changes the load at the beginning of the route, thus forward states need to be updated from the start
+		 */
+		if(job instanceof Delivery) firstChangedIndex = 0;
+		jobToInsert = job;
+		routeToInsert = route;
+		vehicleBeforeInsertion = route.getVehicle();
+		departureTimeBeforeInsertion = route.getDepartureTime();
+	}
+	
+	/*
+	 * inserting into a route that still shares its activities with another route (see TourActivities.lazyCopyOf(...)) duplicates them. 
+	 * there are no states of the duplicates yet, thus the entire route needs to be updated. once duplicated, the route (and usually the 
+	 * route it has been copied from) is updated incrementally again.
+	 */
+	private boolean duplicatesActivities(VehicleRoute route){
+		return route.getTourActivities().isShared();
+	}
+	
+	private boolean canUpdateIncrementally(Job insertedJob, VehicleRoute route){
+		if(jobToInsert != insertedJob || routeToInsert != route) return false;
+		if(!routesWithUpdatedStates.contains(route)) return false;
+		if(route.getVehicle() != vehicleBeforeInsertion) return false;
+		if(route.getDepartureTime() != departureTimeBeforeInsertion) return false;
+		return true;
+	}
+	
+	private void visitForward(VehicleRoute route, int fromIndex) {
+		if(!allActivityVisitorsIncremental){
+			routeActivityVisitor.visit(route);
+			return;
+		}
+		if(activityVisitors.isEmpty()) return;
+		List<TourActivity> activities = route.getActivities();
+		int startIndex = Math.min(fromIndex, activities.size()-1);
+		for(ActivityVisitor v : activityVisitors){ ((IncrementalActivityVisitor) v).begin(route, startIndex); }
+		for(int i=startIndex;i<activities.size();i++){
+			TourActivity act = activities.get(i);
+			for(ActivityVisitor v : activityVisitors){ v.visit(act); }
+		}
+		for(ActivityVisitor v : activityVisitors){ v.finish(); }
+	}
+	
+	/*
+	 * each reverseVisitor visits the route on its own, since incremental visitors stop at lastChangedIndex whereas others need to visit the entire route 
+	 */
+	private void visitBackward(VehicleRoute route, int toIndex) {
+		List<TourActivity> activities = route.getActivities();
+		int lastIndex = activities.size()-1;
+		for(ReverseActivityVisitor v : reverseActivityVisitors){
+			int startIndex;
+			if(v instanceof IncrementalReverseActivityVisitor){
+				startIndex = Math.min(toIndex, lastIndex);
+				((IncrementalReverseActivityVisitor) v).begin(route, startIndex);
+			}
+			else{
+				startIndex = lastIndex;
+				v.begin(route);
+			}
+			for(int i=startIndex;i>=0;i--){
+				v.visit(activities.get(i));
+			}
+			v.finish();
+		}
 	}
 
 	@Override
 	public void informInsertionStarts(Collection<VehicleRoute> vehicleRoutes,Collection<Job> unassignedJobs) {
+		long start = recordUpdates ? System.nanoTime() : 0;
 		insertionListeners.informInsertionStarts(vehicleRoutes, unassignedJobs);
 		for(VehicleRoute route : vehicleRoutes){ 
 			for(RouteVisitor v : routeVisitors){ v.visit(route); }
 			routeActivityVisitor.visit(route);
 			revRouteActivityVisitor.visit(route);
+			routesWithUpdatedStates.add(route);
 		}
+		if(recordUpdates) recordUpdate(vehicleRoutes.size(), start);
 	}
 	
 	@Override
@@ -474,6 +898,7 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
 
 	@Override
 	public void removed(Job job, VehicleRoute fromRoute) {
+		routesWithUpdatedStates.remove(fromRoute);
 		ruinListeners.removed(job, fromRoute);
 	}
 
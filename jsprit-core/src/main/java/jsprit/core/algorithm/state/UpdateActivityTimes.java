@@ -2,7 +2,7 @@ package jsprit.core.algorithm.state;
 
 import jsprit.core.problem.cost.ForwardTransportTime;
 import jsprit.core.problem.solution.route.VehicleRoute;
-import jsprit.core.problem.solution.route.activity.ActivityVisitor;
+import jsprit.core.problem.solution.route.activity.IncrementalActivityVisitor;
 import jsprit.core.problem.solution.route.activity.TourActivity;
 import jsprit.core.util.ActivityTimeTracker;
 
@@ -15,7 +15,7 @@ import jsprit.core.util.ActivityTimeTracker;
  * @author stefan
  *
  */
-public class UpdateActivityTimes implements ActivityVisitor, StateUpdater{
+public class UpdateActivityTimes implements IncrementalActivityVisitor, StateUpdater{
 
 	private ActivityTimeTracker timeTracker;
 	
@@ -45,6 +45,17 @@ public class UpdateActivityTimes implements ActivityVisitor, StateUpdater{
 		route.getStart().setEndTime(timeTracker.getActEndTime());
 	}
 
+	@Override
+	public void begin(VehicleRoute route, int fromIndex) {
+		if(fromIndex == 0){
+			begin(route);
+			return;
+		}
+		TourActivity prevAct = route.getActivities().get(fromIndex-1);
+		timeTracker.begin(route, prevAct, prevAct.getEndTime());
+		this.route = route;
+	}
+
 	@Override
 	public void visit(TourActivity activity) {
 		timeTracker.visit(activity);
@@ -10,7 +10,7 @@ import jsprit.core.problem.job.Job;
 import jsprit.core.problem.job.Pickup;
 import jsprit.core.problem.job.Service;
 import jsprit.core.problem.solution.route.VehicleRoute;
-import jsprit.core.problem.solution.route.activity.ActivityVisitor;
+import jsprit.core.problem.solution.route.activity.IncrementalActivityVisitor;
 import jsprit.core.problem.solution.route.activity.TourActivity;
 import jsprit.core.problem.solution.route.state.StateFactory;
 
@@ -26,7 +26,7 @@ import jsprit.core.problem.solution.route.state.StateFactory;
  * @author stefan
  *
  */
-class UpdateLoads implements ActivityVisitor, StateUpdater, InsertionStartsListener, JobInsertedListener {
+class UpdateLoads implements IncrementalActivityVisitor, StateUpdater, InsertionStartsListener, JobInsertedListener {
 	
 	private StateManager stateManager;
 	
@@ -35,6 +35,8 @@ class UpdateLoads implements ActivityVisitor, StateUpdater, InsertionStartsListe
 	 */
 	private Capacity currentLoad = Capacity.Builder.newInstance().build();
 	
+	private Capacity.Accumulator loadAccumulator = Capacity.Accumulator.newInstance();
+	
 	private VehicleRoute route;
 	
 	public UpdateLoads(StateManager stateManager) {
@@ -45,12 +47,24 @@ class UpdateLoads implements ActivityVisitor, StateUpdater, InsertionStartsListe
 	@Override
 	public void begin(VehicleRoute route) {
 		currentLoad = stateManager.getRouteState(route, StateFactory.LOAD_AT_BEGINNING, Capacity.class);
+		loadAccumulator.set(currentLoad);
+		this.route = route;
+	}
+
+	@Override
+	public void begin(VehicleRoute route, int fromIndex) {
+		if(fromIndex == 0){
+			begin(route);
+			return;
+		}
+		currentLoad = stateManager.getActivityState(route.getActivities().get(fromIndex-1), StateFactory.LOAD, Capacity.class);
+		loadAccumulator.set(currentLoad);
 		this.route = route;
 	}
 
 	@Override
 	public void visit(TourActivity act) {
-		currentLoad = Capacity.addup(currentLoad, act.getSize());
+		currentLoad = loadAccumulator.add(act.getSize()).toCapacity();
 		stateManager.putInternalTypedActivityState(act, StateFactory.LOAD, Capacity.class, currentLoad);
 		assert currentLoad.isLessOrEqual(route.getVehicle().getType().getCapacityDimensions()) : "currentLoad at activity must not be > vehicleCapacity";
 		assert currentLoad.isGreaterOrEqual(Capacity.Builder.newInstance().build()) : "currentLoad at act must not be < 0 in one of the applied dimensions";
@@ -62,18 +76,18 @@ class UpdateLoads implements ActivityVisitor, StateUpdater, InsertionStartsListe
 	}
 	
 	void insertionStarts(VehicleRoute route) {
-		Capacity loadAtDepot = Capacity.Builder.newInstance().build();
-		Capacity loadAtEnd = Capacity.Builder.newInstance().build();
+		Capacity.Accumulator loadAtDepot = Capacity.Accumulator.newInstance();
+		Capacity.Accumulator loadAtEnd = Capacity.Accumulator.newInstance();
 		for(Job j : route.getTourActivities().getJobs()){
 			if(j instanceof Delivery){
-				loadAtDepot = Capacity.addup(loadAtDepot, j.getSize());
+				loadAtDepot.add(j.getSize());
 			}
 			else if(j instanceof Pickup || j instanceof Service){
-				loadAtEnd = Capacity.addup(loadAtEnd, j.getSize());
+				loadAtEnd.add(j.getSize());
 			}
 		}
-		stateManager.putTypedInternalRouteState(route, StateFactory.LOAD_AT_BEGINNING, Capacity.class, loadAtDepot);
-		stateManager.putTypedInternalRouteState(route, StateFactory.LOAD_AT_END, Capacity.class, loadAtEnd);
+		stateManager.putTypedInternalRouteState(route, StateFactory.LOAD_AT_BEGINNING, Capacity.class, loadAtDepot.toCapacity());
+		stateManager.putTypedInternalRouteState(route, StateFactory.LOAD_AT_END, Capacity.class, loadAtEnd.toCapacity());
 	}
 
 	@Override
@@ -2,7 +2,7 @@ package jsprit.core.algorithm.state;
 
 import jsprit.core.problem.Capacity;
 import jsprit.core.problem.solution.route.VehicleRoute;
-import jsprit.core.problem.solution.route.activity.ActivityVisitor;
+import jsprit.core.problem.solution.route.activity.IncrementalActivityVisitor;
 import jsprit.core.problem.solution.route.activity.TourActivity;
 import jsprit.core.problem.solution.route.state.StateFactory;
 
@@ -13,7 +13,7 @@ import jsprit.core.problem.solution.route.state.StateFactory;
  * @author schroeder
  *
  */
-class UpdateMaxCapacityUtilisationAtActivitiesByLookingBackwardInRoute implements ActivityVisitor, StateUpdater {
+class UpdateMaxCapacityUtilisationAtActivitiesByLookingBackwardInRoute implements IncrementalActivityVisitor, StateUpdater {
 	
 	private StateManager stateManager;
 	
@@ -31,9 +31,20 @@ class UpdateMaxCapacityUtilisationAtActivitiesByLookingBackwardInRoute implement
 		maxLoad = stateManager.getRouteState(route, StateFactory.LOAD_AT_BEGINNING, Capacity.class);
 	}
 
+	@Override
+	public void begin(VehicleRoute route, int fromIndex) {
+		if(fromIndex == 0){
+			begin(route);
+			return;
+		}
+		this.route = route;
+		maxLoad = stateManager.getActivityState(route.getActivities().get(fromIndex-1), StateFactory.PAST_MAXLOAD, Capacity.class);
+	}
+
 	@Override
 	public void visit(TourActivity act) {
-		maxLoad = Capacity.max(maxLoad, stateManager.getActivityState(act, StateFactory.LOAD, Capacity.class));
+		Capacity load = stateManager.getActivityState(act, StateFactory.LOAD, Capacity.class);
+		if(!load.isLessOrEqual(maxLoad)) maxLoad = Capacity.max(maxLoad, load);
 		stateManager.putInternalTypedActivityState(act, StateFactory.PAST_MAXLOAD, Capacity.class, maxLoad);
 		assert maxLoad.isGreaterOrEqual(Capacity.Builder.newInstance().build()) : "maxLoad can never be smaller than 0";
 		assert maxLoad.isLessOrEqual(route.getVehicle().getType().getCapacityDimensions()) : "maxLoad can never be bigger than vehicleCap";
@@ -48,7 +48,8 @@ class UpdateMaxCapacityUtilisationAtActivitiesByLookingForwardInRoute implements
 
 	@Override
 	public void visit(TourActivity act) {
-		maxLoad = Capacity.max(maxLoad, stateManager.getActivityState(act, StateFactory.LOAD, Capacity.class));
+		Capacity load = stateManager.getActivityState(act, StateFactory.LOAD, Capacity.class);
+		if(!load.isLessOrEqual(maxLoad)) maxLoad = Capacity.max(maxLoad, load);
 //		maxLoad = Math.max(maxLoad, stateManager.getActivityState(act, StateFactory.LOAD).toDouble());
 		stateManager.putInternalTypedActivityState(act, StateFactory.FUTURE_MAXLOAD, Capacity.class, maxLoad);
 //		stateManager.putInternalActivityState(act, StateFactory.FUTURE_MAXLOAD, StateFactory.createState(maxLoad));
@@ -2,7 +2,7 @@ package jsprit.core.algorithm.state;
 
 import jsprit.core.problem.Capacity;
 import jsprit.core.problem.solution.route.VehicleRoute;
-import jsprit.core.problem.solution.route.activity.ActivityVisitor;
+import jsprit.core.problem.solution.route.activity.IncrementalActivityVisitor;
 import jsprit.core.problem.solution.route.activity.TourActivity;
 import jsprit.core.problem.solution.route.state.StateFactory;
 
@@ -17,15 +17,15 @@ import jsprit.core.problem.solution.route.state.StateFactory;
  * @author stefan
  *
  */
-class UpdateMaxCapacityUtilisationAtRoute implements ActivityVisitor, StateUpdater {
+class UpdateMaxCapacityUtilisationAtRoute implements IncrementalActivityVisitor, StateUpdater {
 	
 	private StateManager stateManager;
 	
-	private Capacity currentLoad = Capacity.Builder.newInstance().build();
+	private Capacity.Accumulator currentLoad = Capacity.Accumulator.newInstance();
 	
 	private VehicleRoute route;
 	
-	private Capacity maxLoad = Capacity.Builder.newInstance().build();
+	private Capacity.Accumulator maxLoad = Capacity.Accumulator.newInstance();
 	
 	public UpdateMaxCapacityUtilisationAtRoute(StateManager stateManager) {
 		super();
@@ -34,19 +34,44 @@ class UpdateMaxCapacityUtilisationAtRoute implements ActivityVisitor, StateUpdat
 	
 	@Override
 	public void begin(VehicleRoute route) {
-		currentLoad = stateManager.getRouteState(route, StateFactory.LOAD_AT_BEGINNING, Capacity.class);
-		maxLoad = currentLoad;
+		currentLoad.set(stateManager.getRouteState(route, StateFactory.LOAD_AT_BEGINNING, Capacity.class));
+		maxLoad.set(stateManager.getRouteState(route, StateFactory.LOAD_AT_BEGINNING, Capacity.class));
 		this.route = route;
 	}
 
+	/**
+	 * Starts with load and past maxLoad of the activity before 'fromIndex'. 
+	 * 
+	 * <p>These are only memorized if {@link UpdateLoads} and {@link UpdateMaxCapacityUtilisationAtActivitiesByLookingBackwardInRoute} are 
+	 * added to the stateManager as well (see {@link StateManager#updateLoadStates()}). If not, the activities before 'fromIndex' are accumulated here. 
+	 */
+	@Override
+	public void begin(VehicleRoute route, int fromIndex) {
+		if(fromIndex == 0){
+			begin(route);
+			return;
+		}
+		if(stateManager.hasActivityVisitor(UpdateLoads.class) && stateManager.hasActivityVisitor(UpdateMaxCapacityUtilisationAtActivitiesByLookingBackwardInRoute.class)){
+			TourActivity prevAct = route.getActivities().get(fromIndex-1);
+			currentLoad.set(stateManager.getActivityState(prevAct, StateFactory.LOAD, Capacity.class));
+			maxLoad.set(stateManager.getActivityState(prevAct, StateFactory.PAST_MAXLOAD, Capacity.class));
+			this.route = route;
+			return;
+		}
+		begin(route);
+		for(int i=0;i<fromIndex;i++){
+			visit(route.getActivities().get(i));
+		}
+	}
+
 	@Override
 	public void visit(TourActivity act) {
-		currentLoad = Capacity.addup(currentLoad, act.getSize());
-		maxLoad = Capacity.max(maxLoad, currentLoad);
+		currentLoad.add(act.getSize());
+		maxLoad.max(currentLoad);
 	}
 
 	@Override
 	public void finish() {
-		stateManager.putTypedInternalRouteState(route, StateFactory.MAXLOAD, Capacity.class, maxLoad);
+		stateManager.putTypedInternalRouteState(route, StateFactory.MAXLOAD, Capacity.class, maxLoad.toCapacity());
 	}
 }
\ No newline at end of file
@@ -1,8 +1,10 @@
 package jsprit.core.algorithm.state;
 
+import java.util.List;
+
 import jsprit.core.problem.cost.VehicleRoutingTransportCosts;
 import jsprit.core.problem.solution.route.VehicleRoute;
-import jsprit.core.problem.solution.route.activity.ReverseActivityVisitor;
+import jsprit.core.problem.solution.route.activity.IncrementalReverseActivityVisitor;
 import jsprit.core.problem.solution.route.activity.TourActivity;
 import jsprit.core.problem.solution.route.state.StateFactory;
 
@@ -12,7 +14,7 @@ import jsprit.core.problem.solution.route.state.StateFactory;
  * @author schroeder
  *
  */
-class UpdatePracticalTimeWindows implements ReverseActivityVisitor, StateUpdater{
+class UpdatePracticalTimeWindows implements IncrementalReverseActivityVisitor, StateUpdater{
 
 	private StateManager states;
 	
@@ -37,12 +39,24 @@ class UpdatePracticalTimeWindows implements ReverseActivityVisitor, StateUpdater
 		prevAct = route.getEnd();
 	}
 
+	@Override
+	public void begin(VehicleRoute route, int toIndex) {
+		List<TourActivity> activities = route.getActivities();
+		if(toIndex >= activities.size()-1){
+			begin(route);
+			return;
+		}
+		this.route = route;
+		prevAct = activities.get(toIndex+1);
+		latestArrTimeAtPrevAct = states.getDoubleActivityState(prevAct, StateFactory.LATEST_OPERATION_START_TIME);
+	}
+
 	@Override
 	public void visit(TourActivity activity) {
 		double potentialLatestArrivalTimeAtCurrAct = latestArrTimeAtPrevAct - transportCosts.getBackwardTransportTime(activity.getLocationId(), prevAct.getLocationId(), latestArrTimeAtPrevAct, route.getDriver(),route.getVehicle()) - activity.getOperationTime();
 		double latestArrivalTime = Math.min(activity.getTheoreticalLatestOperationStartTime(), potentialLatestArrivalTimeAtCurrAct);
 		
-		states.putInternalTypedActivityState(activity, StateFactory.LATEST_OPERATION_START_TIME, Double.class, latestArrivalTime);
+		states.putInternalDoubleActivityState(activity, StateFactory.LATEST_OPERATION_START_TIME, latestArrivalTime);
 		
 		latestArrTimeAtPrevAct = latestArrivalTime;
 		prevAct = activity;
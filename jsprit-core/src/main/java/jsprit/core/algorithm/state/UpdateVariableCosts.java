@@ -4,9 +4,10 @@ import jsprit.core.problem.cost.ForwardTransportCost;
 import jsprit.core.problem.cost.VehicleRoutingActivityCosts;
 import jsprit.core.problem.cost.VehicleRoutingTransportCosts;
 import jsprit.core.problem.solution.route.VehicleRoute;
-import jsprit.core.problem.solution.route.activity.ActivityVisitor;
+import jsprit.core.problem.solution.route.activity.IncrementalActivityVisitor;
 import jsprit.core.problem.solution.route.activity.TourActivity;
 import jsprit.core.problem.solution.route.state.StateFactory;
+import jsprit.core.problem.solution.route.state.StateFactory.StateId;
 import jsprit.core.util.ActivityTimeTracker;
 
 
@@ -21,7 +22,12 @@ import jsprit.core.util.ActivityTimeTracker;
  * @param transportCost
  * @param states
  */
-public class UpdateVariableCosts implements ActivityVisitor,StateUpdater{
+public class UpdateVariableCosts implements IncrementalActivityVisitor,StateUpdater{
+
+	/*
+	 * end times memorized to be able to start in the middle of a route if activity times are not updated by UpdateActivityTimes
+	 */
+	private static final StateId END_TIME = StateFactory.createId("variableCostsEndTime");
 
 	private VehicleRoutingActivityCosts activityCost;
 
@@ -39,6 +45,8 @@ public class UpdateVariableCosts implements ActivityVisitor,StateUpdater{
 	
 	private ActivityTimeTracker timeTracker;
 	
+	private boolean activityTimesUpdated = false;
+	
 	/**
 	 * Updates total costs (i.e. transport and activity costs) at route and activity level.
 	 * 
@@ -61,11 +69,27 @@ public class UpdateVariableCosts implements ActivityVisitor,StateUpdater{
 	@Override
 	public void begin(VehicleRoute route) {
 		vehicleRoute = route;
+		activityTimesUpdated = states.hasActivityVisitor(UpdateActivityTimes.class);
 		timeTracker.begin(route);
 		prevAct = route.getStart();
 		startTimeAtPrevAct = timeTracker.getActEndTime();
 	}
 
+	@Override
+	public void begin(VehicleRoute route, int fromIndex) {
+		if(fromIndex == 0){
+			begin(route);
+			return;
+		}
+		vehicleRoute = route;
+		activityTimesUpdated = states.hasActivityVisitor(UpdateActivityTimes.class);
+		prevAct = route.getActivities().get(fromIndex-1);
+		if(activityTimesUpdated) startTimeAtPrevAct = prevAct.getEndTime();
+		else startTimeAtPrevAct = states.getDoubleActivityState(prevAct, END_TIME);
+		timeTracker.begin(route, prevAct, startTimeAtPrevAct);
+		totalOperationCost = states.getDoubleActivityState(prevAct, StateFactory.COSTS);
+	}
+
 	@Override
 	public void visit(TourActivity act) {
 		timeTracker.visit(act);
@@ -76,7 +100,8 @@ public class UpdateVariableCosts implements ActivityVisitor,StateUpdater{
 		totalOperationCost += transportCost;
 		totalOperationCost += actCost;
 
-		states.putInternalTypedActivityState(act, StateFactory.COSTS, Double.class, totalOperationCost);
+		states.putInternalDoubleActivityState(act, StateFactory.COSTS, totalOperationCost);
+		if(!activityTimesUpdated) states.putInternalDoubleActivityState(act, END_TIME, timeTracker.getActEndTime());
 
 		prevAct = act;
 		startTimeAtPrevAct = timeTracker.getActEndTime();
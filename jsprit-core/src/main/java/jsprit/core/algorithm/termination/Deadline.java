@@ -0,0 +1,39 @@
+/*******************************************************************************
+ * Copyright (C) 2013  Stefan Schroeder
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either 
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public 
+ * License along with this library.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jsprit.core.algorithm.termination;
+
+/**
+ * Deadline of the search that long-running modules can check to abort the current iteration.
+ * 
+ * <p>A module that finds the deadline exceeded throws a {@link DeadlineExceededException}. The algorithm then discards 
+ * the current iteration and terminates.
+ * 
+ * @author schroeder
+ *
+ */
+public interface Deadline {
+	
+	/**
+	 * Returns true if the current iteration should be aborted.
+	 * 
+	 * <p>Implementations are called from several threads and in tight loops, thus they must be thread-safe and cheap.
+	 * 
+	 * @return true if deadline is exceeded
+	 */
+	public boolean isExceeded();
+
+}
@@ -0,0 +1,155 @@
+/*******************************************************************************
+ * Copyright (C) 2013  Stefan Schroeder
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either 
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public 
+ * License along with this library.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jsprit.core.algorithm.termination;
+
+import java.util.Collection;
+
+import jsprit.core.algorithm.SearchStrategy.DiscoveredSolution;
+import jsprit.core.algorithm.VehicleRoutingAlgorithm;
+import jsprit.core.algorithm.listener.AlgorithmEndsListener;
+import jsprit.core.algorithm.listener.AlgorithmStartsListener;
+import jsprit.core.algorithm.listener.IterationStartsListener;
+import jsprit.core.problem.VehicleRoutingProblem;
+import jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Breaks algorithm before the next iteration would exceed the specified time budget.
+ * 
+ * <p>In contrast to {@link TimeTermination}, which breaks once the budget has been exceeded, this memorizes an exponential moving average 
+ * of the duration of an iteration, and breaks if the remaining time is shorter than this estimate. Times are measured with 
+ * {@link System#nanoTime()}, i.e. they are not affected by changes of the system clock.
+ * 
+ * <p>It is also the {@link Deadline} of the iterations, i.e. modules that check it (see for example 
+ * {@link jsprit.core.algorithm.recreate.BestInsertionBuilder#setDeadline(Deadline)}) abort an iteration that takes longer than expected. Since 
+ * the algorithm cannot do without a solution, the deadline is not checked before the first iteration starts.
+ * 
+ * <p>Note that this must be registered as termination criterion and as listener. Register it with {@link jsprit.core.algorithm.listener.VehicleRoutingAlgorithmListeners.Priority#HIGH} 
+ * to charge the time needed to construct the initial solution to the budget as well:<br>
+ * <code>algorithm.addTerminationCriterion(deadline);</code><br>
+ * <code>algorithm.getAlgorithmListeners().addListener(deadline, Priority.HIGH);</code>
+ * 
+ * @author schroeder
+ *
+ */
+public class DeadlineTermination implements PrematureAlgorithmTermination, Deadline, AlgorithmStartsListener, IterationStartsListener, AlgorithmEndsListener {
+
+	private static Logger logger = Logger.getLogger(DeadlineTermination.class);
+	
+	private final double timeBudget;
+	
+	private final long timeBudgetInNanos;
+	
+	private double smoothingFactor = 0.3;
+	
+	private volatile long deadline;
+	
+	private volatile boolean iterating = false;
+	
+	private long lastCheck;
+	
+	private double estimatedIterationTime = 0.;
+	
+	private boolean hasEstimate = false;
+	
+	/**
+	 * Constructs termination that breaks algorithm before it exceeds the specified time budget.
+	 * 
+	 * @param time_in_seconds
+	 */
+	public DeadlineTermination(double time_in_seconds) {
+		super();
+		if(time_in_seconds < 0.) throw new IllegalStateException("time budget must not be negative");
+		this.timeBudget = time_in_seconds;
+		this.timeBudgetInNanos = (long) (time_in_seconds * 1.0e9);
+		logger.info("initialise " + this);
+	}
+	
+	/**
+	 * Sets the weight of the latest iteration in the moving average of iteration durations (default is 0.3).
+	 * 
+	 * <p>The higher the factor, the faster the estimate adapts to iterations that become longer or shorter (e.g. since the 
+	 * selected search strategies ruin more or less jobs).
+	 * 
+	 * @param smoothingFactor
+	 * @throws IllegalStateException if smoothingFactor is not in (0,1]
+	 */
+	public void setSmoothingFactor(double smoothingFactor) {
+		if(smoothingFactor <= 0. || smoothingFactor > 1.) throw new IllegalStateException("smoothingFactor must be in (0,1]");
+		this.smoothingFactor = smoothingFactor;
+	}
+	
+	/**
+	 * Returns the estimated duration of the next iteration in seconds.
+	 * 
+	 * @return estimated iteration time
+	 */
+	public double getEstimatedIterationTime() {
+		return estimatedIterationTime / 1.0e9;
+	}
+
+	@Override
+	public String toString() {
+		return "[name=DeadlineTermination][timeBudget="+timeBudget+"][smoothingFactor="+smoothingFactor+"]";
+	}
+	
+	@Override
+	public boolean isExceeded() {
+		return iterating && nanoTime() - deadline >= 0;
+	}
+
+	@Override
+	public boolean isPrematureBreak(DiscoveredSolution discoveredSolution) {
+		long now = nanoTime();
+		long iterationTime = now - lastCheck;
+		lastCheck = now;
+		if(hasEstimate) estimatedIterationTime = smoothingFactor * iterationTime + (1. - smoothingFactor) * estimatedIterationTime;
+		else estimatedIterationTime = iterationTime;
+		hasEstimate = true;
+		if(deadline - now < estimatedIterationTime){
+			logger.info("remaining time of " + ((deadline - now) / 1.0e9) + "s is shorter than estimated iteration time of " + getEstimatedIterationTime() + "s");
+			return true;
+		}
+		return false;
+	}
+	
+	@Override
+	public void informAlgorithmStarts(VehicleRoutingProblem problem, VehicleRoutingAlgorithm algorithm, Collection<VehicleRoutingProblemSolution> solutions) {
+		deadline = nanoTime() + timeBudgetInNanos;
+		iterating = false;
+		estimatedIterationTime = 0.;
+		hasEstimate = false;
+	}
+
+	@Override
+	public void informIterationStarts(int i, VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
+		if(iterating) return;
+		lastCheck = nanoTime();
+		iterating = true;
+	}
+	
+	@Override
+	public void informAlgorithmEnds(VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
+		iterating = false;
+	}
+	
+	long nanoTime(){
+		return System.nanoTime();
+	}
+
+}
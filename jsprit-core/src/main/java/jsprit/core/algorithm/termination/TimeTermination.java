@@ -30,6 +30,9 @@ import org.apache.log4j.Logger;
 /**
  * Breaks algorithm prematurely based on specified time.
  * 
+ * <p>It breaks after the first iteration that ends beyond the time threshold. To stop before the threshold is exceeded, 
+ * use {@link DeadlineTermination}.
+ * 
  * <p>Note, TimeBreaker must be registered as AlgorithmListener <br>
  * <code>agorithm.getAlgorithmListeners().addListener(this);</code>
  * 
@@ -42,7 +45,7 @@ public class TimeTermination implements PrematureAlgorithmTermination, Algorithm
 	
 	private double timeThreshold;
 	
-	private double startTime;
+	private long startTime;
 	
 	/**
 	 * Constructs TimeBreaker that breaks algorithm prematurely based on specified time.
@@ -66,13 +69,13 @@ public class TimeTermination implements PrematureAlgorithmTermination, Algorithm
 
 	@Override
 	public boolean isPrematureBreak(DiscoveredSolution discoveredSolution) {
-		if((System.currentTimeMillis() - startTime)/1000.0 > timeThreshold) return true;
+		if((System.nanoTime() - startTime)/1.0e9 > timeThreshold) return true;
 		return false;
 	}
 	
 	@Override
 	public void informAlgorithmStarts(VehicleRoutingProblem problem,VehicleRoutingAlgorithm algorithm,Collection<VehicleRoutingProblemSolution> solutions) {
-		startTime = System.currentTimeMillis();
+		startTime = System.nanoTime();
 	}
 
 }
@@ -1,5 +1,7 @@
 package jsprit.core.problem;
 
+import java.util.Arrays;
+
 /**
  * Capacity with an arbitrary number of capacity-dimension.
  * 
@@ -23,11 +25,11 @@ public class Capacity {
 	 */
 	public static Capacity addup(Capacity cap1, Capacity cap2){
 		if(cap1==null || cap2==null) throw new NullPointerException("arguments must not be null");
-		Capacity.Builder capacityBuilder= Capacity.Builder.newInstance();
-		for(int i=0;i<Math.max(cap1.getNuOfDimensions(),cap2.getNuOfDimensions());i++){
-			capacityBuilder.addDimension(i, cap1.get(i)+cap2.get(i));
+		int[] dimensions = new int[Math.max(cap1.getNuOfDimensions(),cap2.getNuOfDimensions())];
+		for(int i=0;i<dimensions.length;i++){
+			dimensions[i] = cap1.get(i)+cap2.get(i);
 		}
-		return capacityBuilder.build();
+		return new Capacity(dimensions);
 	}
 	
 	/**
@@ -42,12 +44,11 @@ public class Capacity {
 	 */
 	public static Capacity subtract(Capacity cap, Capacity cap2substract){
 		if(cap==null || cap2substract==null) throw new NullPointerException("arguments must not be null");
-		Capacity.Builder capacityBuilder= Capacity.Builder.newInstance();
-		for(int i=0;i<Math.max(cap.getNuOfDimensions(),cap2substract.getNuOfDimensions());i++){
-			int dimValue = cap.get(i)-cap2substract.get(i);
-			capacityBuilder.addDimension(i, dimValue);
+		int[] dimensions = new int[Math.max(cap.getNuOfDimensions(),cap2substract.getNuOfDimensions())];
+		for(int i=0;i<dimensions.length;i++){
+			dimensions[i] = cap.get(i)-cap2substract.get(i);
 		}
-		return capacityBuilder.build();
+		return new Capacity(dimensions);
 	}
 	
 	/**
@@ -59,12 +60,47 @@ public class Capacity {
 	 */
 	public static Capacity invert(Capacity cap2invert){
 		if(cap2invert==null) throw new NullPointerException("arguments must not be null");
-		Capacity.Builder capacityBuilder= Capacity.Builder.newInstance();
-		for(int i=0;i<cap2invert.getNuOfDimensions();i++){
-			int dimValue = cap2invert.get(i)*-1;
-			capacityBuilder.addDimension(i, dimValue);
+		int[] dimensions = new int[cap2invert.getNuOfDimensions()];
+		for(int i=0;i<dimensions.length;i++){
+			dimensions[i] = cap2invert.get(i)*-1;
+		}
+		return new Capacity(dimensions);
+	}
+	
+	/**
+	 * Returns true if the sum of cap1 and cap2 is less or equal than toCompare, i.e. it is the same as 
+	 * <code>Capacity.addup(cap1,cap2).isLessOrEqual(toCompare)</code> without creating the sum.
+	 * 
+	 * @param cap1
+	 * @param cap2
+	 * @param toCompare
+	 * @return true if cap1 + cap2 <= toCompare in every dimension
+	 * @throws NullPointerException if one of the args is null
+	 */
+	public static boolean isSumLessOrEqual(Capacity cap1, Capacity cap2, Capacity toCompare){
+		if(cap1==null || cap2==null || toCompare==null) throw new NullPointerException("arguments must not be null");
+		for(int i=0;i<Math.max(cap1.getNuOfDimensions(),cap2.getNuOfDimensions());i++){
+			if(cap1.get(i)+cap2.get(i) > toCompare.get(i)) return false;
+		}
+		return true;
+	}
+	
+	/**
+	 * Returns true if cap minus cap2subtract is less or equal than toCompare, i.e. it is the same as 
+	 * <code>Capacity.subtract(cap,cap2subtract).isLessOrEqual(toCompare)</code> without creating the difference.
+	 * 
+	 * @param cap
+	 * @param cap2subtract
+	 * @param toCompare
+	 * @return true if cap - cap2subtract <= toCompare in every dimension
+	 * @throws NullPointerException if one of the args is null
+	 */
+	public static boolean isDifferenceLessOrEqual(Capacity cap, Capacity cap2subtract, Capacity toCompare){
+		if(cap==null || cap2subtract==null || toCompare==null) throw new NullPointerException("arguments must not be null");
+		for(int i=0;i<Math.max(cap.getNuOfDimensions(),cap2subtract.getNuOfDimensions());i++){
+			if(cap.get(i)-cap2subtract.get(i) > toCompare.get(i)) return false;
 		}
-		return capacityBuilder.build();
+		return true;
 	}
 	
 	/**
@@ -121,6 +157,8 @@ public class Capacity {
 		 */
 		private int[] dimensions = new int[1];
 		
+		private int nuOfDimensions = 1;
+		
 		/**
 		 * Returns a new instance of Capacity with one dimension and a value/size of 0
 		 * 
@@ -143,24 +181,13 @@ public class Capacity {
 		 * @return
 		 */
 		public Builder addDimension(int index, int dimValue){
-			if(index < dimensions.length){
-				dimensions[index] = dimValue;
-			}
-			else{
-				int requiredSize = index + 1;
-				int[] newDimensions = new int[requiredSize]; 
-				copy(dimensions,newDimensions);
-				newDimensions[index]=dimValue;
-				this.dimensions=newDimensions;
+			if(index >= dimensions.length){
+				dimensions = Arrays.copyOf(dimensions, Math.max(index + 1, dimensions.length * 2));
 			}
+			dimensions[index] = dimValue;
+			nuOfDimensions = Math.max(nuOfDimensions, index + 1);
 			return this;
 		}
-		
-		private void copy(int[] from, int[] to) {
-			for(int i=0;i<dimensions.length;i++){
-				to[i]=from[i];
-			}
-		}
 
 		/**
 		 * Builds an immutable Capacity and returns it.
@@ -168,12 +195,188 @@ public class Capacity {
 		 * @return Capacity
 		 */
 		public Capacity build() {
-			return new Capacity(this);
+			return new Capacity(Arrays.copyOf(dimensions, nuOfDimensions));
 		}
 
 		
 	}
 	
+	/**
+	 * Mutable capacity that adds up, subtracts and maximises capacities in place, i.e. without creating new objects. 
+	 * 
+	 * <p>Use this to accumulate loads along a route and create an immutable {@link Capacity} only if the result needs to be memorised. 
+	 * The number of dimensions grows with the capacities applied, i.e. it is the maximum number of dimensions since the 
+	 * last call of {@link #set(Capacity)} or {@link #reset()}. Note that an accumulator must not be shared among threads.
+	 * 
+	 * @author schroeder
+	 *
+	 */
+	public static class Accumulator {
+		
+		/**
+		 * Returns a new accumulator with one dimension and a value of 0.
+		 * 
+		 * @return accumulator
+		 */
+		public static Accumulator newInstance(){
+			return new Accumulator();
+		}
+		
+		private int[] values = new int[1];
+		
+		private int nuOfDimensions = 1;
+		
+		private Accumulator(){}
+		
+		/**
+		 * Resets this accumulator to one dimension with a value of 0.
+		 * 
+		 * @return this accumulator
+		 */
+		public Accumulator reset(){
+			Arrays.fill(values, 0, nuOfDimensions, 0);
+			nuOfDimensions = 1;
+			return this;
+		}
+		
+		/**
+		 * Sets the values of this accumulator to the values of capacity.
+		 * 
+		 * @param capacity
+		 * @return this accumulator
+		 */
+		public Accumulator set(Capacity capacity){
+			Arrays.fill(values, 0, nuOfDimensions, 0);
+			nuOfDimensions = 1;
+			ensureDimensions(capacity.getNuOfDimensions());
+			System.arraycopy(capacity.dimensions, 0, values, 0, capacity.dimensions.length);
+			return this;
+		}
+		
+		/**
+		 * Adds capacity to this accumulator.
+		 * 
+		 * @param capacity
+		 * @return this accumulator
+		 */
+		public Accumulator add(Capacity capacity){
+			ensureDimensions(capacity.getNuOfDimensions());
+			for(int i=0;i<capacity.dimensions.length;i++){
+				values[i] += capacity.dimensions[i];
+			}
+			return this;
+		}
+		
+		/**
+		 * Subtracts capacity from this accumulator.
+		 * 
+		 * @param capacity
+		 * @return this accumulator
+		 */
+		public Accumulator subtract(Capacity capacity){
+			ensureDimensions(capacity.getNuOfDimensions());
+			for(int i=0;i<capacity.dimensions.length;i++){
+				values[i] -= capacity.dimensions[i];
+			}
+			return this;
+		}
+		
+		/**
+		 * Sets each dimension of this accumulator to the maximum of its value and the corresponding value of capacity.
+		 * 
+		 * @param capacity
+		 * @return this accumulator
+		 */
+		public Accumulator max(Capacity capacity){
+			ensureDimensions(capacity.getNuOfDimensions());
+			for(int i=0;i<capacity.dimensions.length;i++){
+				values[i] = Math.max(values[i], capacity.dimensions[i]);
+			}
+			return this;
+		}
+		
+		/**
+		 * Sets each dimension of this accumulator to the maximum of its value and the corresponding value of the other accumulator.
+		 * 
+		 * @param accumulator
+		 * @return this accumulator
+		 */
+		public Accumulator max(Accumulator accumulator){
+			ensureDimensions(accumulator.nuOfDimensions);
+			for(int i=0;i<accumulator.nuOfDimensions;i++){
+				values[i] = Math.max(values[i], accumulator.values[i]);
+			}
+			return this;
+		}
+		
+		private void ensureDimensions(int nuOfDimensions){
+			if(nuOfDimensions <= this.nuOfDimensions) return;
+			if(nuOfDimensions > values.length) values = Arrays.copyOf(values, Math.max(nuOfDimensions, values.length * 2));
+			this.nuOfDimensions = nuOfDimensions;
+		}
+		
+		/**
+		 * Returns the number of dimensions.
+		 * 
+		 * @return number of dimensions
+		 */
+		public int getNuOfDimensions(){
+			return nuOfDimensions;
+		}
+		
+		/**
+		 * Returns the value of the dimension with specified index, or 0 if the dimension does not exist.
+		 * 
+		 * @param index
+		 * @return dimension value
+		 */
+		public int get(int index){
+			if(index < nuOfDimensions) return values[index];
+			return 0;
+		}
+		
+		/**
+		 * Returns true if none of the dimensions is greater than the corresponding dimension of toCompare.
+		 * 
+		 * @param toCompare
+		 * @return true if this <= toCompare
+		 */
+		public boolean isLessOrEqual(Capacity toCompare){
+			for(int i=0;i<nuOfDimensions;i++){
+				if(values[i] > toCompare.get(i)) return false;
+			}
+			return true;
+		}
+		
+		/**
+		 * Returns true if none of the dimensions is smaller than the corresponding dimension of toCompare.
+		 * 
+		 * @param toCompare
+		 * @return true if this >= toCompare
+		 */
+		public boolean isGreaterOrEqual(Capacity toCompare){
+			for(int i=0;i<Math.max(nuOfDimensions, toCompare.getNuOfDimensions());i++){
+				if(get(i) < toCompare.get(i)) return false;
+			}
+			return true;
+		}
+		
+		/**
+		 * Returns the current values as immutable capacity.
+		 * 
+		 * @return capacity
+		 */
+		public Capacity toCapacity(){
+			return new Capacity(Arrays.copyOf(values, nuOfDimensions));
+		}
+		
+		@Override
+		public String toString() {
+			return "[name=capacityAccumulator]" + toCapacity();
+		}
+		
+	}
+	
 	private int[] dimensions;
 	
 	/**
@@ -188,8 +391,8 @@ public class Capacity {
 		}
 	}
 	
-	Capacity(Builder builder) {
-		dimensions = builder.dimensions;
+	private Capacity(int[] dimensions) {
+		this.dimensions = dimensions;
 	}
 
 	/**
@@ -264,11 +467,11 @@ public class Capacity {
 	 */
 	public static Capacity max(Capacity cap1, Capacity cap2) {
 		if(cap1 == null || cap2 == null) throw new IllegalArgumentException("arg must not be null");
-		Capacity.Builder toReturnBuilder = Capacity.Builder.newInstance(); 
-		for(int i=0;i<Math.max(cap1.getNuOfDimensions(), cap2.getNuOfDimensions());i++){
-			toReturnBuilder.addDimension(i, Math.max(cap1.get(i), cap2.get(i)));
+		int[] dimensions = new int[Math.max(cap1.getNuOfDimensions(), cap2.getNuOfDimensions())];
+		for(int i=0;i<dimensions.length;i++){
+			dimensions[i] = Math.max(cap1.get(i), cap2.get(i));
 		}
-		return toReturnBuilder.build();
+		return new Capacity(dimensions);
 	}
 
 	
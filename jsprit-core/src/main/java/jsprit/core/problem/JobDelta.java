@@ -0,0 +1,284 @@
+/*******************************************************************************
+ * Copyright (C) 2013  Stefan Schroeder
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either 
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public 
+ * License along with this library.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jsprit.core.problem;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import jsprit.core.problem.cost.VehicleRoutingTransportCosts;
+import jsprit.core.problem.driver.DriverImpl;
+import jsprit.core.problem.job.Job;
+import jsprit.core.problem.job.Service;
+import jsprit.core.problem.job.Shipment;
+import jsprit.core.problem.vehicle.Vehicle;
+import jsprit.core.problem.vehicle.VehicleType;
+import jsprit.core.util.CrowFlyCosts;
+
+/**
+ * Jobs that are added to, removed from and changed in a {@link VehicleRoutingProblem}, e.g. orders that come in and are cancelled 
+ * during the day.
+ * 
+ * <p>A changed job replaces the job with the same id. Use {@link #applyTo(VehicleRoutingProblem)} to get the changed problem.
+ * 
+ * @author schroeder
+ *
+ */
+public class JobDelta {
+	
+	/**
+	 * Builder that builds the {@link JobDelta}.
+	 * 
+	 * @author schroeder
+	 *
+	 */
+	public static class Builder {
+		
+		public static Builder newInstance(){
+			return new Builder();
+		}
+		
+		private Map<String,Job> addedJobs = new LinkedHashMap<String, Job>();
+		
+		private Set<String> removedJobIds = new LinkedHashSet<String>();
+		
+		private Map<String,Job> changedJobs = new LinkedHashMap<String, Job>();
+		
+		private VehicleRoutingTransportCosts transportCosts;
+		
+		private Builder(){
+			
+		}
+		
+		/**
+		 * Adds a new job.
+		 * 
+		 * @param job
+		 * @return builder
+		 * @throws IllegalStateException if the delta already contains a job with the same id
+		 */
+		public Builder addJob(Job job){
+			verifyUnknown(job.getId());
+			addedJobs.put(job.getId(), job);
+			return this;
+		}
+		
+		/**
+		 * Removes the job with the specified id.
+		 * 
+		 * @param jobId
+		 * @return builder
+		 * @throws IllegalStateException if the delta already contains a job with the same id
+		 */
+		public Builder removeJob(String jobId){
+			verifyUnknown(jobId);
+			removedJobIds.add(jobId);
+			return this;
+		}
+		
+		/**
+		 * Replaces the job with the same id by the specified job.
+		 * 
+		 * @param job
+		 * @return builder
+		 * @throws IllegalStateException if the delta already contains a job with the same id
+		 */
+		public Builder changeJob(Job job){
+			verifyUnknown(job.getId());
+			changedJobs.put(job.getId(), job);
+			return this;
+		}
+		
+		/**
+		 * Sets the transport costs of the changed problem.
+		 * 
+		 * <p>Use this if the transport costs of the original problem do not know the locations of added or changed jobs, e.g. if 
+		 * they are based on a matrix. If not set, the costs of the original problem are taken over (crow-fly costs are recreated 
+		 * with the locations of the changed problem).
+		 * 
+		 * @param transportCosts
+		 * @return builder
+		 */
+		public Builder setRoutingCost(VehicleRoutingTransportCosts transportCosts){
+			this.transportCosts = transportCosts;
+			return this;
+		}
+		
+		private void verifyUnknown(String jobId){
+			if(jobId == null) throw new IllegalStateException("jobId is null");
+			if(addedJobs.containsKey(jobId) || removedJobIds.contains(jobId) || changedJobs.containsKey(jobId)){
+				throw new IllegalStateException("delta already contains job " + jobId + ". a job can only be added, removed or changed once.");
+			}
+		}
+		
+		public JobDelta build(){
+			return new JobDelta(this);
+		}
+		
+	}
+	
+	private final Collection<Job> addedJobs;
+	
+	private final Collection<String> removedJobIds;
+	
+	private final Collection<Job> changedJobs;
+	
+	private final VehicleRoutingTransportCosts transportCosts;
+	
+	private JobDelta(Builder builder){
+		this.addedJobs = Collections.unmodifiableCollection(new ArrayList<Job>(builder.addedJobs.values()));
+		this.removedJobIds = Collections.unmodifiableSet(new LinkedHashSet<String>(builder.removedJobIds));
+		this.changedJobs = Collections.unmodifiableCollection(new ArrayList<Job>(builder.changedJobs.values()));
+		this.transportCosts = builder.transportCosts;
+	}
+	
+	public Collection<Job> getAddedJobs() {
+		return addedJobs;
+	}
+	
+	public Collection<String> getRemovedJobIds() {
+		return removedJobIds;
+	}
+	
+	public Collection<Job> getChangedJobs() {
+		return changedJobs;
+	}
+	
+	public boolean isEmpty(){
+		return addedJobs.isEmpty() && removedJobIds.isEmpty() && changedJobs.isEmpty();
+	}
+	
+	/**
+	 * Returns a new problem that equals vrp except for the jobs of this delta. 
+	 * 
+	 * <p>Vehicles, costs and constraints are taken over from vrp, and so are the job objects that are not part of this delta. Thus 
+	 * routes of a solution to vrp stay valid for the new problem as long as they do not serve a removed or changed job. Transport 
+	 * costs are only taken over if they have not been set with {@link Builder#setRoutingCost(VehicleRoutingTransportCosts)}.
+	 * 
+	 * @param vrp
+	 * @return changed problem
+	 * @throws IllegalStateException if a removed or changed job is not part of vrp, an added job is already part of it, or the 
+	 * transport costs cannot resolve a location of an added or changed job
+	 */
+	public VehicleRoutingProblem applyTo(VehicleRoutingProblem vrp){
+		for(String jobId : removedJobIds){
+			if(!vrp.getJobs().containsKey(jobId)) throw new IllegalStateException("cannot remove job " + jobId + " since it is not part of the problem");
+		}
+		for(Job job : changedJobs){
+			if(!vrp.getJobs().containsKey(job.getId())) throw new IllegalStateException("cannot change job " + job.getId() + " since it is not part of the problem");
+		}
+		Set<String> changedJobIds = new HashSet<String>();
+		for(Job job : changedJobs){
+			changedJobIds.add(job.getId());
+		}
+		VehicleRoutingProblem.Builder builder = VehicleRoutingProblem.Builder.newInstance();
+		for(Job job : vrp.getJobs().values()){
+			if(removedJobIds.contains(job.getId()) || changedJobIds.contains(job.getId())) continue;
+			builder.addJob(job);
+		}
+		for(Job job : changedJobs){
+			builder.addJob(job);
+		}
+		for(Job job : addedJobs){
+			builder.addJob(job);
+		}
+		for(Vehicle vehicle : vrp.getVehicles()){
+			builder.addVehicle(vehicle);
+		}
+		builder.setFleetSize(vrp.getFleetSize());
+		builder.setActivityCosts(vrp.getActivityCosts());
+		for(jsprit.core.problem.constraint.Constraint constraint : vrp.getConstraints()){
+			builder.addConstraint(constraint);
+		}
+		copyDeprecatedSettings(vrp, builder);
+		VehicleRoutingTransportCosts costs = transportCosts;
+		if(costs == null && vrp.getTransportCosts() instanceof CrowFlyCosts){
+			/*
+			 * crow-fly costs look up the coordinates of the builder they have been created with, i.e. they do not know added jobs.
+			 */
+			CrowFlyCosts crowFlyCosts = new CrowFlyCosts(builder.getLocations());
+			crowFlyCosts.speed = ((CrowFlyCosts) vrp.getTransportCosts()).speed;
+			crowFlyCosts.detourFactor = ((CrowFlyCosts) vrp.getTransportCosts()).detourFactor;
+			costs = crowFlyCosts;
+		}
+		else if(costs == null) costs = vrp.getTransportCosts();
+		verifyLocations(vrp, costs);
+		builder.setRoutingCost(costs);
+		return builder.build();
+	}
+
+	/*
+	 * settings that are deprecated in VehicleRoutingProblem are still taken over, since problems created or read with the deprecated 
+	 * api (e.g. vehicle types without vehicles) would otherwise lose them. remove this once the deprecated api is removed.
+	 */
+	@SuppressWarnings("deprecation")
+	private void copyDeprecatedSettings(VehicleRoutingProblem vrp, VehicleRoutingProblem.Builder builder) {
+		for(VehicleType type : vrp.getTypes()){
+			if(!builder.getAddedVehicleTypes().contains(type)) builder.addVehicleType(type);
+		}
+		builder.setFleetComposition(vrp.getFleetComposition());
+		builder.setNeighborhood(vrp.getNeighborhood());
+		for(VehicleRoutingProblem.Constraint problemConstraint : vrp.getProblemConstraints()){
+			builder.addProblemConstraint(problemConstraint);
+		}
+	}
+
+	/*
+	 * probes the relations between the start location of a vehicle and each location of the added and changed jobs.
+	 */
+	private void verifyLocations(VehicleRoutingProblem vrp, VehicleRoutingTransportCosts costs) {
+		if(vrp.getVehicles().isEmpty()) return;
+		Vehicle vehicle = vrp.getVehicles().iterator().next();
+		String depot = vehicle.getStartLocationId();
+		List<Job> jobs = new ArrayList<Job>(addedJobs);
+		jobs.addAll(changedJobs);
+		for(Job job : jobs){
+			for(String locationId : getLocationIds(job)){
+				try{
+					costs.getTransportCost(depot, locationId, 0., DriverImpl.noDriver(), vehicle);
+					costs.getTransportCost(locationId, depot, 0., DriverImpl.noDriver(), vehicle);
+				}
+				catch(RuntimeException e){
+					throw new IllegalStateException("transport costs cannot resolve location " + locationId + " of job " + job.getId() + 
+							". set transport costs that know it with JobDelta.Builder.setRoutingCost(...)", e);
+				}
+			}
+		}
+	}
+
+	private List<String> getLocationIds(Job job) {
+		List<String> locationIds = new ArrayList<String>(2);
+		if(job instanceof Service) locationIds.add(((Service) job).getLocationId());
+		else if(job instanceof Shipment){
+			locationIds.add(((Shipment) job).getPickupLocation());
+			locationIds.add(((Shipment) job).getDeliveryLocation());
+		}
+		return locationIds;
+	}
+
+	@Override
+	public String toString() {
+		return "[name=jobDelta][#added=" + addedJobs.size() + "][#removed=" + removedJobIds.size() + "][#changed=" + changedJobs.size() + "]";
+	}
+
+}
@@ -0,0 +1,142 @@
+/*******************************************************************************
+ * Copyright (C) 2013  Stefan Schroeder
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either 
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public 
+ * License along with this library.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jsprit.core.problem;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jsprit.core.problem.job.Job;
+import jsprit.core.problem.job.Service;
+import jsprit.core.problem.job.Shipment;
+import jsprit.core.problem.solution.route.activity.AbstractActivity;
+import jsprit.core.problem.solution.route.activity.TourActivity;
+import jsprit.core.problem.vehicle.Vehicle;
+
+/**
+ * Dense int indices of the locations of a {@link VehicleRoutingProblem}, i.e. locations of jobs and start/end locations of vehicles 
+ * are numbered from 0 to size()-1.
+ * 
+ * <p>Indices are looked up by location id, or read from the activity if it has been looked up before. Indices are read-only once the index is built, thus it can be shared by several threads.
+ * 
+ * @author schroeder
+ *
+ */
+public final class LocationIndex {
+	
+	/**
+	 * Returns the location index of the specified jobs and vehicles.
+	 * 
+	 * @param jobs
+	 * @param vehicles
+	 * @return location index
+	 */
+	public static LocationIndex newInstance(Collection<Job> jobs, Collection<Vehicle> vehicles){
+		LocationIndex index = new LocationIndex();
+		for(Vehicle v : vehicles){
+			index.add(v.getStartLocationId());
+			index.add(v.getEndLocationId());
+		}
+		for(Job job : jobs){
+			if(job instanceof Service){
+				index.add(((Service) job).getLocationId());
+			}
+			else if(job instanceof Shipment){
+				index.add(((Shipment) job).getPickupLocation());
+				index.add(((Shipment) job).getDeliveryLocation());
+			}
+		}
+		return index;
+	}
+	
+	private final Map<String,Integer> indices = new HashMap<String, Integer>();
+	
+	private final List<String> locationIds = new ArrayList<String>();
+	
+	private LocationIndex(){
+		
+	}
+	
+	private void add(String locationId){
+		if(locationId == null || indices.containsKey(locationId)) return;
+		indices.put(locationId, locationIds.size());
+		locationIds.add(locationId);
+	}
+	
+	/**
+	 * Returns the number of locations.
+	 * 
+	 * @return number of locations
+	 */
+	public int size(){
+		return locationIds.size();
+	}
+	
+	/**
+	 * Returns the index of locationId, or -1 if locationId is unknown.
+	 * 
+	 * @param locationId
+	 * @return index
+	 */
+	public int getIndex(String locationId){
+		Integer index = indices.get(locationId);
+		if(index == null) return -1;
+		return index;
+	}
+	
+	/**
+	 * Returns the index of the activity's location, or -1 if it is unknown.
+	 * 
+	 * <p>The index is stored on the activity (see {@link AbstractActivity#getLocationIndex()}) when it is looked up first, and read 
+	 * from there afterwards. Since an activity might have changed its location or might be looked up by the index of another problem, 
+	 * the stored index is only used if it denotes the activity's location id in this index.
+	 * 
+	 * @param activity
+	 * @return index
+	 */
+	public int getIndex(TourActivity activity){
+		String locationId = activity.getLocationId();
+		if(!(activity instanceof AbstractActivity)) return getIndex(locationId);
+		AbstractActivity act = (AbstractActivity) activity;
+		int index = act.getLocationIndex();
+		if(index >= 0 && index < locationIds.size()){
+			String indexedLocationId = locationIds.get(index);
+			if(indexedLocationId == locationId || indexedLocationId.equals(locationId)) return index;
+		}
+		index = getIndex(locationId);
+		if(index >= 0) act.setLocationIndex(index);
+		return index;
+	}
+	
+	/**
+	 * Returns the location id with the specified index.
+	 * 
+	 * @param index
+	 * @return location id
+	 */
+	public String getLocationId(int index){
+		return locationIds.get(index);
+	}
+	
+	@Override
+	public String toString() {
+		return "[name=locationIndex][size=" + locationIds.size() + "]";
+	}
+
+}
@@ -25,6 +25,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import jsprit.core.problem.cost.ActivityTransportCosts;
+import jsprit.core.problem.cost.IndexableTransportCosts;
+import jsprit.core.problem.cost.IndexedTransportCosts;
+import jsprit.core.problem.cost.IndexedTransportCostsAdapter;
 import jsprit.core.problem.cost.VehicleRoutingActivityCosts;
 import jsprit.core.problem.cost.VehicleRoutingTransportCosts;
 import jsprit.core.problem.driver.Driver;
@@ -620,6 +624,16 @@ public class VehicleRoutingProblem {
 	 */
 	private final VehicleRoutingTransportCosts transportCosts;
 	
+	/**
+	 * dense indices of all job and vehicle locations
+	 */
+	private final LocationIndex locationIndex;
+	
+	/**
+	 * transportation costs by location index
+	 */
+	private final IndexedTransportCosts indexedTransportCosts;
+	
 	/**
 	 * contains activity costs, i.e. the costs imposed by an activity
 	 */
@@ -673,6 +687,8 @@ public class VehicleRoutingProblem {
 		this.vehicles=builder.vehicles;
 		this.vehicleTypes = builder.vehicleTypes;
 		this.transportCosts = builder.transportCosts;
+		this.locationIndex = LocationIndex.newInstance(jobs.values(), vehicles);
+		this.indexedTransportCosts = createIndexedTransportCosts(transportCosts, locationIndex);
 		this.activityCosts = builder.activityCosts;
 		this.neighborhood = builder.neighborhood;
 		this.problemConstraints = builder.problemConstraints;
@@ -680,6 +696,18 @@ public class VehicleRoutingProblem {
 		logger.info("initialise " + this);
 	}
 	
+	private static IndexedTransportCosts createIndexedTransportCosts(VehicleRoutingTransportCosts transportCosts, LocationIndex locationIndex) {
+		if(transportCosts instanceof IndexableTransportCosts){
+			try{
+				return ((IndexableTransportCosts) transportCosts).createIndexedTransportCosts(locationIndex);
+			}
+			catch(IllegalStateException e){
+				logger.warn("not all locations are known to transport costs. thus they are looked up by location ids. " + e.getMessage());
+			}
+		}
+		return new IndexedTransportCostsAdapter(transportCosts, locationIndex);
+	}
+	
 	@Override
 	public String toString() {
 		return "[fleetSize="+fleetSize+"][#jobs="+jobs.size()+"][#vehicles="+vehicles.size()+"][#vehicleTypes="+vehicleTypes.size()+"]["+
@@ -737,6 +765,34 @@ public class VehicleRoutingProblem {
 		return transportCosts;
 	}
 
+	/**
+	 * Returns the dense indices of all locations of jobs and vehicles.
+	 * 
+	 * @return locationIndex
+	 */
+	public LocationIndex getLocationIndex() {
+		return locationIndex;
+	}
+	
+	/**
+	 * Returns routing costs by location index (see {@link #getLocationIndex()}). If routing costs are {@link IndexableTransportCosts}, 
+	 * they are looked up directly, otherwise routing costs are adapted with {@link IndexedTransportCostsAdapter}.
+	 * 
+	 * @return indexed routing costs
+	 */
+	public IndexedTransportCosts getIndexedTransportCosts() {
+		return indexedTransportCosts;
+	}
+	
+	/**
+	 * Returns routing costs between activities that are looked up by location index whenever possible.
+	 * 
+	 * @return activity routing costs
+	 */
+	public ActivityTransportCosts getActivityTransportCosts() {
+		return ActivityTransportCosts.newInstance(transportCosts, locationIndex, indexedTransportCosts);
+	}
+
 	/**
 	 * Returns activityCosts.
 	 */
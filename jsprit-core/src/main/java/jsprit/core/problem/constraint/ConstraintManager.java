@@ -4,8 +4,10 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import jsprit.core.problem.VehicleRoutingProblem;
+import jsprit.core.problem.cost.ActivityTransportCosts;
 import jsprit.core.problem.VehicleRoutingProblem.Constraint;
 import jsprit.core.problem.misc.JobInsertionContext;
 import jsprit.core.problem.solution.route.activity.TourActivity;
@@ -14,7 +16,7 @@ import jsprit.core.problem.solution.route.state.RouteAndActivityStateGetter;
 import org.apache.log4j.Logger;
 
 @SuppressWarnings("deprecation")
-public class ConstraintManager implements HardActivityStateLevelConstraint, HardRouteStateLevelConstraint, SoftActivityConstraint, SoftRouteConstraint{
+public class ConstraintManager implements HardActivityIndexConstraint, HardRouteStateLevelConstraint, SoftActivityConstraint, SoftRouteConstraint{
 
 	public static enum Priority {
 		CRITICAL, HIGH, LOW
@@ -38,6 +40,28 @@ public class ConstraintManager implements HardActivityStateLevelConstraint, Hard
 	
 	private boolean timeWindowConstraintsSet = false;
 	
+	private static final int ROUTE_LEVEL = 0;
+	
+	private static final int ACTIVITY_LEVEL = 1;
+	
+	private volatile boolean countEvaluations = false;
+	
+	/*
+	 * each thread counts in its own slot, slots are summed on read.
+	 */
+	private final List<long[]> evaluationCounters = new CopyOnWriteArrayList<long[]>();
+	
+	private final ThreadLocal<long[]> evaluationCounter = new ThreadLocal<long[]>(){
+		
+		@Override
+		protected long[] initialValue() {
+			long[] counter = new long[2];
+			evaluationCounters.add(counter);
+			return counter;
+		}
+		
+	};
+	
 	public ConstraintManager(VehicleRoutingProblem vrp, RouteAndActivityStateGetter stateManager) {
 		this.vrp = vrp;
 		this.stateManager = stateManager;
@@ -77,7 +101,10 @@ public class ConstraintManager implements HardActivityStateLevelConstraint, Hard
 
 	public void addTimeWindowConstraint(){
 		if(!timeWindowConstraintsSet){
-			addConstraint(new TimeWindowConstraint(stateManager, vrp.getTransportCosts()),Priority.HIGH);
+			TimeWindowConstraint timeWindowConstraint = new TimeWindowConstraint(stateManager, vrp.getTransportCosts());
+			ActivityTransportCosts activityTransportCosts = vrp.getActivityTransportCosts();
+			if(activityTransportCosts != null) timeWindowConstraint.setActivityTransportCosts(activityTransportCosts);
+			addConstraint(timeWindowConstraint,Priority.HIGH);
 			timeWindowConstraintsSet = true;
 		}
 	}
@@ -89,6 +116,7 @@ public class ConstraintManager implements HardActivityStateLevelConstraint, Hard
 			}
 			addConstraint(new PickupAndDeliverShipmentLoadActivityLevelConstraint(stateManager),Priority.CRITICAL);
 			addConstraint(new ServiceLoadRouteLevelConstraint(stateManager));
+			addConstraint(new ShipmentLoadRouteLevelConstraint());
 			addConstraint(new ServiceLoadActivityLevelConstraint(stateManager),Priority.LOW);
 			loadConstraintsSet=true;
 		}
@@ -112,16 +140,62 @@ public class ConstraintManager implements HardActivityStateLevelConstraint, Hard
 		softRouteConstraintManager.addConstraint(softRouteConstraint);
 	}
 	
+	/**
+	 * Sets whether evaluations of hard constraints are counted (default is false).
+	 * 
+	 * <p>Since insertion calculators check route-level constraints once before looking for the best insertion position, the number of 
+	 * route-level evaluations equals the number of insertion calculations. Activity-level evaluations are counted per 
+	 * position checked. Each thread counts in its own counter, the counters are summed when the numbers are read. 
+	 * 
+	 * @param countEvaluations
+	 */
+	public void setCountEvaluations(boolean countEvaluations){
+		this.countEvaluations = countEvaluations;
+	}
+	
+	/**
+	 * Returns the number of route-level evaluations counted so far (see {@link #setCountEvaluations(boolean)}).
+	 * 
+	 * @return number of route-level evaluations
+	 */
+	public long getNuOfRouteLevelEvaluations(){
+		return sumOfEvaluations(ROUTE_LEVEL);
+	}
+	
+	/**
+	 * Returns the number of activity-level evaluations counted so far (see {@link #setCountEvaluations(boolean)}).
+	 * 
+	 * @return number of activity-level evaluations
+	 */
+	public long getNuOfActivityLevelEvaluations(){
+		return sumOfEvaluations(ACTIVITY_LEVEL);
+	}
+	
+	private long sumOfEvaluations(int level){
+		long sum = 0;
+		for(long[] counter : evaluationCounters){
+			sum += counter[level];
+		}
+		return sum;
+	}
+	
 	@Override
 	public boolean fulfilled(JobInsertionContext insertionContext) {
+		if(countEvaluations) evaluationCounter.get()[ROUTE_LEVEL]++;
 		return routeLevelConstraintManager.fulfilled(insertionContext);
 	}
 
 	@Override
 	public ConstraintsStatus fulfilled(JobInsertionContext iFacts, TourActivity prevAct,TourActivity newAct, TourActivity nextAct, double prevActDepTime) {
+		if(countEvaluations) evaluationCounter.get()[ACTIVITY_LEVEL]++;
 		return actLevelConstraintManager.fulfilled(iFacts, prevAct, newAct, nextAct, prevActDepTime);
 	}
 	
+	@Override
+	public int getEarliestInsertionIndex(JobInsertionContext iFacts, TourActivity newAct) {
+		return actLevelConstraintManager.getEarliestInsertionIndex(iFacts, newAct);
+	}
+	
 	public Collection<jsprit.core.problem.constraint.Constraint> getConstraints(){
 		List<jsprit.core.problem.constraint.Constraint> constraints = new ArrayList<jsprit.core.problem.constraint.Constraint>();
 		constraints.addAll(actLevelConstraintManager.getAllConstraints());
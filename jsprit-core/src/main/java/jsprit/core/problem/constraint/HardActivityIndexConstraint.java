@@ -0,0 +1,29 @@
+package jsprit.core.problem.constraint;
+
+import jsprit.core.problem.misc.JobInsertionContext;
+import jsprit.core.problem.solution.route.activity.TourActivity;
+
+/**
+ * Hard activity level constraint that can additionally determine the first position of a route where inserting a new activity 
+ * might be feasible. Insertion calculators do not need to check the positions before, and can skip the entire route if no 
+ * position is feasible.
+ * 
+ * <p>Position i denotes the insertion of newAct right before the i-th activity of the route, i.e. position 0 is between start and first activity 
+ * and position activities.size() is between last activity and end.
+ * 
+ * @author schroeder
+ *
+ */
+public interface HardActivityIndexConstraint extends HardActivityStateLevelConstraint {
+	
+	/**
+	 * Returns the first position of iFacts.getRoute() where newAct might be inserted. All lower positions must be infeasible, i.e. 
+	 * fulfilled(...) must not return FULFILLED for them. If no position is feasible, it returns activities.size()+1.
+	 * 
+	 * @param iFacts
+	 * @param newAct
+	 * @return first position that might be feasible
+	 */
+	public int getEarliestInsertionIndex(JobInsertionContext iFacts, TourActivity newAct);
+
+}
@@ -10,7 +10,7 @@ import jsprit.core.problem.misc.JobInsertionContext;
 import jsprit.core.problem.solution.route.activity.TourActivity;
 
 
-class HardActivityLevelConstraintManager implements HardActivityStateLevelConstraint {
+class HardActivityLevelConstraintManager implements HardActivityIndexConstraint {
 
 	private Collection<HardActivityStateLevelConstraint> criticalConstraints = new ArrayList<HardActivityStateLevelConstraint>();
 	
@@ -18,7 +18,12 @@ class HardActivityLevelConstraintManager implements HardActivityStateLevelConstr
 	
 	private Collection<HardActivityStateLevelConstraint> lowPrioConstraints = new ArrayList<HardActivityStateLevelConstraint>();
 	
+	private Collection<HardActivityIndexConstraint> indexConstraints = new ArrayList<HardActivityIndexConstraint>();
+	
 	public void addConstraint(HardActivityStateLevelConstraint constraint, Priority priority){
+		if(constraint instanceof HardActivityIndexConstraint){
+			indexConstraints.add((HardActivityIndexConstraint) constraint);
+		}
 		if(priority.equals(Priority.CRITICAL)){
 			criticalConstraints.add(constraint);
 		}
@@ -83,4 +88,16 @@ class HardActivityLevelConstraintManager implements HardActivityStateLevelConstr
 		return ConstraintsStatus.FULFILLED;
 	}
 	
-}
\ No newline at end of file
+	/**
+	 * Returns the maximum of the earliest insertion indices of all constraints that can determine one, i.e. 0 if there is no such constraint.
+	 */
+	@Override
+	public int getEarliestInsertionIndex(JobInsertionContext iFacts, TourActivity newAct) {
+		int earliestIndex = 0;
+		for(HardActivityIndexConstraint c : indexConstraints){
+			earliestIndex = Math.max(earliestIndex, c.getEarliestInsertionIndex(iFacts, newAct));
+		}
+		return earliestIndex;
+	}
+	
+}
@@ -55,7 +55,7 @@ public class PickupAndDeliverShipmentLoadActivityLevelConstraint implements Hard
 			loadAtPrevAct = stateManager.getActivityState(prevAct, StateFactory.LOAD, Capacity.class);
 		}
 		if(newAct instanceof PickupShipment){
-			if(!Capacity.addup(loadAtPrevAct, newAct.getSize()).isLessOrEqual(iFacts.getNewVehicle().getType().getCapacityDimensions())){
+			if(!Capacity.isSumLessOrEqual(loadAtPrevAct, newAct.getSize(), iFacts.getNewVehicle().getType().getCapacityDimensions())){
 				return ConstraintsStatus.NOT_FULFILLED;
 			}
 //			if(loadAtPrevAct + newAct.getCapacityDemand() > iFacts.getNewVehicle().getCapacity()){
@@ -63,7 +63,7 @@ public class PickupAndDeliverShipmentLoadActivityLevelConstraint implements Hard
 //			}
 		}
 		if(newAct instanceof DeliverShipment){
-			if(!Capacity.addup(loadAtPrevAct, Capacity.invert(newAct.getSize())).isLessOrEqual(iFacts.getNewVehicle().getType().getCapacityDimensions())){
+			if(!Capacity.isDifferenceLessOrEqual(loadAtPrevAct, newAct.getSize(), iFacts.getNewVehicle().getType().getCapacityDimensions())){
 				return ConstraintsStatus.NOT_FULFILLED_BREAK;
 			}
 //			if(loadAtPrevAct + Math.abs(newAct.getCapacityDemand()) > iFacts.getNewVehicle().getCapacity()){
@@ -47,7 +47,7 @@ class ServiceLoadActivityLevelConstraint implements HardActivityStateLevelConstr
 			
 		}
 		if(newAct instanceof PickupService || newAct instanceof ServiceActivity){
-			if(!Capacity.addup(newAct.getSize(), futureMaxLoad).isLessOrEqual(iFacts.getNewVehicle().getType().getCapacityDimensions())){
+			if(!Capacity.isSumLessOrEqual(newAct.getSize(), futureMaxLoad, iFacts.getNewVehicle().getType().getCapacityDimensions())){
 				return ConstraintsStatus.NOT_FULFILLED;
 			}
 //			if(newAct.getCapacityDemand() + futureMaxLoad > iFacts.getNewVehicle().getCapacity()){
@@ -56,7 +56,7 @@ class ServiceLoadActivityLevelConstraint implements HardActivityStateLevelConstr
 //			}
 		}
 		if(newAct instanceof DeliverService){
-			if(!Capacity.addup(Capacity.invert(newAct.getSize()), prevMaxLoad).isLessOrEqual(iFacts.getNewVehicle().getType().getCapacityDimensions())){
+			if(!Capacity.isDifferenceLessOrEqual(prevMaxLoad, newAct.getSize(), iFacts.getNewVehicle().getType().getCapacityDimensions())){
 				return ConstraintsStatus.NOT_FULFILLED_BREAK;
 			}
 //			if(Math.abs(newAct.getCapacityDemand()) + prevMaxLoad > iFacts.getNewVehicle().getCapacity()){
@@ -28,7 +28,7 @@ class ServiceLoadRouteLevelConstraint implements HardRouteStateLevelConstraint {
 		if(insertionContext.getJob() instanceof Delivery){
 			Capacity loadAtDepot = stateManager.getRouteState(insertionContext.getRoute(), StateFactory.LOAD_AT_BEGINNING, Capacity.class);
 //			int loadAtDepot = (int) stateManager.getRouteState(insertionContext.getRoute(), StateFactory.LOAD_AT_BEGINNING).toDouble();
-			if(!Capacity.addup(loadAtDepot, insertionContext.getJob().getSize()).isLessOrEqual(insertionContext.getNewVehicle().getType().getCapacityDimensions())){
+			if(!Capacity.isSumLessOrEqual(loadAtDepot, insertionContext.getJob().getSize(), insertionContext.getNewVehicle().getType().getCapacityDimensions())){
 				return false;
 			}
 //			if(loadAtDepot + insertionContext.getJob().getCapacityDemand() > insertionContext.getNewVehicle().getCapacity()){
@@ -38,7 +38,7 @@ class ServiceLoadRouteLevelConstraint implements HardRouteStateLevelConstraint {
 		else if(insertionContext.getJob() instanceof Pickup || insertionContext.getJob() instanceof Service){
 			Capacity loadAtEnd = stateManager.getRouteState(insertionContext.getRoute(), StateFactory.LOAD_AT_END, Capacity.class);
 //			int loadAtEnd = (int) stateManager.getRouteState(insertionContext.getRoute(), StateFactory.LOAD_AT_END).toDouble();
-			if(!Capacity.addup(loadAtEnd, insertionContext.getJob().getSize()).isLessOrEqual(insertionContext.getNewVehicle().getType().getCapacityDimensions())){
+			if(!Capacity.isSumLessOrEqual(loadAtEnd, insertionContext.getJob().getSize(), insertionContext.getNewVehicle().getType().getCapacityDimensions())){
 				return false;
 			}
 //			
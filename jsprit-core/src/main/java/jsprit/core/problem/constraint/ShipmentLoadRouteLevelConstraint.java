@@ -0,0 +1,23 @@
+package jsprit.core.problem.constraint;
+
+import jsprit.core.problem.job.Shipment;
+import jsprit.core.problem.misc.JobInsertionContext;
+
+/**
+ * Ensures that a shipment fits into the new vehicle at all. Since loads along a route are non-negative, routes 
+ * can be skipped if the shipment alone exceeds the capacity of the vehicle, without checking each pickup position. 
+ * 
+ * @author schroeder
+ *
+ */
+class ShipmentLoadRouteLevelConstraint implements HardRouteStateLevelConstraint {
+
+	@Override
+	public boolean fulfilled(JobInsertionContext insertionContext) {
+		if(insertionContext.getJob() instanceof Shipment){
+			return insertionContext.getJob().getSize().isLessOrEqual(insertionContext.getNewVehicle().getType().getCapacityDimensions());
+		}
+		return true;
+	}
+
+}
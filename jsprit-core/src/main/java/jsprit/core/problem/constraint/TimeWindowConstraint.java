@@ -1,28 +1,54 @@
 package jsprit.core.problem.constraint;
 
+import java.util.List;
+
+import jsprit.core.problem.cost.ActivityTransportCosts;
 import jsprit.core.problem.cost.VehicleRoutingTransportCosts;
 import jsprit.core.problem.misc.JobInsertionContext;
 import jsprit.core.problem.solution.route.activity.TourActivity;
+import jsprit.core.problem.solution.route.state.DoubleActivityStateGetter;
 import jsprit.core.problem.solution.route.state.RouteAndActivityStateGetter;
 import jsprit.core.problem.solution.route.state.StateFactory;
 import jsprit.core.util.CalculationUtils;
 
 
 /**
-	 * ljsljslfjs
+	 * Ensures that activities are served within their time windows.
+	 * 
+	 * <p>It relies on up-to-date latest operation start times (StateFactory.LATEST_OPERATION_START_TIME) of route activities. Since these 
+	 * are non-decreasing along a route, the first position that might be feasible can be determined by binary search. Since departure times
+	 * only increase along a route, it breaks as soon as the vehicle cannot reach newAct in time anymore.
+	 * 
 	 * @author stefan
 	 *
 	 */
-	class TimeWindowConstraint implements HardActivityStateLevelConstraint {
+	class TimeWindowConstraint implements HardActivityIndexConstraint {
 
 		private RouteAndActivityStateGetter states;
 		
-		private VehicleRoutingTransportCosts routingCosts;
+		private DoubleActivityStateGetter doubleStates;
+		
+		private ActivityTransportCosts activityTransportCosts;
 		
 		public TimeWindowConstraint(RouteAndActivityStateGetter states, VehicleRoutingTransportCosts routingCosts) {
 			super();
 			this.states = states;
-			this.routingCosts = routingCosts;
+			if(states instanceof DoubleActivityStateGetter) doubleStates = (DoubleActivityStateGetter) states;
+			this.activityTransportCosts = ActivityTransportCosts.newInstance(routingCosts);
+		}
+
+		/**
+		 * Sets transport costs between activities, e.g. to look up transport times by location index.
+		 * 
+		 * @param activityTransportCosts
+		 */
+		public void setActivityTransportCosts(ActivityTransportCosts activityTransportCosts) {
+			this.activityTransportCosts = activityTransportCosts;
+		}
+
+		private double getLatestOperationStartTime(TourActivity act){
+			if(doubleStates != null) return doubleStates.getDoubleActivityState(act, StateFactory.LATEST_OPERATION_START_TIME);
+			return states.getActivityState(act, StateFactory.LATEST_OPERATION_START_TIME, Double.class);
 		}
 
 		@Override
@@ -30,28 +56,55 @@ import jsprit.core.util.CalculationUtils;
 			if(newAct.getTheoreticalLatestOperationStartTime() < prevAct.getTheoreticalEarliestOperationStartTime()){
 				return ConstraintsStatus.NOT_FULFILLED_BREAK;
 			}
+			double latestArrTimeAtNewAct = getLatestOperationStartTime(newAct);
+			//departure times at subsequent activities can only be later
+			if(prevActDepTime > latestArrTimeAtNewAct){
+				return ConstraintsStatus.NOT_FULFILLED_BREAK;
+			}
 			if(newAct.getTheoreticalEarliestOperationStartTime() > nextAct.getTheoreticalLatestOperationStartTime()){
 				return ConstraintsStatus.NOT_FULFILLED;
 			}
 			//			log.info("check insertion of " + newAct + " between " + prevAct + " and " + nextAct + ". prevActDepTime=" + prevActDepTime);
-			double arrTimeAtNewAct = prevActDepTime + routingCosts.getTransportTime(prevAct.getLocationId(), newAct.getLocationId(), prevActDepTime, iFacts.getNewDriver(), iFacts.getNewVehicle());
-			double latestArrTimeAtNewAct = states.getActivityState(newAct, StateFactory.LATEST_OPERATION_START_TIME, Double.class);
+			double arrTimeAtNewAct = prevActDepTime + activityTransportCosts.getTransportTime(prevAct, newAct, prevActDepTime, iFacts.getNewDriver(), iFacts.getNewVehicle());
 			
 			if(arrTimeAtNewAct > latestArrTimeAtNewAct){
 				return ConstraintsStatus.NOT_FULFILLED;
 			}
 //			log.info(newAct + " arrTime=" + arrTimeAtNewAct);
 			double endTimeAtNewAct = CalculationUtils.getActivityEndTime(arrTimeAtNewAct, newAct);
-			double arrTimeAtNextAct = endTimeAtNewAct + routingCosts.getTransportTime(newAct.getLocationId(), nextAct.getLocationId(), endTimeAtNewAct, iFacts.getNewDriver(), iFacts.getNewVehicle());
-			double latestArrTimeAtNextAct = states.getActivityState(nextAct, StateFactory.LATEST_OPERATION_START_TIME, Double.class);
+			double arrTimeAtNextAct = endTimeAtNewAct + activityTransportCosts.getTransportTime(newAct, nextAct, endTimeAtNewAct, iFacts.getNewDriver(), iFacts.getNewVehicle());
+			double latestArrTimeAtNextAct = getLatestOperationStartTime(nextAct);
 			if(arrTimeAtNextAct > latestArrTimeAtNextAct){
 				return ConstraintsStatus.NOT_FULFILLED;
 			}
-			double arrTimeAtNextOnDirectRouteWithNewVehicle = prevActDepTime + routingCosts.getTransportTime(prevAct.getLocationId(), nextAct.getLocationId(), prevActDepTime, iFacts.getNewDriver(), iFacts.getNewVehicle()); 
+			double arrTimeAtNextOnDirectRouteWithNewVehicle = prevActDepTime + activityTransportCosts.getTransportTime(prevAct, nextAct, prevActDepTime, iFacts.getNewDriver(), iFacts.getNewVehicle()); 
 			//if vehicle cannot even manage direct-route - break
 			if(arrTimeAtNextOnDirectRouteWithNewVehicle > latestArrTimeAtNextAct){
 				return ConstraintsStatus.NOT_FULFILLED_BREAK;
 			}
 			return ConstraintsStatus.FULFILLED;
 		}
+
+		/**
+		 * Returns the first position where newAct can be served and the vehicle can still arrive at the next activity in time, assuming 
+		 * the vehicle arrives at newAct not before its earliest operation start time. The latest arrival time at end is the latest arrival time of the new vehicle.
+		 */
+		@Override
+		public int getEarliestInsertionIndex(JobInsertionContext iFacts, TourActivity newAct) {
+			double earliestEndTimeAtNewAct = newAct.getTheoreticalEarliestOperationStartTime() + newAct.getOperationTime();
+			List<TourActivity> activities = iFacts.getRoute().getTourActivities().getActivities();
+			int low = 0;
+			int high = activities.size();
+			while(low < high){
+				int mid = (low + high) >>> 1;
+				if(getLatestOperationStartTime(activities.get(mid)) < earliestEndTimeAtNewAct){
+					low = mid + 1;
+				}
+				else high = mid;
+			}
+			if(low == activities.size() && earliestEndTimeAtNewAct > iFacts.getNewVehicle().getLatestArrival()){
+				return activities.size() + 1;
+			}
+			return low;
+		}
 	}
\ No newline at end of file
@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * Copyright (C) 2013  Stefan Schroeder
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either 
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public 
+ * License along with this library.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jsprit.core.problem.cost;
+
+import jsprit.core.problem.LocationIndex;
+import jsprit.core.problem.driver.Driver;
+import jsprit.core.problem.solution.route.activity.TourActivity;
+import jsprit.core.problem.vehicle.Vehicle;
+
+/**
+ * Transport costs and times between activities. 
+ * 
+ * <p>If a {@link LocationIndex} and {@link IndexedTransportCosts} are given, costs are looked up by the location indices of the activities 
+ * (see {@link LocationIndex#getIndex(TourActivity)}). Activities whose location is not part of the index fall back to the String-based {@link VehicleRoutingTransportCosts}.
+ * 
+ * @author schroeder
+ *
+ */
+public final class ActivityTransportCosts {
+	
+	/**
+	 * Returns activity costs that only use the String-based transport costs.
+	 * 
+	 * @param costs
+	 * @return activity transport costs
+	 */
+	public static ActivityTransportCosts newInstance(VehicleRoutingTransportCosts costs){
+		return new ActivityTransportCosts(costs, null, null);
+	}
+	
+	/**
+	 * Returns activity costs that look up costs by location index whenever both locations are part of locationIndex.
+	 * 
+	 * @param costs
+	 * @param locationIndex
+	 * @param indexedCosts
+	 * @return activity transport costs
+	 */
+	public static ActivityTransportCosts newInstance(VehicleRoutingTransportCosts costs, LocationIndex locationIndex, IndexedTransportCosts indexedCosts){
+		return new ActivityTransportCosts(costs, locationIndex, indexedCosts);
+	}
+	
+	private final VehicleRoutingTransportCosts costs;
+	
+	private final LocationIndex locationIndex;
+	
+	private final IndexedTransportCosts indexedCosts;
+
+	private ActivityTransportCosts(VehicleRoutingTransportCosts costs, LocationIndex locationIndex, IndexedTransportCosts indexedCosts) {
+		super();
+		this.costs = costs;
+		this.locationIndex = locationIndex;
+		this.indexedCosts = indexedCosts;
+	}
+	
+	/**
+	 * Returns the String-based transport costs.
+	 * 
+	 * @return transport costs
+	 */
+	public VehicleRoutingTransportCosts getTransportCosts() {
+		return costs;
+	}
+	
+	public double getTransportCost(TourActivity from, TourActivity to, double departureTime, Driver driver, Vehicle vehicle){
+		if(locationIndex != null){
+			int fromIndex = locationIndex.getIndex(from);
+			int toIndex = locationIndex.getIndex(to);
+			if(fromIndex >= 0 && toIndex >= 0) return indexedCosts.getTransportCost(fromIndex, toIndex, departureTime, driver, vehicle);
+		}
+		return costs.getTransportCost(from.getLocationId(), to.getLocationId(), departureTime, driver, vehicle);
+	}
+	
+	public double getTransportTime(TourActivity from, TourActivity to, double departureTime, Driver driver, Vehicle vehicle){
+		if(locationIndex != null){
+			int fromIndex = locationIndex.getIndex(from);
+			int toIndex = locationIndex.getIndex(to);
+			if(fromIndex >= 0 && toIndex >= 0) return indexedCosts.getTransportTime(fromIndex, toIndex, departureTime, driver, vehicle);
+		}
+		return costs.getTransportTime(from.getLocationId(), to.getLocationId(), departureTime, driver, vehicle);
+	}
+	
+	@Override
+	public String toString() {
+		return "[name=activityTransportCosts][costs=" + costs + "][indexedCosts=" + indexedCosts + "]";
+	}
+
+}
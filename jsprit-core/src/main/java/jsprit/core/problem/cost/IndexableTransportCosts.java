@@ -0,0 +1,41 @@
+/*******************************************************************************
+ * Copyright (C) 2013  Stefan Schroeder
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either 
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public 
+ * License along with this library.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jsprit.core.problem.cost;
+
+import jsprit.core.problem.LocationIndex;
+
+/**
+ * Transport costs that can be looked up by the indices of a {@link LocationIndex} directly, i.e. without translating indices back to location ids.
+ * 
+ * <p>If the transport costs of a {@link jsprit.core.problem.VehicleRoutingProblem} implement this, the problem uses the indexed costs created 
+ * here, otherwise it adapts them with {@link IndexedTransportCostsAdapter}.
+ * 
+ * @author schroeder
+ *
+ */
+public interface IndexableTransportCosts {
+	
+	/**
+	 * Returns costs that are looked up by the indices of locationIndex.
+	 * 
+	 * @param locationIndex
+	 * @return indexed transport costs
+	 * @throws IllegalStateException if a location of locationIndex is unknown to these costs
+	 */
+	public IndexedTransportCosts createIndexedTransportCosts(LocationIndex locationIndex);
+
+}
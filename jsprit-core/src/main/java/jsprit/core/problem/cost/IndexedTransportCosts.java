@@ -0,0 +1,37 @@
+/*******************************************************************************
+ * Copyright (C) 2013  Stefan Schroeder
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either 
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public 
+ * License along with this library.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jsprit.core.problem.cost;
+
+import jsprit.core.problem.LocationIndex;
+import jsprit.core.problem.driver.Driver;
+import jsprit.core.problem.vehicle.Vehicle;
+
+/**
+ * Forward transport costs and times between locations identified by their index in {@link LocationIndex}.
+ * 
+ * <p>Use {@link IndexedTransportCostsAdapter} to look up String-based {@link VehicleRoutingTransportCosts} by index.
+ * 
+ * @author schroeder
+ *
+ */
+public interface IndexedTransportCosts {
+	
+	public double getTransportCost(int fromIndex, int toIndex, double departureTime, Driver driver, Vehicle vehicle);
+	
+	public double getTransportTime(int fromIndex, int toIndex, double departureTime, Driver driver, Vehicle vehicle);
+
+}
@@ -0,0 +1,60 @@
+/*******************************************************************************
+ * Copyright (C) 2013  Stefan Schroeder
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either 
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public 
+ * License along with this library.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jsprit.core.problem.cost;
+
+import jsprit.core.problem.LocationIndex;
+import jsprit.core.problem.driver.Driver;
+import jsprit.core.problem.vehicle.Vehicle;
+
+/**
+ * Adapter that makes String-based {@link VehicleRoutingTransportCosts} accessible by location index, i.e. indices are translated
+ * back to location ids.
+ * 
+ * @author schroeder
+ *
+ */
+public class IndexedTransportCostsAdapter implements IndexedTransportCosts {
+	
+	private final VehicleRoutingTransportCosts costs;
+	
+	private final String[] locationIds;
+	
+	public IndexedTransportCostsAdapter(VehicleRoutingTransportCosts costs, LocationIndex locationIndex) {
+		super();
+		this.costs = costs;
+		this.locationIds = new String[locationIndex.size()];
+		for(int i=0;i<locationIds.length;i++){
+			locationIds[i] = locationIndex.getLocationId(i);
+		}
+	}
+
+	@Override
+	public double getTransportCost(int fromIndex, int toIndex, double departureTime, Driver driver, Vehicle vehicle) {
+		return costs.getTransportCost(locationIds[fromIndex], locationIds[toIndex], departureTime, driver, vehicle);
+	}
+
+	@Override
+	public double getTransportTime(int fromIndex, int toIndex, double departureTime, Driver driver, Vehicle vehicle) {
+		return costs.getTransportTime(locationIds[fromIndex], locationIds[toIndex], departureTime, driver, vehicle);
+	}
+	
+	@Override
+	public String toString() {
+		return "[name=indexedTransportCostsAdapter][costs=" + costs + "]";
+	}
+
+}
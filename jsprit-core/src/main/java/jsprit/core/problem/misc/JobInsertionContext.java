@@ -74,6 +74,27 @@ public class JobInsertionContext {
 		this.newDepTime = newDepTime;
 	}
 	
+	/**
+	 * Re-initialises this context with the specified values such that it can be reused for another insertion. 
+	 * 
+	 * <p>Do not memorize a context beyond the evaluation it has been passed to, since it might be reused afterwards.
+	 * 
+	 * @param route
+	 * @param job
+	 * @param newVehicle
+	 * @param newDriver
+	 * @param newDepTime
+	 * @return this context
+	 */
+	public JobInsertionContext set(VehicleRoute route, Job job, Vehicle newVehicle, Driver newDriver, double newDepTime){
+		this.route = route;
+		this.job = job;
+		this.newVehicle = newVehicle;
+		this.newDriver = newDriver;
+		this.newDepTime = newDepTime;
+		return this;
+	}
+	
 	
 
 }
@@ -19,6 +19,7 @@ package jsprit.core.problem.solution;
 import java.util.ArrayList;
 import java.util.Collection;
 
+import jsprit.core.problem.solution.route.JobRouteIndex;
 import jsprit.core.problem.solution.route.VehicleRoute;
 
 
@@ -39,20 +40,37 @@ public class VehicleRoutingProblemSolution {
 	 * @return
 	 */
 	public static VehicleRoutingProblemSolution copyOf(VehicleRoutingProblemSolution solution2copy){
-		 return new VehicleRoutingProblemSolution(solution2copy);
+		 return new VehicleRoutingProblemSolution(solution2copy, false);
+	}
+	
+	/**
+	 * Makes a copy of the solution to be copied whose routes share their activities with the routes of solution2copy until they are 
+	 * modified (see {@link VehicleRoute#lazyCopyOf(VehicleRoute)}). 
+	 * 
+	 * <p>This is considerably cheaper than a deep copy if only a few routes are changed afterwards. Note that activities of unchanged 
+	 * routes are the same objects in both solutions, thus both solutions should be used in the same thread.
+	 * 
+	 * @param solution2copy
+	 * @return lazily copied solution
+	 */
+	public static VehicleRoutingProblemSolution lazyCopyOf(VehicleRoutingProblemSolution solution2copy){
+		 return new VehicleRoutingProblemSolution(solution2copy, true);
 	}
 	
 	private final Collection<VehicleRoute> routes;
 
 	private double cost;
+	
+	private JobRouteIndex jobRouteIndex;
 
-	private VehicleRoutingProblemSolution(VehicleRoutingProblemSolution solution){
-		routes = new ArrayList<VehicleRoute>();
+	private VehicleRoutingProblemSolution(VehicleRoutingProblemSolution solution, boolean lazy){
+		routes = new ArrayList<VehicleRoute>(solution.getRoutes().size());
 		for(VehicleRoute r : solution.getRoutes()){
-			VehicleRoute route = VehicleRoute.copyOf(r);
+			VehicleRoute route = lazy ? VehicleRoute.lazyCopyOf(r) : VehicleRoute.copyOf(r);
 			routes.add(route);
 		}
 		this.cost = solution.getCost();
+		if(solution.jobRouteIndex != null) jobRouteIndex = JobRouteIndex.copyOf(solution.jobRouteIndex, routes);
 	}
 	
 	/**
@@ -76,6 +94,19 @@ public class VehicleRoutingProblemSolution {
 		return routes;
 	}
 
+	/**
+	 * Returns the index that maps jobs to the routes of this solution serving them.
+	 * 
+	 * <p>The index is kept with the solution and carried over to its copies. To keep it up to date, remove jobs from 
+	 * the routes through the index, and inform it about inserted jobs (see {@link JobRouteIndex}).
+	 * 
+	 * @return job-route index
+	 */
+	public JobRouteIndex getJobRouteIndex() {
+		if(jobRouteIndex == null) jobRouteIndex = JobRouteIndex.newInstance(routes);
+		return jobRouteIndex;
+	}
+
 	/**
 	 * Returns cost of this solution.
 	 * 
@@ -0,0 +1,196 @@
+/*******************************************************************************
+ * Copyright (C) 2013  Stefan Schroeder
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either 
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public 
+ * License along with this library.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jsprit.core.problem.solution.route;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import jsprit.core.problem.job.Job;
+
+/**
+ * Index that maps jobs to the route serving them.
+ * 
+ * <p>The index is built with the first lookup. Afterwards it is kept up to date by removing jobs through the index and 
+ * by informing it about inserted jobs ({@link #addJob(Job, VehicleRoute)}). Entries are verified with 
+ * {@link jsprit.core.problem.solution.route.activity.TourActivities#servesJob(Job)}, i.e. if a job has been moved without 
+ * informing the index, the routes are scanned for this job and the index is updated.
+ * 
+ * <p>The index of a solution is kept with the solution (see {@link jsprit.core.problem.solution.VehicleRoutingProblemSolution#getJobRouteIndex()}), 
+ * and is carried over to its copies with {@link #copyOf(JobRouteIndex, Collection)}. A copy shares the entries memorised 
+ * by route position and only copies the entries that have changed since, thus neither building nor copying an index 
+ * iterates over the activities of the routes. Changed entries are merged into a new set of shared entries once 
+ * they make up a considerable part of the index.
+ * 
+ * <p>Looking up and removing a job that is in the index thus takes constant time, independent of the number of routes.
+ * 
+ * @author schroeder
+ *
+ */
+public class JobRouteIndex {
+	
+	/**
+	 * Returns a new index of the specified routes.
+	 * 
+	 * @param routes
+	 * @return job-route index
+	 */
+	public static JobRouteIndex newInstance(Collection<VehicleRoute> routes){
+		return new JobRouteIndex(routes);
+	}
+	
+	/**
+	 * Returns a copy of index for the specified routes. The routes of the copy must be in the same order as the routes of 
+	 * index, i.e. the i-th route of routesOfCopy must be the copy of the i-th route of index.
+	 * 
+	 * <p>Note that making a copy might merge the changed entries of index. 
+	 * 
+	 * @param index
+	 * @param routesOfCopy
+	 * @return copy of index
+	 */
+	public static JobRouteIndex copyOf(JobRouteIndex index, Collection<VehicleRoute> routesOfCopy){
+		JobRouteIndex copy = new JobRouteIndex(routesOfCopy);
+		if(index.jobPositions == null) return copy;
+		if(index.jobRoutes.size() > index.jobPositions.size() / 2) index.merge();
+		copy.jobPositions = index.jobPositions;
+		if(!index.jobRoutes.isEmpty()){
+			Map<VehicleRoute,Integer> routePositions = index.getRoutePositions();
+			List<VehicleRoute> copiedRoutes = new ArrayList<VehicleRoute>(routesOfCopy);
+			for(Entry<Job,VehicleRoute> e : index.jobRoutes.entrySet()){
+				Integer position = routePositions.get(e.getValue());
+				if(position != null && position < copiedRoutes.size()) copy.jobRoutes.put(e.getKey(), copiedRoutes.get(position));
+			}
+		}
+		return copy;
+	}
+	
+	private final Collection<VehicleRoute> routes;
+	
+	/*
+	 * positions of the routes serving the jobs. this map is shared by copies of the index, thus it must never be modified.
+	 */
+	private Map<Job,Integer> jobPositions;
+	
+	/*
+	 * routes of the jobs whose entries have changed since jobPositions has been built.
+	 */
+	private Map<Job,VehicleRoute> jobRoutes = new HashMap<Job, VehicleRoute>();
+	
+	private JobRouteIndex(Collection<VehicleRoute> routes) {
+		super();
+		this.routes = routes;
+	}
+	
+	/**
+	 * Returns the route serving job, or null if job is not served by any route.
+	 * 
+	 * @param job
+	 * @return route serving job
+	 */
+	public VehicleRoute getRoute(Job job){
+		if(jobPositions == null) build();
+		VehicleRoute route = jobRoutes.get(job);
+		if(route == null) route = getRouteAt(jobPositions.get(job));
+		if(route != null && route.getTourActivities().servesJob(job)) return route;
+		for(VehicleRoute r : routes){
+			if(r.getTourActivities().servesJob(job)){
+				jobRoutes.put(job, r);
+				return r;
+			}
+		}
+		jobRoutes.remove(job);
+		return null;
+	}
+	
+	/**
+	 * Removes job (and its activities) from the route serving it, and returns this route. If job is not served, it returns null.
+	 * 
+	 * @param job
+	 * @return route job has been removed from
+	 */
+	public VehicleRoute removeJob(Job job){
+		VehicleRoute route = getRoute(job);
+		if(route == null) return null;
+		route.getTourActivities().removeJob(job);
+		jobRoutes.remove(job);
+		return route;
+	}
+	
+	/**
+	 * Informs the index that job has been inserted into route.
+	 * 
+	 * @param job
+	 * @param route
+	 */
+	public void addJob(Job job, VehicleRoute route){
+		if(jobPositions == null) return;
+		jobRoutes.put(job, route);
+	}
+
+	private VehicleRoute getRouteAt(Integer position) {
+		if(position == null || !(routes instanceof List)) return null;
+		List<VehicleRoute> routeList = (List<VehicleRoute>) routes;
+		if(position >= routeList.size()) return null;
+		return routeList.get(position);
+	}
+
+	private void build() {
+		jobPositions = new HashMap<Job, Integer>();
+		int position = 0;
+		for(VehicleRoute route : routes){
+			for(Job job : route.getTourActivities().getJobs()){
+				if(routes instanceof List) jobPositions.put(job, position);
+				else jobRoutes.put(job, route);
+			}
+			position++;
+		}
+	}
+	
+	private void merge() {
+		if(!(routes instanceof List)) return;
+		Map<Job,Integer> positions = new HashMap<Job, Integer>(jobPositions);
+		Map<VehicleRoute,Integer> routePositions = getRoutePositions();
+		for(Entry<Job,VehicleRoute> e : jobRoutes.entrySet()){
+			Integer position = routePositions.get(e.getValue());
+			if(position == null) positions.remove(e.getKey());
+			else positions.put(e.getKey(), position);
+		}
+		jobPositions = positions;
+		jobRoutes = new HashMap<Job, VehicleRoute>();
+	}
+
+	private Map<VehicleRoute, Integer> getRoutePositions() {
+		Map<VehicleRoute,Integer> routePositions = new IdentityHashMap<VehicleRoute, Integer>();
+		int position = 0;
+		for(VehicleRoute route : routes){
+			routePositions.put(route, position);
+			position++;
+		}
+		return routePositions;
+	}
+	
+	@Override
+	public String toString() {
+		return "[name=jobRouteIndex][#routes=" + routes.size() + "]";
+	}
+
+}
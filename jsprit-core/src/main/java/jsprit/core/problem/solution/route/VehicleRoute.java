@@ -55,7 +55,23 @@ public class VehicleRoute {
 	 */
 	public static VehicleRoute copyOf(VehicleRoute route) {
 		if(route == null) throw new IllegalArgumentException("route must not be null");
-		return new VehicleRoute(route);
+		return new VehicleRoute(route, TourActivities.copyOf(route.getTourActivities()));
+	}
+	
+	/**
+	 * Returns a copy of this vehicleRoute that shares its tour-activities with route until one of both routes is modified.
+	 * 
+	 * <p>Start and end are copied right away, the sequence of tour-activities is only duplicated when a job is added to or removed from 
+	 * the route (see {@link TourActivities#lazyCopyOf(TourActivities)}) or when its vehicle or departure-time is set. Thus routes that are
+	 * not changed do not cost more than a few objects.
+	 * 
+	 * @param route
+	 * @return lazily copied route
+	 * @throws IllegalArgumentException if route is null
+	 */
+	public static VehicleRoute lazyCopyOf(VehicleRoute route) {
+		if(route == null) throw new IllegalArgumentException("route must not be null");
+		return new VehicleRoute(route, TourActivities.lazyCopyOf(route.getTourActivities()));
 	}
 	
 	/**
@@ -325,14 +341,15 @@ public class VehicleRoute {
 	private End end;
 	
 	/**
-	 * Copy constructor copying a route.
+	 * Copy constructor copying a route with the specified copy of its tour-activities.
 	 * 
 	 * @param route
+	 * @param tourActivities
 	 */
-	private VehicleRoute(VehicleRoute route){
+	private VehicleRoute(VehicleRoute route, TourActivities tourActivities){
 		this.start = Start.copyOf(route.getStart());
 		this.end = End.copyOf(route.getEnd());
-		this.tourActivities = TourActivities.copyOf(route.getTourActivities());
+		this.tourActivities = tourActivities;
 		this.vehicle = route.getVehicle();
 		this.driver = route.getDriver();
 	}
@@ -428,6 +445,7 @@ public class VehicleRoute {
 	 * @param vehicleDepTime
 	 */
 	public void setVehicleAndDepartureTime(Vehicle vehicle, double vehicleDepTime){
+		copyActivitiesIfShared();
 		this.vehicle = vehicle;
 		setStartAndEnd(vehicle, vehicleDepTime);
 	}
@@ -450,10 +468,18 @@ public class VehicleRoute {
 	 */
 	@Deprecated
 	public void setVehicle(Vehicle vehicle, double vehicleDepTime){
+		copyActivitiesIfShared();
 		this.vehicle = vehicle;
 		setStartAndEnd(vehicle, vehicleDepTime);
 	}
 	
+	/**
+	 * Activity times change with vehicle and departure-time, thus shared activities need to be duplicated before.
+	 */
+	private void copyActivitiesIfShared() {
+		tourActivities.duplicateActivitiesIfShared();
+	}
+	
 	private void setStartAndEnd(Vehicle vehicle, double vehicleDepTime) {
 		if(!(vehicle instanceof NoVehicle)){
 			if(start == null && end == null){
@@ -481,6 +507,7 @@ public class VehicleRoute {
 	@Deprecated
 	public void setDepartureTime(double vehicleDepTime){
 		if(start == null) throw new IllegalStateException("cannot set departureTime without having a vehicle on this route. use setVehicle(vehicle,departureTime) instead.");
+		copyActivitiesIfShared();
 		start.setEndTime(vehicleDepTime);
 	}
 	
@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (C) 2013  Stefan Schroeder
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either 
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public 
+ * License along with this library.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jsprit.core.problem.solution.route.activity;
+
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * Base class of tour-activities.
+ * 
+ * <p>It holds the index a state manager assigns to the activity when memorizing its states (see 
+ * {@link jsprit.core.algorithm.state.StateManager}), thus states can be read from arrays without hashing the activity, and the index of 
+ * its location (see {@link jsprit.core.problem.LocationIndex#getIndex(TourActivity)}), thus transport costs can be looked up without hashing 
+ * the location id. Indices are neither copied by {@link #duplicate()} nor part of the activity's equality.
+ * 
+ * @author schroeder
+ *
+ */
+public abstract class AbstractActivity implements TourActivity {
+	
+	private static final AtomicReferenceFieldUpdater<AbstractActivity,Object> stateIndexUpdater = 
+			AtomicReferenceFieldUpdater.newUpdater(AbstractActivity.class, Object.class, "stateIndex");
+	
+	private volatile Object stateIndex = null;
+	
+	private int locationIndex = -1;
+	
+	/**
+	 * Returns the location index that has been set to this activity, or -1 if there is none.
+	 * 
+	 * <p>It is set by {@link jsprit.core.problem.LocationIndex} which validates it against the activity's location id before using it.
+	 * 
+	 * @return location index
+	 */
+	public final int getLocationIndex(){
+		return locationIndex;
+	}
+	
+	/**
+	 * Sets the location index of this activity.
+	 * 
+	 * @param locationIndex
+	 */
+	public final void setLocationIndex(int locationIndex){
+		this.locationIndex = locationIndex;
+	}
+	
+	/**
+	 * Returns the state index that has been assigned to this activity, or null if there is none.
+	 * 
+	 * @return state index
+	 */
+	public final Object getStateIndex(){
+		return stateIndex;
+	}
+	
+	/**
+	 * Sets the state index to stateIndex if the current one is expectedStateIndex.
+	 * 
+	 * @param expectedStateIndex
+	 * @param stateIndex
+	 * @return true if the state index has been set
+	 */
+	public final boolean compareAndSetStateIndex(Object expectedStateIndex, Object stateIndex){
+		return stateIndexUpdater.compareAndSet(this, expectedStateIndex, stateIndex);
+	}
+
+}
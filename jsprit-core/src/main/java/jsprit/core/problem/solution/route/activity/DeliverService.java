@@ -3,7 +3,7 @@ package jsprit.core.problem.solution.route.activity;
 import jsprit.core.problem.Capacity;
 import jsprit.core.problem.job.Delivery;
 
-public final class DeliverService implements DeliveryActivity{
+public final class DeliverService extends AbstractActivity implements DeliveryActivity{
 	
 	private Delivery delivery;
 	
@@ -4,7 +4,7 @@ import jsprit.core.problem.Capacity;
 import jsprit.core.problem.job.Job;
 import jsprit.core.problem.job.Shipment;
 
-public final class DeliverShipment implements DeliveryActivity{
+public final class DeliverShipment extends AbstractActivity implements DeliveryActivity{
 
 	private Shipment shipment;
 	
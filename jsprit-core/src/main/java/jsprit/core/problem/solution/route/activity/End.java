@@ -19,7 +19,7 @@ package jsprit.core.problem.solution.route.activity;
 import jsprit.core.problem.Capacity;
 import jsprit.core.util.Coordinate;
 
-public final class End implements TourActivity {
+public final class End extends AbstractActivity {
 
 	public static int creation = 0;
 	
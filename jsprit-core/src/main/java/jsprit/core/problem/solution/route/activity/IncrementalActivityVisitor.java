@@ -0,0 +1,40 @@
+/*******************************************************************************
+ * Copyright (C) 2013  Stefan Schroeder
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either 
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public 
+ * License along with this library.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jsprit.core.problem.solution.route.activity;
+
+import jsprit.core.problem.solution.route.VehicleRoute;
+
+/**
+ * ActivityVisitor that can also start visiting a route in the middle, i.e. at the first activity that has changed.
+ * 
+ * <p>When begin(route,fromIndex) is called, the states of the activities before fromIndex are up-to-date and
+ * only the activities from fromIndex to the end of the route are visited subsequently.
+ * 
+ * @author schroeder
+ *
+ */
+public interface IncrementalActivityVisitor extends ActivityVisitor {
+	
+	/**
+	 * Begins visiting route at activity with index fromIndex (of <code>route.getActivities()</code>).
+	 * 
+	 * @param route
+	 * @param fromIndex
+	 */
+	public void begin(VehicleRoute route, int fromIndex);
+
+}
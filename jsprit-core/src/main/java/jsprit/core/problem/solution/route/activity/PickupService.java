@@ -4,7 +4,7 @@ import jsprit.core.problem.Capacity;
 import jsprit.core.problem.job.Pickup;
 import jsprit.core.problem.job.Service;
 
-public final class PickupService implements PickupActivity{
+public final class PickupService extends AbstractActivity implements PickupActivity{
 	
 	private Service pickup;
 	
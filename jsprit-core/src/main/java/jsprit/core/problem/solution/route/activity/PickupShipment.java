@@ -4,7 +4,7 @@ import jsprit.core.problem.Capacity;
 import jsprit.core.problem.job.Job;
 import jsprit.core.problem.job.Shipment;
 
-public final class PickupShipment implements PickupActivity{
+public final class PickupShipment extends AbstractActivity implements PickupActivity{
 
 	private Shipment shipment;
 	
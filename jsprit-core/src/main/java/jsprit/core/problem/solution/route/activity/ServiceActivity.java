@@ -20,7 +20,7 @@ import jsprit.core.problem.Capacity;
 import jsprit.core.problem.job.Service;
 import jsprit.core.problem.solution.route.activity.TourActivity.JobActivity;
 
-public class ServiceActivity implements JobActivity{
+public class ServiceActivity extends AbstractActivity implements JobActivity{
 	
 	public static int counter = 0;
 	
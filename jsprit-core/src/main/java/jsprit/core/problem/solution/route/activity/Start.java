@@ -19,7 +19,7 @@ package jsprit.core.problem.solution.route.activity;
 import jsprit.core.problem.Capacity;
 import jsprit.core.util.Coordinate;
 
-public final class Start implements TourActivity {
+public final class Start extends AbstractActivity {
 
 	public final static String ACTIVITY_NAME = "start";
 	
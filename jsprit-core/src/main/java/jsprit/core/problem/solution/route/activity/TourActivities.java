@@ -20,8 +20,10 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import jsprit.core.problem.job.Job;
@@ -41,6 +43,54 @@ public class TourActivities {
 		return new TourActivities(tourActivities);
 	}
 	
+	/**
+	 * Returns a copy of tourActivities that shares its activities with tourActivities until either of both is modified.
+	 * 
+	 * <p>The first modification (adding an activity or removing a job) duplicates the activities of the modified object only, i.e. 
+	 * copying is deferred until it is really needed and never happens for tours that are not changed at all. Note that lists returned 
+	 * by {@link #getActivities()} before this modification still reflect the shared activities.
+	 * 
+	 * <p>Tours sharing activities hold a common owner token that names the tour allowed to modify them in place, and that is cleared 
+	 * with each lazy copy. If the most recent copy duplicates its activities, the token is handed back to the tour that owned them before 
+	 * this copy, i.e. in the usual case of modifying the copy the original owns its activities again. Otherwise (e.g. if a copy is just 
+	 * dropped) the remaining tours duplicate their activities with their next modification, but nothing needs to be released.
+	 * 
+	 * <p>Since activities are shared, the activities themselves must not be changed as long as they are shared (see {@link #isShared()}). 
+	 * 
+	 * @param tourActivities
+	 * @return lazy copy of tourActivities
+	 */
+	public static TourActivities lazyCopyOf(TourActivities tourActivities){
+		TourActivities copy = new TourActivities();
+		copy.tourActivities = tourActivities.tourActivities;
+		copy.jobs = tourActivities.jobs;
+		if(tourActivities.ownership == null) tourActivities.ownership = new Ownership(tourActivities);
+		Ownership ownership = tourActivities.ownership;
+		synchronized(ownership){
+			copy.ownerBeforeCopy = ownership.owner;
+			ownership.generation++;
+			copy.generation = ownership.generation;
+			ownership.owner = null;
+		}
+		copy.ownership = ownership;
+		return copy;
+	}
+	
+	/*
+	 * owner token of activities shared by lazy copies. generation is the number of copies that can still hand back the token.
+	 */
+	private static class Ownership {
+		
+		private volatile TourActivities owner;
+		
+		private int generation = 0;
+		
+		private Ownership(TourActivities owner) {
+			this.owner = owner;
+		}
+		
+	}
+	
 	public static class ReverseActivityIterator implements Iterator<TourActivity> {
 
 		private List<TourActivity> acts;		
@@ -80,9 +130,23 @@ public class TourActivities {
 		return new TourActivities();
 	}
 	
-	private final ArrayList<TourActivity> tourActivities = new ArrayList<TourActivity>();
+	private ArrayList<TourActivity> tourActivities = new ArrayList<TourActivity>();
 
-	private final Set<Job> jobs = new HashSet<Job>();
+	private Set<Job> jobs = new HashSet<Job>();
+	
+	/*
+	 * owner token shared with lazy copies, or null if this tour owns tourActivities and jobs without ever having been copied
+	 */
+	private Ownership ownership = null;
+	
+	/*
+	 * generation of ownership this tour has been copied at, and the owner it hands the token back to
+	 */
+	private int generation = 0;
+	
+	private TourActivities ownerBeforeCopy = null;
+	
+	private Map<TourActivity,Integer> positions;
 	
 	private ReverseActivityIterator backward;
 	
@@ -103,8 +167,53 @@ public class TourActivities {
 	}
 	
 	public Iterator<TourActivity> iterator(){
+		if(isShared()) return Collections.unmodifiableList(tourActivities).iterator();
 		return tourActivities.iterator();
 	}
+	
+	/**
+	 * Returns true if activities are shared with another tour (see {@link #lazyCopyOf(TourActivities)}), i.e. if they are duplicated 
+	 * with the next modification of this tour.
+	 * 
+	 * @return true if activities are shared
+	 */
+	public boolean isShared(){
+		return ownership != null && ownership.owner != this;
+	}
+	
+	/**
+	 * Duplicates the activities of this tour if they are shared with another tour, i.e. afterwards they can be changed without 
+	 * affecting the other tour.
+	 */
+	public void duplicateActivitiesIfShared(){
+		copyIfShared();
+	}
+	
+	private void copyIfShared(){
+		if(ownership == null) return;
+		if(!isShared()){
+			ownership = null;
+			return;
+		}
+		ArrayList<TourActivity> acts = new ArrayList<TourActivity>(tourActivities.size() + 2);
+		for(TourActivity act : tourActivities){
+			acts.add(act.duplicate());
+		}
+		tourActivities = acts;
+		jobs = new HashSet<Job>(jobs);
+		positions = null;
+		backward = null;
+		Ownership left = ownership;
+		synchronized(left){
+			if(left.generation == generation){
+				left.owner = ownerBeforeCopy;
+				left.generation--;
+			}
+		}
+		ownership = null;
+		generation = 0;
+		ownerBeforeCopy = null;
+	}
 
 	public boolean isEmpty() {
 		return (tourActivities.size() == 0);
@@ -141,17 +250,21 @@ public class TourActivities {
 			return false;
 		}
 		else{
+			copyIfShared();
 			jobRemoved = jobs.remove(job);
 		}
-		boolean activityRemoved = false;
-		List<TourActivity> acts = new ArrayList<TourActivity>(tourActivities);
-		for(TourActivity c : acts){
-			if(c instanceof JobActivity){
-				if(job.equals(((JobActivity) c).getJob())){
-					tourActivities.remove(c);
-					activityRemoved = true;
-				}
-			}
+		int nuOfRemaining = 0;
+		int size = tourActivities.size();
+		for(int i=0;i<size;i++){
+			TourActivity c = tourActivities.get(i);
+			if(c instanceof JobActivity && job.equals(((JobActivity) c).getJob())) continue;
+			if(nuOfRemaining != i) tourActivities.set(nuOfRemaining, c);
+			nuOfRemaining++;
+		}
+		boolean activityRemoved = nuOfRemaining < size;
+		if(activityRemoved){
+			tourActivities.subList(nuOfRemaining, size).clear();
+			positions = null;
 		}
 		assert jobRemoved == activityRemoved : "job removed, but belonging activity not.";
 		return activityRemoved;
@@ -178,8 +291,12 @@ public class TourActivities {
 		 * ...
 		 * 
 		 */
-		if(insertionIndex < tourActivities.size()) tourActivities.add(insertionIndex, act); 
-		else if(insertionIndex >= tourActivities.size()) tourActivities.add(act);
+		copyIfShared();
+		if(insertionIndex < tourActivities.size()){
+			tourActivities.add(insertionIndex, act);
+			positions = null;
+		}
+		else if(insertionIndex >= tourActivities.size()) appendActivity(act);
 		addJob(act);
 	}
 	
@@ -196,10 +313,46 @@ public class TourActivities {
 	 * @param act
 	 */
 	public void addActivity(TourActivity act){
-		if(tourActivities.contains(act)) throw new IllegalStateException("act " + act + " already in tour. cannot add act twice.");
-		tourActivities.add(act);
+		if(contains(act)) throw new IllegalStateException("act " + act + " already in tour. cannot add act twice.");
+		copyIfShared();
+		appendActivity(act);
 		addJob(act);
 	}
+	
+	/**
+	 * An act equal to a job-activity can only be in the tour if its job is served, thus the list only needs to be scanned 
+	 * for the second activity of a job (e.g. the delivery of a shipment).
+	 */
+	private boolean contains(TourActivity act) {
+		if(act instanceof JobActivity && !jobs.contains(((JobActivity) act).getJob())) return false;
+		return tourActivities.contains(act);
+	}
+
+	private void appendActivity(TourActivity act) {
+		tourActivities.add(act);
+		if(positions != null) positions.put(act, tourActivities.size()-1);
+	}
+	
+	/**
+	 * Returns the position of act in the activity-list, or -1 if act is not part of this tour.
+	 * 
+	 * <p>Positions are memorised until the tour is modified other than by appending activities. Thus subsequent lookups in an 
+	 * unchanged tour are done in constant time.
+	 * 
+	 * @param act
+	 * @return position of act
+	 */
+	public int indexOf(TourActivity act){
+		if(positions == null){
+			positions = new IdentityHashMap<TourActivity, Integer>(tourActivities.size() * 2);
+			for(int i=0;i<tourActivities.size();i++){
+				positions.put(tourActivities.get(i), i);
+			}
+		}
+		Integer position = positions.get(act);
+		if(position == null) return -1;
+		return position;
+	}
 
 	private void addJob(TourActivity act) {
 		if(act instanceof JobActivity){
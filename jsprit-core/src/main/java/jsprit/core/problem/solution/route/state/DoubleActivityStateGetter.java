@@ -0,0 +1,42 @@
+/*******************************************************************************
+ * Copyright (C) 2013  Stefan Schroeder
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either 
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public 
+ * License along with this library.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jsprit.core.problem.solution.route.state;
+
+import jsprit.core.problem.solution.route.activity.TourActivity;
+import jsprit.core.problem.solution.route.state.StateFactory.StateId;
+
+/**
+ * Getter of activity states that are numbers, i.e. states that can be returned as primitive double without boxing.
+ * 
+ * <p>Consumers of a {@link RouteAndActivityStateGetter} that read such states in hot loops (for example the time window constraint) 
+ * use this if their getter implements it as well (as {@link jsprit.core.algorithm.state.StateManager} does).
+ * 
+ * @author schroeder
+ *
+ */
+public interface DoubleActivityStateGetter {
+	
+	/**
+	 * Returns the activity state as primitive double.
+	 * 
+	 * @param act
+	 * @param stateId
+	 * @return state
+	 */
+	public double getDoubleActivityState(TourActivity act, StateId stateId);
+
+}
@@ -78,6 +78,8 @@ public class StateFactory {
 
 	}
 	
+	private final static Map<String,Integer> stateIndices = new HashMap<String, Integer>();
+	
 	public final static StateId MAXLOAD = new StateIdImpl("maxload");
 	
 	public final static StateId LOAD = new StateIdImpl("load");
@@ -111,6 +113,42 @@ public class StateFactory {
 		return new StateIdImpl(name);
 	}
 	
+	/**
+	 * Returns the number of distinct state-ids created so far. All state-id indices are lower than this number.
+	 * 
+	 * @return number of state-ids
+	 */
+	public static int getNuOfStateIds(){
+		synchronized(stateIndices){
+			return stateIndices.size();
+		}
+	}
+	
+	/**
+	 * Returns the index of stateId. Ids with the same name (i.e. <code>stateId.toString()</code>) have the same index, and indices are dense, i.e. 
+	 * they range from 0 to the number of distinct ids created so far. 
+	 * 
+	 * <p>This allows states to be stored in arrays. The index of ids created by this factory is determined once when creating them.
+	 * 
+	 * @param stateId
+	 * @return index
+	 */
+	public static int getIndex(StateId stateId){
+		if(stateId instanceof StateIdImpl) return ((StateIdImpl) stateId).index;
+		return getStateIndex(stateId.toString());
+	}
+	
+	private static int getStateIndex(String name){
+		synchronized(stateIndices){
+			Integer index = stateIndices.get(name);
+			if(index == null){
+				index = stateIndices.size();
+				stateIndices.put(name, index);
+			}
+			return index;
+		}
+	}
+	
 	public static State createState(double value){
 		return new StateImpl(value);
 	}
@@ -164,10 +202,13 @@ public class StateFactory {
 		}
 
 		private String name;
+		
+		private final int index;
 
 		public StateIdImpl(String name) {
 			super();
 			this.name = name;
+			this.index = getStateIndex(name);
 		}
 		
 		public String toString(){
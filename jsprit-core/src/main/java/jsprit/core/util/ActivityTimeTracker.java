@@ -62,6 +62,24 @@ public class ActivityTimeTracker implements ActivityVisitor{
 		beginFirst = true;
 	}
 
+	/**
+	 * Begins tracking times right after prevAct, i.e. the next activity visited is the successor of prevAct.
+	 *
+	 * @param route
+	 * @param prevAct
+	 * @param endTimeAtPrevAct
+	 */
+	public void begin(VehicleRoute route, TourActivity prevAct, double endTimeAtPrevAct) {
+		this.prevAct = prevAct;
+		startAtPrevAct = endTimeAtPrevAct;
+
+		actEndTime = startAtPrevAct;
+
+		this.route = route;
+
+		beginFirst = true;
+	}
+
 	@Override
 	public void visit(TourActivity activity) {
 		if(!beginFirst) throw new IllegalStateException("never called begin. this however is essential here");
@@ -0,0 +1,308 @@
+/*******************************************************************************
+ * Copyright (C) 2013  Stefan Schroeder
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jsprit.core.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import jsprit.core.problem.LocationIndex;
+import jsprit.core.problem.VehicleRoutingProblem;
+import jsprit.core.problem.cost.AbstractForwardVehicleRoutingTransportCosts;
+import jsprit.core.problem.cost.IndexableTransportCosts;
+import jsprit.core.problem.cost.IndexedTransportCosts;
+import jsprit.core.problem.driver.Driver;
+import jsprit.core.problem.vehicle.Vehicle;
+import jsprit.core.problem.vehicle.VehicleTypeImpl.VehicleCostParams;
+
+import org.apache.log4j.Logger;
+
+
+/**
+ * Dense cost matrix that allows pre-compiled time and distance-matrices to be considered as {@link jsprit.core.problem.cost.VehicleRoutingTransportCosts}
+ * in the {@link VehicleRoutingProblem}.
+ *
+ * <p>In contrast to {@link VehicleRoutingTransportCostsMatrix}, location ids are mapped to int indices once when building the matrix
+ * and values are stored in primitive arrays (row by row). Thus looking up a relation does not allocate any objects. Location ids
+ * do not need to be numbers, and matrices can be asymmetric.
+ *
+ * <p>Memory grows with the square of the number of locations, i.e. 8 bytes * #locations^2 for distances and the same for times.
+ *
+ * <p>As with {@link VehicleRoutingTransportCostsMatrix}, once you set a particular distance (or time), this expects distance-entries (time-entries)
+ * for all relations. If a relation is requested that has not been set, an IllegalStateException is thrown.
+ *
+ * @author schroeder
+ *
+ */
+public class FastVehicleRoutingTransportCostsMatrix extends AbstractForwardVehicleRoutingTransportCosts implements IndexableTransportCosts {
+
+	/**
+	 * Builder that builds the matrix.
+	 *
+	 * @author schroeder
+	 *
+	 */
+	public static class Builder {
+
+		private static Logger log = Logger.getLogger(Builder.class);
+
+		/**
+		 * Creates a new builder returning the matrix-builder.
+		 * <p>If you want to consider symmetric matrices, set isSymmetric to true. Then each relation only needs to be added once.
+		 *
+		 * @param isSymmetric
+		 * @return builder
+		 */
+		public static Builder newInstance(boolean isSymmetric){
+			return new Builder(isSymmetric);
+		}
+
+		private boolean isSymmetric;
+
+		private Map<String,Integer> locationIndices = new HashMap<String, Integer>();
+
+		private RelationValues distances = new RelationValues();
+
+		private RelationValues times = new RelationValues();
+
+		private Builder(boolean isSymmetric){
+			this.isSymmetric = isSymmetric;
+		}
+
+		/**
+		 * Adds a transport-distance for a particular relation.
+		 *
+		 * @param from
+		 * @param to
+		 * @param distance
+		 * @return builder
+		 */
+		public Builder addTransportDistance(String from, String to, double distance){
+			distances.add(index(from), index(to), distance);
+			return this;
+		}
+
+		/**
+		 * Adds transport-time for a particular relation.
+		 *
+		 * @param from
+		 * @param to
+		 * @param time
+		 * @return builder
+		 */
+		public Builder addTransportTime(String from, String to, double time){
+			times.add(index(from), index(to), time);
+			return this;
+		}
+
+		private int index(String locationId){
+			if(locationId == null) throw new IllegalStateException("locationId is null");
+			Integer index = locationIndices.get(locationId);
+			if(index == null){
+				index = locationIndices.size();
+				locationIndices.put(locationId, index);
+			}
+			return index;
+		}
+
+		/**
+		 * Builds the matrix.
+		 *
+		 * @return matrix
+		 */
+		public FastVehicleRoutingTransportCostsMatrix build(){
+			int nuOfLocations = locationIndices.size();
+			if((long)nuOfLocations * nuOfLocations > Integer.MAX_VALUE){
+				throw new IllegalStateException("too many locations for a dense matrix: " + nuOfLocations);
+			}
+			double[] distanceMatrix = distances.toMatrix(nuOfLocations, isSymmetric, "distance");
+			double[] timeMatrix = times.toMatrix(nuOfLocations, isSymmetric, "transport-time");
+			return new FastVehicleRoutingTransportCostsMatrix(new HashMap<String, Integer>(locationIndices), distanceMatrix, timeMatrix);
+		}
+
+	}
+
+	/**
+	 * Collects relation values in growing primitive arrays to avoid boxing while building.
+	 *
+	 * @author schroeder
+	 *
+	 */
+	private static class RelationValues {
+
+		private int[] from = new int[16];
+
+		private int[] to = new int[16];
+
+		private double[] values = new double[16];
+
+		private int size = 0;
+
+		void add(int fromIndex, int toIndex, double value){
+			if(size == values.length){
+				from = Arrays.copyOf(from, size * 2);
+				to = Arrays.copyOf(to, size * 2);
+				values = Arrays.copyOf(values, size * 2);
+			}
+			from[size] = fromIndex;
+			to[size] = toIndex;
+			values[size] = value;
+			size++;
+		}
+
+		double[] toMatrix(int nuOfLocations, boolean isSymmetric, String valueName){
+			if(size == 0) return null;
+			double[] matrix = new double[nuOfLocations * nuOfLocations];
+			Arrays.fill(matrix, Double.NaN);
+			for(int i=0;i<nuOfLocations;i++){
+				matrix[i * nuOfLocations + i] = 0.0;
+			}
+			for(int i=0;i<size;i++){
+				int key = from[i] * nuOfLocations + to[i];
+				if(!Double.isNaN(matrix[key]) && from[i] != to[i]){
+					Builder.log.warn(valueName + " from " + from[i] + " to " + to[i] + " already exists. This overrides " + valueName + ".");
+				}
+				matrix[key] = values[i];
+				if(isSymmetric) matrix[to[i] * nuOfLocations + from[i]] = values[i];
+			}
+			return matrix;
+		}
+
+	}
+
+	private final Map<String,Integer> locationIndices;
+
+	private final int nuOfLocations;
+
+	private final double[] distances;
+
+	private final double[] times;
+
+	private FastVehicleRoutingTransportCostsMatrix(Map<String,Integer> locationIndices, double[] distances, double[] times){
+		this.locationIndices = locationIndices;
+		this.nuOfLocations = locationIndices.size();
+		this.distances = distances;
+		this.times = times;
+	}
+
+	/**
+	 * Returns the number of locations in this matrix.
+	 *
+	 * @return number of locations
+	 */
+	public int getNuOfLocations(){
+		return nuOfLocations;
+	}
+
+	/**
+	 * Returns the index of locationId in this matrix.
+	 *
+	 * @param locationId
+	 * @return index
+	 * @throws IllegalStateException if location is unknown
+	 */
+	public int getIndex(String locationId){
+		Integer index = locationIndices.get(locationId);
+		if(index == null) throw new IllegalStateException("location " + locationId + " is not part of the matrix");
+		return index;
+	}
+
+	/**
+	 * Returns the distance between the locations with index fromIndex and toIndex.
+	 *
+	 * @param fromIndex
+	 * @param toIndex
+	 * @return distance
+	 */
+	public double getDistance(int fromIndex, int toIndex){
+		if(distances == null) return 0.0;
+		return getValue(distances, fromIndex, toIndex, "distance");
+	}
+
+	/**
+	 * Returns the transport-time between the locations with index fromIndex and toIndex.
+	 *
+	 * @param fromIndex
+	 * @param toIndex
+	 * @return time
+	 */
+	public double getTime(int fromIndex, int toIndex){
+		if(times == null) return 0.0;
+		return getValue(times, fromIndex, toIndex, "time");
+	}
+
+	private double getValue(double[] matrix, int fromIndex, int toIndex, String valueName) {
+		double value = matrix[fromIndex * nuOfLocations + toIndex];
+		if(Double.isNaN(value)) throw new IllegalStateException(valueName + " value for relation from index " + fromIndex + " to index " + toIndex + " does not exist");
+		return value;
+	}
+
+	/**
+	 * Returns costs that look up this matrix by the indices of locationIndex (instead of location ids), i.e. the indices of locationIndex
+	 * are translated once to the indices of this matrix.
+	 * 
+	 * @param locationIndex
+	 * @return indexed transport costs
+	 * @throws IllegalStateException if a location of locationIndex is not part of the matrix
+	 */
+	@Override
+	public IndexedTransportCosts createIndexedTransportCosts(LocationIndex locationIndex){
+		final int[] matrixIndices = new int[locationIndex.size()];
+		for(int i=0;i<matrixIndices.length;i++){
+			matrixIndices[i] = getIndex(locationIndex.getLocationId(i));
+		}
+		return new IndexedTransportCosts() {
+			
+			@Override
+			public double getTransportTime(int fromIndex, int toIndex, double departureTime, Driver driver, Vehicle vehicle) {
+				if(times == null || fromIndex == toIndex) return 0.0;
+				return getTime(matrixIndices[fromIndex], matrixIndices[toIndex]);
+			}
+			
+			@Override
+			public double getTransportCost(int fromIndex, int toIndex, double departureTime, Driver driver, Vehicle vehicle) {
+				if(fromIndex == toIndex) return 0.0;
+				return getCost(matrixIndices[fromIndex], matrixIndices[toIndex], vehicle);
+			}
+			
+			@Override
+			public String toString() {
+				return "[name=indexedFastMatrix]";
+			}
+			
+		};
+	}
+
+	@Override
+	public double getTransportTime(String fromId, String toId, double departureTime, Driver driver, Vehicle vehicle) {
+		if(times == null || fromId.equals(toId)) return 0.0;
+		return getTime(getIndex(fromId), getIndex(toId));
+	}
+
+	@Override
+	public double getTransportCost(String fromId, String toId, double departureTime, Driver driver, Vehicle vehicle) {
+		if(fromId.equals(toId)) return 0.0;
+		return getCost(getIndex(fromId), getIndex(toId), vehicle);
+	}
+
+	private double getCost(int fromIndex, int toIndex, Vehicle vehicle) {
+		if(vehicle == null) return getDistance(fromIndex, toIndex);
+		VehicleCostParams costParams = vehicle.getType().getVehicleCostParams();
+		return costParams.perDistanceUnit*getDistance(fromIndex, toIndex) + costParams.perTimeUnit*getTime(fromIndex, toIndex);
+	}
+
+}
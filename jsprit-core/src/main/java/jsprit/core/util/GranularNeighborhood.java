@@ -0,0 +1,269 @@
+/*******************************************************************************
+ * Copyright (C) 2013  Stefan Schroeder
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either 
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public 
+ * License along with this library.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jsprit.core.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import jsprit.core.problem.VehicleRoutingProblem;
+import jsprit.core.problem.cost.VehicleRoutingTransportCosts;
+import jsprit.core.problem.job.Job;
+import jsprit.core.problem.job.Service;
+import jsprit.core.problem.job.Shipment;
+import jsprit.core.problem.vehicle.Vehicle;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Granular neighborhood, i.e. each job location only has its k nearest job locations as neighbors. Distances are determined 
+ * by the transport costs of the problem, thus this is not limited to Euclidean problems. Locations of services, and pickup and delivery locations of shipments are considered.
+ * 
+ * <p>Two locations are neighbors if one is among the k nearest of the other. Start and end locations of vehicles are neighbors to all, as well as 
+ * locations that are unknown to this neighborhood. Thus insertion calculators that only evaluate positions adjacent to a neighbor 
+ * can still insert each job into an empty route.
+ * 
+ * <p>Building it requires #locations^2 cost calculations, but only k neighbors per location are memorized. Alternatively, if the problem is 
+ * coordinate-based, set a {@link SpatialIndex.Metric} to determine nearest locations with a {@link SpatialIndex} in O(n log n).
+ * 
+ * @author schroeder
+ *
+ */
+public class GranularNeighborhood implements Neighborhood {
+	
+	/**
+	 * Builder that builds the granular neighborhood.
+	 * 
+	 * @author schroeder
+	 *
+	 */
+	public static class Builder {
+		
+		/**
+		 * Returns a new builder for the neighborhood of the jobs of vrp.
+		 * 
+		 * @param vrp
+		 * @return builder
+		 */
+		public static Builder newInstance(VehicleRoutingProblem vrp){
+			return new Builder(vrp);
+		}
+		
+		private VehicleRoutingProblem vrp;
+		
+		private int nuOfNeighbors = 10;
+		
+		private SpatialIndex.Metric metric = null;
+		
+		private Builder(VehicleRoutingProblem vrp){
+			this.vrp = vrp;
+		}
+		
+		/**
+		 * Sets the number of nearest locations each job location has as neighbors. Default is 10.
+		 * 
+		 * @param nuOfNeighbors
+		 * @return builder
+		 * @throws IllegalStateException if nuOfNeighbors < 1
+		 */
+		public Builder setNuOfNeighbors(int nuOfNeighbors){
+			if(nuOfNeighbors < 1) throw new IllegalStateException("nuOfNeighbors must be at least 1, but is " + nuOfNeighbors);
+			this.nuOfNeighbors = nuOfNeighbors;
+			return this;
+		}
+		
+		/**
+		 * Sets the metric to determine nearest locations by their coordinates (with a {@link SpatialIndex}) rather than by transport costs. 
+		 * 
+		 * <p>By default (null), transport costs are used. If a metric is set, all job locations need coordinates.
+		 * 
+		 * @param metric
+		 * @return builder
+		 */
+		public Builder setMetric(SpatialIndex.Metric metric){
+			this.metric = metric;
+			return this;
+		}
+		
+		/**
+		 * Builds the neighborhood.
+		 * 
+		 * @return neighborhood
+		 * @throws IllegalStateException if a metric is set, but coordinates of job locations are missing
+		 */
+		public GranularNeighborhood build(){
+			Map<String,Coordinate> jobLocations = getJobLocations(vrp.getJobs().values());
+			GranularNeighborhood neighborhood = new GranularNeighborhood(vrp.getVehicles(), nuOfNeighbors);
+			log.info("initialise " + neighborhood + " for " + jobLocations.size() + " locations");
+			if(metric == null){
+				neighborhood.makeNeighbors(vrp.getTransportCosts(), new ArrayList<String>(jobLocations.keySet()));
+			}
+			else{
+				neighborhood.makeNeighbors(jobLocations, metric);
+			}
+			return neighborhood;
+		}
+
+		private Map<String,Coordinate> getJobLocations(Collection<Job> jobs) {
+			Map<String,Coordinate> locations = new LinkedHashMap<String,Coordinate>();
+			for(Job job : jobs){
+				if(job instanceof Service){
+					addLocation(locations, ((Service) job).getLocationId(), ((Service) job).getCoord());
+				}
+				else if(job instanceof Shipment){
+					addLocation(locations, ((Shipment) job).getPickupLocation(), ((Shipment) job).getPickupCoord());
+					addLocation(locations, ((Shipment) job).getDeliveryLocation(), ((Shipment) job).getDeliveryCoord());
+				}
+			}
+			return locations;
+		}
+
+		private void addLocation(Map<String, Coordinate> locations, String locationId, Coordinate coord) {
+			if(locations.get(locationId) == null) locations.put(locationId, coord);
+		}
+		
+	}
+	
+	private static Logger log = Logger.getLogger(GranularNeighborhood.class);
+	
+	private final int nuOfNeighbors;
+	
+	private final Set<String> neighborsToAll = new HashSet<String>();
+	
+	private final Map<String,Set<String>> neighbors = new HashMap<String, Set<String>>();
+	
+	private GranularNeighborhood(Collection<Vehicle> vehicles, int nuOfNeighbors){
+		this.nuOfNeighbors = nuOfNeighbors;
+		for(Vehicle v : vehicles){
+			neighborsToAll.add(v.getStartLocationId());
+			neighborsToAll.add(v.getEndLocationId());
+		}
+	}
+	
+	private void makeNeighbors(Map<String,Coordinate> locations, SpatialIndex.Metric metric) {
+		SpatialIndex.Builder<String> indexBuilder = SpatialIndex.Builder.newInstance();
+		for(Map.Entry<String,Coordinate> location : locations.entrySet()){
+			if(location.getValue() == null) throw new IllegalStateException("coordinate of location " + location.getKey() + " is missing. it is required to determine neighbors with metric " + metric);
+			indexBuilder.addPoint(location.getValue(), location.getKey());
+		}
+		SpatialIndex<String> index = indexBuilder.setMetric(metric).build();
+		for(Map.Entry<String,Coordinate> location : locations.entrySet()){
+			Set<String> nearest = new HashSet<String>();
+			for(String neighbor : index.getNearest(location.getValue(), nuOfNeighbors + 1)){
+				if(nearest.size() == nuOfNeighbors) break;
+				if(!neighbor.equals(location.getKey())) nearest.add(neighbor);
+			}
+			neighbors.put(location.getKey(), nearest);
+		}
+	}
+
+	private void makeNeighbors(VehicleRoutingTransportCosts costs, List<String> locations) {
+		int k = Math.min(nuOfNeighbors, locations.size() - 1);
+		double[] heapCosts = new double[Math.max(k, 1)];
+		int[] heapLocations = new int[Math.max(k, 1)];
+		for(int i=0;i<locations.size();i++){
+			String from = locations.get(i);
+			int size = 0;
+			for(int j=0;j<locations.size();j++){
+				if(i == j) continue;
+				double c = costs.getTransportCost(from, locations.get(j), 0.0, null, null);
+				if(size < k){
+					heapCosts[size] = c;
+					heapLocations[size] = j;
+					size++;
+					siftUp(heapCosts, heapLocations, size - 1);
+				}
+				else if(k > 0 && c < heapCosts[0]){
+					heapCosts[0] = c;
+					heapLocations[0] = j;
+					siftDown(heapCosts, heapLocations, size);
+				}
+			}
+			Set<String> nearest = new HashSet<String>();
+			for(int n=0;n<size;n++){
+				nearest.add(locations.get(heapLocations[n]));
+			}
+			neighbors.put(from, nearest);
+		}
+	}
+	
+	/*
+	 * max-heap, i.e. the farthest of the k nearest locations found so far is at index 0
+	 */
+	private static void siftUp(double[] heapCosts, int[] heapLocations, int index){
+		while(index > 0){
+			int parent = (index - 1) / 2;
+			if(heapCosts[parent] >= heapCosts[index]) return;
+			swap(heapCosts, heapLocations, parent, index);
+			index = parent;
+		}
+	}
+	
+	private static void siftDown(double[] heapCosts, int[] heapLocations, int size){
+		int index = 0;
+		while(true){
+			int largest = index;
+			int left = 2 * index + 1;
+			int right = left + 1;
+			if(left < size && heapCosts[left] > heapCosts[largest]) largest = left;
+			if(right < size && heapCosts[right] > heapCosts[largest]) largest = right;
+			if(largest == index) return;
+			swap(heapCosts, heapLocations, largest, index);
+			index = largest;
+		}
+	}
+
+	private static void swap(double[] heapCosts, int[] heapLocations, int i, int j) {
+		double c = heapCosts[i];
+		heapCosts[i] = heapCosts[j];
+		heapCosts[j] = c;
+		int l = heapLocations[i];
+		heapLocations[i] = heapLocations[j];
+		heapLocations[j] = l;
+	}
+	
+	/**
+	 * Returns the number of nearest locations each job location has as neighbors.
+	 * 
+	 * @return number of neighbors
+	 */
+	public int getNuOfNeighbors(){
+		return nuOfNeighbors;
+	}
+
+	@Override
+	public boolean areNeighbors(String location1, String location2) {
+		if(location1.equals(location2)) return true;
+		if(neighborsToAll.contains(location1) || neighborsToAll.contains(location2)) return true;
+		Set<String> neighborsOfLocation1 = neighbors.get(location1);
+		if(neighborsOfLocation1 == null || neighborsOfLocation1.contains(location2)) return true;
+		Set<String> neighborsOfLocation2 = neighbors.get(location2);
+		if(neighborsOfLocation2 == null || neighborsOfLocation2.contains(location1)) return true;
+		return false;
+	}
+	
+	@Override
+	public String toString() {
+		return "[name=granularNeighborhood][nuOfNeighbors=" + nuOfNeighbors + "]";
+	}
+
+}
@@ -0,0 +1,446 @@
+/*******************************************************************************
+ * Copyright (C) 2013  Stefan Schroeder
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jsprit.core.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jsprit.core.problem.VehicleRoutingProblem;
+import jsprit.core.problem.cost.AbstractForwardVehicleRoutingTransportCosts;
+import jsprit.core.problem.driver.Driver;
+import jsprit.core.problem.vehicle.Vehicle;
+import jsprit.core.problem.vehicle.VehicleTypeImpl.VehicleCostParams;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Cost matrix that reads pre-compiled time and distance-matrices from a binary file that is mapped into memory (see {@link FileChannel#map(MapMode, long, long)}).
+ * It can be considered as {@link jsprit.core.problem.cost.VehicleRoutingTransportCosts} in the {@link VehicleRoutingProblem}.
+ *
+ * <p>Opening a matrix only reads the header and the location ids, values are paged in lazily by the operating system when they are requested. Thus
+ * matrices do not occupy heap space, and several processes reading the same file share the page cache.
+ *
+ * <p>Files are written with {@link Writer}. The format is (big-endian):
+ * <pre>
+ * int    magic number 0x4A53504D
+ * int    version (1)
+ * int    number of locations n
+ * byte   1 if distances are contained, 0 otherwise
+ * byte   1 if times are contained, 0 otherwise
+ * long   offset of first value
+ * n*UTF  location ids (see {@link DataOutputStream#writeUTF(String)}), the i-th id has index i
+ * ...    padding
+ * n*n*double  distances row by row (if contained)
+ * n*n*double  times row by row (if contained)
+ * </pre>
+ * Relations that have not been written contain NaN. If such a relation is requested, an IllegalStateException is thrown. Opening a file 
+ * whose header is corrupt or whose length does not match the number of locations throws an IllegalStateException as well.
+ *
+ * @author schroeder
+ *
+ */
+public class MappedVehicleRoutingTransportCostsMatrix extends AbstractForwardVehicleRoutingTransportCosts {
+
+	/**
+	 * Writes a matrix file that can be read by {@link MappedVehicleRoutingTransportCostsMatrix}.
+	 *
+	 * <p>Values are written directly to the mapped file, thus neither the matrix needs to fit into heap space, nor relations need to be written in a particular order.
+	 * Do not forget to close the writer.
+	 *
+	 * @author schroeder
+	 *
+	 */
+	public static class Writer {
+
+		/**
+		 * Creates the file and returns a writer.
+		 *
+		 * <p>The index of a location is its position in locationIds. All values are initialised with NaN, except the diagonal which is 0.0.
+		 *
+		 * @param file
+		 * @param locationIds
+		 * @param withDistances
+		 * @param withTimes
+		 * @return writer
+		 * @throws IOException
+		 */
+		public static Writer newInstance(File file, List<String> locationIds, boolean withDistances, boolean withTimes) throws IOException{
+			return new Writer(file, locationIds, withDistances, withTimes);
+		}
+
+		private final Map<String,Integer> locationIndices;
+
+		private final RandomAccessFile randomAccessFile;
+
+		private final DoubleMatrix distances;
+
+		private final DoubleMatrix times;
+
+		private boolean isSymmetric = false;
+
+		private Writer(File file, List<String> locationIds, boolean withDistances, boolean withTimes) throws IOException{
+			locationIndices = indexLocations(locationIds);
+			int n = locationIds.size();
+			ByteArrayOutputStream idBytes = new ByteArrayOutputStream();
+			DataOutputStream idOut = new DataOutputStream(idBytes);
+			for(String id : locationIds) idOut.writeUTF(id);
+			idOut.flush();
+			long dataOffset = align(HEADER_SIZE + idBytes.size());
+			long matrixSize = (long)n * n * 8;
+			randomAccessFile = new RandomAccessFile(file, "rw");
+			boolean success = false;
+			try{
+				randomAccessFile.setLength(0);
+				randomAccessFile.setLength(dataOffset + (withDistances ? matrixSize : 0) + (withTimes ? matrixSize : 0));
+				randomAccessFile.writeInt(MAGIC);
+				randomAccessFile.writeInt(VERSION);
+				randomAccessFile.writeInt(n);
+				randomAccessFile.writeByte(withDistances ? 1 : 0);
+				randomAccessFile.writeByte(withTimes ? 1 : 0);
+				randomAccessFile.writeLong(dataOffset);
+				randomAccessFile.write(idBytes.toByteArray());
+				FileChannel channel = randomAccessFile.getChannel();
+				long offset = dataOffset;
+				if(withDistances){
+					distances = DoubleMatrix.map(channel, MapMode.READ_WRITE, offset, n);
+					distances.initialise();
+					offset += matrixSize;
+				}
+				else distances = null;
+				if(withTimes){
+					times = DoubleMatrix.map(channel, MapMode.READ_WRITE, offset, n);
+					times.initialise();
+				}
+				else times = null;
+				success = true;
+			}
+			finally{
+				if(!success) randomAccessFile.close();
+			}
+		}
+
+		/**
+		 * Sets whether relations are symmetric. If so, each relation written is also written in the opposite direction. Default is false.
+		 *
+		 * @param isSymmetric
+		 * @return writer
+		 */
+		public Writer setSymmetric(boolean isSymmetric){
+			this.isSymmetric = isSymmetric;
+			return this;
+		}
+
+		/**
+		 * Writes transport-distance for a particular relation.
+		 *
+		 * @param from
+		 * @param to
+		 * @param distance
+		 * @return writer
+		 */
+		public Writer addTransportDistance(String from, String to, double distance){
+			if(distances == null) throw new IllegalStateException("writer has been created without distances");
+			put(distances, from, to, distance);
+			return this;
+		}
+
+		/**
+		 * Writes transport-time for a particular relation.
+		 *
+		 * @param from
+		 * @param to
+		 * @param time
+		 * @return writer
+		 */
+		public Writer addTransportTime(String from, String to, double time){
+			if(times == null) throw new IllegalStateException("writer has been created without times");
+			put(times, from, to, time);
+			return this;
+		}
+
+		private void put(DoubleMatrix matrix, String from, String to, double value) {
+			int fromIndex = getIndex(locationIndices, from);
+			int toIndex = getIndex(locationIndices, to);
+			matrix.put(fromIndex, toIndex, value);
+			if(isSymmetric) matrix.put(toIndex, fromIndex, value);
+		}
+
+		/**
+		 * Forces the values to be written to the file and closes it.
+		 *
+		 * @throws IOException
+		 */
+		public void close() throws IOException{
+			if(distances != null) distances.force();
+			if(times != null) times.force();
+			randomAccessFile.close();
+		}
+
+	}
+
+	/**
+	 * n*n matrix of doubles that is mapped in chunks of complete rows, since a single mapping cannot exceed Integer.MAX_VALUE bytes.
+	 *
+	 * @author schroeder
+	 *
+	 */
+	private static class DoubleMatrix {
+
+		static DoubleMatrix map(FileChannel channel, MapMode mode, long offset, int n) throws IOException{
+			long rowSize = (long)n * 8;
+			int rowsPerChunk = (int) Math.max(1, Math.min(n, Integer.MAX_VALUE / Math.max(1, rowSize)));
+			int nuOfChunks = n == 0 ? 0 : (n + rowsPerChunk - 1) / rowsPerChunk;
+			MappedByteBuffer[] chunks = new MappedByteBuffer[nuOfChunks];
+			for(int c=0;c<nuOfChunks;c++){
+				int rows = Math.min(rowsPerChunk, n - c * rowsPerChunk);
+				chunks[c] = channel.map(mode, offset + c * rowsPerChunk * rowSize, rows * rowSize);
+			}
+			return new DoubleMatrix(chunks, rowsPerChunk, n);
+		}
+
+		private final MappedByteBuffer[] chunks;
+
+		private final int rowsPerChunk;
+
+		private final int n;
+
+		private DoubleMatrix(MappedByteBuffer[] chunks, int rowsPerChunk, int n) {
+			super();
+			this.chunks = chunks;
+			this.rowsPerChunk = rowsPerChunk;
+			this.n = n;
+		}
+
+		double get(int from, int to){
+			return chunks[from / rowsPerChunk].getDouble(((from % rowsPerChunk) * n + to) << 3);
+		}
+
+		void put(int from, int to, double value){
+			chunks[from / rowsPerChunk].putDouble(((from % rowsPerChunk) * n + to) << 3, value);
+		}
+
+		/*
+		 * writes rows of NaN in bulk (copying a prepared row), and sets the diagonal to 0.0 afterwards.
+		 */
+		void initialise(){
+			if(n == 0) return;
+			ByteBuffer nanRow = ByteBuffer.allocate(n << 3);
+			while(nanRow.hasRemaining()) nanRow.putDouble(Double.NaN);
+			for(MappedByteBuffer chunk : chunks){
+				ByteBuffer rows = chunk.duplicate();
+				rows.clear();
+				while(rows.hasRemaining()){
+					nanRow.rewind();
+					rows.put(nanRow);
+				}
+			}
+			for(int i=0;i<n;i++) put(i, i, 0.0);
+		}
+
+		void force(){
+			for(MappedByteBuffer chunk : chunks) chunk.force();
+		}
+
+	}
+
+	private static Logger logger = Logger.getLogger(MappedVehicleRoutingTransportCostsMatrix.class);
+
+	private static final int MAGIC = 0x4A53504D;
+
+	private static final int VERSION = 1;
+
+	private static final int HEADER_SIZE = 4 + 4 + 4 + 1 + 1 + 8;
+
+	private static long align(long offset){
+		return (offset + 7) & ~7L;
+	}
+
+	private static Map<String,Integer> indexLocations(List<String> locationIds){
+		Map<String,Integer> indices = new HashMap<String, Integer>(locationIds.size() * 2);
+		for(int i=0;i<locationIds.size();i++){
+			if(indices.put(locationIds.get(i), i) != null) throw new IllegalStateException("location " + locationIds.get(i) + " occurs more than once");
+		}
+		return indices;
+	}
+
+	private static int getIndex(Map<String,Integer> locationIndices, String locationId){
+		Integer index = locationIndices.get(locationId);
+		if(index == null) throw new IllegalStateException("location " + locationId + " is not part of the matrix");
+		return index;
+	}
+
+	/**
+	 * Maps the matrix file into memory and returns the matrix.
+	 *
+	 * @param file matrix file written with {@link Writer}
+	 * @return matrix
+	 * @throws IOException
+	 */
+	public static MappedVehicleRoutingTransportCostsMatrix newInstance(File file) throws IOException{
+		return new MappedVehicleRoutingTransportCostsMatrix(file);
+	}
+
+	private final Map<String,Integer> locationIndices;
+
+	private final List<String> locationIds;
+
+	private final DoubleMatrix distances;
+
+	private final DoubleMatrix times;
+
+	private MappedVehicleRoutingTransportCostsMatrix(File file) throws IOException{
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+		try{
+			FileChannel channel = randomAccessFile.getChannel();
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			while(header.hasRemaining()){
+				if(channel.read(header) < 0) throw new IllegalStateException("file " + file + " is not a matrix file. header is incomplete.");
+			}
+			header.flip();
+			if(header.getInt() != MAGIC) throw new IllegalStateException("file " + file + " is not a matrix file.");
+			int version = header.getInt();
+			if(version != VERSION) throw new IllegalStateException("matrix file version " + version + " is not supported.");
+			int n = header.getInt();
+			byte distancesFlag = header.get();
+			byte timesFlag = header.get();
+			long dataOffset = header.getLong();
+			if(n < 0 || (distancesFlag & ~1) != 0 || (timesFlag & ~1) != 0 || dataOffset < HEADER_SIZE || dataOffset != align(dataOffset) || dataOffset > Integer.MAX_VALUE){
+				throw new IllegalStateException("file " + file + " is not a matrix file. header is corrupt.");
+			}
+			boolean withDistances = distancesFlag == 1;
+			boolean withTimes = timesFlag == 1;
+			long matrixSize = (long)n * n * 8;
+			long expectedLength = dataOffset + (withDistances ? matrixSize : 0) + (withTimes ? matrixSize : 0);
+			if(channel.size() != expectedLength){
+				throw new IllegalStateException("matrix file " + file + " has " + channel.size() + " bytes, but " + expectedLength + " bytes are expected for " + n + " locations. file is truncated or corrupt.");
+			}
+			byte[] idBytes = new byte[(int)(dataOffset - HEADER_SIZE)];
+			randomAccessFile.seek(HEADER_SIZE);
+			randomAccessFile.readFully(idBytes);
+			DataInputStream idIn = new DataInputStream(new ByteArrayInputStream(idBytes));
+			List<String> ids = new ArrayList<String>(n);
+			try{
+				for(int i=0;i<n;i++) ids.add(idIn.readUTF());
+			}
+			catch(EOFException e){
+				throw new IllegalStateException("matrix file " + file + " does not contain " + n + " location ids. file is corrupt.");
+			}
+			locationIds = Collections.unmodifiableList(ids);
+			locationIndices = indexLocations(ids);
+			long offset = dataOffset;
+			if(withDistances){
+				distances = DoubleMatrix.map(channel, MapMode.READ_ONLY, offset, n);
+				offset += matrixSize;
+			}
+			else distances = null;
+			if(withTimes) times = DoubleMatrix.map(channel, MapMode.READ_ONLY, offset, n);
+			else times = null;
+		}
+		finally{
+			//mappings remain valid after closing the channel
+			randomAccessFile.close();
+		}
+		logger.info("initialise " + this);
+	}
+
+	@Override
+	public String toString() {
+		return "[name=mappedTransportCostsMatrix][#locations=" + locationIds.size() + "][distances=" + (distances != null) + "][times=" + (times != null) + "]";
+	}
+
+	/**
+	 * Returns the location ids of this matrix. The index of a location is its position in this list.
+	 *
+	 * @return unmodifiable list of location ids
+	 */
+	public List<String> getLocationIds(){
+		return locationIds;
+	}
+
+	/**
+	 * Returns the index of locationId in this matrix.
+	 *
+	 * @param locationId
+	 * @return index
+	 * @throws IllegalStateException if location is unknown
+	 */
+	public int getIndex(String locationId){
+		return getIndex(locationIndices, locationId);
+	}
+
+	/**
+	 * Returns the distance between the locations with index fromIndex and toIndex.
+	 *
+	 * @param fromIndex
+	 * @param toIndex
+	 * @return distance
+	 */
+	public double getDistance(int fromIndex, int toIndex){
+		if(distances == null) return 0.0;
+		return getValue(distances, fromIndex, toIndex, "distance");
+	}
+
+	/**
+	 * Returns the transport-time between the locations with index fromIndex and toIndex.
+	 *
+	 * @param fromIndex
+	 * @param toIndex
+	 * @return time
+	 */
+	public double getTime(int fromIndex, int toIndex){
+		if(times == null) return 0.0;
+		return getValue(times, fromIndex, toIndex, "time");
+	}
+
+	private double getValue(DoubleMatrix matrix, int fromIndex, int toIndex, String valueName) {
+		double value = matrix.get(fromIndex, toIndex);
+		if(Double.isNaN(value)) throw new IllegalStateException(valueName + " value for relation from index " + fromIndex + " to index " + toIndex + " does not exist");
+		return value;
+	}
+
+	@Override
+	public double getTransportTime(String fromId, String toId, double departureTime, Driver driver, Vehicle vehicle) {
+		if(times == null || fromId.equals(toId)) return 0.0;
+		return getTime(getIndex(fromId), getIndex(toId));
+	}
+
+	@Override
+	public double getTransportCost(String fromId, String toId, double departureTime, Driver driver, Vehicle vehicle) {
+		if(fromId.equals(toId)) return 0.0;
+		int fromIndex = getIndex(fromId);
+		int toIndex = getIndex(toId);
+		if(vehicle == null) return getDistance(fromIndex, toIndex);
+		VehicleCostParams costParams = vehicle.getType().getVehicleCostParams();
+		return costParams.perDistanceUnit*getDistance(fromIndex, toIndex) + costParams.perTimeUnit*getTime(fromIndex, toIndex);
+	}
+
+}
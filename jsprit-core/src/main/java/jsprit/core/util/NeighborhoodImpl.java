@@ -59,21 +59,22 @@ public class NeighborhoodImpl implements Neighborhood{
 	}
 
 	private void makeNeighbors() {
+		SpatialIndex.Builder<Service> indexBuilder = SpatialIndex.Builder.newInstance();
 		for(Service i : services){
-			Set<String> neigh = new HashSet<String>();
-			for(Vehicle v : vehicles){
-				double dist2depot = EuclideanDistanceCalculator.calculateDistance(v.getStartLocationCoordinate(), i.getCoord());
-				if(dist2depot <= threshold){
-					neighborsToAll.add(((Service)i).getLocationId());
-				}
+			indexBuilder.addPoint(i.getCoord(), i);
+		}
+		SpatialIndex<Service> index = indexBuilder.build();
+		for(Vehicle v : vehicles){
+			for(Service i : index.getWithinRadius(v.getStartLocationCoordinate(), threshold)){
+				neighborsToAll.add(i.getLocationId());
 			}
-			for(Service j : services){
-				double crowFlyDistance = EuclideanDistanceCalculator.calculateDistance(i.getCoord(), j.getCoord());
-				if(crowFlyDistance <= threshold) {
-					neigh.add(((Service)j).getLocationId());
-				}
+		}
+		for(Service i : services){
+			Set<String> neigh = new HashSet<String>();
+			for(Service j : index.getWithinRadius(i.getCoord(), threshold)){
+				neigh.add(j.getLocationId());
 			}
-			neighbors.put(((Service)i).getLocationId(), neigh);
+			neighbors.put(i.getLocationId(), neigh);
 		}
 		
 	}
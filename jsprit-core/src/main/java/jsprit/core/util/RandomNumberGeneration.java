@@ -18,22 +18,108 @@ package jsprit.core.util;
 
 import java.util.Random;
 
+/**
+ * Provides random number generators.
+ * 
+ * <p>Each thread has its own {@link RandomStream}, which is split from a master stream when it is used first in that thread, i.e. 
+ * threads get distinct streams (in the order they use them first) rather than the same sequence. Components 
+ * of an algorithm (such as ruin and insertion strategies, selectors, the search-strategy manager) get their own generator split from the 
+ * stream of the thread they are created in (see {@link #newRandom()}). Thus algorithms neither share generators with other algorithms 
+ * nor contend for a common seed, and an algorithm created in a thread whose stream has been seeded in the same way always behaves 
+ * the same, independent of what other threads do.
+ * 
+ * <p>To run algorithms in parallel reproducibly, split one stream per task in a deterministic order and assign it to the worker 
+ * thread before the algorithm is created (see {@link #setRandomStream(RandomStream)}).
+ * 
+ * @author schroeder
+ *
+ */
 public class RandomNumberGeneration {
 
 	private static long DEFAULT_SEED = 4711L;
 
 	private static Random random = new Random(DEFAULT_SEED);
+	
+	private static final Object masterLock = new Object();
+	
+	/*
+	 * streams of threads are split from this stream. guarded by masterLock.
+	 */
+	private static RandomStream masterStream = new RandomStream(DEFAULT_SEED);
+	
+	private static ThreadLocal<RandomStream> streams = new ThreadLocal<RandomStream>(){
+		
+		@Override
+		protected RandomStream initialValue() {
+			synchronized(masterLock){
+				return masterStream.split();
+			}
+		}
+		
+	};
 
+	/**
+	 * Returns the random object that is shared by all threads.
+	 * 
+	 * <p>Prefer {@link #newRandom()} to get a generator of your own.
+	 * 
+	 * @return shared random
+	 */
 	public static Random getRandom() {
 		return random;
 	}
+	
+	/**
+	 * Returns a new generator that is split from the stream of the calling thread. 
+	 * 
+	 * <p>The generator is not thread-safe, i.e. it should be used by one thread at a time only.
+	 * 
+	 * @return new random
+	 */
+	public static Random newRandom(){
+		return streams.get().split();
+	}
+	
+	/**
+	 * Returns the stream of the calling thread.
+	 * 
+	 * @return stream
+	 */
+	public static RandomStream getRandomStream(){
+		return streams.get();
+	}
+	
+	/**
+	 * Sets the stream of the calling thread, e.g. a stream split from a master stream for a worker thread.
+	 * 
+	 * @param stream
+	 */
+	public static void setRandomStream(RandomStream stream){
+		if(stream == null) throw new IllegalStateException("stream is null");
+		streams.set(stream);
+	}
 
+	/**
+	 * Reseeds the master stream and the shared random object, and assigns the first stream split from the reseeded master stream to 
+	 * the calling thread. Streams of other threads that already exist are not affected.
+	 * 
+	 * @param seed
+	 */
 	public static void setSeed(long seed) {
+		RandomStream stream;
+		synchronized(masterLock){
+			masterStream = new RandomStream(seed);
+			stream = masterStream.split();
+		}
 		random.setSeed(seed);
+		streams.set(stream);
 	}
 
+	/**
+	 * Resets the master seed to its default (see {@link #setSeed(long)}).
+	 */
 	public static void reset() {
-		random.setSeed(DEFAULT_SEED);
+		setSeed(DEFAULT_SEED);
 	}
 
 }
@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * Copyright (C) 2013  Stefan Schroeder
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either 
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public 
+ * License along with this library.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jsprit.core.util;
+
+import java.util.Random;
+
+/**
+ * Splittable random number generator based on SplitMix64.
+ * 
+ * <p>In contrast to {@link Random}, it does not update its seed atomically, i.e. it does not suffer from contention 
+ * but it must not be shared between threads. Instead, each thread (or component) gets its own stream by splitting an existing 
+ * one (see {@link #split()}). Splitting is deterministic, thus streams derived from a stream with a fixed seed always produce 
+ * the same numbers.
+ * 
+ * @author schroeder
+ *
+ */
+public class RandomStream extends Random {
+
+	private static final long serialVersionUID = 1L;
+	
+	private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+	
+	private static final double DOUBLE_UNIT = 1.0 / (1L << 53);
+	
+	private static long mix64(long z) {
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+	
+	private long state;
+	
+	/**
+	 * Constructs a stream with the specified seed.
+	 * 
+	 * @param seed
+	 */
+	public RandomStream(long seed) {
+		super(seed);
+	}
+	
+	/**
+	 * Returns a new stream that is statistically independent of this stream. This advances this stream by one value.
+	 * 
+	 * @return new stream
+	 */
+	public RandomStream split(){
+		return new RandomStream(mix64(nextLong()));
+	}
+	
+	@Override
+	public synchronized void setSeed(long seed) {
+		super.setSeed(seed);
+		state = seed;
+	}
+	
+	@Override
+	protected int next(int bits) {
+		return (int) (nextLong() >>> (64 - bits));
+	}
+	
+	@Override
+	public long nextLong() {
+		state += GOLDEN_GAMMA;
+		return mix64(state);
+	}
+	
+	@Override
+	public int nextInt() {
+		return (int) (nextLong() >>> 32);
+	}
+	
+	@Override
+	public double nextDouble() {
+		return (nextLong() >>> 11) * DOUBLE_UNIT;
+	}
+
+}
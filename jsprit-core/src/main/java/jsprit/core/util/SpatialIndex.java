@@ -0,0 +1,380 @@
+/*******************************************************************************
+ * Copyright (C) 2013  Stefan Schroeder
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either 
+ * version 3.0 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public 
+ * License along with this library.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jsprit.core.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Static 2-d tree over coordinates that supports k-nearest-neighbor and radius queries with either Euclidean or Manhattan distance.
+ * 
+ * <p>Building the tree costs O(n log n), a query costs about O(log n + k) for well-distributed points. Items that are equally distant 
+ * to the query coordinate are returned in the order they have been added, thus results are deterministic.
+ * 
+ * <p>The index is immutable once built, queries are thread-safe.
+ * 
+ * @author schroeder
+ *
+ * @param <T> type of items stored with their coordinates
+ */
+public class SpatialIndex<T> {
+	
+	/**
+	 * Distance metric used to compare coordinates.
+	 * 
+	 * @author schroeder
+	 *
+	 */
+	public static enum Metric {
+		
+		EUCLIDEAN {
+			@Override
+			double distance(double x1, double y1, double x2, double y2) {
+				double xDiff = x1 - x2;
+				double yDiff = y1 - y2;
+				return Math.sqrt(xDiff * xDiff + yDiff * yDiff);
+			}
+		}, 
+		
+		MANHATTAN {
+			@Override
+			double distance(double x1, double y1, double x2, double y2) {
+				return Math.abs(x1 - x2) + Math.abs(y1 - y2);
+			}
+		};
+		
+		abstract double distance(double x1, double y1, double x2, double y2);
+		
+	}
+	
+	/**
+	 * Builder that builds the spatial index.
+	 * 
+	 * @author schroeder
+	 *
+	 * @param <T>
+	 */
+	public static class Builder<T> {
+		
+		/**
+		 * Returns a new builder.
+		 * 
+		 * @return builder
+		 */
+		public static <T> Builder<T> newInstance(){
+			return new Builder<T>();
+		}
+		
+		private Metric metric = Metric.EUCLIDEAN;
+		
+		private List<Coordinate> coordinates = new ArrayList<Coordinate>();
+		
+		private List<T> items = new ArrayList<T>();
+		
+		private Builder(){
+			
+		}
+		
+		/**
+		 * Sets the distance metric. Default is {@link Metric#EUCLIDEAN}.
+		 * 
+		 * @param metric
+		 * @return builder
+		 */
+		public Builder<T> setMetric(Metric metric){
+			this.metric = metric;
+			return this;
+		}
+		
+		/**
+		 * Adds item located at coordinate.
+		 * 
+		 * @param coordinate
+		 * @param item
+		 * @return builder
+		 * @throws IllegalStateException if coordinate is null
+		 */
+		public Builder<T> addPoint(Coordinate coordinate, T item){
+			if(coordinate == null) throw new IllegalStateException("coordinate of " + item + " is missing");
+			coordinates.add(coordinate);
+			items.add(item);
+			return this;
+		}
+		
+		/**
+		 * Builds the index.
+		 * 
+		 * @return spatial index
+		 */
+		public SpatialIndex<T> build(){
+			return new SpatialIndex<T>(this);
+		}
+		
+	}
+	
+	/**
+	 * Collects the k nearest points found so far in a max-heap, i.e. the farthest of them is at index 0.
+	 */
+	private static class NearestPoints {
+		
+		private final int[] points;
+		
+		private final double[] distances;
+		
+		private int size = 0;
+		
+		NearestPoints(int k){
+			points = new int[k];
+			distances = new double[k];
+		}
+		
+		boolean isFull(){
+			return size == points.length;
+		}
+		
+		double getMaxDistance(){
+			return distances[0];
+		}
+		
+		void offer(int point, double distance){
+			if(!isFull()){
+				points[size] = point;
+				distances[size] = distance;
+				int k = size++;
+				while(k > 0){
+					int parent = (k - 1) / 2;
+					if(!isCloser(distances[parent], points[parent], distances[k], points[k])) break;
+					swap(parent, k);
+					k = parent;
+				}
+			}
+			else if(isCloser(distance, point, distances[0], points[0])){
+				points[0] = point;
+				distances[0] = distance;
+				siftDown(size);
+			}
+		}
+		
+		int[] toSortedArray(){
+			int[] sorted = new int[size];
+			for(int k=size-1;k>=0;k--){
+				sorted[k] = points[0];
+				swap(0, k);
+				siftDown(k);
+			}
+			return sorted;
+		}
+
+		private void siftDown(int heapSize) {
+			int k = 0;
+			while(true){
+				int farthest = k;
+				int left = 2 * k + 1;
+				int right = left + 1;
+				if(left < heapSize && isCloser(distances[farthest], points[farthest], distances[left], points[left])) farthest = left;
+				if(right < heapSize && isCloser(distances[farthest], points[farthest], distances[right], points[right])) farthest = right;
+				if(farthest == k) return;
+				swap(k, farthest);
+				k = farthest;
+			}
+		}
+		
+		private static boolean isCloser(double distance, int point, double otherDistance, int otherPoint){
+			if(distance < otherDistance) return true;
+			if(distance > otherDistance) return false;
+			return point < otherPoint;
+		}
+		
+		private void swap(int a, int b){
+			int p = points[a];
+			points[a] = points[b];
+			points[b] = p;
+			double d = distances[a];
+			distances[a] = distances[b];
+			distances[b] = d;
+		}
+		
+	}
+	
+	private final Metric metric;
+	
+	private final double[] xs;
+	
+	private final double[] ys;
+	
+	private final List<T> items;
+	
+	/*
+	 * implicit tree: the node of range [lo,hi) is tree[(lo+hi)/2], its children are the ranges [lo,mid) and [mid+1,hi). 
+	 * splitting axis alternates with depth, x at even depth. 
+	 */
+	private final int[] tree;
+	
+	private SpatialIndex(Builder<T> builder){
+		this.metric = builder.metric;
+		this.items = new ArrayList<T>(builder.items);
+		int n = items.size();
+		xs = new double[n];
+		ys = new double[n];
+		tree = new int[n];
+		for(int i=0;i<n;i++){
+			xs[i] = builder.coordinates.get(i).getX();
+			ys[i] = builder.coordinates.get(i).getY();
+			tree[i] = i;
+		}
+		build(0, n, 0);
+	}
+
+	private void build(int lo, int hi, int depth) {
+		if(hi - lo < 2) return;
+		int mid = (lo + hi) >>> 1;
+		select(lo, hi - 1, mid, depth % 2 == 0 ? xs : ys);
+		build(lo, mid, depth + 1);
+		build(mid + 1, hi, depth + 1);
+	}
+
+	/*
+	 * quickselect, i.e. afterwards tree[k] is the point with the k-th smallest coordinate in tree[left..right]
+	 */
+	private void select(int left, int right, int k, double[] values) {
+		while(right > left){
+			int pivotIndex = partition(left, right, (left + right) >>> 1, values);
+			if(pivotIndex == k) return;
+			else if(k < pivotIndex) right = pivotIndex - 1;
+			else left = pivotIndex + 1;
+		}
+	}
+
+	private int partition(int left, int right, int pivotIndex, double[] values) {
+		int pivot = tree[pivotIndex];
+		swap(pivotIndex, right);
+		int store = left;
+		for(int i=left;i<right;i++){
+			if(compare(tree[i], pivot, values) < 0){
+				swap(store, i);
+				store++;
+			}
+		}
+		swap(right, store);
+		return store;
+	}
+	
+	private int compare(int point1, int point2, double[] values){
+		if(values[point1] < values[point2]) return -1;
+		if(values[point1] > values[point2]) return 1;
+		return point1 < point2 ? -1 : (point1 == point2 ? 0 : 1);
+	}
+
+	private void swap(int i, int j) {
+		int tmp = tree[i];
+		tree[i] = tree[j];
+		tree[j] = tmp;
+	}
+	
+	/**
+	 * Returns the number of items in this index.
+	 * 
+	 * @return size
+	 */
+	public int size(){
+		return items.size();
+	}
+	
+	/**
+	 * Returns the metric of this index.
+	 * 
+	 * @return metric
+	 */
+	public Metric getMetric(){
+		return metric;
+	}
+	
+	/**
+	 * Returns the k items nearest to coordinate sorted by ascending distance. If the index contains less than k items, all items are returned.
+	 * 
+	 * @param coordinate
+	 * @param k
+	 * @return nearest items
+	 */
+	public List<T> getNearest(Coordinate coordinate, int k){
+		if(k <= 0 || items.isEmpty()) return new ArrayList<T>(0);
+		NearestPoints nearest = new NearestPoints(Math.min(k, items.size()));
+		searchNearest(coordinate.getX(), coordinate.getY(), 0, items.size(), 0, nearest);
+		int[] points = nearest.toSortedArray();
+		List<T> result = new ArrayList<T>(points.length);
+		for(int p : points){
+			result.add(items.get(p));
+		}
+		return result;
+	}
+
+	private void searchNearest(double x, double y, int lo, int hi, int depth, NearestPoints nearest) {
+		if(lo >= hi) return;
+		int mid = (lo + hi) >>> 1;
+		int point = tree[mid];
+		nearest.offer(point, metric.distance(x, y, xs[point], ys[point]));
+		double diff = depth % 2 == 0 ? x - xs[point] : y - ys[point];
+		if(diff < 0){
+			searchNearest(x, y, lo, mid, depth + 1, nearest);
+			if(!nearest.isFull() || -diff <= nearest.getMaxDistance()) searchNearest(x, y, mid + 1, hi, depth + 1, nearest);
+		}
+		else{
+			searchNearest(x, y, mid + 1, hi, depth + 1, nearest);
+			if(!nearest.isFull() || diff <= nearest.getMaxDistance()) searchNearest(x, y, lo, mid, depth + 1, nearest);
+		}
+	}
+	
+	/**
+	 * Returns all items whose distance to coordinate is less than or equal to radius, in the order they have been added.
+	 * 
+	 * @param coordinate
+	 * @param radius
+	 * @return items within radius
+	 */
+	public List<T> getWithinRadius(Coordinate coordinate, double radius){
+		int[] found = new int[16];
+		int[] size = new int[1];
+		found = searchRadius(coordinate.getX(), coordinate.getY(), radius, 0, items.size(), 0, found, size);
+		Arrays.sort(found, 0, size[0]);
+		List<T> result = new ArrayList<T>(size[0]);
+		for(int i=0;i<size[0];i++){
+			result.add(items.get(found[i]));
+		}
+		return result;
+	}
+
+	private int[] searchRadius(double x, double y, double radius, int lo, int hi, int depth, int[] found, int[] size) {
+		if(lo >= hi) return found;
+		int mid = (lo + hi) >>> 1;
+		int point = tree[mid];
+		if(metric.distance(x, y, xs[point], ys[point]) <= radius){
+			if(size[0] == found.length) found = Arrays.copyOf(found, found.length * 2);
+			found[size[0]++] = point;
+		}
+		double diff = depth % 2 == 0 ? x - xs[point] : y - ys[point];
+		if(diff <= radius) found = searchRadius(x, y, radius, lo, mid, depth + 1, found, size);
+		if(-diff <= radius) found = searchRadius(x, y, radius, mid + 1, hi, depth + 1, found, size);
+		return found;
+	}
+	
+	@Override
+	public String toString() {
+		return "[name=spatialIndex][metric=" + metric + "][size=" + items.size() + "]";
+	}
+
+}
@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * Copyright (C) 2013  Stefan Schroeder
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jsprit.core.algorithm;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import jsprit.core.algorithm.listener.IterationStartsListener;
+import jsprit.core.problem.VehicleRoutingProblem;
+import jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import jsprit.core.problem.solution.route.VehicleRoute;
+import jsprit.core.util.RandomNumberGeneration;
+import jsprit.core.util.RandomStream;
+
+import org.junit.Test;
+
+public class IslandModelAlgorithmTest {
+
+	private static class CountIterations implements IterationStartsListener {
+
+		private int countIterations = 0;
+
+		@Override
+		public void informIterationStarts(int i, VehicleRoutingProblem problem,Collection<VehicleRoutingProblemSolution> solutions) {
+			countIterations++;
+		}
+
+	}
+
+	private VehicleRoutingProblemSolution solution(double cost){
+		return new VehicleRoutingProblemSolution(new ArrayList<VehicleRoute>(), cost);
+	}
+
+	@Test
+	public void whenRunningIslands_eachIslandRunsItsIterations(){
+		VehicleRoutingAlgorithmFactory factory = new VehicleRoutingAlgorithmFactory() {
+
+			@Override
+			public VehicleRoutingAlgorithm createAlgorithm(VehicleRoutingProblem vrp) {
+				SearchStrategyManager stratManager = mock(SearchStrategyManager.class);
+				when(stratManager.getRandomStrategy()).thenReturn(mock(SearchStrategy.class));
+				when(stratManager.getProbabilities()).thenReturn(Arrays.asList(1.0));
+				return new VehicleRoutingAlgorithm(vrp, stratManager);
+			}
+
+		};
+		IslandModelAlgorithm algorithm = IslandModelAlgorithm.Builder.newInstance(mock(VehicleRoutingProblem.class), factory)
+				.setNuOfIslands(3).setMigrationInterval(10).build();
+		algorithm.setNuOfIterations(100);
+		List<CountIterations> counters = new ArrayList<CountIterations>();
+		for(VehicleRoutingAlgorithm island : algorithm.getIslands()){
+			CountIterations counter = new CountIterations();
+			island.addListener(counter);
+			counters.add(counter);
+		}
+		algorithm.searchSolutions();
+		assertEquals(3,counters.size());
+		for(CountIterations counter : counters){
+			assertEquals(100,counter.countIterations);
+		}
+	}
+
+	private List<Long> buildIslandsAndDrawRandomNumbers(long seed){
+		final List<Long> randomNumbers = new ArrayList<Long>();
+		VehicleRoutingAlgorithmFactory factory = new VehicleRoutingAlgorithmFactory() {
+
+			@Override
+			public VehicleRoutingAlgorithm createAlgorithm(VehicleRoutingProblem vrp) {
+				randomNumbers.add(RandomNumberGeneration.newRandom().nextLong());
+				return new VehicleRoutingAlgorithm(vrp, new SearchStrategyManager());
+			}
+
+		};
+		IslandModelAlgorithm.Builder.newInstance(mock(VehicleRoutingProblem.class), factory).setNuOfIslands(3).setRandom(new Random(seed)).build();
+		return randomNumbers;
+	}
+
+	@Test
+	public void whenBuildingIslandsWithSameSeed_componentsOfEachIslandShouldGetOwnReproducibleRandomNumbers(){
+		RandomStream threadStream = RandomNumberGeneration.getRandomStream();
+		List<Long> randomNumbers = buildIslandsAndDrawRandomNumbers(42L);
+		assertSame(threadStream,RandomNumberGeneration.getRandomStream());
+		assertEquals(3,new HashSet<Long>(randomNumbers).size());
+		assertEquals(randomNumbers,buildIslandsAndDrawRandomNumbers(42L));
+	}
+
+	@Test
+	public void whenMigrating_bestSolutionIsPostedToMailbox(){
+		AtomicReferenceArray<VehicleRoutingProblemSolution> mailbox = new AtomicReferenceArray<VehicleRoutingProblemSolution>(2);
+		AtomicReference<VehicleRoutingProblemSolution> globalBest = new AtomicReference<VehicleRoutingProblemSolution>();
+		IslandModelAlgorithm.Migration migration = new IslandModelAlgorithm.Migration(0, 1, mailbox, globalBest);
+		VehicleRoutingProblemSolution best = solution(10.);
+		migration.informIterationEnds(1, mock(VehicleRoutingProblem.class), new ArrayList<VehicleRoutingProblemSolution>(Arrays.asList(solution(20.),best)));
+		assertEquals(10.,mailbox.get(0).getCost(),0.01);
+		assertNotSame(best,mailbox.get(0));
+		assertEquals(10.,globalBest.get().getCost(),0.01);
+	}
+
+	@Test
+	public void whenNeighborPostedBetterSolution_itReplacesWorstSolution(){
+		AtomicReferenceArray<VehicleRoutingProblemSolution> mailbox = new AtomicReferenceArray<VehicleRoutingProblemSolution>(2);
+		mailbox.set(0, solution(5.));
+		AtomicReference<VehicleRoutingProblemSolution> globalBest = new AtomicReference<VehicleRoutingProblemSolution>();
+		IslandModelAlgorithm.Migration migration = new IslandModelAlgorithm.Migration(1, 1, mailbox, globalBest);
+		List<VehicleRoutingProblemSolution> solutions = new ArrayList<VehicleRoutingProblemSolution>(Arrays.asList(solution(20.),solution(10.)));
+		migration.informIterationEnds(1, mock(VehicleRoutingProblem.class), solutions);
+		assertEquals(2,solutions.size());
+		assertEquals(1,migration.getNuOfImports());
+		double sum = 0.;
+		for(VehicleRoutingProblemSolution s : solutions) sum += s.getCost();
+		assertEquals(15.,sum,0.01);
+	}
+
+	@Test
+	public void whenNeighborPostedWorseSolution_nothingIsImported(){
+		AtomicReferenceArray<VehicleRoutingProblemSolution> mailbox = new AtomicReferenceArray<VehicleRoutingProblemSolution>(2);
+		mailbox.set(0, solution(30.));
+		IslandModelAlgorithm.Migration migration = new IslandModelAlgorithm.Migration(1, 1, mailbox, new AtomicReference<VehicleRoutingProblemSolution>());
+		List<VehicleRoutingProblemSolution> solutions = new ArrayList<VehicleRoutingProblemSolution>(Arrays.asList(solution(20.),solution(10.)));
+		migration.informIterationEnds(1, mock(VehicleRoutingProblem.class), solutions);
+		assertEquals(0,migration.getNuOfImports());
+		assertTrue(mailbox.get(1).getCost() == 10.);
+	}
+
+	@Test
+	public void whenNotMigrationIteration_nothingIsPosted(){
+		AtomicReferenceArray<VehicleRoutingProblemSolution> mailbox = new AtomicReferenceArray<VehicleRoutingProblemSolution>(2);
+		IslandModelAlgorithm.Migration migration = new IslandModelAlgorithm.Migration(0, 10, mailbox, new AtomicReference<VehicleRoutingProblemSolution>());
+		migration.informIterationEnds(9, mock(VehicleRoutingProblem.class), new ArrayList<VehicleRoutingProblemSolution>(Arrays.asList(solution(20.))));
+		assertTrue(mailbox.get(0) == null);
+	}
+
+}
@@ -0,0 +1,172 @@
+package jsprit.core.algorithm;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jsprit.core.algorithm.SearchStrategy.DiscoveredSolution;
+import jsprit.core.algorithm.acceptor.GreedyAcceptance;
+import jsprit.core.algorithm.listener.SearchStrategyModuleListener;
+import jsprit.core.algorithm.selector.SelectBest;
+import jsprit.core.problem.VehicleRoutingProblem;
+import jsprit.core.problem.solution.SolutionCostCalculator;
+import jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import jsprit.core.problem.solution.route.VehicleRoute;
+import jsprit.core.util.RandomNumberGeneration;
+
+import org.junit.Test;
+
+public class MultiStartAlgorithmTest {
+
+	private static class RecordSeeds implements VehicleRoutingAlgorithmFactory {
+
+		private List<Long> seeds = new ArrayList<Long>();
+
+		@Override
+		public VehicleRoutingAlgorithm createAlgorithm(VehicleRoutingProblem vrp) {
+			seeds.add(RandomNumberGeneration.newRandom().nextLong());
+			return new VehicleRoutingAlgorithm(vrp, new SearchStrategyManager());
+		}
+
+	}
+
+	/*
+	 * the first run fails in its first iteration, the other runs sleep in each of their iterations
+	 */
+	private static class FirstRunFails implements VehicleRoutingAlgorithmFactory {
+
+		private AtomicInteger nuOfRunningIterations = new AtomicInteger(0);
+
+		private int nuOfRuns = 0;
+
+		@Override
+		public VehicleRoutingAlgorithm createAlgorithm(VehicleRoutingProblem vrp) {
+			final boolean fails = nuOfRuns++ == 0;
+			SearchStrategy strategy = new SearchStrategy(new SelectBest(), new GreedyAcceptance(1), new SolutionCostCalculator() {
+
+				@Override
+				public double getCosts(VehicleRoutingProblemSolution solution) {
+					return 0.;
+				}
+
+			});
+			strategy.addModule(new SearchStrategyModule() {
+
+				@Override
+				public VehicleRoutingProblemSolution runAndGetSolution(VehicleRoutingProblemSolution vrpSolution) {
+					nuOfRunningIterations.incrementAndGet();
+					try{
+						if(fails) throw new IllegalStateException("iteration failed");
+						Thread.sleep(5);
+						return vrpSolution;
+					}
+					catch(InterruptedException e){
+						throw new IllegalStateException(e);
+					}
+					finally{
+						nuOfRunningIterations.decrementAndGet();
+					}
+				}
+
+				@Override
+				public String getName() {
+					return "sleep";
+				}
+
+				@Override
+				public void addModuleListener(SearchStrategyModuleListener moduleListener) {
+
+				}
+
+			});
+			SearchStrategyManager manager = new SearchStrategyManager();
+			manager.addStrategy(strategy, 1.);
+			VehicleRoutingAlgorithm algorithm = new VehicleRoutingAlgorithm(vrp, manager);
+			algorithm.addInitialSolution(new VehicleRoutingProblemSolution(new ArrayList<VehicleRoute>(), 0.));
+			algorithm.setNuOfIterations(10000);
+			return algorithm;
+		}
+
+	}
+
+	private DiscoveredSolution discovered(double cost, boolean accepted){
+		return new DiscoveredSolution(new VehicleRoutingProblemSolution(new ArrayList<VehicleRoute>(), cost), accepted, "strategy");
+	}
+
+	@Test
+	public void whenBuildingWithSameSeed_runsAreCreatedWithSameRandomStreams(){
+		RecordSeeds factory1 = new RecordSeeds();
+		MultiStartAlgorithm.Builder.newInstance(mock(VehicleRoutingProblem.class), factory1).setNuOfRuns(3).setSeed(42).build();
+		RecordSeeds factory2 = new RecordSeeds();
+		MultiStartAlgorithm.Builder.newInstance(mock(VehicleRoutingProblem.class), factory2).setNuOfRuns(3).setSeed(42).build();
+		assertEquals(3,factory1.seeds.size());
+		assertEquals(factory1.seeds,factory2.seeds);
+		assertTrue(factory1.seeds.get(0).longValue() != factory1.seeds.get(1).longValue());
+	}
+
+	@Test
+	public void whenBuilding_streamOfCurrentThreadIsRestored(){
+		RandomNumberGeneration.setSeed(7);
+		long expected = RandomNumberGeneration.getRandomStream().split().nextLong();
+		RandomNumberGeneration.setSeed(7);
+		MultiStartAlgorithm.Builder.newInstance(mock(VehicleRoutingProblem.class), new RecordSeeds()).setNuOfRuns(2).setSeed(42).build();
+		assertEquals(expected,RandomNumberGeneration.getRandomStream().split().nextLong());
+		RandomNumberGeneration.reset();
+	}
+
+	@Test
+	public void whenAddingSeveralFactories_theyAreUsedInTurn(){
+		RecordSeeds factory1 = new RecordSeeds();
+		RecordSeeds factory2 = new RecordSeeds();
+		MultiStartAlgorithm algorithm = MultiStartAlgorithm.Builder.newInstance(mock(VehicleRoutingProblem.class), factory1)
+				.addAlgorithmFactory(factory2).setNuOfRuns(5).build();
+		assertEquals(5,algorithm.getRuns().size());
+		assertEquals(3,factory1.seeds.size());
+		assertEquals(2,factory2.seeds.size());
+	}
+
+	@Test
+	public void whenAcceptedSolutionReachesTarget_runTerminatesAndTargetIsReached(){
+		AtomicBoolean targetReached = new AtomicBoolean(false);
+		MultiStartAlgorithm.TargetCostTermination termination = new MultiStartAlgorithm.TargetCostTermination(100., targetReached);
+		assertFalse(termination.isPrematureBreak(discovered(120., true)));
+		assertFalse(termination.isPrematureBreak(discovered(90., false)));
+		assertFalse(targetReached.get());
+		assertTrue(termination.isPrematureBreak(discovered(100., true)));
+		assertTrue(targetReached.get());
+	}
+
+	@Test
+	public void whenOtherRunReachedTarget_runTerminates(){
+		AtomicBoolean targetReached = new AtomicBoolean(true);
+		MultiStartAlgorithm.TargetCostTermination termination = new MultiStartAlgorithm.TargetCostTermination(100., targetReached);
+		assertTrue(termination.isPrematureBreak(discovered(500., false)));
+	}
+
+	@Test(expected=IllegalStateException.class)
+	public void whenSettingZeroRuns_itShouldThrowException(){
+		MultiStartAlgorithm.Builder.newInstance(mock(VehicleRoutingProblem.class), new RecordSeeds()).setNuOfRuns(0);
+	}
+
+	@Test
+	public void whenOneRunFails_otherRunsShouldHaveEndedWhenExceptionIsThrown(){
+		FirstRunFails factory = new FirstRunFails();
+		MultiStartAlgorithm algorithm = MultiStartAlgorithm.Builder.newInstance(mock(VehicleRoutingProblem.class), factory).setNuOfRuns(3).setSeed(42).build();
+		try{
+			algorithm.searchSolutions();
+			fail("first run fails");
+		}
+		catch(IllegalStateException e){
+			assertEquals("iteration failed",e.getCause().getMessage());
+			assertEquals(0,factory.nuOfRunningIterations.get());
+		}
+	}
+
+}
@@ -0,0 +1,191 @@
+package jsprit.core.algorithm;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import jsprit.core.algorithm.acceptor.GreedyAcceptance;
+import jsprit.core.algorithm.listener.AlgorithmStartsListener;
+import jsprit.core.algorithm.module.RuinAndRecreateModule;
+import jsprit.core.algorithm.recreate.BestInsertionBuilder;
+import jsprit.core.algorithm.recreate.InsertionStrategy;
+import jsprit.core.algorithm.ruin.RadialRuinStrategyFactory;
+import jsprit.core.algorithm.selector.SelectBest;
+import jsprit.core.algorithm.state.StateManager;
+import jsprit.core.algorithm.state.UpdateVariableCosts;
+import jsprit.core.problem.JobDelta;
+import jsprit.core.problem.VehicleRoutingProblem;
+import jsprit.core.problem.constraint.ConstraintManager;
+import jsprit.core.problem.job.Job;
+import jsprit.core.problem.job.Service;
+import jsprit.core.problem.solution.SolutionCostCalculator;
+import jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import jsprit.core.problem.solution.route.VehicleRoute;
+import jsprit.core.problem.solution.route.state.StateFactory;
+import jsprit.core.problem.vehicle.InfiniteFleetManagerFactory;
+import jsprit.core.problem.vehicle.VehicleFleetManager;
+import jsprit.core.problem.vehicle.VehicleImpl;
+import jsprit.core.problem.vehicle.VehicleTypeImpl;
+import jsprit.core.util.Coordinate;
+import jsprit.core.util.Solutions;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class ReOptimizerTest {
+
+	/*
+	 * like an algorithm read from xml, it completes initial solutions or constructs one from scratch.
+	 */
+	private static class AlgorithmFactory implements VehicleRoutingAlgorithmFactory {
+
+		private int nuOfInsertedJobs;
+
+		@Override
+		public VehicleRoutingAlgorithm createAlgorithm(final VehicleRoutingProblem vrp) {
+			final StateManager stateManager = new StateManager(vrp.getTransportCosts());
+			stateManager.updateLoadStates();
+			stateManager.addStateUpdater(new UpdateVariableCosts(vrp.getActivityCosts(), vrp.getTransportCosts(), stateManager));
+			ConstraintManager constraintManager = new ConstraintManager(vrp, stateManager);
+			constraintManager.addLoadConstraint();
+			VehicleFleetManager fleetManager = new InfiniteFleetManagerFactory(vrp.getVehicles()).createFleetManager();
+			InsertionStrategy bestInsertion = new BestInsertionBuilder(vrp, fleetManager, stateManager, constraintManager).build();
+			SolutionCostCalculator costCalculator = new SolutionCostCalculator() {
+
+				@Override
+				public double getCosts(VehicleRoutingProblemSolution solution) {
+					double costs = 0.0;
+					for(VehicleRoute route : solution.getRoutes()){
+						costs += stateManager.getRouteState(route, StateFactory.COSTS, Double.class);
+					}
+					return costs;
+				}
+
+			};
+			SearchStrategy radialStrategy = new SearchStrategy(new SelectBest(), new GreedyAcceptance(1), costCalculator);
+			radialStrategy.addModule(new RuinAndRecreateModule("radialRuin_bestInsertion", bestInsertion, new RadialRuinStrategyFactory(0.3).createStrategy(vrp)));
+			SearchStrategyManager strategyManager = new SearchStrategyManager();
+			strategyManager.addStrategy(radialStrategy, 1.0);
+			VehicleRoutingAlgorithm algorithm = new VehicleRoutingAlgorithm(vrp, strategyManager);
+			algorithm.addListener(stateManager);
+			algorithm.addListener(new RemoveEmptyVehicles(fleetManager));
+			final InsertionInitialSolutionFactory initialSolutionFactory = new InsertionInitialSolutionFactory(bestInsertion, costCalculator);
+			initialSolutionFactory.setVehicleFleetManager(fleetManager);
+			algorithm.addListener(new AlgorithmStartsListener() {
+
+				@Override
+				public void informAlgorithmStarts(VehicleRoutingProblem problem, VehicleRoutingAlgorithm algorithm, Collection<VehicleRoutingProblemSolution> solutions) {
+					if(solutions.isEmpty()){
+						solutions.add(initialSolutionFactory.createSolution(vrp));
+						nuOfInsertedJobs += vrp.getJobs().size();
+						return;
+					}
+					List<VehicleRoutingProblemSolution> completed = new ArrayList<VehicleRoutingProblemSolution>();
+					for(VehicleRoutingProblemSolution solution : solutions){
+						int nuOfServedJobs = countServedJobs(vrp, solution);
+						completed.add(initialSolutionFactory.completeSolution(vrp, solution));
+						nuOfInsertedJobs += vrp.getJobs().size() - nuOfServedJobs;
+					}
+					solutions.clear();
+					solutions.addAll(completed);
+				}
+
+			});
+			return algorithm;
+		}
+
+	}
+
+	private static int countServedJobs(VehicleRoutingProblem vrp, VehicleRoutingProblemSolution solution){
+		int served = 0;
+		for(VehicleRoute route : solution.getRoutes()){
+			for(Job job : route.getTourActivities().getJobs()){
+				if(vrp.getJobs().get(job.getId()) == job) served++;
+			}
+		}
+		return served;
+	}
+
+	private VehicleRoutingProblem vrp;
+
+	private VehicleRoutingProblemSolution solution;
+
+	private AlgorithmFactory factory;
+
+	private Random random = new Random(4711);
+
+	private Service service(String id){
+		return Service.Builder.newInstance(id).addSizeDimension(0, 1).setCoord(Coordinate.newInstance(random.nextInt(100), random.nextInt(100))).build();
+	}
+
+	@Before
+	public void doBefore(){
+		VehicleRoutingProblem.Builder builder = VehicleRoutingProblem.Builder.newInstance();
+		for(int i=0;i<30;i++){
+			builder.addJob(service("s" + i));
+		}
+		VehicleTypeImpl type = VehicleTypeImpl.Builder.newInstance("type").addCapacityDimension(0, 10).build();
+		builder.addVehicle(VehicleImpl.Builder.newInstance("v").setType(type).setStartLocationCoordinate(Coordinate.newInstance(50, 50)).build());
+		vrp = builder.build();
+		factory = new AlgorithmFactory();
+		VehicleRoutingAlgorithm algorithm = factory.createAlgorithm(vrp);
+		algorithm.setNuOfIterations(50);
+		solution = Solutions.bestOf(algorithm.searchSolutions());
+		factory.nuOfInsertedJobs = 0;
+	}
+
+	private Map<Job,Integer> countJobs(VehicleRoutingProblemSolution solution){
+		Map<Job,Integer> counts = new IdentityHashMap<Job, Integer>();
+		for(VehicleRoute route : solution.getRoutes()){
+			for(Job job : route.getTourActivities().getJobs()){
+				Integer count = counts.get(job);
+				counts.put(job, count == null ? 1 : count + 1);
+			}
+		}
+		return counts;
+	}
+
+	@Test
+	public void whenJobsChange_solutionServesEachJobOfChangedProblemOnce(){
+		ReOptimizer reOptimizer = ReOptimizer.Builder.newInstance(vrp, solution, factory).setNuOfIterations(20).build();
+		Service changed = service("s3");
+		JobDelta delta = JobDelta.Builder.newInstance().addJob(service("new1")).addJob(service("new2")).removeJob("s5").changeJob(changed).build();
+		VehicleRoutingProblemSolution reOptimized = reOptimizer.reOptimize(delta);
+		VehicleRoutingProblem changedVrp = reOptimizer.getProblem();
+		assertSame(reOptimized,reOptimizer.getSolution());
+		assertEquals(31,changedVrp.getJobs().size());
+		Map<Job,Integer> counts = countJobs(reOptimized);
+		assertEquals(31,counts.size());
+		for(Job job : changedVrp.getJobs().values()){
+			assertEquals(Integer.valueOf(1),counts.get(job));
+		}
+		assertTrue(counts.containsKey(changed));
+		assertFalse(changedVrp.getJobs().containsKey("s5"));
+	}
+
+	@Test
+	public void whenJobsChange_onlyNewAndChangedJobsAreInserted(){
+		ReOptimizer reOptimizer = ReOptimizer.Builder.newInstance(vrp, solution, factory).setNuOfIterations(0).build();
+		JobDelta delta = JobDelta.Builder.newInstance().addJob(service("new1")).removeJob("s5").changeJob(service("s3")).build();
+		reOptimizer.reOptimize(delta);
+		assertEquals(2,factory.nuOfInsertedJobs);
+	}
+
+	@Test
+	public void whenReOptimizingTwice_secondDeltaIsAppliedToChangedProblem(){
+		ReOptimizer reOptimizer = ReOptimizer.Builder.newInstance(vrp, solution, factory).setNuOfIterations(10).build();
+		reOptimizer.reOptimize(JobDelta.Builder.newInstance().addJob(service("new1")).build());
+		reOptimizer.reOptimize(JobDelta.Builder.newInstance().removeJob("new1").removeJob("s0").build());
+		assertEquals(29,reOptimizer.getProblem().getJobs().size());
+		assertEquals(29,countJobs(reOptimizer.getSolution()).size());
+	}
+
+}
@@ -0,0 +1,143 @@
+package jsprit.core.algorithm;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import jsprit.core.algorithm.SolveHandle.BestSolutionSubscriber;
+import jsprit.core.algorithm.acceptor.GreedyAcceptance;
+import jsprit.core.algorithm.selector.SelectBest;
+import jsprit.core.problem.VehicleRoutingProblem;
+import jsprit.core.problem.solution.SolutionCostCalculator;
+import jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import jsprit.core.problem.solution.route.VehicleRoute;
+
+import org.junit.Test;
+
+public class SolveHandleTest {
+
+	/*
+	 * every iteration discovers a solution that is better than the previous one.
+	 */
+	private VehicleRoutingAlgorithm createAlgorithm(int nuOfIterations, final long millisPerIteration){
+		SearchStrategy strategy = new SearchStrategy(SelectBest.getInstance(), new GreedyAcceptance(1), new SolutionCostCalculator() {
+
+			private double cost = 1000.;
+
+			@Override
+			public double getCosts(VehicleRoutingProblemSolution solution) {
+				if(millisPerIteration > 0){
+					try {
+						Thread.sleep(millisPerIteration);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+				cost = cost - 1.;
+				return cost;
+			}
+
+		});
+		SearchStrategyManager strategyManager = new SearchStrategyManager();
+		strategyManager.addStrategy(strategy, 1.0);
+		VehicleRoutingAlgorithm algorithm = new VehicleRoutingAlgorithm(mock(VehicleRoutingProblem.class), strategyManager);
+		algorithm.addInitialSolution(new VehicleRoutingProblemSolution(new ArrayList<VehicleRoute>(), 2000.));
+		algorithm.setNuOfIterations(nuOfIterations);
+		return algorithm;
+	}
+
+	@Test
+	public void whenSearchTerminates_getReturnsSolutionsAndBestSolutionIsPublished(){
+		SolveHandle handle = SolveHandle.submit(createAlgorithm(10, 0));
+		Collection<VehicleRoutingProblemSolution> solutions = handle.get();
+		assertTrue(handle.isDone());
+		assertFalse(handle.isCancelled());
+		assertEquals(1,solutions.size());
+		assertEquals(990.,solutions.iterator().next().getCost(),0.01);
+		assertEquals(990.,handle.getBestSolution().getCost(),0.01);
+	}
+
+	@Test
+	public void whenCancelled_searchTerminatesWithinOneIteration() throws InterruptedException{
+		final CountDownLatch initialSolutionPublished = new CountDownLatch(1);
+		SolveHandle handle = SolveHandle.submit(createAlgorithm(Integer.MAX_VALUE, 1));
+		handle.subscribe(new BestSolutionSubscriber() {
+
+			@Override
+			public void informNewBestSolution(VehicleRoutingProblemSolution solution) {
+				initialSolutionPublished.countDown();
+			}
+
+		});
+		assertTrue(initialSolutionPublished.await(10, TimeUnit.SECONDS));
+		handle.cancel();
+		assertTrue(handle.await(10, TimeUnit.SECONDS));
+		assertTrue(handle.isCancelled());
+		assertNotNull(handle.get());
+	}
+
+	@Test
+	public void subscriberIsInformedAboutImprovingSolutionsOnSeparateThread() throws InterruptedException{
+		final List<Double> costs = new ArrayList<Double>();
+		final List<Thread> threads = new ArrayList<Thread>();
+		final CountDownLatch lastSolutionDelivered = new CountDownLatch(1);
+		VehicleRoutingAlgorithm algorithm = createAlgorithm(5, 0);
+		SolveHandle handle = SolveHandle.submit(algorithm);
+		handle.subscribe(new BestSolutionSubscriber() {
+
+			@Override
+			public void informNewBestSolution(VehicleRoutingProblemSolution solution) {
+				synchronized (costs) {
+					costs.add(solution.getCost());
+					threads.add(Thread.currentThread());
+				}
+				if(solution.getCost() == 995.) lastSolutionDelivered.countDown();
+			}
+
+		});
+		handle.get();
+		assertTrue(lastSolutionDelivered.await(10, TimeUnit.SECONDS));
+		synchronized (costs) {
+			assertFalse(costs.isEmpty());
+			for(int i=1;i<costs.size();i++){
+				assertTrue(costs.get(i) < costs.get(i-1));
+			}
+			for(Thread t : threads){
+				assertTrue(t != Thread.currentThread());
+				assertTrue(t.getName().equals("jsprit-solution-notifier"));
+			}
+		}
+	}
+
+	@Test
+	public void whenSubscribingAfterSearch_subscriberGetsBestSolution() throws InterruptedException{
+		SolveHandle handle = SolveHandle.submit(createAlgorithm(3, 0));
+		handle.get();
+		final CountDownLatch delivered = new CountDownLatch(1);
+		handle.subscribe(new BestSolutionSubscriber() {
+
+			@Override
+			public void informNewBestSolution(VehicleRoutingProblemSolution solution) {
+				if(solution.getCost() == 997.) delivered.countDown();
+			}
+
+		});
+		assertTrue(delivered.await(10, TimeUnit.SECONDS));
+	}
+
+	@Test(expected=IllegalStateException.class)
+	public void whenSearchFails_getThrowsException(){
+		SearchStrategyManager strategyManager = new SearchStrategyManager();
+		VehicleRoutingAlgorithm algorithm = new VehicleRoutingAlgorithm(mock(VehicleRoutingProblem.class), strategyManager);
+		SolveHandle.submit(algorithm).get();
+	}
+
+}
@@ -4,14 +4,21 @@ import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 
 import jsprit.core.algorithm.SearchStrategy.DiscoveredSolution;
+import jsprit.core.algorithm.acceptor.GreedyAcceptance;
 import jsprit.core.algorithm.listener.IterationStartsListener;
+import jsprit.core.algorithm.listener.SearchStrategyModuleListener;
+import jsprit.core.algorithm.selector.SelectBest;
+import jsprit.core.algorithm.termination.DeadlineExceededException;
 import jsprit.core.algorithm.termination.PrematureAlgorithmTermination;
 import jsprit.core.problem.VehicleRoutingProblem;
+import jsprit.core.problem.solution.SolutionCostCalculator;
 import jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import jsprit.core.problem.solution.route.VehicleRoute;
 
 import org.junit.Test;
 
@@ -79,5 +86,51 @@ public class VehicleRoutingAlgorithmTest {
 		algorithm.searchSolutions();
 		assertEquals(50,counter.getCountIterations());
 	}
+	
+	@Test
+	public void whenModuleExceedsDeadline_iterationIsDiscardedAndAlgorithmTerminates(){
+		SearchStrategy strategy = new SearchStrategy(SelectBest.getInstance(), new GreedyAcceptance(1), new SolutionCostCalculator() {
+			
+			@Override
+			public double getCosts(VehicleRoutingProblemSolution solution) {
+				return 100.;
+			}
+			
+		});
+		strategy.addModule(new SearchStrategyModule() {
+			
+			private int nuOfRuns = 0;
+			
+			@Override
+			public VehicleRoutingProblemSolution runAndGetSolution(VehicleRoutingProblemSolution vrpSolution) {
+				nuOfRuns++;
+				if(nuOfRuns == 3) throw new DeadlineExceededException("deadline exceeded");
+				return vrpSolution;
+			}
+			
+			@Override
+			public String getName() {
+				return "deadlineModule";
+			}
+			
+			@Override
+			public void addModuleListener(SearchStrategyModuleListener moduleListener) {
+				
+			}
+			
+		});
+		SearchStrategyManager stratManager = new SearchStrategyManager();
+		stratManager.addStrategy(strategy, 1.0);
+		VehicleRoutingAlgorithm algorithm = new VehicleRoutingAlgorithm(mock(VehicleRoutingProblem.class), stratManager);
+		VehicleRoutingProblemSolution initialSolution = new VehicleRoutingProblemSolution(new ArrayList<VehicleRoute>(), 200.);
+		algorithm.addInitialSolution(initialSolution);
+		algorithm.setNuOfIterations(1000);
+		CountIterations counter = new CountIterations();
+		algorithm.addListener(counter);
+		Collection<VehicleRoutingProblemSolution> solutions = algorithm.searchSolutions();
+		assertEquals(3,counter.getCountIterations());
+		assertEquals(1,solutions.size());
+		assertEquals(100.,solutions.iterator().next().getCost(),0.01);
+	}
 
 }
@@ -34,17 +34,24 @@ import jsprit.core.algorithm.io.VehicleRoutingAlgorithms.TypedMap.RuinStrategyKe
 import jsprit.core.algorithm.io.VehicleRoutingAlgorithms.TypedMap.SelectorKey;
 import jsprit.core.algorithm.io.VehicleRoutingAlgorithms.TypedMap.StrategyModuleKey;
 import jsprit.core.algorithm.listener.SearchStrategyModuleListener;
+import jsprit.core.algorithm.listener.VehicleRoutingAlgorithmListeners.PrioritizedVRAListener;
+import jsprit.core.algorithm.recreate.InsertionStrategy;
 import jsprit.core.algorithm.ruin.RuinStrategy;
 import jsprit.core.algorithm.ruin.listener.RuinListener;
 import jsprit.core.algorithm.selector.SelectBest;
 import jsprit.core.algorithm.selector.SolutionSelector;
+import jsprit.core.algorithm.state.StateManager;
 import jsprit.core.problem.VehicleRoutingProblem;
+import jsprit.core.problem.constraint.ConstraintManager;
 import jsprit.core.problem.io.VrpXMLReader;
 import jsprit.core.problem.job.Job;
 import jsprit.core.problem.solution.VehicleRoutingProblemSolution;
 import jsprit.core.problem.solution.route.VehicleRoute;
+import jsprit.core.problem.vehicle.InfiniteFleetManagerFactory;
+import jsprit.core.problem.vehicle.VehicleFleetManager;
 
 import org.apache.commons.configuration.ConfigurationException;
+import org.apache.commons.configuration.HierarchicalConfiguration;
 import org.apache.commons.configuration.XMLConfiguration;
 import org.junit.Before;
 import org.junit.Test;
@@ -250,4 +257,41 @@ public class TestAlgorithmReader {
 		assertEquals(3, nOfModules);
 	}
 	
+	@Test
+	public void whenCreatingAlgorithmWithRegretInsertion_nOfStrategiesIsCorrect(){
+		VehicleRoutingAlgorithm algo = VehicleRoutingAlgorithms.readAndCreateAlgorithm(vrp, "src/test/resources/configWithRegretInsertion.xml");
+		assertEquals(3, algo.getSearchStrategyManager().getStrategies().size());
+	}
+	
+	private InsertionStrategy createRegretInsertion(int configIndex) throws ConfigurationException{
+		XMLConfiguration insertionConfigs = new XMLConfiguration("src/test/resources/regretInsertionConfig.xml");
+		HierarchicalConfiguration insertionConfig = insertionConfigs.configurationsAt("insertion").get(configIndex);
+		StateManager stateManager = new StateManager(vrp.getTransportCosts());
+		VehicleFleetManager fleetManager = new InfiniteFleetManagerFactory(vrp.getVehicles()).createFleetManager();
+		return InsertionFactory.createInsertion(vrp, insertionConfig, fleetManager, stateManager, new ArrayList<PrioritizedVRAListener>(), null, 0, 
+				new ConstraintManager(vrp, stateManager));
+	}
+	
+	@Test
+	public void whenCreatingRegretInsertionWithK_kIsReadCorrectly() throws ConfigurationException{
+		InsertionStrategy insertion = createRegretInsertion(0);
+		assertTrue(insertion.toString().startsWith("[name=regretInsertion][k=3]"));
+	}
+	
+	@Test
+	public void whenCreatingRegretInsertionWithoutK_kIsTwo() throws ConfigurationException{
+		InsertionStrategy insertion = createRegretInsertion(1);
+		assertTrue(insertion.toString().startsWith("[name=regretInsertion][k=2]"));
+	}
+	
+	@Test(expected=IllegalStateException.class)
+	public void whenCreatingRegretInsertionWithKLowerThanTwo_itShouldThrowException() throws ConfigurationException{
+		createRegretInsertion(2);
+	}
+	
+	@Test(expected=IllegalStateException.class)
+	public void whenCreatingRegretInsertionWithNonNumericK_itShouldThrowException() throws ConfigurationException{
+		createRegretInsertion(3);
+	}
+	
 }
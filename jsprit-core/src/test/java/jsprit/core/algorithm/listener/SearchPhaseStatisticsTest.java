@@ -0,0 +1,154 @@
+package jsprit.core.algorithm.listener;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+import jsprit.core.algorithm.SearchStrategy;
+import jsprit.core.algorithm.acceptor.SolutionAcceptor;
+import jsprit.core.algorithm.module.RuinAndRecreateModule;
+import jsprit.core.algorithm.recreate.InsertionStrategy;
+import jsprit.core.algorithm.recreate.listener.InsertionListener;
+import jsprit.core.algorithm.ruin.RuinStrategy;
+import jsprit.core.algorithm.ruin.listener.RuinListener;
+import jsprit.core.algorithm.selector.SolutionSelector;
+import jsprit.core.algorithm.state.StateManager;
+import jsprit.core.problem.VehicleRoutingProblem;
+import jsprit.core.problem.constraint.ConstraintManager;
+import jsprit.core.problem.cost.VehicleRoutingTransportCosts;
+import jsprit.core.problem.job.Job;
+import jsprit.core.problem.misc.JobInsertionContext;
+import jsprit.core.problem.solution.SolutionCostCalculator;
+import jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import jsprit.core.problem.solution.route.VehicleRoute;
+import jsprit.core.problem.solution.route.activity.TourActivity;
+import jsprit.core.problem.solution.route.state.RouteAndActivityStateGetter;
+
+import org.junit.Test;
+
+public class SearchPhaseStatisticsTest {
+	
+	private SearchStrategy createStrategy(RuinStrategy ruin, InsertionStrategy insertion){
+		VehicleRoutingProblemSolution solution = new VehicleRoutingProblemSolution(new ArrayList<VehicleRoute>(), 0.);
+		SolutionSelector selector = mock(SolutionSelector.class);
+		when(selector.selectSolution(null)).thenReturn(solution);
+		when(ruin.getListeners()).thenReturn(Collections.<RuinListener>emptyList());
+		when(insertion.getListeners()).thenReturn(Collections.<InsertionListener>emptyList());
+		SearchStrategy strategy = new SearchStrategy(selector, mock(SolutionAcceptor.class), mock(SolutionCostCalculator.class));
+		strategy.setName("strategy");
+		strategy.addModule(new RuinAndRecreateModule("ruinAndRecreate", insertion, ruin));
+		return strategy;
+	}
+	
+	@Test
+	public void whenStrategyRuns_eachPhaseShouldBeRecordedOnce(){
+		RuinStrategy ruin = mock(RuinStrategy.class);
+		InsertionStrategy insertion = mock(InsertionStrategy.class);
+		SearchStrategy strategy = createStrategy(ruin, insertion);
+		SearchPhaseStatistics statistics = new SearchPhaseStatistics();
+		strategy.addModuleListener(statistics);
+		
+		statistics.informAlgorithmStarts(null, null, null);
+		statistics.informIterationStarts(1, null, null);
+		strategy.run(mock(VehicleRoutingProblem.class), null);
+		statistics.informIterationEnds(1, null, null);
+		
+		assertEquals(1, statistics.getNuOfIterations());
+		for(SearchPhase phase : Arrays.asList(SearchPhase.SELECTION, SearchPhase.COPY, SearchPhase.RUIN, SearchPhase.INSERTION, SearchPhase.ACCEPTANCE)){
+			assertEquals(1, statistics.getTotalCount(phase));
+			assertEquals(1, statistics.getIterationCount(phase));
+			assertTrue(statistics.getTotalTimeInNanos(phase) >= 0);
+		}
+		assertEquals(0, statistics.getTotalCount(SearchPhase.STATE_UPDATE));
+		assertEquals(1, statistics.getTotalCount(SearchPhase.SELECTION, "strategy"));
+		assertEquals(1, statistics.getTotalCount(SearchPhase.RUIN, ruin.toString()));
+		assertEquals(1, statistics.getTotalCount(SearchPhase.INSERTION, insertion.toString()));
+		assertTrue(statistics.getNames(SearchPhase.INSERTION).contains(insertion.toString()));
+	}
+	
+	@Test
+	public void whenStrategyRunsTwiceInTwoIterations_totalAndIterationCountsShouldDiffer(){
+		SearchStrategy strategy = createStrategy(mock(RuinStrategy.class), mock(InsertionStrategy.class));
+		SearchPhaseStatistics statistics = new SearchPhaseStatistics();
+		strategy.addModuleListener(statistics);
+		
+		statistics.informAlgorithmStarts(null, null, null);
+		for(int i=1;i<=2;i++){
+			statistics.informIterationStarts(i, null, null);
+			strategy.run(mock(VehicleRoutingProblem.class), null);
+			statistics.informIterationEnds(i, null, null);
+		}
+		
+		assertEquals(2, statistics.getTotalCount(SearchPhase.RUIN));
+		assertEquals(1, statistics.getIterationCount(SearchPhase.RUIN));
+	}
+	
+	@Test
+	public void whenAlgorithmStartsAgain_statisticsShouldBeReset(){
+		SearchStrategy strategy = createStrategy(mock(RuinStrategy.class), mock(InsertionStrategy.class));
+		SearchPhaseStatistics statistics = new SearchPhaseStatistics();
+		strategy.addModuleListener(statistics);
+		statistics.informAlgorithmStarts(null, null, null);
+		strategy.run(mock(VehicleRoutingProblem.class), null);
+		
+		statistics.informAlgorithmStarts(null, null, null);
+		
+		assertEquals(0, statistics.getTotalCount(SearchPhase.SELECTION));
+		assertTrue(statistics.getNames(SearchPhase.SELECTION).isEmpty());
+	}
+	
+	@Test
+	public void whenConstraintManagerIsObserved_insertionCalculationsAndConstraintEvaluationsShouldBeCounted(){
+		ConstraintManager constraintManager = new ConstraintManager(mock(VehicleRoutingProblem.class), mock(RouteAndActivityStateGetter.class));
+		SearchPhaseStatistics statistics = new SearchPhaseStatistics();
+		statistics.observe(constraintManager);
+		statistics.informAlgorithmStarts(null, null, null);
+		statistics.informIterationStarts(1, null, null);
+		
+		JobInsertionContext context = mock(JobInsertionContext.class);
+		TourActivity act = mock(TourActivity.class);
+		for(int i=0;i<2;i++){
+			constraintManager.fulfilled(context);
+		}
+		for(int i=0;i<3;i++){
+			constraintManager.fulfilled(context, act, act, act, 0.);
+		}
+		statistics.informIterationEnds(1, null, null);
+		
+		assertEquals(2, statistics.getTotalNuOfInsertionCalculations());
+		assertEquals(2, statistics.getIterationNuOfInsertionCalculations());
+		assertEquals(3, statistics.getTotalNuOfConstraintEvaluations());
+		assertEquals(3, statistics.getIterationNuOfConstraintEvaluations());
+	}
+	
+	@Test
+	public void whenConstraintManagerIsNotObserved_evaluationsShouldNotBeCounted(){
+		ConstraintManager constraintManager = new ConstraintManager(mock(VehicleRoutingProblem.class), mock(RouteAndActivityStateGetter.class));
+		constraintManager.fulfilled(mock(JobInsertionContext.class));
+		assertEquals(0, constraintManager.getNuOfRouteLevelEvaluations());
+	}
+	
+	@Test
+	public void whenStateManagerIsObserved_routeUpdatesShouldBeRecorded(){
+		StateManager stateManager = new StateManager(mock(VehicleRoutingTransportCosts.class));
+		SearchPhaseStatistics statistics = new SearchPhaseStatistics();
+		statistics.observe(stateManager);
+		statistics.informAlgorithmStarts(null, null, null);
+		statistics.informIterationStarts(1, null, null);
+		
+		Collection<VehicleRoute> routes = Arrays.asList(VehicleRoute.emptyRoute(), VehicleRoute.emptyRoute());
+		stateManager.informInsertionStarts(routes, Collections.<Job>emptyList());
+		statistics.informIterationEnds(1, null, null);
+		
+		assertEquals(2, statistics.getTotalCount(SearchPhase.STATE_UPDATE));
+		assertEquals(2, statistics.getIterationCount(SearchPhase.STATE_UPDATE));
+		assertEquals(2, stateManager.getNuOfRouteUpdates());
+	}
+
+}
@@ -0,0 +1,270 @@
+package jsprit.core.algorithm.recreate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jsprit.core.algorithm.state.StateManager;
+import jsprit.core.algorithm.state.UpdateVariableCosts;
+import jsprit.core.algorithm.termination.Deadline;
+import jsprit.core.algorithm.termination.DeadlineExceededException;
+import jsprit.core.problem.VehicleRoutingProblem;
+import jsprit.core.problem.constraint.ConstraintManager;
+import jsprit.core.problem.driver.Driver;
+import jsprit.core.problem.job.Job;
+import jsprit.core.problem.job.Service;
+import jsprit.core.problem.solution.route.VehicleRoute;
+import jsprit.core.problem.solution.route.activity.TimeWindow;
+import jsprit.core.problem.solution.route.state.StateFactory;
+import jsprit.core.problem.vehicle.InfiniteFleetManagerFactory;
+import jsprit.core.problem.vehicle.Vehicle;
+import jsprit.core.problem.vehicle.VehicleImpl;
+import jsprit.core.problem.vehicle.VehicleTypeImpl;
+import jsprit.core.util.CostFactory;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class BestInsertionConcurrentTest {
+	
+	private VehicleRoutingProblem vrp;
+	
+	private StateManager stateManager;
+	
+	@Before
+	public void doBefore(){
+		VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.newInstance();
+		Random random = new Random(1);
+		for(int i=0;i<30;i++){
+			vrpBuilder.addJob(Service.Builder.newInstance("s" + i).addSizeDimension(0, 1 + random.nextInt(3)).setLocationId(random.nextInt(50) + "," + random.nextInt(50))
+					.setTimeWindow(TimeWindow.newInstance(0, 200 + random.nextInt(200))).build());
+		}
+		VehicleTypeImpl type = VehicleTypeImpl.Builder.newInstance("type").addCapacityDimension(0, 10).setFixedCost(10.).build();
+		vrpBuilder.addVehicle(VehicleImpl.Builder.newInstance("v").setType(type).setStartLocationId("25,25").setLatestArrival(1000.).build());
+		vrpBuilder.setRoutingCost(CostFactory.createManhattanCosts());
+		vrp = vrpBuilder.build();
+	}
+	
+	private BestInsertionConcurrent createInsertion(ExecutorService executor, int nuOfBatches){
+		return createInsertion(executor, nuOfBatches, false);
+	}
+	
+	private BestInsertionConcurrent createInsertion(ExecutorService executor, int nuOfBatches, boolean cheapestInsertion){
+		BestInsertionConcurrent insertion = (BestInsertionConcurrent) createBuilder().setConcurrentMode(executor, nuOfBatches)
+			.setCheapestInsertion(cheapestInsertion).build();
+		insertion.setRandom(new Random(4711));
+		insertion.addListener(stateManager);
+		return insertion;
+	}
+	
+	private BestInsertionBuilder createBuilder(){
+		stateManager = new StateManager(vrp.getTransportCosts());
+		stateManager.updateLoadStates();
+		stateManager.updateTimeWindowStates();
+		stateManager.addStateUpdater(new UpdateVariableCosts(vrp.getActivityCosts(), vrp.getTransportCosts(), stateManager));
+		ConstraintManager constraintManager = new ConstraintManager(vrp, stateManager);
+		constraintManager.addLoadConstraint();
+		constraintManager.addTimeWindowConstraint();
+		return new BestInsertionBuilder(vrp, new InfiniteFleetManagerFactory(vrp.getVehicles()).createFleetManager(), stateManager, constraintManager);
+	}
+	
+	private double getCosts(Collection<VehicleRoute> routes){
+		double costs = 0.;
+		for(VehicleRoute route : routes){
+			costs += stateManager.getRouteState(route, StateFactory.COSTS, Double.class);
+		}
+		return costs;
+	}
+	
+	private int getNuOfJobs(Collection<VehicleRoute> routes){
+		int nuOfJobs = 0;
+		for(VehicleRoute route : routes) nuOfJobs += route.getTourActivities().getJobs().size();
+		return nuOfJobs;
+	}
+	
+	@Test
+	public void whenInsertingJobs_allJobsShouldBeInserted(){
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try{
+			BestInsertionConcurrent insertion = createInsertion(executor, 4);
+			List<VehicleRoute> routes = new ArrayList<VehicleRoute>();
+			insertion.insertJobs(routes, new ArrayList<Job>(vrp.getJobs().values()));
+			assertEquals(30, getNuOfJobs(routes));
+			assertTrue(insertion.getInsertionDataCache().getNuOfHits() > 0);
+		}
+		finally{
+			executor.shutdown();
+		}
+	}
+	
+	@Test
+	public void whenUsingMoreBatches_solutionShouldBeTheSame(){
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try{
+			BestInsertionConcurrent oneBatch = createInsertion(executor, 1);
+			List<VehicleRoute> oneBatchRoutes = new ArrayList<VehicleRoute>();
+			oneBatch.insertJobs(oneBatchRoutes, new ArrayList<Job>(vrp.getJobs().values()));
+			double oneBatchCosts = getCosts(oneBatchRoutes);
+			
+			BestInsertionConcurrent fourBatches = createInsertion(executor, 4);
+			List<VehicleRoute> fourBatchesRoutes = new ArrayList<VehicleRoute>();
+			fourBatches.insertJobs(fourBatchesRoutes, new ArrayList<Job>(vrp.getJobs().values()));
+			assertEquals(oneBatchRoutes.size(), fourBatchesRoutes.size());
+			assertEquals(oneBatchCosts, getCosts(fourBatchesRoutes), 0.01);
+		}
+		finally{
+			executor.shutdown();
+		}
+	}
+	
+	@Test
+	public void whenInsertingInRandomOrder_solutionShouldEqualSolutionOfSequentialBestInsertion(){
+		BestInsertion sequential = (BestInsertion) createBuilder().build();
+		sequential.setRandom(new Random(4711));
+		sequential.addListener(stateManager);
+		List<VehicleRoute> sequentialRoutes = new ArrayList<VehicleRoute>();
+		sequential.insertJobs(sequentialRoutes, new ArrayList<Job>(vrp.getJobs().values()));
+		double sequentialCosts = getCosts(sequentialRoutes);
+		
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try{
+			BestInsertionConcurrent concurrent = createInsertion(executor, 4);
+			List<VehicleRoute> concurrentRoutes = new ArrayList<VehicleRoute>();
+			concurrent.insertJobs(concurrentRoutes, new ArrayList<Job>(vrp.getJobs().values()));
+			assertEquals(sequentialRoutes.size(), concurrentRoutes.size());
+			assertEquals(sequentialCosts, getCosts(concurrentRoutes), 0.01);
+			for(int i=0;i<sequentialRoutes.size();i++){
+				assertEquals(sequentialRoutes.get(i).getTourActivities().getJobs(), concurrentRoutes.get(i).getTourActivities().getJobs());
+			}
+		}
+		finally{
+			executor.shutdown();
+		}
+	}
+	
+	@Test
+	public void whenInsertingCheapestFirstWithMoreBatches_solutionShouldBeTheSame(){
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try{
+			BestInsertionConcurrent oneBatch = createInsertion(executor, 1, true);
+			List<VehicleRoute> oneBatchRoutes = new ArrayList<VehicleRoute>();
+			oneBatch.insertJobs(oneBatchRoutes, new ArrayList<Job>(vrp.getJobs().values()));
+			double oneBatchCosts = getCosts(oneBatchRoutes);
+			
+			BestInsertionConcurrent fourBatches = createInsertion(executor, 4, true);
+			List<VehicleRoute> fourBatchesRoutes = new ArrayList<VehicleRoute>();
+			fourBatches.insertJobs(fourBatchesRoutes, new ArrayList<Job>(vrp.getJobs().values()));
+			assertEquals(30, getNuOfJobs(fourBatchesRoutes));
+			assertEquals(oneBatchRoutes.size(), fourBatchesRoutes.size());
+			assertEquals(oneBatchCosts, getCosts(fourBatchesRoutes), 0.01);
+		}
+		finally{
+			executor.shutdown();
+		}
+	}
+	
+	@Test(expected=IllegalStateException.class)
+	public void whenCalculatorThrowsException_itShouldBePropagated(){
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try{
+			JobInsertionCostsCalculator calculator = new JobInsertionCostsCalculator() {
+				
+				@Override
+				public InsertionData getInsertionData(VehicleRoute currentRoute, Job newJob, Vehicle newVehicle, double newVehicleDepartureTime, Driver newDriver, double bestKnownCosts) {
+					throw new IllegalStateException("calculation failed");
+				}
+				
+			};
+			BestInsertionConcurrent insertion = new BestInsertionConcurrent(calculator, executor, 2);
+			insertion.insertJobs(new ArrayList<VehicleRoute>(), new ArrayList<Job>(vrp.getJobs().values()));
+		}
+		finally{
+			executor.shutdown();
+		}
+	}
+	
+	@Test
+	public void whenOneTaskFails_otherTasksShouldHaveFinishedWhenExceptionIsThrown(){
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try{
+			final AtomicInteger nuOfRunningCalculations = new AtomicInteger(0);
+			JobInsertionCostsCalculator calculator = new JobInsertionCostsCalculator() {
+				
+				@Override
+				public InsertionData getInsertionData(VehicleRoute currentRoute, Job newJob, Vehicle newVehicle, double newVehicleDepartureTime, Driver newDriver, double bestKnownCosts) {
+					nuOfRunningCalculations.incrementAndGet();
+					try{
+						Thread.sleep(newJob.getId().equals("s0") ? 5 : 20);
+						if(newJob.getId().equals("s0")) throw new IllegalStateException("calculation failed");
+						return new InsertionData.NoInsertionFound();
+					}
+					catch (InterruptedException e) {
+						throw new IllegalStateException(e);
+					}
+					finally{
+						nuOfRunningCalculations.decrementAndGet();
+					}
+				}
+				
+			};
+			BestInsertionConcurrent insertion = new BestInsertionConcurrent(calculator, executor, 4);
+			/*
+			 * keeps the order of jobs, i.e. s0 is calculated first by the task that is waited for first
+			 */
+			insertion.setRandom(new Random(){
+				
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				public int nextInt(int n) {
+					return n - 1;
+				}
+				
+			});
+			List<Job> jobs = new ArrayList<Job>(vrp.getJobs().values());
+			Job s0 = vrp.getJobs().get("s0");
+			jobs.remove(s0);
+			jobs.add(0, s0);
+			try{
+				insertion.insertJobs(new ArrayList<VehicleRoute>(), jobs);
+				fail("calculation of s0 fails");
+			}
+			catch(IllegalStateException e){
+				assertEquals(0, nuOfRunningCalculations.get());
+			}
+		}
+		finally{
+			executor.shutdown();
+		}
+	}
+	
+	@Test(expected=DeadlineExceededException.class)
+	public void whenDeadlineIsExceeded_insertionShouldBeAborted(){
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try{
+			BestInsertionConcurrent insertion = createInsertion(executor, 4);
+			final AtomicInteger nuOfChecks = new AtomicInteger(0);
+			insertion.setDeadline(new Deadline() {
+				
+				@Override
+				public boolean isExceeded() {
+					return nuOfChecks.incrementAndGet() > 100;
+				}
+				
+			});
+			insertion.insertJobs(new ArrayList<VehicleRoute>(), new ArrayList<Job>(vrp.getJobs().values()));
+		}
+		finally{
+			executor.shutdown();
+		}
+	}
+
+}
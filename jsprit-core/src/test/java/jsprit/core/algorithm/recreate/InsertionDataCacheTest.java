@@ -0,0 +1,78 @@
+package jsprit.core.algorithm.recreate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import jsprit.core.problem.job.Job;
+import jsprit.core.problem.solution.route.VehicleRoute;
+import jsprit.core.problem.vehicle.Vehicle;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class InsertionDataCacheTest {
+	
+	private InsertionDataCache cache;
+	
+	private Job job;
+	
+	private VehicleRoute route;
+	
+	private VehicleRoute otherRoute;
+	
+	private InsertionData iData;
+	
+	@Before
+	public void doBefore(){
+		cache = new InsertionDataCache();
+		job = mock(Job.class);
+		route = VehicleRoute.emptyRoute();
+		otherRoute = VehicleRoute.emptyRoute();
+		iData = new InsertionData(10., 0, 0, null, null);
+		cache.put(job, route, iData);
+	}
+	
+	@Test
+	public void whenRouteHasNotChanged_itShouldReturnMemorizedData(){
+		assertSame(iData, cache.get(job, route));
+		assertEquals(1, cache.getNuOfHits());
+	}
+	
+	@Test
+	public void whenAskingForUnknownRoute_itShouldReturnNull(){
+		assertNull(cache.get(job, otherRoute));
+		assertEquals(1, cache.getNuOfMisses());
+	}
+	
+	@Test
+	public void whenAnotherJobHasBeenInsertedIntoRoute_itShouldReturnNull(){
+		cache.put(job, otherRoute, iData);
+		cache.informJobInserted(mock(Job.class), route, 0., 0.);
+		assertNull(cache.get(job, route));
+		assertSame(iData, cache.get(job, otherRoute));
+	}
+	
+	@Test
+	public void whenReinsertingDataAfterInvalidation_itShouldReturnNewData(){
+		cache.invalidate(route);
+		InsertionData newData = new InsertionData(20., 1, 1, null, null);
+		cache.put(job, route, newData);
+		assertSame(newData, cache.get(job, route));
+	}
+	
+	@Test
+	public void whenVehicleHasBeenSwitched_itShouldInvalidateAllRoutes(){
+		cache.put(job, otherRoute, iData);
+		cache.vehicleSwitched(otherRoute, mock(Vehicle.class), mock(Vehicle.class));
+		assertNull(cache.get(job, route));
+		assertNull(cache.get(job, otherRoute));
+	}
+	
+	@Test
+	public void whenInsertionStarts_itShouldBeCleared(){
+		cache.informInsertionStarts(null, null);
+		assertNull(cache.get(job, route));
+	}
+
+}
@@ -0,0 +1,135 @@
+package jsprit.core.algorithm.recreate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import jsprit.core.algorithm.recreate.listener.InsertionListeners;
+import jsprit.core.problem.VehicleRoutingProblem;
+import jsprit.core.problem.constraint.ConstraintManager;
+import jsprit.core.problem.cost.VehicleRoutingActivityCosts;
+import jsprit.core.problem.cost.VehicleRoutingTransportCosts;
+import jsprit.core.problem.driver.Driver;
+import jsprit.core.problem.job.Service;
+import jsprit.core.problem.job.Shipment;
+import jsprit.core.problem.solution.route.VehicleRoute;
+import jsprit.core.problem.solution.route.activity.DefaultShipmentActivityFactory;
+import jsprit.core.problem.solution.route.activity.DefaultTourActivityFactory;
+import jsprit.core.problem.solution.route.activity.End;
+import jsprit.core.problem.solution.route.activity.Start;
+import jsprit.core.problem.solution.route.activity.TourActivity;
+import jsprit.core.problem.solution.route.state.RouteAndActivityStateGetter;
+import jsprit.core.problem.vehicle.Vehicle;
+import jsprit.core.problem.vehicle.VehicleImpl;
+import jsprit.core.problem.vehicle.VehicleType;
+import jsprit.core.problem.vehicle.VehicleTypeImpl;
+import jsprit.core.util.CostFactory;
+
+import org.junit.Test;
+
+public class InsertionScratchTest {
+	
+	@Test
+	public void whenScratchIsReleased_itShouldBeReusedByCurrentThread(){
+		InsertionScratch scratch = InsertionScratch.acquire();
+		scratch.release();
+		InsertionScratch scratch2 = InsertionScratch.acquire();
+		scratch2.release();
+		assertSame(scratch,scratch2);
+	}
+	
+	@Test
+	public void whenScratchIsInUse_itShouldReturnFreshScratch(){
+		InsertionScratch scratch = InsertionScratch.acquire();
+		InsertionScratch scratch2 = InsertionScratch.acquire();
+		scratch2.release();
+		scratch.release();
+		assertNotSame(scratch,scratch2);
+	}
+	
+	@Test
+	public void whenReusingStartAndEnd_theyShouldHaveTheValuesOfNewOnes(){
+		InsertionScratch scratch = InsertionScratch.acquire();
+		Start start = scratch.getStart("loc", 10., 100., 20.);
+		start.setArrTime(50.);
+		End end = scratch.getEnd("endLoc", 0., 200.);
+		end.setArrTime(60.);
+		end.setEndTime(70.);
+		Start start2 = scratch.getStart("loc2", 5., 50., 6.);
+		End end2 = scratch.getEnd("endLoc2", 0., 300.);
+		scratch.release();
+		
+		assertSame(start,start2);
+		assertEquals("loc2",start2.getLocationId());
+		assertEquals(5.,start2.getTheoreticalEarliestOperationStartTime(),0.01);
+		assertEquals(50.,start2.getTheoreticalLatestOperationStartTime(),0.01);
+		assertEquals(6.,start2.getEndTime(),0.01);
+		assertEquals(0.,start2.getArrTime(),0.01);
+		assertSame(end,end2);
+		assertEquals("endLoc2",end2.getLocationId());
+		assertEquals(300.,end2.getEndTime(),0.01);
+		assertEquals(0.,end2.getArrTime(),0.01);
+	}
+	
+	@Test
+	public void activitiesShouldOnlyBeCreatedOncePerJob(){
+		Service s1 = Service.Builder.newInstance("s1").setLocationId("1,0").build();
+		Service s2 = Service.Builder.newInstance("s2").setLocationId("2,0").build();
+		Shipment shipment = Shipment.Builder.newInstance("sh").setPickupLocation("0,1").setDeliveryLocation("0,2").build();
+		DefaultTourActivityFactory serviceActFactory = new DefaultTourActivityFactory();
+		DefaultShipmentActivityFactory shipmentActFactory = new DefaultShipmentActivityFactory();
+		
+		InsertionScratch scratch = InsertionScratch.acquire();
+		TourActivity act = scratch.getActivity(s1, serviceActFactory);
+		assertSame(act,scratch.getActivity(s1, serviceActFactory));
+		TourActivity act2 = scratch.getActivity(s2, serviceActFactory);
+		assertNotSame(act,act2);
+		assertEquals("2,0",act2.getLocationId());
+		TourActivity pickup = scratch.getPickup(shipment, shipmentActFactory);
+		assertSame(pickup,scratch.getPickup(shipment, shipmentActFactory));
+		assertEquals("0,1",pickup.getLocationId());
+		assertEquals("0,2",scratch.getDelivery(shipment, shipmentActFactory).getLocationId());
+		scratch.release();
+	}
+	
+	@Test
+	public void whenCalculatingInsertionData_calculatorsShouldNotCreateStartAndEnd(){
+		VehicleRoutingTransportCosts routingCosts = CostFactory.createManhattanCosts();
+		VehicleRoutingActivityCosts activityCosts = new VehicleRoutingActivityCosts(){
+
+			@Override
+			public double getActivityCost(TourActivity tourAct, double arrivalTime, Driver driver, Vehicle vehicle) {
+				return 0;
+			}
+			
+		};
+		ActivityInsertionCostsCalculator actInsertionCalc = new LocalActivityInsertionCostsCalculator(routingCosts, activityCosts);
+		ConstraintManager constraintManager = new ConstraintManager(mock(VehicleRoutingProblem.class), mock(RouteAndActivityStateGetter.class));
+		ServiceInsertionCalculator serviceCalc = new ServiceInsertionCalculator(routingCosts, actInsertionCalc, constraintManager);
+		ShipmentInsertionCalculator shipmentCalc = new ShipmentInsertionCalculator(routingCosts, actInsertionCalc, constraintManager);
+		
+		VehicleType type = VehicleTypeImpl.Builder.newInstance("t").addCapacityDimension(0, 10).setCostPerDistance(1).build();
+		Vehicle vehicle = VehicleImpl.Builder.newInstance("v").setStartLocationId("0,0").setType(type).build();
+		VehicleRoute route = VehicleRoute.emptyRoute();
+		Shipment shipment = Shipment.Builder.newInstance("sh").addSizeDimension(0, 1).setPickupLocation("0,10").setDeliveryLocation("10,0").build();
+		new Inserter(new InsertionListeners()).insertJob(shipment, new InsertionData(0,0,0,vehicle,null), route);
+		
+		Service service = Service.Builder.newInstance("s").addSizeDimension(0, 1).setLocationId("5,15").build();
+		Shipment shipment2 = Shipment.Builder.newInstance("sh2").addSizeDimension(0, 1).setPickupLocation("10,10").setDeliveryLocation("0,0").build();
+		
+		int startsCreated = Start.creation;
+		int endsCreated = End.creation;
+		InsertionData serviceIData = serviceCalc.getInsertionData(route, service, vehicle, 0.0, null, Double.MAX_VALUE);
+		InsertionData shipmentIData = shipmentCalc.getInsertionData(route, shipment2, vehicle, 0.0, null, Double.MAX_VALUE);
+		assertEquals(startsCreated,Start.creation);
+		assertEquals(endsCreated,End.creation);
+		
+		assertEquals(1,serviceIData.getDeliveryInsertionIndex());
+		assertEquals(10.,serviceIData.getInsertionCost(),0.01);
+		assertEquals(0.,shipmentIData.getInsertionCost(),0.05);
+		assertEquals(1,shipmentIData.getPickupInsertionIndex());
+		assertEquals(2,shipmentIData.getDeliveryInsertionIndex());
+		assertEquals(shipmentIData.getInsertionCost(),shipmentCalc.getInsertionData(route, shipment2, vehicle, 0.0, null, Double.MAX_VALUE).getInsertionCost(),0.01);
+	}
+
+}
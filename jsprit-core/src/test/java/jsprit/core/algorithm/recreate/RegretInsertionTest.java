@@ -0,0 +1,182 @@
+package jsprit.core.algorithm.recreate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jsprit.core.algorithm.state.StateManager;
+import jsprit.core.algorithm.state.UpdateVariableCosts;
+import jsprit.core.problem.VehicleRoutingProblem;
+import jsprit.core.problem.constraint.ConstraintManager;
+import jsprit.core.problem.driver.Driver;
+import jsprit.core.problem.job.Job;
+import jsprit.core.problem.job.Service;
+import jsprit.core.problem.solution.route.VehicleRoute;
+import jsprit.core.problem.solution.route.activity.TimeWindow;
+import jsprit.core.problem.solution.route.state.StateFactory;
+import jsprit.core.problem.vehicle.InfiniteFleetManagerFactory;
+import jsprit.core.problem.vehicle.Vehicle;
+import jsprit.core.problem.vehicle.VehicleImpl;
+import jsprit.core.problem.vehicle.VehicleTypeImpl;
+import jsprit.core.util.CostFactory;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class RegretInsertionTest {
+	
+	private VehicleRoutingProblem vrp;
+	
+	private StateManager stateManager;
+	
+	@Before
+	public void doBefore(){
+		VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.newInstance();
+		Random random = new Random(1);
+		for(int i=0;i<30;i++){
+			vrpBuilder.addJob(Service.Builder.newInstance("s" + i).addSizeDimension(0, 1 + random.nextInt(3)).setLocationId(random.nextInt(50) + "," + random.nextInt(50))
+					.setTimeWindow(TimeWindow.newInstance(0, 200 + random.nextInt(200))).build());
+		}
+		VehicleTypeImpl type = VehicleTypeImpl.Builder.newInstance("type").addCapacityDimension(0, 10).setFixedCost(10.).build();
+		vrpBuilder.addVehicle(VehicleImpl.Builder.newInstance("v").setType(type).setStartLocationId("25,25").setLatestArrival(1000.).build());
+		vrpBuilder.setRoutingCost(CostFactory.createManhattanCosts());
+		vrp = vrpBuilder.build();
+	}
+	
+	private RegretInsertion createRegretInsertion(int k, ExecutorService executor){
+		stateManager = new StateManager(vrp.getTransportCosts());
+		stateManager.updateLoadStates();
+		stateManager.updateTimeWindowStates();
+		stateManager.addStateUpdater(new UpdateVariableCosts(vrp.getActivityCosts(), vrp.getTransportCosts(), stateManager));
+		ConstraintManager constraintManager = new ConstraintManager(vrp, stateManager);
+		constraintManager.addLoadConstraint();
+		constraintManager.addTimeWindowConstraint();
+		BestInsertionBuilder builder = new BestInsertionBuilder(vrp, new InfiniteFleetManagerFactory(vrp.getVehicles()).createFleetManager(), stateManager, constraintManager);
+		if(executor != null) builder.setConcurrentMode(executor, 4);
+		RegretInsertion regretInsertion = (RegretInsertion) builder.buildRegretInsertion(k);
+		regretInsertion.addListener(stateManager);
+		return regretInsertion;
+	}
+	
+	private double getCosts(Collection<VehicleRoute> routes){
+		double costs = 0.;
+		for(VehicleRoute route : routes){
+			costs += stateManager.getRouteState(route, StateFactory.COSTS, Double.class);
+		}
+		return costs;
+	}
+	
+	private int getNuOfJobs(Collection<VehicleRoute> routes){
+		int nuOfJobs = 0;
+		for(VehicleRoute route : routes) nuOfJobs += route.getTourActivities().getJobs().size();
+		return nuOfJobs;
+	}
+	
+	@Test
+	public void whenInsertingJobs_allJobsShouldBeInserted(){
+		RegretInsertion regretInsertion = createRegretInsertion(2, null);
+		List<VehicleRoute> routes = new ArrayList<VehicleRoute>();
+		regretInsertion.insertJobs(routes, new ArrayList<Job>(vrp.getJobs().values()));
+		assertEquals(30, getNuOfJobs(routes));
+	}
+	
+	@Test
+	public void whenInsertingJobs_unchangedRoutesShouldNotBeReEvaluated(){
+		RegretInsertion regretInsertion = createRegretInsertion(3, null);
+		List<VehicleRoute> routes = new ArrayList<VehicleRoute>();
+		regretInsertion.insertJobs(routes, new ArrayList<Job>(vrp.getJobs().values()));
+		assertTrue(regretInsertion.getInsertionDataCache().getNuOfHits() > 0);
+	}
+	
+	@Test
+	public void whenEvaluatingJobsInParallel_solutionShouldBeTheSameAsSequential(){
+		RegretInsertion sequential = createRegretInsertion(2, null);
+		List<VehicleRoute> sequentialRoutes = new ArrayList<VehicleRoute>();
+		sequential.insertJobs(sequentialRoutes, new ArrayList<Job>(vrp.getJobs().values()));
+		double sequentialCosts = getCosts(sequentialRoutes);
+		
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try{
+			RegretInsertion parallel = createRegretInsertion(2, executor);
+			List<VehicleRoute> parallelRoutes = new ArrayList<VehicleRoute>();
+			parallel.insertJobs(parallelRoutes, new ArrayList<Job>(vrp.getJobs().values()));
+			assertEquals(30, getNuOfJobs(parallelRoutes));
+			assertEquals(sequentialRoutes.size(), parallelRoutes.size());
+			assertEquals(sequentialCosts, getCosts(parallelRoutes), 0.01);
+		}
+		finally{
+			executor.shutdown();
+		}
+	}
+	
+	@Test
+	public void whenOneTaskFails_otherTasksShouldHaveFinishedWhenExceptionIsThrown(){
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try{
+			final AtomicInteger nuOfRunningCalculations = new AtomicInteger(0);
+			JobInsertionCostsCalculator calculator = new JobInsertionCostsCalculator() {
+				
+				@Override
+				public InsertionData getInsertionData(VehicleRoute currentRoute, Job newJob, Vehicle newVehicle, double newVehicleDepartureTime, Driver newDriver, double bestKnownCosts) {
+					nuOfRunningCalculations.incrementAndGet();
+					try{
+						Thread.sleep(newJob.getId().equals("s0") ? 5 : 20);
+						if(newJob.getId().equals("s0")) throw new IllegalStateException("calculation failed");
+						return new InsertionData.NoInsertionFound();
+					}
+					catch (InterruptedException e) {
+						throw new IllegalStateException(e);
+					}
+					finally{
+						nuOfRunningCalculations.decrementAndGet();
+					}
+				}
+				
+			};
+			RegretInsertion regretInsertion = new RegretInsertion(calculator, 2, executor, 4);
+			List<Job> jobs = new ArrayList<Job>(vrp.getJobs().values());
+			Job s0 = vrp.getJobs().get("s0");
+			jobs.remove(s0);
+			jobs.add(0, s0);
+			try{
+				regretInsertion.insertJobs(new ArrayList<VehicleRoute>(), jobs);
+				fail("calculation of s0 fails");
+			}
+			catch(IllegalStateException e){
+				assertEquals("calculation failed", e.getMessage());
+				assertEquals(0, nuOfRunningCalculations.get());
+			}
+		}
+		finally{
+			executor.shutdown();
+		}
+	}
+	
+	@Test
+	public void whenOfferingAlternatives_theyShouldBeSortedAndRegretShouldBeCalculated(){
+		RegretInsertion.Alternatives alternatives = new RegretInsertion.Alternatives(null, 3);
+		VehicleRoute r1 = VehicleRoute.emptyRoute();
+		VehicleRoute r2 = VehicleRoute.emptyRoute();
+		VehicleRoute r3 = VehicleRoute.emptyRoute();
+		VehicleRoute r4 = VehicleRoute.emptyRoute();
+		alternatives.offer(r1, new InsertionData(10., 0, 0, null, null));
+		alternatives.offer(r2, new InsertionData(5., 0, 0, null, null));
+		assertEquals(Double.MAX_VALUE, alternatives.getRegret(), 0.01);
+		alternatives.offer(r3, new InsertionData(20., 0, 0, null, null));
+		alternatives.offer(r4, new InsertionData(7., 0, 0, null, null));
+		alternatives.offer(r1, InsertionData.createEmptyInsertionData());
+		assertEquals(3, alternatives.size());
+		assertTrue(r2 == alternatives.getBestRoute());
+		assertTrue(!alternatives.contains(r3));
+		assertEquals((7.-5.)+(10.-5.), alternatives.getRegret(), 0.01);
+	}
+
+}
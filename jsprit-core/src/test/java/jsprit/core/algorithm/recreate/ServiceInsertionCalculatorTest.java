@@ -0,0 +1,169 @@
+package jsprit.core.algorithm.recreate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import jsprit.core.algorithm.state.StateManager;
+import jsprit.core.algorithm.state.UpdateActivityTimes;
+import jsprit.core.problem.VehicleRoutingProblem;
+import jsprit.core.problem.constraint.ConstraintManager;
+import jsprit.core.problem.constraint.ConstraintManager.Priority;
+import jsprit.core.problem.constraint.HardActivityStateLevelConstraint;
+import jsprit.core.problem.cost.AbstractForwardVehicleRoutingTransportCosts;
+import jsprit.core.problem.cost.VehicleRoutingActivityCosts;
+import jsprit.core.problem.cost.VehicleRoutingTransportCosts;
+import jsprit.core.problem.driver.Driver;
+import jsprit.core.problem.driver.DriverImpl;
+import jsprit.core.problem.job.Job;
+import jsprit.core.problem.job.Service;
+import jsprit.core.problem.misc.JobInsertionContext;
+import jsprit.core.problem.solution.route.VehicleRoute;
+import jsprit.core.problem.solution.route.activity.TimeWindow;
+import jsprit.core.problem.solution.route.activity.TourActivity;
+import jsprit.core.problem.vehicle.Vehicle;
+import jsprit.core.problem.vehicle.VehicleImpl;
+import jsprit.core.problem.vehicle.VehicleTypeImpl;
+import jsprit.core.util.CostFactory;
+import jsprit.core.util.Neighborhood;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class ServiceInsertionCalculatorTest {
+	
+	private ServiceInsertionCalculator insertionCalculator;
+	
+	private VehicleRoute route;
+	
+	private Vehicle vehicle;
+	
+	private VehicleRoutingProblem vrp;
+	
+	private VehicleRoutingActivityCosts activityCosts;
+	
+	private List<TourActivity> checkedNextActs = new ArrayList<TourActivity>();
+	
+	@Before
+	public void doBefore(){
+		VehicleRoutingTransportCosts routingCosts = CostFactory.createManhattanCosts();
+		vehicle = VehicleImpl.Builder.newInstance("v").setStartLocationId("0,0").setLatestArrival(1000.)
+				.setType(VehicleTypeImpl.Builder.newInstance("t").setCostPerDistance(1.).build()).build();
+		Service s1 = Service.Builder.newInstance("s1").setLocationId("0,10").setTimeWindow(TimeWindow.newInstance(0, 100)).build();
+		Service s2 = Service.Builder.newInstance("s2").setLocationId("10,10").setTimeWindow(TimeWindow.newInstance(0, 200)).build();
+		Service s3 = Service.Builder.newInstance("s3").setLocationId("20,10").setTimeWindow(TimeWindow.newInstance(0, 300)).build();
+		vrp = VehicleRoutingProblem.Builder.newInstance().setRoutingCost(routingCosts).addVehicle(vehicle)
+				.addJob(s1).addJob(s2).addJob(s3).build();
+		route = VehicleRoute.Builder.newInstance(vehicle, DriverImpl.noDriver()).addService(s1).addService(s2).addService(s3).build();
+		
+		StateManager stateManager = new StateManager(routingCosts);
+		stateManager.updateTimeWindowStates();
+		stateManager.informInsertionStarts(Arrays.asList(route), Collections.<Job>emptyList());
+		
+		ConstraintManager constraintManager = new ConstraintManager(vrp, stateManager);
+		constraintManager.addTimeWindowConstraint();
+		constraintManager.addConstraint(new HardActivityStateLevelConstraint() {
+			
+			@Override
+			public ConstraintsStatus fulfilled(JobInsertionContext iFacts, TourActivity prevAct, TourActivity newAct, TourActivity nextAct, double prevActDepTime) {
+				checkedNextActs.add(nextAct);
+				return ConstraintsStatus.FULFILLED;
+			}
+			
+		}, Priority.CRITICAL);
+		activityCosts = new VehicleRoutingActivityCosts(){
+
+			@Override
+			public double getActivityCost(TourActivity tourAct, double arrivalTime, Driver driver, Vehicle vehicle) {
+				return 0;
+			}
+			
+		};
+		insertionCalculator = new ServiceInsertionCalculator(routingCosts, new LocalActivityInsertionCostsCalculator(routingCosts, activityCosts), constraintManager);
+	}
+	
+	@Test
+	public void whenServiceCannotBeInsertedEarlyInRoute_earlyPositionsShouldNotBeChecked(){
+		Service service = Service.Builder.newInstance("new").setLocationId("15,12").setTimeWindow(TimeWindow.newInstance(250, 500)).build();
+		InsertionData iData = insertionCalculator.getInsertionData(route, service, vehicle, 0.0, DriverImpl.noDriver(), Double.MAX_VALUE);
+		assertEquals(2,iData.getDeliveryInsertionIndex());
+		assertEquals(4.,iData.getInsertionCost(),0.01);
+		assertEquals(2,checkedNextActs.size());
+		assertTrue(checkedNextActs.get(0) == route.getActivities().get(2));
+	}
+	
+	@Test
+	public void whenServiceCannotBeServedInTime_routeShouldBeSkipped(){
+		Service service = Service.Builder.newInstance("new").setLocationId("15,12").setTimeWindow(TimeWindow.newInstance(1100, 1200)).build();
+		InsertionData iData = insertionCalculator.getInsertionData(route, service, vehicle, 0.0, DriverImpl.noDriver(), Double.MAX_VALUE);
+		assertTrue(iData instanceof InsertionData.NoInsertionFound);
+		assertEquals(0,checkedNextActs.size());
+	}
+	
+	@Test
+	public void whenServiceMustBeServedEarly_laterPositionsShouldNotBeChecked(){
+		Service service = Service.Builder.newInstance("new").setLocationId("5,10").setTimeWindow(TimeWindow.newInstance(0, 16)).build();
+		InsertionData iData = insertionCalculator.getInsertionData(route, service, vehicle, 0.0, DriverImpl.noDriver(), Double.MAX_VALUE);
+		assertEquals(1,iData.getDeliveryInsertionIndex());
+		assertEquals(3,checkedNextActs.size());
+	}
+	
+	@Test
+	public void whenSettingNeighborhood_onlyPositionsAdjacentToNeighborsShouldBeChecked(){
+		insertionCalculator.setNeighborhood(new Neighborhood() {
+			
+			@Override
+			public boolean areNeighbors(String location1, String location2) {
+				return location1.equals("20,10") || location2.equals("20,10");
+			}
+			
+		});
+		Service service = Service.Builder.newInstance("new").setLocationId("15,12").setTimeWindow(TimeWindow.newInstance(0, 500)).build();
+		InsertionData iData = insertionCalculator.getInsertionData(route, service, vehicle, 0.0, DriverImpl.noDriver(), Double.MAX_VALUE);
+		assertEquals(2,iData.getDeliveryInsertionIndex());
+		assertEquals(2,checkedNextActs.size());
+		assertTrue(checkedNextActs.get(0) == route.getActivities().get(2));
+	}
+	
+	@Test
+	public void whenActivityTimesAreUpdated_positionsBeforeEarliestInsertionIndexShouldNotBeVisited(){
+		final VehicleRoutingTransportCosts routingCosts = CostFactory.createManhattanCosts();
+		final List<String> departureLocations = new ArrayList<String>();
+		VehicleRoutingTransportCosts recordingCosts = new AbstractForwardVehicleRoutingTransportCosts() {
+			
+			@Override
+			public double getTransportTime(String fromId, String toId, double departureTime, Driver driver, Vehicle vehicle) {
+				departureLocations.add(fromId);
+				return routingCosts.getTransportTime(fromId, toId, departureTime, driver, vehicle);
+			}
+			
+			@Override
+			public double getTransportCost(String fromId, String toId, double departureTime, Driver driver, Vehicle vehicle) {
+				return routingCosts.getTransportCost(fromId, toId, departureTime, driver, vehicle);
+			}
+			
+		};
+		StateManager stateManager = new StateManager(recordingCosts);
+		stateManager.updateTimeWindowStates();
+		stateManager.addStateUpdater(new UpdateActivityTimes(recordingCosts));
+		stateManager.informInsertionStarts(Arrays.asList(route), Collections.<Job>emptyList());
+		ConstraintManager constraintManager = new ConstraintManager(vrp, stateManager);
+		constraintManager.addTimeWindowConstraint();
+		ServiceInsertionCalculator calculator = new ServiceInsertionCalculator(recordingCosts, new LocalActivityInsertionCostsCalculator(recordingCosts, activityCosts), constraintManager);
+		calculator.setStateManager(stateManager);
+		departureLocations.clear();
+		
+		Service service = Service.Builder.newInstance("new").setLocationId("15,12").setTimeWindow(TimeWindow.newInstance(250, 500)).build();
+		InsertionData iData = calculator.getInsertionData(route, service, vehicle, 0.0, route.getDriver(), Double.MAX_VALUE);
+		assertEquals(2,iData.getDeliveryInsertionIndex());
+		assertEquals(4.,iData.getInsertionCost(),0.01);
+		assertFalse(departureLocations.contains("0,0"));
+		assertFalse(departureLocations.contains("0,10"));
+	}
+
+}
@@ -31,6 +31,7 @@ import jsprit.core.problem.vehicle.VehicleImpl;
 import jsprit.core.problem.vehicle.VehicleType;
 import jsprit.core.problem.vehicle.VehicleTypeImpl;
 import jsprit.core.util.CostFactory;
+import jsprit.core.util.Neighborhood;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -163,6 +164,49 @@ public class ShipmentInsertionCalculatorTest {
 		assertEquals(1,iData.getDeliveryInsertionIndex());
 	}
 	
+	@Test
+	public void whenSettingNeighborhood_onlyPickupPositionsAdjacentToNeighborsShouldBeConsidered(){
+		Shipment shipment = Shipment.Builder.newInstance("s").addSizeDimension(0, 1).setPickupLocation("0,10").setDeliveryLocation("10,0").build();
+		Shipment shipment2 = Shipment.Builder.newInstance("s2").addSizeDimension(0, 1).setPickupLocation("10,10").setDeliveryLocation("0,0").build();
+		Shipment shipment3 = Shipment.Builder.newInstance("s3").addSizeDimension(0, 1).setPickupLocation("0,0").setDeliveryLocation("9,9").build();
+		
+		VehicleRoute route = VehicleRoute.emptyRoute();
+		Inserter inserter = new Inserter(new InsertionListeners());
+		inserter.insertJob(shipment, new InsertionData(0,0,0,vehicle,null), route);
+		inserter.insertJob(shipment2, new InsertionData(0,1,2,vehicle,null),route);
+		
+		insertionCalculator.setNeighborhood(new Neighborhood() {
+			
+			@Override
+			public boolean areNeighbors(String location1, String location2) {
+				return location1.equals("10,10") || location2.equals("10,10");
+			}
+			
+		});
+		InsertionData iData = insertionCalculator.getInsertionData(route, shipment3, vehicle, 0.0, null, Double.MAX_VALUE);
+		assertTrue(route.getActivities().get(1).getLocationId().equals("10,10"));
+		assertTrue(iData.getPickupInsertionIndex() == 1 || iData.getPickupInsertionIndex() == 2);
+	}
+	
+	@Test
+	public void whenNeighborhoodHasNoNeighbors_itShouldReturnNoInsertion(){
+		Shipment shipment = Shipment.Builder.newInstance("s").addSizeDimension(0, 1).setPickupLocation("0,10").setDeliveryLocation("10,0").build();
+		Shipment shipment2 = Shipment.Builder.newInstance("s2").addSizeDimension(0, 1).setPickupLocation("10,10").setDeliveryLocation("0,0").build();
+		VehicleRoute route = VehicleRoute.emptyRoute();
+		new Inserter(new InsertionListeners()).insertJob(shipment, new InsertionData(0,0,0,vehicle,null), route);
+		
+		insertionCalculator.setNeighborhood(new Neighborhood() {
+			
+			@Override
+			public boolean areNeighbors(String location1, String location2) {
+				return false;
+			}
+			
+		});
+		InsertionData iData = insertionCalculator.getInsertionData(route, shipment2, vehicle, 0.0, null, Double.MAX_VALUE);
+		assertTrue(iData instanceof InsertionData.NoInsertionFound);
+	}
+	
 	@Test
 	public void whenInstertingShipmentWithLoadConstraintWhereCapIsNotSufficient_capConstraintsAreFulfilled(){
 		Shipment shipment = Shipment.Builder.newInstance("s").addSizeDimension(0, 1).setPickupLocation("0,10").setDeliveryLocation("10,0").build();
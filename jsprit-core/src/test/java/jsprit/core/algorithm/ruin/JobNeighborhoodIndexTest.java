@@ -0,0 +1,206 @@
+package jsprit.core.algorithm.ruin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import jsprit.core.algorithm.ruin.distance.AvgServiceAndShipmentDistance;
+import jsprit.core.algorithm.ruin.distance.EuclideanServiceDistance;
+import jsprit.core.algorithm.ruin.distance.JobDistance;
+import jsprit.core.problem.JobDelta;
+import jsprit.core.problem.VehicleRoutingProblem;
+import jsprit.core.problem.job.Job;
+import jsprit.core.problem.job.Service;
+import jsprit.core.util.Coordinate;
+
+import org.junit.Before;
+import org.junit.Test;
+
+
+public class JobNeighborhoodIndexTest {
+
+	VehicleRoutingProblem vrp;
+	
+	JobDistance jobDistance;
+	
+	Service target;
+	Service s2;
+	Service s3;
+	Service s4;
+	Service s5;
+	Service s6;
+	Service s7;
+	
+	@Before
+	public void doBefore(){
+		VehicleRoutingProblem.Builder builder = VehicleRoutingProblem.Builder.newInstance();
+		target = Service.Builder.newInstance("s1").addSizeDimension(0, 1).setLocationId("0,5").setCoord(Coordinate.newInstance(0, 5)).build();
+		s2 = Service.Builder.newInstance("s2").addSizeDimension(0, 1).setLocationId("0,4").setCoord(Coordinate.newInstance(0, 4)).build();
+		s3 = Service.Builder.newInstance("s3").addSizeDimension(0, 1).setLocationId("0,3").setCoord(Coordinate.newInstance(0, 3)).build();
+		s4 = Service.Builder.newInstance("s4").addSizeDimension(0, 1).setLocationId("0,2").setCoord(Coordinate.newInstance(0, 2)).build();
+		
+		s5 = Service.Builder.newInstance("s5").addSizeDimension(0, 1).setLocationId("0,6").setCoord(Coordinate.newInstance(0, 6)).build();
+		s6 = Service.Builder.newInstance("s6").addSizeDimension(0, 1).setLocationId("0,7").setCoord(Coordinate.newInstance(0, 7)).build();
+		s7 = Service.Builder.newInstance("s7").addSizeDimension(0, 1).setLocationId("0,8").setCoord(Coordinate.newInstance(0, 8)).build();
+		
+		vrp = builder.addJob(target).addJob(s2).addJob(s3).addJob(s4).addJob(s5).addJob(s6).addJob(s7).build();
+		
+		jobDistance = new EuclideanServiceDistance();
+	}
+	
+	private List<Job> getNeighbors(JobNeighborhoodIndex index, int nNeighbors, Job job){
+		Iterator<Job> iter = index.getNearestNeighborsIterator(nNeighbors, job);
+		List<Job> jobs = new ArrayList<Job>();
+		while(iter.hasNext()){
+			jobs.add(iter.next());
+		}
+		return jobs;
+	}
+	
+	@Test
+	public void whenRequestingNeighborhoodOfTargetJob_neighborsShouldBeSortedByDistance(){
+		JobNeighborhoodIndex index = JobNeighborhoodIndex.Builder.newInstance(vrp, jobDistance).setNuOfNeighbors(4).setNuOfThreads(1).build();
+		List<Job> neighbors = getNeighbors(index, 4, s7);
+		assertEquals(4,neighbors.size());
+		assertSame(s6,neighbors.get(0));
+		assertSame(s5,neighbors.get(1));
+		assertSame(target,neighbors.get(2));
+		assertSame(s2,neighbors.get(3));
+	}
+	
+	@Test
+	public void whenRequestingNeighborhoodOfTargetJob_s2AndS5ShouldBeNeighbors(){
+		JobNeighborhoodIndex index = JobNeighborhoodIndex.Builder.newInstance(vrp, jobDistance).setNuOfNeighbors(2).build();
+		List<Job> neighbors = getNeighbors(index, 2, target);
+		assertEquals(2,neighbors.size());
+		assertTrue(neighbors.contains(s2));
+		assertTrue(neighbors.contains(s5));
+	}
+	
+	@Test
+	public void whenRequestingMoreNeighborsThanMemorized_itShouldReturnMemorizedNeighbors(){
+		JobNeighborhoodIndex index = JobNeighborhoodIndex.Builder.newInstance(vrp, jobDistance).setNuOfNeighbors(2).build();
+		assertEquals(2,getNeighbors(index, 100, target).size());
+	}
+	
+	@Test
+	public void whenMemorizingMoreNeighborsThanJobs_itShouldMemorizeAllOtherJobs(){
+		JobNeighborhoodIndex index = JobNeighborhoodIndex.Builder.newInstance(vrp, jobDistance).setNuOfNeighbors(100).build();
+		assertEquals(6,index.getNuOfNeighbors());
+		assertEquals(6,getNeighbors(index, 100, target).size());
+	}
+	
+	@Test
+	public void parallelAndSequentialBuildShouldYieldSameIndex(){
+		JobNeighborhoodIndex seq = JobNeighborhoodIndex.Builder.newInstance(vrp, jobDistance).setNuOfNeighbors(3).setNuOfThreads(1).build();
+		JobNeighborhoodIndex par = JobNeighborhoodIndex.Builder.newInstance(vrp, jobDistance).setNuOfNeighbors(3).setNuOfThreads(3).build();
+		for(Job job : vrp.getJobs().values()){
+			assertEquals(getNeighbors(seq, 3, job),getNeighbors(par, 3, job));
+			int i = seq.getIndex(job);
+			assertEquals(seq.getDistances(i)[0],par.getDistances(par.getIndex(job))[0],0.01);
+		}
+	}
+	
+	@Test
+	public void sharedInstanceShouldBeReusedForSameVrp(){
+		JobNeighborhoodIndex index = JobNeighborhoodIndex.getSharedInstance(vrp, 2);
+		assertSame(index,JobNeighborhoodIndex.getSharedInstance(vrp, 1));
+		JobNeighborhoodIndex bigger = JobNeighborhoodIndex.getSharedInstance(vrp, 4);
+		assertEquals(4,bigger.getNuOfNeighbors());
+		assertSame(bigger,JobNeighborhoodIndex.getSharedInstance(vrp, 2));
+	}
+	
+	@Test
+	public void whenUsingSpatialIndex_neighborsShouldBeSameAsWithBruteForce(){
+		VehicleRoutingProblem.Builder builder = VehicleRoutingProblem.Builder.newInstance();
+		Random random = new Random(4711);
+		for(int i=0;i<200;i++){
+			builder.addJob(Service.Builder.newInstance("s"+i).addSizeDimension(0, 1).setCoord(Coordinate.newInstance(random.nextInt(30), random.nextInt(30))).build());
+		}
+		VehicleRoutingProblem vrp = builder.build();
+		final JobDistance euclidean = new EuclideanServiceDistance();
+		JobDistance bruteForceDistance = new JobDistance() {
+			
+			@Override
+			public double getDistance(Job i, Job j) {
+				return euclidean.getDistance(i, j);
+			}
+			
+		};
+		JobNeighborhoodIndex spatial = JobNeighborhoodIndex.Builder.newInstance(vrp, euclidean).setNuOfNeighbors(10).build();
+		JobNeighborhoodIndex bruteForce = JobNeighborhoodIndex.Builder.newInstance(vrp, bruteForceDistance).setNuOfNeighbors(10).build();
+		for(Job job : vrp.getJobs().values()){
+			assertEquals(getNeighbors(bruteForce, 10, job),getNeighbors(spatial, 10, job));
+		}
+	}
+	
+	@Test
+	public void whenPatchingIndex_itShouldEqualRebuiltIndex(){
+		VehicleRoutingProblem.Builder builder = VehicleRoutingProblem.Builder.newInstance();
+		Random random = new Random(815);
+		for(int i=0;i<100;i++){
+			builder.addJob(Service.Builder.newInstance("s"+i).addSizeDimension(0, 1).setCoord(Coordinate.newInstance(random.nextDouble() * 30, random.nextDouble() * 30)).build());
+		}
+		VehicleRoutingProblem vrp = builder.build();
+		JobDelta.Builder deltaBuilder = JobDelta.Builder.newInstance();
+		for(int i=0;i<10;i++){
+			deltaBuilder.removeJob("s"+i);
+			deltaBuilder.changeJob(Service.Builder.newInstance("s"+(50+i)).addSizeDimension(0, 1).setCoord(Coordinate.newInstance(random.nextDouble() * 30, random.nextDouble() * 30)).build());
+			deltaBuilder.addJob(Service.Builder.newInstance("new"+i).addSizeDimension(0, 1).setCoord(Coordinate.newInstance(random.nextDouble() * 30, random.nextDouble() * 30)).build());
+		}
+		VehicleRoutingProblem changedVrp = deltaBuilder.build().applyTo(vrp);
+		JobNeighborhoodIndex index = JobNeighborhoodIndex.Builder.newInstance(vrp, jobDistance).setNuOfNeighbors(10).build();
+		JobNeighborhoodIndex patched = index.patch(changedVrp, jobDistance, 10);
+		JobNeighborhoodIndex rebuilt = JobNeighborhoodIndex.Builder.newInstance(changedVrp, jobDistance).setNuOfNeighbors(10).build();
+		assertEquals(10,patched.getNuOfNeighbors());
+		for(Job job : changedVrp.getJobs().values()){
+			assertEquals(getNeighbors(rebuilt, 10, job),getNeighbors(patched, 10, job));
+		}
+	}
+	
+	@Test
+	public void whenPatchingSharedInstance_patchedIndexShouldBeSharedForNewVrp(){
+		JobNeighborhoodIndex index = JobNeighborhoodIndex.getSharedInstance(vrp, 2);
+		Service s8 = Service.Builder.newInstance("s8").addSizeDimension(0, 1).setLocationId("0,9").setCoord(Coordinate.newInstance(0, 9)).build();
+		VehicleRoutingProblem changedVrp = JobDelta.Builder.newInstance().addJob(s8).build().applyTo(vrp);
+		JobNeighborhoodIndex patched = JobNeighborhoodIndex.patchSharedInstance(vrp, changedVrp);
+		assertSame(patched,JobNeighborhoodIndex.getSharedInstance(changedVrp, 2));
+		assertEquals(index.getNuOfNeighbors() + 1,patched.getNuOfNeighbors());
+		assertSame(s7,getNeighbors(patched, 1, s8).get(0));
+	}
+	
+	@Test
+	public void whenPatchingSharedInstanceWithAddedJobsOnly_itShouldEqualRebuiltIndex(){
+		VehicleRoutingProblem.Builder builder = VehicleRoutingProblem.Builder.newInstance();
+		Random random = new Random(4711);
+		for(int i=0;i<100;i++){
+			builder.addJob(Service.Builder.newInstance("s"+i).addSizeDimension(0, 1).setCoord(Coordinate.newInstance(random.nextDouble() * 30, random.nextDouble() * 30)).build());
+		}
+		VehicleRoutingProblem vrp = builder.build();
+		JobNeighborhoodIndex.getSharedInstance(vrp, 10);
+		JobDelta.Builder deltaBuilder = JobDelta.Builder.newInstance();
+		for(int i=0;i<30;i++){
+			deltaBuilder.addJob(Service.Builder.newInstance("new"+i).addSizeDimension(0, 1).setCoord(Coordinate.newInstance(random.nextDouble() * 60, random.nextDouble() * 60)).build());
+		}
+		VehicleRoutingProblem changedVrp = deltaBuilder.build().applyTo(vrp);
+		JobNeighborhoodIndex patched = JobNeighborhoodIndex.patchSharedInstance(vrp, changedVrp);
+		assertEquals(13,patched.getNuOfNeighbors());
+		JobNeighborhoodIndex rebuilt = JobNeighborhoodIndex.Builder.newInstance(changedVrp, new AvgServiceAndShipmentDistance(changedVrp.getTransportCosts())).setNuOfNeighbors(13).build();
+		for(Job job : changedVrp.getJobs().values()){
+			assertEquals(getNeighbors(rebuilt, 13, job),getNeighbors(patched, 13, job));
+		}
+	}
+	
+	@Test
+	public void whenNoIndexIsSharedForVrp_patchingSharedInstanceShouldReturnNull(){
+		VehicleRoutingProblem changedVrp = JobDelta.Builder.newInstance().removeJob("s2").build().applyTo(vrp);
+		assertNull(JobNeighborhoodIndex.patchSharedInstance(vrp, changedVrp));
+	}
+
+}
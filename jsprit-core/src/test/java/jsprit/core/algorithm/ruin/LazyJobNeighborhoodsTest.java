@@ -0,0 +1,99 @@
+package jsprit.core.algorithm.ruin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import jsprit.core.algorithm.ruin.distance.EuclideanServiceDistance;
+import jsprit.core.algorithm.ruin.distance.JobDistance;
+import jsprit.core.problem.VehicleRoutingProblem;
+import jsprit.core.problem.job.Job;
+import jsprit.core.problem.job.Service;
+import jsprit.core.util.Coordinate;
+
+import org.junit.Before;
+import org.junit.Test;
+
+
+public class LazyJobNeighborhoodsTest {
+
+	VehicleRoutingProblem vrp;
+	
+	JobDistance jobDistance;
+	
+	Service target;
+	Service s2;
+	Service s3;
+	Service s4;
+	Service s5;
+	
+	@Before
+	public void doBefore(){
+		VehicleRoutingProblem.Builder builder = VehicleRoutingProblem.Builder.newInstance();
+		target = Service.Builder.newInstance("s1").addSizeDimension(0, 1).setCoord(Coordinate.newInstance(0, 5)).build();
+		s2 = Service.Builder.newInstance("s2").addSizeDimension(0, 1).setCoord(Coordinate.newInstance(0, 4)).build();
+		s3 = Service.Builder.newInstance("s3").addSizeDimension(0, 1).setCoord(Coordinate.newInstance(0, 2)).build();
+		s4 = Service.Builder.newInstance("s4").addSizeDimension(0, 1).setCoord(Coordinate.newInstance(0, 7)).build();
+		s5 = Service.Builder.newInstance("s5").addSizeDimension(0, 1).setCoord(Coordinate.newInstance(0, 10)).build();
+		vrp = builder.addJob(target).addJob(s2).addJob(s3).addJob(s4).addJob(s5).build();
+		jobDistance = new EuclideanServiceDistance();
+	}
+	
+	private List<Job> getNeighbors(LazyJobNeighborhoods neighborhoods, int nNeighbors, Job job){
+		Iterator<Job> iter = neighborhoods.getNearestNeighborsIterator(nNeighbors, job);
+		List<Job> jobs = new ArrayList<Job>();
+		while(iter.hasNext()){
+			jobs.add(iter.next());
+		}
+		return jobs;
+	}
+	
+	@Test
+	public void whenRequestingNeighborhoodOfTargetJob_neighborsShouldBeSortedByDistance(){
+		LazyJobNeighborhoods neighborhoods = new LazyJobNeighborhoods(vrp, jobDistance, 3, 10);
+		List<Job> neighbors = getNeighbors(neighborhoods, 3, target);
+		assertEquals(3,neighbors.size());
+		assertSame(s2,neighbors.get(0));
+		assertSame(s4,neighbors.get(1));
+		assertSame(s3,neighbors.get(2));
+	}
+	
+	@Test
+	public void whenNothingIsRequested_nothingShouldBeCalculated(){
+		LazyJobNeighborhoods neighborhoods = new LazyJobNeighborhoods(vrp, jobDistance, 3, 10);
+		assertEquals(0,neighborhoods.getNuOfCachedNeighborhoods());
+		assertEquals(0,neighborhoods.getNuOfCacheMisses());
+	}
+	
+	@Test
+	public void whenRequestingSameJobTwice_secondRequestShouldHitCache(){
+		LazyJobNeighborhoods neighborhoods = new LazyJobNeighborhoods(vrp, jobDistance, 3, 10);
+		getNeighbors(neighborhoods, 3, target);
+		getNeighbors(neighborhoods, 2, target);
+		assertEquals(1,neighborhoods.getNuOfCacheMisses());
+		assertEquals(1,neighborhoods.getNuOfCacheHits());
+	}
+	
+	@Test
+	public void whenCacheIsFull_leastRecentlyUsedNeighborhoodShouldBeEvicted(){
+		LazyJobNeighborhoods neighborhoods = new LazyJobNeighborhoods(vrp, jobDistance, 3, 2);
+		getNeighbors(neighborhoods, 3, target);
+		getNeighbors(neighborhoods, 3, s2);
+		getNeighbors(neighborhoods, 3, target);
+		getNeighbors(neighborhoods, 3, s3);
+		assertEquals(2,neighborhoods.getNuOfCachedNeighborhoods());
+		getNeighbors(neighborhoods, 3, target);
+		assertEquals(2,neighborhoods.getNuOfCacheHits());
+		getNeighbors(neighborhoods, 3, s2);
+		assertEquals(4,neighborhoods.getNuOfCacheMisses());
+	}
+	
+	@Test(expected=IllegalStateException.class)
+	public void whenCacheSizeIsZero_itShouldThrowException(){
+		new LazyJobNeighborhoods(vrp, jobDistance, 3, 0);
+	}
+
+}
@@ -0,0 +1,286 @@
+package jsprit.core.algorithm.state;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import jsprit.core.algorithm.recreate.InsertionData;
+import jsprit.core.problem.Capacity;
+import jsprit.core.problem.cost.VehicleRoutingActivityCosts;
+import jsprit.core.problem.cost.VehicleRoutingTransportCosts;
+import jsprit.core.problem.driver.DriverImpl;
+import jsprit.core.problem.job.Delivery;
+import jsprit.core.problem.job.Job;
+import jsprit.core.problem.job.Pickup;
+import jsprit.core.problem.job.Service;
+import jsprit.core.problem.job.Shipment;
+import jsprit.core.problem.solution.route.VehicleRoute;
+import jsprit.core.problem.solution.route.activity.DefaultShipmentActivityFactory;
+import jsprit.core.problem.solution.route.activity.DefaultTourActivityFactory;
+import jsprit.core.problem.solution.route.activity.IncrementalActivityVisitor;
+import jsprit.core.problem.solution.route.activity.TimeWindow;
+import jsprit.core.problem.solution.route.activity.TourActivity;
+import jsprit.core.problem.solution.route.state.StateFactory;
+import jsprit.core.problem.vehicle.Vehicle;
+import jsprit.core.problem.vehicle.VehicleImpl;
+import jsprit.core.problem.vehicle.VehicleTypeImpl;
+import jsprit.core.util.CostFactory;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class IncrementalStateUpdateTest {
+	
+	private VehicleRoutingTransportCosts routingCosts;
+	
+	private VehicleRoutingActivityCosts activityCosts;
+	
+	private Vehicle vehicle;
+	
+	private StateManager incrementalStates;
+	
+	private StateManager fullStates;
+	
+	private VehicleRoute incrementalRoute;
+	
+	private VehicleRoute fullRoute;
+	
+	@Before
+	public void doBefore(){
+		routingCosts = CostFactory.createManhattanCosts();
+		activityCosts = new VehicleRoutingActivityCosts() {
+			
+			@Override
+			public double getActivityCost(TourActivity tourAct, double arrivalTime, jsprit.core.problem.driver.Driver driver, Vehicle vehicle) {
+				return Math.max(0., arrivalTime - tourAct.getTheoreticalLatestOperationStartTime());
+			}
+			
+		};
+		VehicleTypeImpl type = VehicleTypeImpl.Builder.newInstance("t").addCapacityDimension(0, 1000).build();
+		vehicle = VehicleImpl.Builder.newInstance("v").setType(type).setStartLocationId("0,0").setLatestArrival(10000.).build();
+		incrementalStates = createStateManager();
+		fullStates = createStateManager();
+		incrementalRoute = VehicleRoute.Builder.newInstance(vehicle, DriverImpl.noDriver()).build();
+		fullRoute = VehicleRoute.Builder.newInstance(vehicle, DriverImpl.noDriver()).build();
+		incrementalStates.informInsertionStarts(Arrays.asList(incrementalRoute), null);
+		fullStates.informInsertionStarts(Arrays.asList(fullRoute), null);
+	}
+
+	private StateManager createStateManager() {
+		StateManager stateManager = new StateManager(routingCosts);
+		stateManager.updateLoadStates();
+		stateManager.updateTimeWindowStates();
+		stateManager.addStateUpdater(new UpdateActivityTimes(routingCosts));
+		stateManager.addStateUpdater(new UpdateVariableCosts(activityCosts, routingCosts, stateManager));
+		return stateManager;
+	}
+	
+	private Job createJob(int id, Random random){
+		String loc = random.nextInt(100) + "," + random.nextInt(100);
+		TimeWindow tw = TimeWindow.newInstance(random.nextInt(500), 500 + random.nextInt(2000));
+		switch(id % 4){
+		case 0: return Pickup.Builder.newInstance("" + id).addSizeDimension(0, 1).setLocationId(loc).setTimeWindow(tw).build();
+		case 1: return Delivery.Builder.newInstance("" + id).addSizeDimension(0, 2).setLocationId(loc).setTimeWindow(tw).build();
+		case 2: return Service.Builder.newInstance("" + id).addSizeDimension(0, 1).setLocationId(loc).setServiceTime(5.).setTimeWindow(tw).build();
+		default: return Shipment.Builder.newInstance("" + id).addSizeDimension(0, 3).setPickupLocation(loc).setDeliveryLocation(random.nextInt(100) + "," + random.nextInt(100))
+				.setDeliveryTimeWindow(tw).build();
+		}
+	}
+	
+	private void insert(StateManager stateManager, VehicleRoute route, Job job, int pickupIndex, int deliveryIndex, boolean informBeforeInsertion){
+		if(informBeforeInsertion){
+			stateManager.informBeforeJobInsertion(job, new InsertionData(0., pickupIndex, deliveryIndex, vehicle, null), route);
+		}
+		if(job instanceof Shipment){
+			DefaultShipmentActivityFactory factory = new DefaultShipmentActivityFactory();
+			route.getTourActivities().addActivity(deliveryIndex, factory.createDelivery((Shipment) job));
+			route.getTourActivities().addActivity(pickupIndex, factory.createPickup((Shipment) job));
+		}
+		else{
+			route.getTourActivities().addActivity(deliveryIndex, new DefaultTourActivityFactory().createActivity((Service) job));
+		}
+		stateManager.informJobInserted(job, route, 0., 0.);
+	}
+	
+	@Test
+	public void whenInsertingJobsIncrementally_statesShouldBeEqualToStatesOfEntireRouteUpdate(){
+		Random random = new Random(1234);
+		for(int i=0;i<60;i++){
+			Job job = createJob(i, random);
+			int size = incrementalRoute.getActivities().size();
+			int deliveryIndex = random.nextInt(size + 1);
+			int pickupIndex = deliveryIndex;
+			if(job instanceof Shipment) pickupIndex = random.nextInt(deliveryIndex + 1);
+			insert(incrementalStates, incrementalRoute, job, pickupIndex, deliveryIndex, true);
+			insert(fullStates, fullRoute, job, pickupIndex, deliveryIndex, false);
+			assertStatesAreEqual();
+		}
+	}
+	
+	@Test
+	public void whenInsertingAtTheEnd_statesShouldBeEqualToStatesOfEntireRouteUpdate(){
+		Random random = new Random(4321);
+		for(int i=0;i<20;i++){
+			Job job = createJob(i, random);
+			int size = incrementalRoute.getActivities().size();
+			insert(incrementalStates, incrementalRoute, job, size, size, true);
+			insert(fullStates, fullRoute, job, size, size, false);
+			assertStatesAreEqual();
+		}
+	}
+
+	@Test
+	public void whenInsertingIntoLazilyCopiedRoute_statesShouldBeEqualToStatesOfEntireRouteUpdate(){
+		Random random = new Random(2468);
+		for(int i=0;i<10;i++){
+			Job job = createJob(i, random);
+			int size = incrementalRoute.getActivities().size();
+			insert(incrementalStates, incrementalRoute, job, size, size, true);
+			insert(fullStates, fullRoute, job, size, size, false);
+		}
+		incrementalRoute = VehicleRoute.lazyCopyOf(incrementalRoute);
+		incrementalStates.informInsertionStarts(Arrays.asList(incrementalRoute), null);
+		for(int i=10;i<20;i++){
+			Job job = createJob(i, random);
+			int size = incrementalRoute.getActivities().size();
+			int deliveryIndex = random.nextInt(size + 1);
+			int pickupIndex = deliveryIndex;
+			if(job instanceof Shipment) pickupIndex = random.nextInt(deliveryIndex + 1);
+			insert(incrementalStates, incrementalRoute, job, pickupIndex, deliveryIndex, true);
+			insert(fullStates, fullRoute, job, pickupIndex, deliveryIndex, false);
+			assertStatesAreEqual();
+		}
+	}
+
+	@Test
+	public void whenInsertingIntoRouteThatSharesActivities_entireRouteShouldBeUpdatedOnce(){
+		Random random = new Random(3344);
+		for(int i=0;i<10;i++){
+			Job job = createJob(i, random);
+			int size = incrementalRoute.getActivities().size();
+			insert(incrementalStates, incrementalRoute, job, size, size, true);
+			insert(fullStates, fullRoute, job, size, size, false);
+		}
+		VehicleRoute original = incrementalRoute;
+		int nuOfOriginalActivities = original.getActivities().size();
+		incrementalRoute = VehicleRoute.lazyCopyOf(original);
+		incrementalStates.informInsertionStarts(Arrays.asList(incrementalRoute), null);
+		final int[] nuOfIncrementalBegins = { 0 };
+		final int[] nuOfEntireBegins = { 0 };
+		incrementalStates.addActivityVisitor(new IncrementalActivityVisitor() {
+			
+			@Override
+			public void begin(VehicleRoute route, int fromIndex) { nuOfIncrementalBegins[0]++; }
+			
+			@Override
+			public void begin(VehicleRoute route) { nuOfEntireBegins[0]++; }
+			
+			@Override
+			public void visit(TourActivity activity) {}
+			
+			@Override
+			public void finish() {}
+			
+		});
+		for(int i=10;i<12;i++){
+			Job job = createJob(i, random);
+			int size = incrementalRoute.getActivities().size();
+			insert(incrementalStates, incrementalRoute, job, 0, size, true);
+			insert(fullStates, fullRoute, job, 0, size, false);
+			assertStatesAreEqual();
+		}
+		assertEquals(1, nuOfEntireBegins[0]);
+		assertEquals(1, nuOfIncrementalBegins[0]);
+		assertEquals(nuOfOriginalActivities, original.getActivities().size());
+	}
+
+	@Test
+	public void whenLazyCopyHasBeenModified_originalRouteShouldBeUpdatedIncrementallyAgain(){
+		Random random = new Random(1122);
+		for(int i=0;i<10;i++){
+			Job job = createJob(i, random);
+			int size = incrementalRoute.getActivities().size();
+			insert(incrementalStates, incrementalRoute, job, size, size, true);
+			insert(fullStates, fullRoute, job, size, size, false);
+		}
+		VehicleRoute copy = VehicleRoute.lazyCopyOf(incrementalRoute);
+		assertTrue(incrementalRoute.getTourActivities().isShared());
+		Service service = Service.Builder.newInstance("copyOnly").setLocationId("1,1").build();
+		copy.getTourActivities().addActivity(0, new DefaultTourActivityFactory().createActivity(service));
+		assertFalse(incrementalRoute.getTourActivities().isShared());
+		final int[] nuOfIncrementalBegins = { 0 };
+		incrementalStates.addActivityVisitor(new IncrementalActivityVisitor() {
+			
+			@Override
+			public void begin(VehicleRoute route, int fromIndex) { nuOfIncrementalBegins[0]++; }
+			
+			@Override
+			public void begin(VehicleRoute route) {}
+			
+			@Override
+			public void visit(TourActivity activity) {}
+			
+			@Override
+			public void finish() {}
+			
+		});
+		for(int i=10;i<20;i++){
+			Job job = createJob(i, random);
+			int size = incrementalRoute.getActivities().size();
+			int deliveryIndex = random.nextInt(size + 1);
+			int pickupIndex = deliveryIndex;
+			if(job instanceof Shipment) pickupIndex = random.nextInt(deliveryIndex + 1);
+			insert(incrementalStates, incrementalRoute, job, pickupIndex, deliveryIndex, true);
+			insert(fullStates, fullRoute, job, pickupIndex, deliveryIndex, false);
+			assertStatesAreEqual();
+		}
+		assertEquals(10, nuOfIncrementalBegins[0]);
+	}
+	
+	@Test
+	public void whenActivityTimesAndPastMaxLoadsAreNotUpdated_incrementalRouteStatesShouldBeEqualToStatesOfEntireRouteUpdate(){
+		incrementalStates = new StateManager(routingCosts);
+		incrementalStates.addStateUpdater(new UpdateLoads(incrementalStates));
+		incrementalStates.addStateUpdater(new UpdateMaxCapacityUtilisationAtRoute(incrementalStates));
+		incrementalStates.addStateUpdater(new UpdateVariableCosts(activityCosts, routingCosts, incrementalStates));
+		incrementalStates.informInsertionStarts(Arrays.asList(incrementalRoute), null);
+		Random random = new Random(1357);
+		for(int i=0;i<40;i++){
+			Job job = createJob(i, random);
+			int size = incrementalRoute.getActivities().size();
+			int deliveryIndex = random.nextInt(size + 1);
+			int pickupIndex = deliveryIndex;
+			if(job instanceof Shipment) pickupIndex = random.nextInt(deliveryIndex + 1);
+			insert(incrementalStates, incrementalRoute, job, pickupIndex, deliveryIndex, true);
+			insert(fullStates, fullRoute, job, pickupIndex, deliveryIndex, false);
+			assertEquals(fullStates.getRouteState(fullRoute, StateFactory.COSTS, Double.class), incrementalStates.getRouteState(incrementalRoute, StateFactory.COSTS, Double.class), 0.001);
+			assertEquals(fullStates.getRouteState(fullRoute, StateFactory.MAXLOAD, Capacity.class).get(0), incrementalStates.getRouteState(incrementalRoute, StateFactory.MAXLOAD, Capacity.class).get(0));
+			for(int j=0;j<fullRoute.getActivities().size();j++){
+				assertEquals(fullStates.getDoubleActivityState(fullRoute.getActivities().get(j), StateFactory.COSTS), 
+						incrementalStates.getDoubleActivityState(incrementalRoute.getActivities().get(j), StateFactory.COSTS), 0.001);
+			}
+		}
+	}
+
+	private void assertStatesAreEqual() {
+		assertEquals(fullRoute.getActivities().size(), incrementalRoute.getActivities().size());
+		assertEquals(fullStates.getRouteState(fullRoute, StateFactory.COSTS, Double.class), incrementalStates.getRouteState(incrementalRoute, StateFactory.COSTS, Double.class), 0.001);
+		assertEquals(fullStates.getRouteState(fullRoute, StateFactory.MAXLOAD, Capacity.class).get(0), incrementalStates.getRouteState(incrementalRoute, StateFactory.MAXLOAD, Capacity.class).get(0));
+		assertEquals(fullRoute.getEnd().getArrTime(), incrementalRoute.getEnd().getArrTime(), 0.001);
+		for(int i=0;i<fullRoute.getActivities().size();i++){
+			TourActivity fullAct = fullRoute.getActivities().get(i);
+			TourActivity incrementalAct = incrementalRoute.getActivities().get(i);
+			assertEquals(fullAct.getEndTime(), incrementalAct.getEndTime(), 0.001);
+			assertEquals(fullStates.getDoubleActivityState(fullAct, StateFactory.COSTS), incrementalStates.getDoubleActivityState(incrementalAct, StateFactory.COSTS), 0.001);
+			assertEquals(fullStates.getDoubleActivityState(fullAct, StateFactory.LATEST_OPERATION_START_TIME), 
+					incrementalStates.getDoubleActivityState(incrementalAct, StateFactory.LATEST_OPERATION_START_TIME), 0.001);
+			assertEquals(fullStates.getActivityState(fullAct, StateFactory.LOAD, Capacity.class).get(0), incrementalStates.getActivityState(incrementalAct, StateFactory.LOAD, Capacity.class).get(0));
+			assertEquals(fullStates.getActivityState(fullAct, StateFactory.PAST_MAXLOAD, Capacity.class).get(0), incrementalStates.getActivityState(incrementalAct, StateFactory.PAST_MAXLOAD, Capacity.class).get(0));
+			assertEquals(fullStates.getActivityState(fullAct, StateFactory.FUTURE_MAXLOAD, Capacity.class).get(0), incrementalStates.getActivityState(incrementalAct, StateFactory.FUTURE_MAXLOAD, Capacity.class).get(0));
+		}
+	}
+
+}
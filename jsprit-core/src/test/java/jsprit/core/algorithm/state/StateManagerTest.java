@@ -4,7 +4,9 @@ import static org.junit.Assert.*;
 import static org.mockito.Mockito.mock;
 import jsprit.core.problem.Capacity;
 import jsprit.core.problem.cost.VehicleRoutingTransportCosts;
+import jsprit.core.problem.job.Service;
 import jsprit.core.problem.solution.route.VehicleRoute;
+import jsprit.core.problem.solution.route.activity.ServiceActivity;
 import jsprit.core.problem.solution.route.activity.TourActivity;
 import jsprit.core.problem.solution.route.state.StateFactory;
 import jsprit.core.problem.solution.route.state.StateFactory.State;
@@ -143,4 +145,112 @@ public class StateManagerTest {
 		Capacity getCap = stateManager.getActivityState(activity, id, Capacity.class);
 		assertEquals(500, getCap.get(0));
 	}
+	
+	private TourActivity createActivity(String id){
+		return ServiceActivity.newInstance(Service.Builder.newInstance(id).setLocationId("loc").setTimeWindow(jsprit.core.problem.solution.route.activity.TimeWindow.newInstance(0., 100.)).build());
+	}
+	
+	@Test
+	public void whenDoubleActivityStateIsSet_itMustBeRetrievableAsDoubleAndAsObject(){
+		TourActivity activity = createActivity("s");
+		StateManager stateManager = new StateManager(mock(VehicleRoutingTransportCosts.class));
+		StateId id = StateFactory.createId("myState");
+		stateManager.putTypedActivityState(activity, id, Double.class, 2.);
+		assertEquals(2.,stateManager.getDoubleActivityState(activity, id),0.01);
+		assertEquals(2.,stateManager.getActivityState(activity, id, Double.class),0.01);
+	}
+	
+	@Test
+	public void whenActivityHasStatesInTwoStateManagers_theyMustNotInterfere(){
+		TourActivity activity = createActivity("s");
+		StateManager stateManager = new StateManager(mock(VehicleRoutingTransportCosts.class));
+		StateManager otherStateManager = new StateManager(mock(VehicleRoutingTransportCosts.class));
+		StateId id = StateFactory.createId("myState");
+		otherStateManager.putTypedActivityState(createActivity("s2"), id, Double.class, 3.);
+		otherStateManager.putTypedActivityState(activity, id, Double.class, 2.);
+		stateManager.putTypedActivityState(activity, id, Double.class, 1.);
+		assertEquals(1.,stateManager.getDoubleActivityState(activity, id),0.01);
+		assertEquals(2.,otherStateManager.getDoubleActivityState(activity, id),0.01);
+	}
+	
+	@Test
+	public void whenInternalDoubleActivityStateIsSet_itMustBeSetCorrectly(){
+		TourActivity activity = createActivity("s");
+		StateManager stateManager = new StateManager(mock(VehicleRoutingTransportCosts.class));
+		stateManager.putInternalDoubleActivityState(activity, StateFactory.LATEST_OPERATION_START_TIME, 50.);
+		assertEquals(50.,stateManager.getDoubleActivityState(activity, StateFactory.LATEST_OPERATION_START_TIME),0.01);
+	}
+	
+	@Test
+	public void whenActivityStateIsNotSet_doubleStateShouldBeDefault(){
+		TourActivity activity = createActivity("s");
+		StateManager stateManager = new StateManager(mock(VehicleRoutingTransportCosts.class));
+		assertEquals(100.,stateManager.getDoubleActivityState(activity, StateFactory.LATEST_OPERATION_START_TIME),0.01);
+		assertEquals(0.,stateManager.getDoubleActivityState(activity, StateFactory.COSTS),0.01);
+	}
+	
+	@Test
+	public void whenStatesOfSeveralActivitiesAreSet_theyMustNotInterfere(){
+		StateManager stateManager = new StateManager(mock(VehicleRoutingTransportCosts.class));
+		StateId id = StateFactory.createId("myState");
+		TourActivity[] acts = new TourActivity[500];
+		for(int i=0;i<acts.length;i++){
+			acts[i] = createActivity("s"+i);
+			stateManager.putTypedActivityState(acts[i], id, Integer.class, i);
+			stateManager.putTypedActivityState(acts[i], StateFactory.createId("otherState"), Double.class, (double)-i);
+		}
+		for(int i=0;i<acts.length;i++){
+			assertEquals(i,(int)stateManager.getActivityState(acts[i], id, Integer.class));
+			assertEquals(-i,stateManager.getDoubleActivityState(acts[i], StateFactory.createId("otherState")),0.01);
+		}
+	}
+	
+	@Test
+	public void whenClearing_activityStatesMustBeRemoved(){
+		TourActivity activity = createActivity("s");
+		StateManager stateManager = new StateManager(mock(VehicleRoutingTransportCosts.class));
+		StateId id = StateFactory.createId("myState");
+		stateManager.putTypedActivityState(activity, id, Capacity.class, Capacity.Builder.newInstance().addDimension(0, 5).build());
+		stateManager.clear();
+		assertNull(stateManager.getActivityState(activity, id, Capacity.class));
+		TourActivity otherActivity = createActivity("s2");
+		stateManager.putTypedActivityState(otherActivity, id, Capacity.class, Capacity.Builder.newInstance().addDimension(0, 7).build());
+		assertNull(stateManager.getActivityState(activity, id, Capacity.class));
+		assertEquals(7,stateManager.getActivityState(otherActivity, id, Capacity.class).get(0));
+	}
+	
+	@Test
+	public void whenActivityIsIndexedByAnotherStateManager_statesOfOtherActivitiesMustNotBeReturned(){
+		TourActivity activity = createActivity("s");
+		StateManager stateManager = new StateManager(mock(VehicleRoutingTransportCosts.class));
+		StateManager otherStateManager = new StateManager(mock(VehicleRoutingTransportCosts.class));
+		StateId id = StateFactory.createId("myState");
+		otherStateManager.putTypedActivityState(createActivity("s2"), id, Double.class, 3.);
+		stateManager.putTypedActivityState(activity, id, Double.class, 1.);
+		assertNull(otherStateManager.getActivityState(activity, id, Double.class));
+	}
+	
+	@Test
+	public void whenSeveralStateManagersMemorizeStatesOfSameActivity_eachMustReturnItsOwnState(){
+		TourActivity activity = createActivity("s");
+		StateManager stateManager = new StateManager(mock(VehicleRoutingTransportCosts.class));
+		StateManager otherStateManager = new StateManager(mock(VehicleRoutingTransportCosts.class));
+		StateId id = StateFactory.createId("myState");
+		stateManager.putTypedActivityState(activity, id, Double.class, 1.);
+		otherStateManager.putTypedActivityState(createActivity("s2"), id, Double.class, 3.);
+		otherStateManager.putTypedActivityState(activity, id, Double.class, 2.);
+		assertEquals(1.,stateManager.getDoubleActivityState(activity, id),0.01);
+		assertEquals(2.,otherStateManager.getDoubleActivityState(activity, id),0.01);
+		stateManager.clear();
+		otherStateManager.putTypedActivityState(activity, id, Double.class, 4.);
+		stateManager.putTypedActivityState(activity, id, Double.class, 5.);
+		assertEquals(5.,stateManager.getDoubleActivityState(activity, id),0.01);
+		assertEquals(4.,otherStateManager.getDoubleActivityState(activity, id),0.01);
+	}
+	
+	@Test
+	public void whenCreatingStateIdsWithSameName_theyMustHaveSameIndex(){
+		assertEquals(StateFactory.getIndex(StateFactory.createId("myState")),StateFactory.getIndex(StateFactory.createId("myState")));
+		assertTrue(StateFactory.getIndex(StateFactory.createId("myState")) != StateFactory.getIndex(StateFactory.createId("yourState")));
+	}
 }
@@ -0,0 +1,98 @@
+package jsprit.core.algorithm.termination;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import jsprit.core.algorithm.SearchStrategy.DiscoveredSolution;
+import jsprit.core.problem.VehicleRoutingProblem;
+
+import org.junit.Test;
+
+public class DeadlineTerminationTest {
+	
+	private static class ManualClockDeadlineTermination extends DeadlineTermination {
+		
+		private long now = 0;
+
+		public ManualClockDeadlineTermination(double time_in_seconds) {
+			super(time_in_seconds);
+		}
+		
+		void advance(double seconds){
+			now += (long) (seconds * 1.0e9);
+		}
+		
+		@Override
+		long nanoTime() {
+			return now;
+		}
+		
+	}
+	
+	private DiscoveredSolution discoveredSolution(){
+		return new DiscoveredSolution(null, false, "strategy");
+	}
+	
+	/*
+	 * runs iterations of the specified durations and returns the number of the iteration that breaks, or -1
+	 */
+	private int runIterations(ManualClockDeadlineTermination termination, double... iterationTimes){
+		termination.informAlgorithmStarts(mock(VehicleRoutingProblem.class), null, null);
+		for(int i=0;i<iterationTimes.length;i++){
+			termination.informIterationStarts(i+1, null, null);
+			termination.advance(iterationTimes[i]);
+			if(termination.isPrematureBreak(discoveredSolution())) return i+1;
+		}
+		return -1;
+	}
+	
+	@Test
+	public void whenNextIterationWouldExceedBudget_itShouldBreak(){
+		ManualClockDeadlineTermination termination = new ManualClockDeadlineTermination(1.);
+		assertEquals(3,runIterations(termination, 0.3, 0.3, 0.3, 0.3));
+	}
+	
+	@Test
+	public void whenIterationsBecomeLonger_estimateShouldFollow(){
+		ManualClockDeadlineTermination termination = new ManualClockDeadlineTermination(10.);
+		termination.setSmoothingFactor(0.5);
+		assertEquals(-1,runIterations(termination, 0.1, 0.3));
+		assertEquals(0.2,termination.getEstimatedIterationTime(),0.001);
+	}
+	
+	@Test
+	public void whenConstructionTakesLong_firstIterationShouldBeLastOne(){
+		ManualClockDeadlineTermination termination = new ManualClockDeadlineTermination(1.);
+		termination.informAlgorithmStarts(mock(VehicleRoutingProblem.class), null, null);
+		termination.advance(0.8);
+		termination.informIterationStarts(1, null, null);
+		termination.advance(0.15);
+		assertTrue(termination.isPrematureBreak(discoveredSolution()));
+	}
+	
+	@Test
+	public void deadlineShouldOnlyBeExceededWhileIterating(){
+		ManualClockDeadlineTermination termination = new ManualClockDeadlineTermination(1.);
+		termination.informAlgorithmStarts(mock(VehicleRoutingProblem.class), null, null);
+		termination.advance(2.);
+		assertFalse(termination.isExceeded());
+		termination.informIterationStarts(1, null, null);
+		assertTrue(termination.isExceeded());
+		termination.informAlgorithmEnds(null, null);
+		assertFalse(termination.isExceeded());
+	}
+	
+	@Test
+	public void whenAlgorithmRestarts_deadlineShouldBeReset(){
+		ManualClockDeadlineTermination termination = new ManualClockDeadlineTermination(1.);
+		assertEquals(3,runIterations(termination, 0.3, 0.3, 0.3));
+		assertEquals(3,runIterations(termination, 0.3, 0.3, 0.3));
+	}
+	
+	@Test(expected=IllegalStateException.class)
+	public void whenSmoothingFactorIsZero_itShouldThrowException(){
+		new DeadlineTermination(1.).setSmoothingFactor(0.);
+	}
+
+}
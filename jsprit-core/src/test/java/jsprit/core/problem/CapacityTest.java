@@ -355,4 +355,79 @@ public class CapacityTest {
 		Capacity cap2 = Capacity.Builder.newInstance().build();
 		assertEquals(0.0,Capacity.divide(cap1, cap2),0.001);
 	}
+	
+	@Test
+	public void whenAddingDimensionsToBuilderAfterBuild_builtCapacityShouldNotChange(){
+		Capacity.Builder capBuilder = Capacity.Builder.newInstance().addDimension(0, 1);
+		Capacity cap = capBuilder.build();
+		capBuilder.addDimension(0, 5).addDimension(4, 2);
+		assertEquals(1,cap.getNuOfDimensions());
+		assertEquals(1,cap.get(0));
+		assertEquals(5,capBuilder.build().getNuOfDimensions());
+	}
+	
+	@Test
+	public void whenCheckingSum_itShouldBeTheSameAsAddingUpAndComparing(){
+		Capacity cap1 = Capacity.Builder.newInstance().addDimension(0, 1).addDimension(1, 2).build();
+		Capacity cap2 = Capacity.Builder.newInstance().addDimension(0, 2).addDimension(2, 4).build();
+		Capacity limit = Capacity.Builder.newInstance().addDimension(0, 3).addDimension(1, 2).addDimension(2, 4).build();
+		assertTrue(Capacity.isSumLessOrEqual(cap1, cap2, limit));
+		Capacity tooSmall = Capacity.Builder.newInstance().addDimension(0, 3).addDimension(1, 2).addDimension(2, 3).build();
+		assertFalse(Capacity.isSumLessOrEqual(cap1, cap2, tooSmall));
+		assertEquals(Capacity.addup(cap1, cap2).isLessOrEqual(tooSmall),Capacity.isSumLessOrEqual(cap1, cap2, tooSmall));
+	}
+	
+	@Test
+	public void whenCheckingDifference_itShouldBeTheSameAsSubtractingAndComparing(){
+		Capacity load = Capacity.Builder.newInstance().addDimension(0, 5).addDimension(1, 2).build();
+		Capacity delivery = Capacity.invert(Capacity.Builder.newInstance().addDimension(0, 2).build());
+		Capacity limit = Capacity.Builder.newInstance().addDimension(0, 7).addDimension(1, 2).build();
+		assertTrue(Capacity.isDifferenceLessOrEqual(load, delivery, limit));
+		Capacity tooSmall = Capacity.Builder.newInstance().addDimension(0, 6).addDimension(1, 2).build();
+		assertFalse(Capacity.isDifferenceLessOrEqual(load, delivery, tooSmall));
+	}
+	
+	@Test
+	public void whenAccumulatingCapacities_resultShouldBeTheSameAsAddingThemUp(){
+		Capacity cap1 = Capacity.Builder.newInstance().addDimension(0, 1).addDimension(1, 2).build();
+		Capacity cap2 = Capacity.Builder.newInstance().addDimension(0, 2).addDimension(2, 4).build();
+		Capacity.Accumulator acc = Capacity.Accumulator.newInstance();
+		acc.add(cap1).add(cap2);
+		Capacity sum = acc.toCapacity();
+		assertEquals(3,sum.getNuOfDimensions());
+		assertEquals(3,sum.get(0));
+		assertEquals(2,sum.get(1));
+		assertEquals(4,sum.get(2));
+		acc.subtract(cap2);
+		assertEquals(1,acc.get(0));
+		assertEquals(0,acc.get(2));
+		assertEquals(3,acc.getNuOfDimensions());
+	}
+	
+	@Test
+	public void whenSettingAccumulator_previousValuesShouldBeDiscarded(){
+		Capacity.Accumulator acc = Capacity.Accumulator.newInstance();
+		acc.add(Capacity.Builder.newInstance().addDimension(0, 1).addDimension(2, 4).build());
+		acc.set(Capacity.Builder.newInstance().addDimension(0, 7).build());
+		assertEquals(1,acc.getNuOfDimensions());
+		assertEquals(7,acc.get(0));
+		assertEquals(0,acc.get(2));
+		acc.add(Capacity.Builder.newInstance().addDimension(2, 1).build());
+		assertEquals(1,acc.get(2));
+		acc.reset();
+		assertEquals(0,acc.get(0));
+		assertEquals(1,acc.getNuOfDimensions());
+	}
+	
+	@Test
+	public void whenMaximisingAccumulator_itShouldContainMaxOfEachDimension(){
+		Capacity.Accumulator acc = Capacity.Accumulator.newInstance();
+		acc.set(Capacity.Builder.newInstance().addDimension(0, 1).addDimension(1, 5).build());
+		acc.max(Capacity.Builder.newInstance().addDimension(0, 3).addDimension(1, 2).build());
+		assertEquals(3,acc.get(0));
+		assertEquals(5,acc.get(1));
+		assertTrue(acc.isLessOrEqual(Capacity.Builder.newInstance().addDimension(0, 3).addDimension(1, 5).build()));
+		assertFalse(acc.isLessOrEqual(Capacity.Builder.newInstance().addDimension(0, 3).addDimension(1, 4).build()));
+		assertTrue(acc.isGreaterOrEqual(Capacity.Builder.newInstance().addDimension(0, 3).build()));
+	}
 }
@@ -0,0 +1,122 @@
+package jsprit.core.problem;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import jsprit.core.problem.VehicleRoutingProblem.FleetSize;
+import jsprit.core.problem.job.Service;
+import jsprit.core.problem.vehicle.Vehicle;
+import jsprit.core.problem.vehicle.VehicleImpl;
+import jsprit.core.problem.vehicle.VehicleTypeImpl;
+import jsprit.core.util.Coordinate;
+import jsprit.core.util.VehicleRoutingTransportCostsMatrix;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class JobDeltaTest {
+
+	private VehicleRoutingProblem vrp;
+
+	private Service s1;
+
+	private Service s2;
+
+	private Service s3;
+
+	private Vehicle vehicle;
+
+	@Before
+	public void doBefore(){
+		s1 = Service.Builder.newInstance("s1").addSizeDimension(0, 1).setCoord(Coordinate.newInstance(0, 10)).build();
+		s2 = Service.Builder.newInstance("s2").addSizeDimension(0, 1).setCoord(Coordinate.newInstance(10, 0)).build();
+		s3 = Service.Builder.newInstance("s3").addSizeDimension(0, 1).setCoord(Coordinate.newInstance(10, 10)).build();
+		VehicleTypeImpl type = VehicleTypeImpl.Builder.newInstance("type").addCapacityDimension(0, 2).build();
+		vehicle = VehicleImpl.Builder.newInstance("v").setType(type).setStartLocationCoordinate(Coordinate.newInstance(0, 0)).build();
+		vrp = VehicleRoutingProblem.Builder.newInstance().addJob(s1).addJob(s2).addJob(s3).addVehicle(vehicle).setFleetSize(FleetSize.FINITE).build();
+	}
+
+	@Test
+	public void whenApplyingDelta_jobsShouldBeAddedRemovedAndChanged(){
+		Service s4 = Service.Builder.newInstance("s4").addSizeDimension(0, 1).setCoord(Coordinate.newInstance(20, 20)).build();
+		Service changedS2 = Service.Builder.newInstance("s2").addSizeDimension(0, 2).setCoord(Coordinate.newInstance(10, 5)).build();
+		JobDelta delta = JobDelta.Builder.newInstance().addJob(s4).removeJob("s1").changeJob(changedS2).build();
+		VehicleRoutingProblem changedVrp = delta.applyTo(vrp);
+		assertEquals(3,changedVrp.getJobs().size());
+		assertFalse(changedVrp.getJobs().containsKey("s1"));
+		assertSame(changedS2,changedVrp.getJobs().get("s2"));
+		assertSame(s3,changedVrp.getJobs().get("s3"));
+		assertSame(s4,changedVrp.getJobs().get("s4"));
+	}
+
+	@Test
+	public void whenApplyingDelta_fleetShouldBeTakenOver(){
+		VehicleRoutingProblem changedVrp = JobDelta.Builder.newInstance().removeJob("s1").build().applyTo(vrp);
+		assertEquals(FleetSize.FINITE,changedVrp.getFleetSize());
+		assertEquals(1,changedVrp.getVehicles().size());
+		assertSame(vehicle,changedVrp.getVehicles().iterator().next());
+	}
+
+	@Test
+	public void whenAddingJobToProblemWithCrowFlyCosts_costsShouldKnowItsLocation(){
+		Service s4 = Service.Builder.newInstance("s4").addSizeDimension(0, 1).setCoord(Coordinate.newInstance(0, 20)).build();
+		VehicleRoutingProblem changedVrp = JobDelta.Builder.newInstance().addJob(s4).build().applyTo(vrp);
+		assertEquals(10.,changedVrp.getTransportCosts().getTransportCost(s1.getLocationId(), s4.getLocationId(), 0., null, null),0.01);
+	}
+
+	@Test
+	public void whenDeltaHasNoJobs_itShouldBeEmpty(){
+		assertTrue(JobDelta.Builder.newInstance().build().isEmpty());
+		assertFalse(JobDelta.Builder.newInstance().removeJob("s1").build().isEmpty());
+	}
+
+	@Test(expected=IllegalStateException.class)
+	public void whenJobIsPartOfDeltaTwice_itShouldThrowException(){
+		JobDelta.Builder.newInstance().removeJob("s1").changeJob(s1);
+	}
+
+	@Test(expected=IllegalStateException.class)
+	public void whenRemovingUnknownJob_itShouldThrowException(){
+		JobDelta.Builder.newInstance().removeJob("s5").build().applyTo(vrp);
+	}
+
+	@Test(expected=IllegalStateException.class)
+	public void whenAddingKnownJob_itShouldThrowException(){
+		JobDelta.Builder.newInstance().addJob(s1).build().applyTo(vrp);
+	}
+
+	@Test
+	public void whenAddingJobAtLocationUnknownToMatrix_itShouldThrowException(){
+		VehicleRoutingProblem matrixVrp = createMatrixVrp();
+		Service s4 = Service.Builder.newInstance("s4").addSizeDimension(0, 1).setLocationId("4").build();
+		try{
+			JobDelta.Builder.newInstance().addJob(s4).build().applyTo(matrixVrp);
+			fail("location 4 is not part of the matrix");
+		}
+		catch(IllegalStateException e){
+			assertTrue(e.getMessage().contains("location 4"));
+		}
+	}
+
+	@Test
+	public void whenSettingRoutingCostOfDelta_changedProblemShouldUseThem(){
+		VehicleRoutingProblem matrixVrp = createMatrixVrp();
+		Service s4 = Service.Builder.newInstance("s4").addSizeDimension(0, 1).setLocationId("4").build();
+		VehicleRoutingTransportCostsMatrix costs = VehicleRoutingTransportCostsMatrix.Builder.newInstance(true)
+				.addTransportDistance("0", "1", 10.).addTransportDistance("0", "4", 40.).addTransportDistance("1", "4", 30.).build();
+		VehicleRoutingProblem changedVrp = JobDelta.Builder.newInstance().addJob(s4).setRoutingCost(costs).build().applyTo(matrixVrp);
+		assertSame(costs,changedVrp.getTransportCosts());
+		assertEquals(40.,changedVrp.getTransportCosts().getTransportCost("0", "4", 0., null, null),0.01);
+	}
+
+	private VehicleRoutingProblem createMatrixVrp(){
+		Service service = Service.Builder.newInstance("s1").addSizeDimension(0, 1).setLocationId("1").build();
+		VehicleTypeImpl type = VehicleTypeImpl.Builder.newInstance("type").addCapacityDimension(0, 2).build();
+		Vehicle v = VehicleImpl.Builder.newInstance("v").setType(type).setStartLocationId("0").build();
+		VehicleRoutingTransportCostsMatrix costs = VehicleRoutingTransportCostsMatrix.Builder.newInstance(true).addTransportDistance("0", "1", 10.).build();
+		return VehicleRoutingProblem.Builder.newInstance().addJob(service).addVehicle(v).setRoutingCost(costs).build();
+	}
+
+}
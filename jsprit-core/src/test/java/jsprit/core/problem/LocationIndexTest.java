@@ -0,0 +1,129 @@
+package jsprit.core.problem;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import jsprit.core.problem.cost.ActivityTransportCosts;
+import jsprit.core.problem.job.Service;
+import jsprit.core.problem.job.Shipment;
+import jsprit.core.problem.solution.route.activity.PickupShipment;
+import jsprit.core.problem.solution.route.activity.ServiceActivity;
+import jsprit.core.problem.solution.route.activity.Start;
+import jsprit.core.problem.vehicle.VehicleImpl;
+import jsprit.core.problem.vehicle.VehicleTypeImpl;
+import jsprit.core.util.CostFactory;
+import jsprit.core.util.FastVehicleRoutingTransportCostsMatrix;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class LocationIndexTest {
+	
+	private VehicleRoutingProblem vrp;
+	
+	private Service service;
+	
+	private Shipment shipment;
+	
+	@Before
+	public void doBefore(){
+		VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.newInstance();
+		vrpBuilder.setRoutingCost(CostFactory.createManhattanCosts());
+		vrpBuilder.addVehicle(VehicleImpl.Builder.newInstance("v").setStartLocationId("0,0").setEndLocationId("10,10").setType(VehicleTypeImpl.Builder.newInstance("t").build()).build());
+		service = Service.Builder.newInstance("s").setLocationId("5,0").build();
+		shipment = Shipment.Builder.newInstance("sh").setPickupLocation("0,0").setDeliveryLocation("0,7").build();
+		vrpBuilder.addJob(service).addJob(shipment);
+		vrp = vrpBuilder.build();
+	}
+	
+	@Test
+	public void allJobAndVehicleLocationsShouldBeIndexedDensely(){
+		LocationIndex index = vrp.getLocationIndex();
+		assertEquals(4,index.size());
+		for(String locationId : new String[]{ "0,0", "10,10", "5,0", "0,7" }){
+			int i = index.getIndex(locationId);
+			assertTrue(i >= 0 && i < 4);
+			assertEquals(locationId,index.getLocationId(i));
+		}
+		assertEquals(-1,index.getIndex("1,1"));
+	}
+	
+	@Test
+	public void whenLookingUpActivity_indexShouldBeIndexOfItsLocation(){
+		ServiceActivity act = ServiceActivity.newInstance(service);
+		int i = vrp.getLocationIndex().getIndex(act);
+		assertEquals(vrp.getLocationIndex().getIndex("5,0"),i);
+		assertEquals(i,vrp.getLocationIndex().getIndex(ServiceActivity.copyOf(act)));
+	}
+	
+	@Test
+	public void whenActivityLocationChanges_cachedIndexShouldNotBeUsed(){
+		Start start = Start.newInstance("0,0", 0.0, 100.0);
+		vrp.getLocationIndex().getIndex(start);
+		start.setLocationId("10,10");
+		assertEquals(vrp.getLocationIndex().getIndex("10,10"),vrp.getLocationIndex().getIndex(start));
+		start.setLocationId("unknown");
+		assertEquals(-1,vrp.getLocationIndex().getIndex(start));
+	}
+	
+	@Test
+	public void whenLookingUpActivity_indexShouldBeStoredOnActivity(){
+		ServiceActivity act = ServiceActivity.newInstance(service);
+		assertEquals(-1,act.getLocationIndex());
+		int i = vrp.getLocationIndex().getIndex(act);
+		assertEquals(i,act.getLocationIndex());
+	}
+	
+	@Test
+	public void whenActivityIsLookedUpByIndexOfAnotherProblem_indexOfThatProblemShouldBeReturned(){
+		VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.newInstance();
+		vrpBuilder.setRoutingCost(CostFactory.createManhattanCosts());
+		vrpBuilder.addVehicle(VehicleImpl.Builder.newInstance("v").setStartLocationId("5,0").setType(VehicleTypeImpl.Builder.newInstance("t").build()).build());
+		VehicleRoutingProblem otherVrp = vrpBuilder.build();
+		Start start = Start.newInstance("0,0", 0.0, 100.0);
+		assertEquals(vrp.getLocationIndex().getIndex("0,0"),vrp.getLocationIndex().getIndex(start));
+		start.setLocationId("5,0");
+		assertEquals(otherVrp.getLocationIndex().getIndex("5,0"),otherVrp.getLocationIndex().getIndex(start));
+		assertEquals(vrp.getLocationIndex().getIndex("5,0"),vrp.getLocationIndex().getIndex(start));
+	}
+	
+	@Test
+	public void activityTransportCostsShouldBeSameAsStringBasedCosts(){
+		ActivityTransportCosts costs = vrp.getActivityTransportCosts();
+		Start start = Start.newInstance("0,0", 0.0, 100.0);
+		PickupShipment pickup = new PickupShipment(shipment);
+		ServiceActivity act = ServiceActivity.newInstance(service);
+		assertEquals(5.,costs.getTransportCost(start, act, 0.0, null, null),0.01);
+		assertEquals(5.,costs.getTransportTime(pickup, act, 0.0, null, null),0.01);
+		Start unknown = Start.newInstance("1,1", 0.0, 100.0);
+		assertEquals(5.,costs.getTransportCost(unknown, act, 0.0, null, null),0.01);
+	}
+	
+	@Test
+	public void whenUsingFastMatrix_indexedCostsShouldLookUpMatrix(){
+		FastVehicleRoutingTransportCostsMatrix.Builder matrixBuilder = FastVehicleRoutingTransportCostsMatrix.Builder.newInstance(true);
+		matrixBuilder.addTransportDistance("0,0", "10,10", 20.).addTransportDistance("0,0", "5,0", 3.).addTransportDistance("0,0", "0,7", 4.)
+			.addTransportDistance("10,10", "5,0", 6.).addTransportDistance("10,10", "0,7", 7.).addTransportDistance("5,0", "0,7", 8.);
+		VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.newInstance();
+		vrpBuilder.setRoutingCost(matrixBuilder.build());
+		vrpBuilder.addVehicle(VehicleImpl.Builder.newInstance("v").setStartLocationId("0,0").setEndLocationId("10,10").setType(VehicleTypeImpl.Builder.newInstance("t").build()).build());
+		vrpBuilder.addJob(service).addJob(shipment);
+		VehicleRoutingProblem matrixVrp = vrpBuilder.build();
+		LocationIndex index = matrixVrp.getLocationIndex();
+		assertEquals(8.,matrixVrp.getIndexedTransportCosts().getTransportCost(index.getIndex("5,0"), index.getIndex("0,7"), 0.0, null, null),0.01);
+		assertEquals(0.,matrixVrp.getIndexedTransportCosts().getTransportCost(index.getIndex("5,0"), index.getIndex("5,0"), 0.0, null, null),0.01);
+		assertTrue(!(matrixVrp.getIndexedTransportCosts() instanceof jsprit.core.problem.cost.IndexedTransportCostsAdapter));
+	}
+	
+	@Test
+	public void whenMatrixMissesALocation_indexedCostsShouldBeAdapted(){
+		FastVehicleRoutingTransportCostsMatrix.Builder matrixBuilder = FastVehicleRoutingTransportCostsMatrix.Builder.newInstance(true);
+		matrixBuilder.addTransportDistance("0,0", "10,10", 20.).addTransportDistance("0,0", "5,0", 3.).addTransportDistance("10,10", "5,0", 6.);
+		VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.newInstance();
+		vrpBuilder.setRoutingCost(matrixBuilder.build());
+		vrpBuilder.addVehicle(VehicleImpl.Builder.newInstance("v").setStartLocationId("0,0").setEndLocationId("10,10").setType(VehicleTypeImpl.Builder.newInstance("t").build()).build());
+		vrpBuilder.addJob(service).addJob(shipment);
+		VehicleRoutingProblem matrixVrp = vrpBuilder.build();
+		assertTrue(matrixVrp.getIndexedTransportCosts() instanceof jsprit.core.problem.cost.IndexedTransportCostsAdapter);
+	}
+
+}
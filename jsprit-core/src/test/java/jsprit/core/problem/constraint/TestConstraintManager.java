@@ -7,6 +7,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import jsprit.core.problem.VehicleRoutingProblem;
+import jsprit.core.problem.misc.JobInsertionContext;
 import jsprit.core.problem.solution.route.state.RouteAndActivityStateGetter;
 
 import org.junit.Test;
@@ -70,5 +71,28 @@ public class TestConstraintManager {
 		man.addConstraint(c2);
 		assertEquals(2,man.getConstraints().size());
 	}
+	
+	@Test
+	public void whenCountingEvaluationsInSeveralThreads_countsOfAllThreadsShouldBeSummed() throws InterruptedException{
+		final ConstraintManager man = new ConstraintManager(mock(VehicleRoutingProblem.class),mock(RouteAndActivityStateGetter.class));
+		man.setCountEvaluations(true);
+		final JobInsertionContext iContext = mock(JobInsertionContext.class);
+		List<Thread> threads = new ArrayList<Thread>();
+		for(int t=0;t<4;t++){
+			threads.add(new Thread(new Runnable() {
+				
+				@Override
+				public void run() {
+					for(int i=0;i<1000;i++) man.fulfilled(iContext);
+				}
+				
+			}));
+		}
+		for(Thread thread : threads) thread.start();
+		for(Thread thread : threads) thread.join();
+		man.fulfilled(iContext);
+		assertEquals(4001,man.getNuOfRouteLevelEvaluations());
+		assertEquals(0,man.getNuOfActivityLevelEvaluations());
+	}
 
 }
@@ -0,0 +1,89 @@
+package jsprit.core.problem.constraint;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import jsprit.core.algorithm.state.StateManager;
+import jsprit.core.problem.constraint.HardActivityStateLevelConstraint.ConstraintsStatus;
+import jsprit.core.problem.cost.VehicleRoutingTransportCosts;
+import jsprit.core.problem.driver.DriverImpl;
+import jsprit.core.problem.job.Job;
+import jsprit.core.problem.job.Service;
+import jsprit.core.problem.misc.JobInsertionContext;
+import jsprit.core.problem.solution.route.VehicleRoute;
+import jsprit.core.problem.solution.route.activity.PickupService;
+import jsprit.core.problem.solution.route.activity.TimeWindow;
+import jsprit.core.problem.solution.route.activity.TourActivity;
+import jsprit.core.problem.vehicle.Vehicle;
+import jsprit.core.problem.vehicle.VehicleImpl;
+import jsprit.core.problem.vehicle.VehicleTypeImpl;
+import jsprit.core.util.CostFactory;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class TimeWindowConstraintTest {
+	
+	private VehicleRoutingTransportCosts routingCosts;
+	
+	private TimeWindowConstraint constraint;
+	
+	private VehicleRoute route;
+	
+	private Vehicle vehicle;
+	
+	@Before
+	public void doBefore(){
+		routingCosts = CostFactory.createManhattanCosts();
+		vehicle = VehicleImpl.Builder.newInstance("v").setStartLocationId("0,0").setLatestArrival(1000.)
+				.setType(VehicleTypeImpl.Builder.newInstance("t").build()).build();
+		Service s1 = Service.Builder.newInstance("s1").setLocationId("0,10").setTimeWindow(TimeWindow.newInstance(0, 100)).build();
+		Service s2 = Service.Builder.newInstance("s2").setLocationId("10,10").setTimeWindow(TimeWindow.newInstance(0, 200)).build();
+		Service s3 = Service.Builder.newInstance("s3").setLocationId("20,10").setTimeWindow(TimeWindow.newInstance(0, 300)).build();
+		route = VehicleRoute.Builder.newInstance(vehicle, DriverImpl.noDriver()).addService(s1).addService(s2).addService(s3).build();
+		
+		StateManager stateManager = new StateManager(routingCosts);
+		stateManager.updateTimeWindowStates();
+		stateManager.informInsertionStarts(Arrays.asList(route), Collections.<Job>emptyList());
+		constraint = new TimeWindowConstraint(stateManager, routingCosts);
+	}
+	
+	private TourActivity newAct(double earliest, double latest){
+		return new PickupService(Service.Builder.newInstance("new").setLocationId("10,0").setTimeWindow(TimeWindow.newInstance(earliest, latest)).build());
+	}
+	
+	private int getEarliestInsertionIndex(TourActivity newAct, Vehicle newVehicle){
+		JobInsertionContext iFacts = new JobInsertionContext(route, null, newVehicle, DriverImpl.noDriver(), 0.0);
+		return constraint.getEarliestInsertionIndex(iFacts, newAct);
+	}
+	
+	@Test
+	public void whenNewActCanBeServedEarly_earliestInsertionIndexShouldBeZero(){
+		assertEquals(0,getEarliestInsertionIndex(newAct(0., 500.), vehicle));
+	}
+	
+	@Test
+	public void whenNewActStartsLate_earliestInsertionIndexShouldSkipPositionsWhereNextActCannotBeReachedInTime(){
+		assertEquals(1,getEarliestInsertionIndex(newAct(150., 500.), vehicle));
+		assertEquals(2,getEarliestInsertionIndex(newAct(250., 500.), vehicle));
+		assertEquals(3,getEarliestInsertionIndex(newAct(350., 500.), vehicle));
+	}
+	
+	@Test
+	public void whenNewActCannotBeServedBeforeVehicleMustArrive_noPositionShouldBeFeasible(){
+		Vehicle earlyVehicle = VehicleImpl.Builder.newInstance("v2").setStartLocationId("0,0").setLatestArrival(320.)
+				.setType(VehicleTypeImpl.Builder.newInstance("t").build()).build();
+		assertEquals(4,getEarliestInsertionIndex(newAct(350., 500.), earlyVehicle));
+	}
+	
+	@Test
+	public void whenDepartingAfterLatestStartOfNewAct_itShouldBreak(){
+		JobInsertionContext iFacts = new JobInsertionContext(route, null, vehicle, DriverImpl.noDriver(), 0.0);
+		TourActivity newAct = newAct(0., 50.);
+		ConstraintsStatus status = constraint.fulfilled(iFacts, route.getActivities().get(0), newAct, route.getActivities().get(1), 60.);
+		assertEquals(ConstraintsStatus.NOT_FULFILLED_BREAK,status);
+	}
+
+}
@@ -3,7 +3,11 @@ package jsprit.core.problem.solution;
 import java.util.Arrays;
 import java.util.Collections;
 
+import jsprit.core.problem.driver.DriverImpl;
+import jsprit.core.problem.job.Service;
 import jsprit.core.problem.solution.route.VehicleRoute;
+import jsprit.core.problem.vehicle.VehicleImpl;
+import jsprit.core.problem.vehicle.VehicleTypeImpl;
 
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.mock;
@@ -33,4 +37,30 @@ public class VehicleRoutingProblemSolutionTest {
 		assertEquals(20.0,sol.getCost(),0.01);
 	}
 
+	@Test
+	public void whenCopyingSolutionLazily_routesShouldBeCopiedAndCostsShouldBeTheSame(){
+		VehicleRoute route = VehicleRoute.emptyRoute();
+		VehicleRoutingProblemSolution sol = new VehicleRoutingProblemSolution(Arrays.asList(route), 10.0);
+		VehicleRoutingProblemSolution copy = VehicleRoutingProblemSolution.lazyCopyOf(sol);
+		assertEquals(1,copy.getRoutes().size());
+		assertTrue(copy.getRoutes().iterator().next() != route);
+		assertTrue(copy.getRoutes().iterator().next().getTourActivities().isShared());
+		assertEquals(10.0,copy.getCost(),0.01);
+	}
+
+	@Test
+	public void whenCopyingSolution_jobRouteIndexShouldBeCarriedOverToCopy(){
+		VehicleImpl vehicle = VehicleImpl.Builder.newInstance("v").setStartLocationId("loc").setType(VehicleTypeImpl.Builder.newInstance("t").build()).build();
+		Service s1 = Service.Builder.newInstance("s1").setLocationId("loc1").build();
+		VehicleRoute route = VehicleRoute.Builder.newInstance(vehicle, DriverImpl.noDriver()).addService(s1).build();
+		VehicleRoutingProblemSolution sol = new VehicleRoutingProblemSolution(Arrays.asList(route), 10.0);
+		assertTrue(route == sol.getJobRouteIndex().getRoute(s1));
+		
+		VehicleRoutingProblemSolution copy = VehicleRoutingProblemSolution.lazyCopyOf(sol);
+		VehicleRoute copiedRoute = copy.getRoutes().iterator().next();
+		assertTrue(copiedRoute == copy.getJobRouteIndex().removeJob(s1));
+		assertTrue(copiedRoute.isEmpty());
+		assertTrue(route == sol.getJobRouteIndex().getRoute(s1));
+	}
+
 }
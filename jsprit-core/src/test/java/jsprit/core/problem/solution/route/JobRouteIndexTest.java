@@ -0,0 +1,115 @@
+package jsprit.core.problem.solution.route;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import jsprit.core.problem.driver.DriverImpl;
+import jsprit.core.problem.job.Service;
+import jsprit.core.problem.solution.route.activity.ServiceActivity;
+import jsprit.core.problem.vehicle.VehicleImpl;
+import jsprit.core.problem.vehicle.VehicleTypeImpl;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class JobRouteIndexTest {
+	
+	private Service s1;
+	
+	private Service s2;
+	
+	private Service s3;
+	
+	private VehicleRoute route1;
+	
+	private VehicleRoute route2;
+	
+	@Before
+	public void doBefore(){
+		VehicleImpl vehicle = VehicleImpl.Builder.newInstance("v").setStartLocationId("loc").setType(VehicleTypeImpl.Builder.newInstance("t").build()).build();
+		s1 = Service.Builder.newInstance("s1").setLocationId("loc1").build();
+		s2 = Service.Builder.newInstance("s2").setLocationId("loc2").build();
+		s3 = Service.Builder.newInstance("s3").setLocationId("loc3").build();
+		route1 = VehicleRoute.Builder.newInstance(vehicle, DriverImpl.noDriver()).addService(s1).build();
+		route2 = VehicleRoute.Builder.newInstance(vehicle, DriverImpl.noDriver()).addService(s2).build();
+	}
+	
+	@Test
+	public void whenLookingUpJobs_routeServingJobShouldBeReturned(){
+		JobRouteIndex index = JobRouteIndex.newInstance(Arrays.asList(route1,route2));
+		assertTrue(route1 == index.getRoute(s1));
+		assertTrue(route2 == index.getRoute(s2));
+		assertNull(index.getRoute(s3));
+	}
+	
+	@Test
+	public void whenRemovingJob_itShouldBeRemovedFromItsRoute(){
+		JobRouteIndex index = JobRouteIndex.newInstance(Arrays.asList(route1,route2));
+		assertTrue(route2 == index.removeJob(s2));
+		assertFalse(route2.getTourActivities().servesJob(s2));
+		assertTrue(route2.isEmpty());
+		assertNull(index.removeJob(s2));
+		assertEquals(1,route1.getActivities().size());
+	}
+	
+	@Test
+	public void whenJobIsMovedAfterBuildingIndex_newRouteShouldBeFound(){
+		JobRouteIndex index = JobRouteIndex.newInstance(Arrays.asList(route1,route2));
+		assertTrue(route1 == index.getRoute(s1));
+		route1.getTourActivities().removeJob(s1);
+		route2.getTourActivities().addActivity(ServiceActivity.newInstance(s1));
+		assertTrue(route2 == index.getRoute(s1));
+		route1.getTourActivities().addActivity(ServiceActivity.newInstance(s3));
+		assertTrue(route1 == index.getRoute(s3));
+	}
+
+	@Test
+	public void whenInformingIndexAboutInsertedJob_itShouldBeFound(){
+		JobRouteIndex index = JobRouteIndex.newInstance(Arrays.asList(route1,route2));
+		assertNull(index.getRoute(s3));
+		route2.getTourActivities().addActivity(ServiceActivity.newInstance(s3));
+		index.addJob(s3, route2);
+		assertTrue(route2 == index.getRoute(s3));
+	}
+	
+	@Test
+	public void whenCopyingIndex_jobsShouldBeLookedUpInRoutesOfCopy(){
+		List<VehicleRoute> routes = new ArrayList<VehicleRoute>(Arrays.asList(route1,route2));
+		JobRouteIndex index = JobRouteIndex.newInstance(routes);
+		index.removeJob(s2);
+		route1.getTourActivities().addActivity(ServiceActivity.newInstance(s3));
+		index.addJob(s3, route1);
+		
+		List<VehicleRoute> copiedRoutes = new ArrayList<VehicleRoute>();
+		for(VehicleRoute r : routes) copiedRoutes.add(VehicleRoute.lazyCopyOf(r));
+		JobRouteIndex copy = JobRouteIndex.copyOf(index, copiedRoutes);
+		assertTrue(copiedRoutes.get(0) == copy.getRoute(s1));
+		assertTrue(copiedRoutes.get(0) == copy.getRoute(s3));
+		assertNull(copy.getRoute(s2));
+		
+		assertTrue(copiedRoutes.get(0) == copy.removeJob(s1));
+		assertTrue(route1 == index.getRoute(s1));
+		assertTrue(route1.getTourActivities().servesJob(s1));
+	}
+	
+	@Test
+	public void whenRoutesOfCopyHaveBeenRemoved_jobsShouldStillBeFound(){
+		List<VehicleRoute> routes = new ArrayList<VehicleRoute>(Arrays.asList(route1,route2));
+		JobRouteIndex index = JobRouteIndex.newInstance(routes);
+		assertTrue(route2 == index.getRoute(s2));
+		List<VehicleRoute> copiedRoutes = new ArrayList<VehicleRoute>();
+		for(VehicleRoute r : routes) copiedRoutes.add(VehicleRoute.copyOf(r));
+		JobRouteIndex copy = JobRouteIndex.copyOf(index, copiedRoutes);
+		VehicleRoute copiedRoute2 = copiedRoutes.get(1);
+		copiedRoutes.remove(0);
+		assertTrue(copiedRoute2 == copy.getRoute(s2));
+		assertNull(copy.getRoute(s1));
+	}
+
+}
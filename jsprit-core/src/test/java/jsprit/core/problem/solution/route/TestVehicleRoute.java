@@ -290,4 +290,27 @@ public class TestVehicleRoute {
 		vRoute.setVehicleAndDepartureTime(new_vehicle, 1500.0);
 		assertEquals(1500.0,vRoute.getDepartureTime(),0.01);
 	}
+	@Test
+	public void whenCopyingRouteLazily_startAndEndShouldBeCopiedButActivitiesShared(){
+		Service service = Service.Builder.newInstance("s").setLocationId("loc").build();
+		VehicleRoute route = VehicleRoute.Builder.newInstance(vehicle, driver).addService(service).build();
+		VehicleRoute copy = VehicleRoute.lazyCopyOf(route);
+		assertTrue(route.getStart() != copy.getStart());
+		assertTrue(route.getEnd() != copy.getEnd());
+		assertTrue(route.getActivities().get(0) == copy.getActivities().get(0));
+	}
+	
+	@Test
+	public void whenSettingVehicleOfLazyCopy_activitiesShouldBeCopied(){
+		Service service = Service.Builder.newInstance("s").setLocationId("loc").build();
+		VehicleRoute route = VehicleRoute.Builder.newInstance(vehicle, driver).addService(service).build();
+		VehicleRoute copy = VehicleRoute.lazyCopyOf(route);
+		Vehicle newVehicle = VehicleImpl.Builder.newInstance("new").setStartLocationId("newLoc").setType(VehicleTypeImpl.Builder.newInstance("yo").build()).build();
+		copy.setVehicleAndDepartureTime(newVehicle, 10.0);
+		assertTrue(route.getActivities().get(0) != copy.getActivities().get(0));
+		assertEquals("loc", route.getStart().getLocationId());
+		assertEquals(0.0, route.getDepartureTime(), 0.01);
+		assertEquals("newLoc", copy.getStart().getLocationId());
+	}
+	
 }
@@ -122,4 +122,121 @@ public class TestTour {
 		assertEquals(0, tour.getActivities().size());
 	}
 	
+	@Test
+	public void whenCopyingLazily_activitiesShouldBeSharedUntilModification(){
+		tour.addActivity(act);
+		TourActivities copy = TourActivities.lazyCopyOf(tour);
+		assertTrue(copy.isShared());
+		assertTrue(tour.isShared());
+		assertTrue(act == copy.getActivities().get(0));
+		assertTrue(copy.servesJob(service));
+	}
+	
+	@Test
+	public void whenModifyingLazyCopy_originalShouldNotChange(){
+		tour.addActivity(act);
+		TourActivities copy = TourActivities.lazyCopyOf(tour);
+		Service anotherService = Service.Builder.newInstance("another").setLocationId("loc").build();
+		copy.addActivity(ServiceActivity.newInstance(anotherService));
+		assertFalse(copy.isShared());
+		assertEquals(2, copy.getActivities().size());
+		assertTrue(act != copy.getActivities().get(0));
+		assertEquals(1, tour.getActivities().size());
+		assertFalse(tour.servesJob(anotherService));
+		assertTrue(act == tour.getActivities().get(0));
+	}
+	
+	@Test
+	public void whenRemovingJobFromOriginal_lazyCopyShouldNotChange(){
+		tour.addActivity(act);
+		TourActivities copy = TourActivities.lazyCopyOf(tour);
+		assertTrue(tour.removeJob(service));
+		assertEquals(0, tour.getActivities().size());
+		assertEquals(1, copy.getActivities().size());
+		assertTrue(copy.servesJob(service));
+		assertFalse(tour.isShared());
+		assertTrue(copy.isShared());
+	}
+	
+	@Test
+	public void whenOneOfThreeToursSharingActivitiesIsModified_theOthersShouldStillBeShared(){
+		tour.addActivity(act);
+		TourActivities copy = TourActivities.lazyCopyOf(tour);
+		TourActivities copyOfCopy = TourActivities.lazyCopyOf(copy);
+		assertTrue(tour.removeJob(service));
+		assertFalse(tour.isShared());
+		assertTrue(copy.isShared());
+		assertTrue(copyOfCopy.isShared());
+		copyOfCopy.addActivity(ServiceActivity.newInstance(Service.Builder.newInstance("another").setLocationId("loc").build()));
+		assertTrue(copy.isShared());
+		assertTrue(act == copy.getActivities().get(0));
+	}
+	
+	@Test
+	public void whenCopiesAreModifiedInReverseOrder_originalShouldOwnActivitiesAgain(){
+		tour.addActivity(act);
+		TourActivities copy = TourActivities.lazyCopyOf(tour);
+		TourActivities copyOfCopy = TourActivities.lazyCopyOf(copy);
+		copyOfCopy.addActivity(ServiceActivity.newInstance(Service.Builder.newInstance("another").setLocationId("loc").build()));
+		assertTrue(tour.isShared());
+		assertTrue(copy.isShared());
+		assertTrue(copy.removeJob(service));
+		assertFalse(tour.isShared());
+		assertTrue(act == tour.getActivities().get(0));
+		assertTrue(tour.removeJob(service));
+		assertEquals(0, tour.getActivities().size());
+		assertEquals(2, copyOfCopy.getActivities().size());
+	}
+	
+	@Test
+	public void whenLazyCopyIsDropped_originalShouldDuplicateActivitiesOnce(){
+		tour.addActivity(act);
+		TourActivities.lazyCopyOf(tour);
+		assertTrue(tour.isShared());
+		assertTrue(tour.removeJob(service));
+		assertFalse(tour.isShared());
+		tour.addActivity(act);
+		assertTrue(act == tour.getActivities().get(0));
+		assertFalse(tour.isShared());
+	}
+	
+	@Test
+	public void whenRemovingJobThatIsNotServed_lazyCopyShouldStillBeShared(){
+		tour.addActivity(act);
+		TourActivities copy = TourActivities.lazyCopyOf(tour);
+		assertFalse(copy.removeJob(Service.Builder.newInstance("another").setLocationId("loc").build()));
+		assertTrue(copy.isShared());
+	}
+	
+	@Test
+	public void whenRemovingShipment_otherActivitiesShouldKeepTheirOrder(){
+		Shipment s = Shipment.Builder.newInstance("s").addSizeDimension(0, 1).setDeliveryLocation("delLoc").setPickupLocation("pickLoc").build();
+		TourShipmentActivityFactory fac = new DefaultShipmentActivityFactory();
+		TourActivity pickupShipment = fac.createPickup(s);
+		TourActivity deliverShipment = fac.createDelivery(s);
+		Service anotherService = Service.Builder.newInstance("another").setLocationId("loc").build();
+		ServiceActivity anotherAct = ServiceActivity.newInstance(anotherService);
+		tour.addActivity(pickupShipment);
+		tour.addActivity(act);
+		tour.addActivity(deliverShipment);
+		tour.addActivity(anotherAct);
+		assertTrue(tour.removeJob(s));
+		assertEquals(2, tour.getActivities().size());
+		assertTrue(act == tour.getActivities().get(0));
+		assertTrue(anotherAct == tour.getActivities().get(1));
+		assertEquals(1, tour.indexOf(anotherAct));
+	}
+	
+	@Test
+	public void whenInsertingActivities_indexOfShouldReturnCurrentPositions(){
+		Service anotherService = Service.Builder.newInstance("another").setLocationId("loc").build();
+		ServiceActivity anotherAct = ServiceActivity.newInstance(anotherService);
+		tour.addActivity(act);
+		assertEquals(0, tour.indexOf(act));
+		tour.addActivity(0, anotherAct);
+		assertEquals(0, tour.indexOf(anotherAct));
+		assertEquals(1, tour.indexOf(act));
+		assertEquals(-1, tour.indexOf(ServiceActivity.newInstance(service)));
+	}
+	
 }
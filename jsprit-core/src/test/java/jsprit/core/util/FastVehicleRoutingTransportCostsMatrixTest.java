@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright (C) 2013  Stefan Schroeder
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jsprit.core.util;
+
+import static org.junit.Assert.assertEquals;
+import jsprit.core.problem.vehicle.Vehicle;
+import jsprit.core.problem.vehicle.VehicleImpl;
+import jsprit.core.problem.vehicle.VehicleTypeImpl;
+
+import org.junit.Test;
+
+public class FastVehicleRoutingTransportCostsMatrixTest {
+
+	@Test
+	public void whenAddingDistanceToSymmetricMatrix_itShouldReturnCorrectValues(){
+		FastVehicleRoutingTransportCostsMatrix.Builder matrixBuilder = FastVehicleRoutingTransportCostsMatrix.Builder.newInstance(true);
+		matrixBuilder.addTransportDistance("1", "2", 2.);
+		FastVehicleRoutingTransportCostsMatrix matrix = matrixBuilder.build();
+		assertEquals(2.,matrix.getTransportCost("1", "2", 0.0, null, null),0.1);
+		assertEquals(2.,matrix.getTransportCost("2", "1", 0.0, null, null),0.1);
+		assertEquals(0.,matrix.getTransportCost("1", "1", 0.0, null, null),0.1);
+	}
+
+	@Test
+	public void whenAddingDistanceToAsymmetricMatrix_itShouldReturnCorrectValues(){
+		FastVehicleRoutingTransportCostsMatrix.Builder matrixBuilder = FastVehicleRoutingTransportCostsMatrix.Builder.newInstance(false);
+		matrixBuilder.addTransportDistance("from", "to", 2.);
+		matrixBuilder.addTransportDistance("to", "from", 4.);
+		FastVehicleRoutingTransportCostsMatrix matrix = matrixBuilder.build();
+		assertEquals(2.,matrix.getTransportCost("from", "to", 0.0, null, null),0.1);
+		assertEquals(4.,matrix.getTransportCost("to", "from", 0.0, null, null),0.1);
+	}
+
+	@Test
+	public void whenAddingTimes_itShouldReturnCorrectValuesViaIndices(){
+		FastVehicleRoutingTransportCostsMatrix.Builder matrixBuilder = FastVehicleRoutingTransportCostsMatrix.Builder.newInstance(false);
+		matrixBuilder.addTransportTime("a", "b", 5.);
+		matrixBuilder.addTransportTime("b", "a", 6.);
+		FastVehicleRoutingTransportCostsMatrix matrix = matrixBuilder.build();
+		assertEquals(2,matrix.getNuOfLocations());
+		int a = matrix.getIndex("a");
+		int b = matrix.getIndex("b");
+		assertEquals(5.,matrix.getTime(a, b),0.1);
+		assertEquals(6.,matrix.getTime(b, a),0.1);
+		assertEquals(5.,matrix.getTransportTime("a", "b", 0.0, null, null),0.1);
+	}
+
+	@Test(expected=IllegalStateException.class)
+	public void whenRelationIsMissingInAsymmetricMatrix_itShouldThrowException(){
+		FastVehicleRoutingTransportCostsMatrix.Builder matrixBuilder = FastVehicleRoutingTransportCostsMatrix.Builder.newInstance(false);
+		matrixBuilder.addTransportDistance("1", "2", 2.);
+		FastVehicleRoutingTransportCostsMatrix matrix = matrixBuilder.build();
+		matrix.getTransportCost("2", "1", 0.0, null, null);
+	}
+
+	@Test(expected=IllegalStateException.class)
+	public void whenLocationIsUnknown_itShouldThrowException(){
+		FastVehicleRoutingTransportCostsMatrix.Builder matrixBuilder = FastVehicleRoutingTransportCostsMatrix.Builder.newInstance(true);
+		matrixBuilder.addTransportDistance("1", "2", 2.);
+		FastVehicleRoutingTransportCostsMatrix matrix = matrixBuilder.build();
+		matrix.getTransportCost("1", "3", 0.0, null, null);
+	}
+
+	@Test
+	public void whenVehicleIsGiven_costsAreCalculatedFromDistanceAndTime(){
+		FastVehicleRoutingTransportCostsMatrix.Builder matrixBuilder = FastVehicleRoutingTransportCostsMatrix.Builder.newInstance(true);
+		matrixBuilder.addTransportDistance("1", "2", 20.);
+		matrixBuilder.addTransportTime("1", "2", 10.);
+		FastVehicleRoutingTransportCostsMatrix matrix = matrixBuilder.build();
+		VehicleTypeImpl type = VehicleTypeImpl.Builder.newInstance("t").setCostPerDistance(2.).setCostPerTime(1.).build();
+		Vehicle vehicle = VehicleImpl.Builder.newInstance("v").setStartLocationId("1").setType(type).build();
+		assertEquals(50.,matrix.getTransportCost("1", "2", 0.0, null, vehicle),0.1);
+	}
+
+}
@@ -0,0 +1,93 @@
+package jsprit.core.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import jsprit.core.problem.VehicleRoutingProblem;
+import jsprit.core.problem.job.Service;
+import jsprit.core.problem.job.Shipment;
+import jsprit.core.problem.vehicle.VehicleImpl;
+import jsprit.core.problem.vehicle.VehicleTypeImpl;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class GranularNeighborhoodTest {
+	
+	private VehicleRoutingProblem vrp;
+	
+	@Before
+	public void doBefore(){
+		VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.newInstance();
+		vrpBuilder.setRoutingCost(CostFactory.createManhattanCosts());
+		vrpBuilder.addVehicle(VehicleImpl.Builder.newInstance("v").setStartLocationId("100,100").setType(VehicleTypeImpl.Builder.newInstance("t").build()).build());
+		vrpBuilder.addJob(Service.Builder.newInstance("s1").setLocationId("1,0").build());
+		vrpBuilder.addJob(Service.Builder.newInstance("s2").setLocationId("2,0").build());
+		vrpBuilder.addJob(Service.Builder.newInstance("s3").setLocationId("4,0").build());
+		vrpBuilder.addJob(Shipment.Builder.newInstance("sh").setPickupLocation("10,0").setDeliveryLocation("11,0").build());
+		vrp = vrpBuilder.build();
+	}
+	
+	@Test
+	public void whenHavingOneNeighbor_onlyNearestLocationsShouldBeNeighbors(){
+		GranularNeighborhood neighborhood = GranularNeighborhood.Builder.newInstance(vrp).setNuOfNeighbors(1).build();
+		assertTrue(neighborhood.areNeighbors("1,0", "2,0"));
+		assertTrue(neighborhood.areNeighbors("2,0", "4,0"));
+		assertFalse(neighborhood.areNeighbors("1,0", "4,0"));
+		assertFalse(neighborhood.areNeighbors("4,0", "10,0"));
+	}
+	
+	@Test
+	public void shipmentLocationsShouldBeConsidered(){
+		GranularNeighborhood neighborhood = GranularNeighborhood.Builder.newInstance(vrp).setNuOfNeighbors(1).build();
+		assertTrue(neighborhood.areNeighbors("10,0", "11,0"));
+		assertFalse(neighborhood.areNeighbors("11,0", "2,0"));
+	}
+	
+	@Test
+	public void vehicleLocationsAndUnknownLocationsShouldBeNeighborsToAll(){
+		GranularNeighborhood neighborhood = GranularNeighborhood.Builder.newInstance(vrp).setNuOfNeighbors(1).build();
+		assertTrue(neighborhood.areNeighbors("100,100", "11,0"));
+		assertTrue(neighborhood.areNeighbors("1,0", "100,100"));
+		assertTrue(neighborhood.areNeighbors("1,0", "50,50"));
+	}
+	
+	@Test
+	public void whenHavingMoreNeighborsThanLocations_allLocationsShouldBeNeighbors(){
+		GranularNeighborhood neighborhood = GranularNeighborhood.Builder.newInstance(vrp).setNuOfNeighbors(10).build();
+		assertTrue(neighborhood.areNeighbors("1,0", "11,0"));
+		assertTrue(neighborhood.areNeighbors("4,0", "10,0"));
+	}
+	
+	@Test
+	public void whenUsingSpatialIndex_neighborsShouldBeSameAsWithTransportCosts(){
+		VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.newInstance();
+		vrpBuilder.setRoutingCost(CostFactory.createManhattanCosts());
+		vrpBuilder.addVehicle(VehicleImpl.Builder.newInstance("v").setStartLocationId("100,100").setStartLocationCoordinate(Coordinate.newInstance(100, 100)).setType(VehicleTypeImpl.Builder.newInstance("t").build()).build());
+		vrpBuilder.addJob(Service.Builder.newInstance("s1").setLocationId("1,0").setCoord(Coordinate.newInstance(1, 0)).build());
+		vrpBuilder.addJob(Service.Builder.newInstance("s2").setLocationId("2,0").setCoord(Coordinate.newInstance(2, 0)).build());
+		vrpBuilder.addJob(Service.Builder.newInstance("s3").setLocationId("4,0").setCoord(Coordinate.newInstance(4, 0)).build());
+		vrpBuilder.addJob(Shipment.Builder.newInstance("sh").setPickupLocation("10,0").setPickupCoord(Coordinate.newInstance(10, 0))
+				.setDeliveryLocation("11,0").setDeliveryCoord(Coordinate.newInstance(11, 0)).build());
+		VehicleRoutingProblem vrp = vrpBuilder.build();
+		GranularNeighborhood byCosts = GranularNeighborhood.Builder.newInstance(vrp).setNuOfNeighbors(1).build();
+		GranularNeighborhood byCoordinates = GranularNeighborhood.Builder.newInstance(vrp).setNuOfNeighbors(1).setMetric(SpatialIndex.Metric.MANHATTAN).build();
+		String[] locations = new String[]{ "1,0", "2,0", "4,0", "10,0", "11,0", "100,100" };
+		for(String l1 : locations){
+			for(String l2 : locations){
+				assertEquals(byCosts.areNeighbors(l1, l2),byCoordinates.areNeighbors(l1, l2));
+			}
+		}
+	}
+	
+	@Test(expected=IllegalStateException.class)
+	public void whenUsingSpatialIndexWithoutCoordinates_itShouldThrowException(){
+		GranularNeighborhood.Builder.newInstance(vrp).setMetric(SpatialIndex.Metric.EUCLIDEAN).build();
+	}
+	
+	@Test(expected=IllegalStateException.class)
+	public void whenSettingZeroNeighbors_itShouldThrowException(){
+		GranularNeighborhood.Builder.newInstance(vrp).setNuOfNeighbors(0);
+	}
+
+}
@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (C) 2013  Stefan Schroeder
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jsprit.core.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class MappedVehicleRoutingTransportCostsMatrixTest {
+
+	private File writeMatrix(boolean symmetric) throws IOException{
+		File file = File.createTempFile("matrix", ".bin");
+		file.deleteOnExit();
+		MappedVehicleRoutingTransportCostsMatrix.Writer writer = MappedVehicleRoutingTransportCostsMatrix.Writer.newInstance(file, Arrays.asList("a","b","c"), true, true);
+		writer.setSymmetric(symmetric);
+		writer.addTransportDistance("a", "b", 2.).addTransportDistance("b", "a", 3.).addTransportDistance("a", "c", 4.);
+		writer.addTransportTime("a", "b", 20.).addTransportTime("b", "a", 30.).addTransportTime("a", "c", 40.);
+		writer.close();
+		return file;
+	}
+
+	@Test
+	public void whenReadingAsymmetricMatrix_itShouldReturnCorrectValues() throws IOException{
+		MappedVehicleRoutingTransportCostsMatrix matrix = MappedVehicleRoutingTransportCostsMatrix.newInstance(writeMatrix(false));
+		assertEquals(3,matrix.getLocationIds().size());
+		assertEquals(2.,matrix.getTransportCost("a", "b", 0.0, null, null),0.1);
+		assertEquals(3.,matrix.getTransportCost("b", "a", 0.0, null, null),0.1);
+		assertEquals(30.,matrix.getTransportTime("b", "a", 0.0, null, null),0.1);
+		assertEquals(0.,matrix.getTransportTime("c", "c", 0.0, null, null),0.1);
+	}
+
+	@Test
+	public void whenWritingSymmetricMatrix_oppositeRelationShouldBeSet() throws IOException{
+		MappedVehicleRoutingTransportCostsMatrix matrix = MappedVehicleRoutingTransportCostsMatrix.newInstance(writeMatrix(true));
+		assertEquals(4.,matrix.getTransportCost("c", "a", 0.0, null, null),0.1);
+		assertEquals(40.,matrix.getTime(matrix.getIndex("c"), matrix.getIndex("a")),0.1);
+	}
+
+	@Test(expected=IllegalStateException.class)
+	public void whenRelationIsMissing_itShouldThrowException() throws IOException{
+		MappedVehicleRoutingTransportCostsMatrix matrix = MappedVehicleRoutingTransportCostsMatrix.newInstance(writeMatrix(false));
+		matrix.getTransportCost("c", "a", 0.0, null, null);
+	}
+
+	@Test(expected=IllegalStateException.class)
+	public void whenFileIsNoMatrixFile_itShouldThrowException() throws IOException{
+		File file = File.createTempFile("noMatrix", ".bin");
+		file.deleteOnExit();
+		MappedVehicleRoutingTransportCostsMatrix.newInstance(file);
+	}
+
+	@Test(expected=IllegalStateException.class)
+	public void whenFileIsTruncated_itShouldThrowExceptionWhenOpening() throws IOException{
+		File file = writeMatrix(false);
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+		try{
+			randomAccessFile.setLength(randomAccessFile.length() - 8);
+		}
+		finally{
+			randomAccessFile.close();
+		}
+		MappedVehicleRoutingTransportCostsMatrix.newInstance(file);
+	}
+
+	@Test
+	public void whenWritingLargerMatrix_diagonalShouldBeZeroAndOtherRelationsMissing() throws IOException{
+		List<String> locationIds = new ArrayList<String>();
+		for(int i=0;i<300;i++) locationIds.add("loc" + i);
+		File file = File.createTempFile("matrix", ".bin");
+		file.deleteOnExit();
+		MappedVehicleRoutingTransportCostsMatrix.Writer writer = MappedVehicleRoutingTransportCostsMatrix.Writer.newInstance(file, locationIds, true, false);
+		writer.addTransportDistance("loc299", "loc0", 5.);
+		writer.close();
+		MappedVehicleRoutingTransportCostsMatrix matrix = MappedVehicleRoutingTransportCostsMatrix.newInstance(file);
+		for(int i=0;i<300;i++) assertEquals(0.,matrix.getDistance(i, i),0.01);
+		assertEquals(5.,matrix.getDistance(299, 0),0.01);
+		try{
+			matrix.getDistance(0, 299);
+			fail("relation has not been written");
+		}
+		catch(IllegalStateException e){
+			assertTrue(e.getMessage().contains("does not exist"));
+		}
+	}
+
+}
@@ -0,0 +1,110 @@
+package jsprit.core.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+public class RandomStreamTest {
+	
+	@Test
+	public void whenSeedsAreEqual_streamsShouldProduceSameNumbers(){
+		RandomStream stream1 = new RandomStream(42);
+		RandomStream stream2 = new RandomStream(42);
+		for(int i=0;i<100;i++){
+			assertEquals(stream1.nextLong(), stream2.nextLong());
+			assertEquals(stream1.nextInt(17), stream2.nextInt(17));
+		}
+	}
+	
+	@Test
+	public void whenSettingSeed_streamShouldStartAgain(){
+		RandomStream stream = new RandomStream(42);
+		long first = stream.nextLong();
+		stream.nextLong();
+		stream.setSeed(42);
+		assertEquals(first, stream.nextLong());
+	}
+	
+	@Test
+	public void whenSplitting_splitsOfEqualStreamsShouldBeEqual(){
+		RandomStream split1 = new RandomStream(42).split();
+		RandomStream split2 = new RandomStream(42).split();
+		for(int i=0;i<100;i++){
+			assertEquals(split1.nextDouble(), split2.nextDouble(), 0.0);
+		}
+	}
+	
+	@Test
+	public void whenSplitting_splitShouldDifferFromParentAndFromNextSplit(){
+		RandomStream stream = new RandomStream(42);
+		RandomStream split1 = stream.split();
+		RandomStream split2 = stream.split();
+		long value = split1.nextLong();
+		assertFalse(value == split2.nextLong());
+		assertFalse(value == stream.nextLong());
+	}
+	
+	@Test
+	public void numbersShouldBeInRange(){
+		RandomStream stream = new RandomStream(42);
+		for(int i=0;i<1000;i++){
+			double d = stream.nextDouble();
+			assertTrue(d >= 0.0 && d < 1.0);
+			int n = stream.nextInt(7);
+			assertTrue(n >= 0 && n < 7);
+		}
+	}
+	
+	@Test
+	public void whenSeedIsSet_newRandomsShouldBeReproducible(){
+		RandomNumberGeneration.setSeed(42);
+		Random r1 = RandomNumberGeneration.newRandom();
+		Random r2 = RandomNumberGeneration.newRandom();
+		long v1 = r1.nextLong();
+		long v2 = r2.nextLong();
+		assertFalse(v1 == v2);
+		
+		RandomNumberGeneration.setSeed(42);
+		assertEquals(v1, RandomNumberGeneration.newRandom().nextLong());
+		assertEquals(v2, RandomNumberGeneration.newRandom().nextLong());
+		RandomNumberGeneration.reset();
+	}
+	
+	@Test
+	public void whenSameStreamIsAssignedToWorkerThreads_theirRandomsShouldBeEqual() throws InterruptedException{
+		long first = nextLongOfNewRandomInWorker(new RandomStream(42).split());
+		RandomNumberGeneration.newRandom().nextLong();
+		long second = nextLongOfNewRandomInWorker(new RandomStream(42).split());
+		assertEquals(first, second);
+	}
+
+	@Test
+	public void whenThreadsUseTheirStreamsFirst_theyShouldGetDistinctStreams() throws InterruptedException{
+		long first = nextLongOfNewRandomInWorker(null);
+		long second = nextLongOfNewRandomInWorker(null);
+		assertFalse(first == second);
+		assertFalse(first == RandomNumberGeneration.newRandom().nextLong());
+	}
+
+	private long nextLongOfNewRandomInWorker(final RandomStream stream) throws InterruptedException {
+		final AtomicLong value = new AtomicLong();
+		Thread worker = new Thread(new Runnable() {
+			
+			@Override
+			public void run() {
+				if(stream != null) RandomNumberGeneration.setRandomStream(stream);
+				value.set(RandomNumberGeneration.newRandom().nextLong());
+			}
+			
+		});
+		worker.start();
+		worker.join();
+		return value.get();
+	}
+
+}
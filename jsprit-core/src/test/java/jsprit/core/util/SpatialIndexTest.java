@@ -0,0 +1,110 @@
+package jsprit.core.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class SpatialIndexTest {
+	
+	private List<Coordinate> createCoordinates(int n){
+		Random random = new Random(4711);
+		List<Coordinate> coordinates = new ArrayList<Coordinate>();
+		for(int i=0;i<n;i++){
+			//integer coordinates to have many ties
+			coordinates.add(Coordinate.newInstance(random.nextInt(20), random.nextInt(20)));
+		}
+		return coordinates;
+	}
+	
+	private SpatialIndex<Integer> createIndex(List<Coordinate> coordinates, SpatialIndex.Metric metric){
+		SpatialIndex.Builder<Integer> builder = SpatialIndex.Builder.newInstance();
+		for(int i=0;i<coordinates.size();i++){
+			builder.addPoint(coordinates.get(i), i);
+		}
+		return builder.setMetric(metric).build();
+	}
+	
+	private double distance(Coordinate c1, Coordinate c2, SpatialIndex.Metric metric){
+		if(metric == SpatialIndex.Metric.EUCLIDEAN) return EuclideanDistanceCalculator.calculateDistance(c1, c2);
+		return ManhattanDistanceCalculator.calculateDistance(c1, c2);
+	}
+	
+	private List<Integer> bruteForceNearest(final List<Coordinate> coordinates, final Coordinate coord, int k, final SpatialIndex.Metric metric){
+		List<Integer> all = new ArrayList<Integer>();
+		for(int i=0;i<coordinates.size();i++) all.add(i);
+		Collections.sort(all, new Comparator<Integer>() {
+
+			@Override
+			public int compare(Integer o1, Integer o2) {
+				int c = Double.compare(distance(coordinates.get(o1), coord, metric), distance(coordinates.get(o2), coord, metric));
+				if(c != 0) return c;
+				return o1.compareTo(o2);
+			}
+			
+		});
+		return all.subList(0, Math.min(k, all.size()));
+	}
+	
+	@Test
+	public void whenQueryingNearestWithEuclideanMetric_itShouldReturnSameAsBruteForce(){
+		List<Coordinate> coordinates = createCoordinates(300);
+		SpatialIndex<Integer> index = createIndex(coordinates, SpatialIndex.Metric.EUCLIDEAN);
+		for(Coordinate c : coordinates.subList(0, 50)){
+			assertEquals(bruteForceNearest(coordinates, c, 7, SpatialIndex.Metric.EUCLIDEAN),index.getNearest(c, 7));
+		}
+		Coordinate outside = Coordinate.newInstance(-100, 55);
+		assertEquals(bruteForceNearest(coordinates, outside, 12, SpatialIndex.Metric.EUCLIDEAN),index.getNearest(outside, 12));
+	}
+	
+	@Test
+	public void whenQueryingNearestWithManhattanMetric_itShouldReturnSameAsBruteForce(){
+		List<Coordinate> coordinates = createCoordinates(300);
+		SpatialIndex<Integer> index = createIndex(coordinates, SpatialIndex.Metric.MANHATTAN);
+		for(Coordinate c : coordinates.subList(0, 50)){
+			assertEquals(bruteForceNearest(coordinates, c, 7, SpatialIndex.Metric.MANHATTAN),index.getNearest(c, 7));
+		}
+	}
+	
+	@Test
+	public void whenQueryingMoreThanSize_itShouldReturnAllItems(){
+		List<Coordinate> coordinates = createCoordinates(5);
+		SpatialIndex<Integer> index = createIndex(coordinates, SpatialIndex.Metric.EUCLIDEAN);
+		assertEquals(5,index.getNearest(Coordinate.newInstance(0, 0), 10).size());
+		assertTrue(index.getNearest(Coordinate.newInstance(0, 0), 0).isEmpty());
+	}
+	
+	@Test
+	public void whenQueryingRadius_itShouldReturnAllItemsWithinRadius(){
+		List<Coordinate> coordinates = createCoordinates(300);
+		for(SpatialIndex.Metric metric : SpatialIndex.Metric.values()){
+			SpatialIndex<Integer> index = createIndex(coordinates, metric);
+			for(Coordinate c : coordinates.subList(0, 50)){
+				List<Integer> expected = new ArrayList<Integer>();
+				for(int i=0;i<coordinates.size();i++){
+					if(distance(coordinates.get(i), c, metric) <= 3.0) expected.add(i);
+				}
+				assertEquals(expected,index.getWithinRadius(c, 3.0));
+			}
+		}
+	}
+	
+	@Test
+	public void whenIndexIsEmpty_queriesShouldReturnEmptyLists(){
+		SpatialIndex<String> index = SpatialIndex.Builder.<String>newInstance().build();
+		assertTrue(index.getNearest(Coordinate.newInstance(0, 0), 3).isEmpty());
+		assertTrue(index.getWithinRadius(Coordinate.newInstance(0, 0), 3.).isEmpty());
+	}
+	
+	@Test(expected=IllegalStateException.class)
+	public void whenCoordinateIsMissing_itShouldThrowException(){
+		SpatialIndex.Builder.<String>newInstance().addPoint(null, "a");
+	}
+
+}